@@ -0,0 +1,169 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.ibm.g11n.pipeline.client.TranslationStatus;
+import com.ibm.g11n.pipeline.client.impl.ResourceEntryDataImpl.RestResourceEntry;
+import com.ibm.g11n.pipeline.client.impl.ServiceClientImpl.EnumWithFallbackAdapter;
+import com.ibm.g11n.pipeline.client.json.JsonCodec;
+import com.ibm.g11n.pipeline.client.json.JsonCodecs;
+
+/**
+ * Compares {@link JsonCodec} implementations on bundle payloads: decoding a
+ * resource entries response, and encoding a resource strings upload.
+ * <p>
+ * The <code>codec</code> parameter is <code>gson</code> for the built-in codec,
+ * <code>reflective</code> for plain reflective Gson data binding, or the class
+ * name of another implementation on the class path, for example
+ * <code>-Djmh.args="JsonCodecBenchmark -p codec=gson,com.example.MyJsonCodec"</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    static class ResourceEntriesResponse {
+        String status;
+        Map<String, RestResourceEntry> resourceEntries;
+    }
+
+    private static final Type RESOURCE_STRINGS_TYPE = new TypeToken<Map<String, String>>() {}.getType();
+
+    private static final String[] SAMPLE_VALUES = {
+        "Your order has been shipped and will arrive within {0} business days.",
+        "Ihre Bestellung wurde versandt und trifft in {0} Werktagen ein.",
+        "ご注文の商品は発送済みです。",
+        "Click <b>Save</b> to keep your changes, or \"Cancel\" to discard them.",
+    };
+
+    @Param({"gson", "reflective"})
+    public String codec;
+
+    @Param({"1000", "10000"})
+    public int entries;
+
+    private JsonCodec jsonCodec;
+    private byte[] entriesPayload;
+    private Map<String, String> resourceStrings;
+
+    @Setup
+    public void setup() throws Exception {
+        if ("gson".equals(codec)) {
+            jsonCodec = JsonCodecs.getGsonCodec();
+        } else if ("reflective".equals(codec)) {
+            jsonCodec = new ReflectiveGsonCodec();
+        } else {
+            jsonCodec = (JsonCodec) Class.forName(codec).newInstance();
+        }
+
+        StringBuilder buf = new StringBuilder();
+        resourceStrings = new LinkedHashMap<>();
+        buf.append("{\"status\":\"SUCCESS\",\"resourceEntries\":{");
+        for (int i = 0; i < entries; i++) {
+            String key = "com.example.app.messages.key" + i;
+            String value = SAMPLE_VALUES[i % SAMPLE_VALUES.length];
+            resourceStrings.put(key, value);
+            if (i > 0) {
+                buf.append(',');
+            }
+            buf.append('"').append(key).append("\":{")
+                .append("\"value\":").append(quote(value)).append(',')
+                .append("\"sourceValue\":").append(quote(SAMPLE_VALUES[0])).append(',')
+                .append("\"reviewed\":").append(i % 3 == 0).append(',')
+                .append("\"translationStatus\":\"TRANSLATED\",")
+                .append("\"notes\":[\"Shown in the order confirmation page\"],")
+                .append("\"metadata\":{\"component\":\"checkout\"},")
+                .append("\"sequenceNumber\":").append(i).append(',')
+                .append("\"updatedBy\":\"translator1\",")
+                .append("\"updatedAt\":\"2019-03-04T05:06:07.089Z\"}");
+        }
+        buf.append("}}");
+        entriesPayload = buf.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String quote(String s) {
+        return new Gson().toJson(s);
+    }
+
+    @Benchmark
+    public ResourceEntriesResponse decodeResourceEntries() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new ByteArrayInputStream(entriesPayload), StandardCharsets.UTF_8)) {
+            return jsonCodec.fromJson(reader, ResourceEntriesResponse.class);
+        }
+    }
+
+    @Benchmark
+    public int encodeResourceStrings() throws IOException {
+        StringWriter writer = new StringWriter(entries * 128);
+        jsonCodec.toJson(resourceStrings, RESOURCE_STRINGS_TYPE, writer);
+        return writer.getBuffer().length();
+    }
+
+    /**
+     * Gson data binding by reflection only, configured like the built-in codec
+     * without its streaming type adapters.
+     */
+    static class ReflectiveGsonCodec implements JsonCodec {
+        private final Gson gson = new GsonBuilder()
+                .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX")
+                .registerTypeAdapter(TranslationStatus.class,
+                        new EnumWithFallbackAdapter<TranslationStatus>(TranslationStatus.UNKNOWN))
+                .registerTypeAdapterFactory(new ServiceClientImpl.NullMapValueTypeAdapterFactory())
+                .create();
+
+        @Override
+        public <T> T fromJson(Reader reader, Type type) throws IOException {
+            return gson.fromJson(new JsonReader(reader), type);
+        }
+
+        @Override
+        public void toJson(Object value, Type type, Writer writer) throws IOException {
+            gson.toJson(value, type, writer);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.ibm.g11n.pipeline.client.TranslationStatus;
+import com.ibm.g11n.pipeline.client.impl.ResourceEntryDataImpl.RestResourceEntry;
+import com.ibm.g11n.pipeline.client.impl.ServiceClientImpl.EnumWithFallbackAdapter;
+
+/**
+ * Benchmarks for decoding a resource entries response. <code>legacyDecode</code>
+ * creates a reflective Gson object for every response, as the implementation
+ * used before {@link GsonCodec}; <code>reflectiveDecode</code> reuses one reflective
+ * Gson object, and <code>codecDecode</code> uses the shared codec with streaming
+ * type adapters. Compare <code>gc.alloc.rate.norm</code> as well as the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonDecodeBenchmark {
+
+    static class ResourceEntriesResponse {
+        String status;
+        Map<String, RestResourceEntry> resourceEntries;
+    }
+
+    @Param({"10000"})
+    public int entries;
+
+    private byte[] payload;
+    private Gson reflectiveGson;
+
+    @Setup
+    public void setup() {
+        StringBuilder buf = new StringBuilder();
+        buf.append("{\"status\":\"SUCCESS\",\"resourceEntries\":{");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                buf.append(',');
+            }
+            buf.append("\"key").append(i).append("\":{")
+                .append("\"value\":\"Translated value ").append(i).append("\",")
+                .append("\"sourceValue\":\"Source value ").append(i).append("\",")
+                .append("\"reviewed\":").append(i % 2 == 0).append(',')
+                .append("\"translationStatus\":\"TRANSLATED\",")
+                .append("\"sequenceNumber\":").append(i).append(',')
+                .append("\"updatedBy\":\"user1\",")
+                .append("\"updatedAt\":\"2019-03-04T05:06:07.089Z\"}");
+        }
+        buf.append("}}");
+        payload = buf.toString().getBytes(StandardCharsets.UTF_8);
+        reflectiveGson = createReflectiveGson();
+    }
+
+    private static Gson createReflectiveGson() {
+        return new GsonBuilder()
+                .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX")
+                .registerTypeAdapter(TranslationStatus.class,
+                        new EnumWithFallbackAdapter<TranslationStatus>(TranslationStatus.UNKNOWN))
+                .registerTypeAdapterFactory(new ServiceClientImpl.NullMapValueTypeAdapterFactory())
+                .create();
+    }
+
+    private ResourceEntriesResponse decode(Gson gson) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(payload), StandardCharsets.UTF_8))) {
+            return gson.fromJson(reader, ResourceEntriesResponse.class);
+        }
+    }
+
+    @Benchmark
+    public ResourceEntriesResponse legacyDecode() throws IOException {
+        return decode(createReflectiveGson());
+    }
+
+    @Benchmark
+    public ResourceEntriesResponse reflectiveDecode() throws IOException {
+        return decode(reflectiveGson);
+    }
+
+    @Benchmark
+    public ResourceEntriesResponse codecDecode() throws IOException {
+        return decode(GsonCodec.getGson());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Benchmarks for Date and Authorization header values calculated for every
+ * request. The <code>legacy*</code> benchmarks are the implementation used
+ * before {@link RequestSigning}. Run with <code>-prof gc</code> (the default
+ * of the benchmark profile) and compare <code>gc.alloc.rate.norm</code>,
+ * the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSigningBenchmark {
+    private static final String UID = "6ba7ce62c4fc4d5d9e3bc2e0d6c1a3b2";
+    private static final String SECRET = "zg5SlD+ftXYRIZDblLgEA/ILkkCNqE1y";
+    private static final String URL =
+            "https://gp-rest.ng.bluemix.net/translate/rest/inst/v2/bundles/bundle1/de";
+
+    @Param({"0", "1024", "65536"})
+    public int bodySize;
+
+    private byte[] body;
+    private String date;
+
+    @Setup
+    public void setup() {
+        body = bodySize == 0 ? null : new byte[bodySize];
+        if (body != null) {
+            Arrays.fill(body, (byte) 'a');
+        }
+        date = RequestSigning.getDateHeader();
+    }
+
+    @Benchmark
+    public String legacyDateHeader() {
+        SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH);
+        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return sdf.format(new Date());
+    }
+
+    @Benchmark
+    public String dateHeader() {
+        return RequestSigning.getDateHeader();
+    }
+
+    @Benchmark
+    public String legacyBasicAuthorization() throws IOException {
+        String token = UID + ":" + SECRET;
+        return "Basic " + BaseEncoding.base64().encode(token.getBytes("ISO-8859-1"));
+    }
+
+    @Benchmark
+    public String basicAuthorization() {
+        return RequestSigning.getBasicAuthorization(UID, SECRET);
+    }
+
+    @Benchmark
+    public String legacyHmacAuthorization() throws Exception {
+        StringBuilder credential = new StringBuilder("GaaS-HMAC ").append(UID).append(':');
+        SecretKeySpec key = new SecretKeySpec(SECRET.getBytes("ISO-8859-1"), "HmacSHA1");
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(key);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write("PUT".getBytes("ISO-8859-1"));
+        baos.write(0x0A);
+        baos.write(URL.getBytes("ISO-8859-1"));
+        baos.write(0x0A);
+        baos.write(date.getBytes("ISO-8859-1"));
+        baos.write(0x0A);
+        if (body != null) {
+            baos.write(body);
+        }
+        credential.append(BaseEncoding.base64().encode(mac.doFinal(baos.toByteArray())));
+        return credential.toString();
+    }
+
+    @Benchmark
+    public String hmacAuthorization() {
+        return RequestSigning.getHmacAuthorization(UID, SECRET, "PUT", URL, date, body);
+    }
+
+    /**
+     * Date and Authorization headers of a request, as built for every attempt.
+     */
+    @Benchmark
+    public String requestHeaders() {
+        String dateHeader = RequestSigning.getDateHeader();
+        return RequestSigning.getHmacAuthorization(UID, SECRET, "PUT", URL, dateHeader, body);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.internal.LinkedTreeMap;
+
+/**
+ * Benchmarks for the resource data held by {@link CloudResourceBundle}.
+ * <code>treeMap*</code> use the <code>LinkedTreeMap</code> created by Gson, which
+ * was held by the bundle before {@link StringTable}.
+ * <p>
+ * <code>*Lookup</code> look up every key once, with key instances different from
+ * the keys in the map, as a caller passing its own string constants. The
+ * <code>*Build</code> benchmarks create the map structure from the same key and
+ * value strings, so <code>gc.alloc.rate.norm</code> (reported with <code>-prof gc</code>,
+ * the default of the benchmark profile) is the memory retained by the structure.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringTableBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int entries;
+
+    private String[] keys;
+    private String[] values;
+    private String[] lookupKeys;
+    private Map<String, String> treeMap;
+    private StringTable table;
+
+    @Setup
+    public void setup() {
+        keys = new String[entries];
+        values = new String[entries];
+        lookupKeys = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            keys[i] = "com.example.app.label." + i;
+            values[i] = "Translated value " + i;
+            lookupKeys[i] = new String(keys[i]);
+        }
+        treeMap = treeMapBuild();
+        table = stringTableBuild();
+    }
+
+    @Benchmark
+    public Map<String, String> treeMapBuild() {
+        Map<String, String> map = new LinkedTreeMap<>();
+        for (int i = 0; i < entries; i++) {
+            map.put(keys[i], values[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public StringTable stringTableBuild() {
+        return StringTable.of(keys, values, entries);
+    }
+
+    @Benchmark
+    public void treeMapLookup(Blackhole bh) {
+        for (String key : lookupKeys) {
+            bh.consume(treeMap.get(key));
+        }
+    }
+
+    @Benchmark
+    public void stringTableLookup(Blackhole bh) {
+        for (String key : lookupKeys) {
+            bh.consume(table.get(key));
+        }
+    }
+}
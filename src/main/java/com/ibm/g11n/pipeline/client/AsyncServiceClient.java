@@ -0,0 +1,839 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+import com.ibm.g11n.pipeline.client.transport.CancellationSignal;
+
+/**
+ * <code>AsyncServiceClient</code> provides asynchronous versions of {@link ServiceClient}
+ * operations returning <code>CompletableFuture</code>.
+ * <p>
+ * Each operation is executed by the wrapped <code>ServiceClient</code> on the
+ * <code>Executor</code> specified by the caller, so the calling thread is never
+ * blocked. Operations not covered by a dedicated method can be executed by
+ * {@link #submit(Operation)}.
+ * <p>
+ * Canceling a future returned by this class cancels the operation. If the operation
+ * is not yet started, it is not executed. If the operation is sending a request, or
+ * receiving a response, the underlying connection is aborted. Note that cancellation
+ * is not propagated from a dependent stage created by methods such as
+ * <code>thenApply</code>.
+ * <p>
+ * This class requires Java 8 or later runtime.
+ */
+public class AsyncServiceClient {
+
+    /**
+     * An operation executed by {@link AsyncServiceClient#submit(Operation)}.
+     *
+     * @param <T> The type of the operation's result.
+     */
+    public interface Operation<T> {
+        /**
+         * Executes the operation with the service client.
+         *
+         * @param client    The service client.
+         * @return The result of the operation.
+         * @throws ServiceException when the operation failed.
+         * @throws IOException when an I/O error occurred.
+         */
+        T execute(ServiceClient client) throws ServiceException, IOException;
+    }
+
+    private final ServiceClient client;
+    private final Executor executor;
+
+    /**
+     * Constructor using the shared executor returned by {@link ClientExecutors#getDefault()}.
+     * On Java 21 or later runtime, operations are executed on virtual threads.
+     *
+     * @param client    The service client executing operations. Must not be null.
+     */
+    public AsyncServiceClient(ServiceClient client) {
+        this(client, ClientExecutors.getDefault());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param client    The service client executing operations. Must not be null.
+     * @param executor  The executor running operations. Must not be null.
+     */
+    public AsyncServiceClient(ServiceClient client, Executor executor) {
+        this.client = Objects.requireNonNull(client, "client must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+    }
+
+    /**
+     * Returns the service client executing operations.
+     *
+     * @return The service client.
+     */
+    public ServiceClient getServiceClient() {
+        return client;
+    }
+
+    /**
+     * Returns the executor running operations.
+     *
+     * @return The executor.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Submits the operation to the executor.
+     *
+     * @param <T>       The type of the operation's result.
+     * @param operation The operation. Must not be null.
+     * @return A future completed with the result of the operation. When the
+     *          operation failed, the future is completed exceptionally with
+     *          the exception thrown by the operation.
+     */
+    public <T> CompletableFuture<T> submit(final Operation<T> operation) {
+        Objects.requireNonNull(operation, "operation must not be null");
+
+        final CancellationSignal signal = new CancellationSignal();
+        // The deadline of the submitting thread also applies to the operation
+        final Deadline deadline = Deadline.current();
+        final CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean canceled = super.cancel(mayInterruptIfRunning);
+                if (canceled) {
+                    signal.cancel();
+                }
+                return canceled;
+            }
+        };
+
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    // canceled before started
+                    return;
+                }
+                CancellationSignal prev = CancellationSignal.attach(signal);
+                Deadline prevDeadline = Deadline.attach(deadline);
+                try {
+                    future.complete(operation.execute(client));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    Deadline.attach(prevDeadline);
+                    CancellationSignal.attach(prev);
+                }
+            }
+        };
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getServiceInfo()}.
+     * Returns IBM Globalization Pipeline service's information.
+     *
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<ServiceInfo> getServiceInfo() {
+        return submit(new Operation<ServiceInfo>() {
+            @Override
+            public ServiceInfo execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getServiceInfo();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getServiceInstanceInfo()}.
+     * Returns the service instance information.
+     *
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<ServiceInstanceInfo> getServiceInstanceInfo() {
+        return submit(new Operation<ServiceInstanceInfo>() {
+            @Override
+            public ServiceInstanceInfo execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getServiceInstanceInfo();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getBundleIds()}.
+     * Returns a set of bundle IDs available in the service instance.
+     *
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Set<String>> getBundleIds() {
+        return submit(new Operation<Set<String>>() {
+            @Override
+            public Set<String> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getBundleIds();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#createBundle(String, NewBundleData)}.
+     * Creates a new translation bundle.
+     *
+     * @param bundleId The bundle ID.
+     * @param newBundleData The configuration of the new bundle.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> createBundle(final String bundleId, final NewBundleData newBundleData) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.createBundle(bundleId, newBundleData);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getBundleInfo(String)}.
+     * Returns the bundle's information.
+     *
+     * @param bundleId The bundle ID.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<BundleData> getBundleInfo(final String bundleId) {
+        return submit(new Operation<BundleData>() {
+            @Override
+            public BundleData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getBundleInfo(bundleId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getBundleMetrics(String)}.
+     * Returns the bundle's metrics information.
+     *
+     * @param bundleId The bundle ID.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<BundleMetrics> getBundleMetrics(final String bundleId) {
+        return submit(new Operation<BundleMetrics>() {
+            @Override
+            public BundleMetrics execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getBundleMetrics(bundleId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#updateBundle(String, BundleDataChangeSet)}.
+     * Updates the bundle's configuration.
+     *
+     * @param bundleId The bundle ID.
+     * @param changeSet The changes to be applied.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> updateBundle(final String bundleId, final BundleDataChangeSet changeSet) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.updateBundle(bundleId, changeSet);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#deleteBundle(String)}.
+     * Deletes the bundle.
+     *
+     * @param bundleId The bundle ID.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> deleteBundle(final String bundleId) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.deleteBundle(bundleId);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getResourceStrings(String, String, boolean)}.
+     * Returns a map containing resource string key-value pairs in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param fallback Whether source language value is used if translated value is not available.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Map<String, String>> getResourceStrings(final String bundleId, final String language, final boolean fallback) {
+        return submit(new Operation<Map<String, String>>() {
+            @Override
+            public Map<String, String> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getResourceStrings(bundleId, language, fallback);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getResourceEntries(String, String)}.
+     * Returns a map containing resource entries in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Map<String, ResourceEntryData>> getResourceEntries(final String bundleId, final String language) {
+        return submit(new Operation<Map<String, ResourceEntryData>>() {
+            @Override
+            public Map<String, ResourceEntryData> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getResourceEntries(bundleId, language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#visitResourceEntries(String, String, ResourceEntryVisitor)}.
+     * Passes resource entries in the specified language to the visitor, which is
+     * called by the executor thread.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param visitor The visitor receiving resource entries.
+     * @return A future completed when all entries were visited.
+     */
+    public CompletableFuture<Void> visitResourceEntries(final String bundleId, final String language,
+            final ResourceEntryVisitor visitor) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.visitResourceEntries(bundleId, language, visitor);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getLanguageMetrics(String, String)}.
+     * Returns the language's metrics information in the bundle.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<LanguageMetrics> getLanguageMetrics(final String bundleId, final String language) {
+        return submit(new Operation<LanguageMetrics>() {
+            @Override
+            public LanguageMetrics execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getLanguageMetrics(bundleId, language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#uploadResourceStrings(String, String, Map)}.
+     * Uploads resource string key-value pairs in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param strings The resource string key-value pairs.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> uploadResourceStrings(final String bundleId, final String language, final Map<String, String> strings) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.uploadResourceStrings(bundleId, language, strings);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#uploadResourceEntries(String, String, Map)}.
+     * Uploads resource entries in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param newResourceEntries The resource entries to be uploaded.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> uploadResourceEntries(final String bundleId, final String language, final Map<String, NewResourceEntryData> newResourceEntries) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.uploadResourceEntries(bundleId, language, newResourceEntries);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#updateResourceStrings(String, String, Map, boolean)}.
+     * Updates resource string key-value pairs in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param strings The resource string key-value pairs.
+     * @param resync Whether resync operation is performed.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> updateResourceStrings(final String bundleId, final String language, final Map<String, String> strings, final boolean resync) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.updateResourceStrings(bundleId, language, strings, resync);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#updateResourceEntries(String, String, Map, boolean)}.
+     * Updates resource entries in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param resourceEntries The resource entries to be updated.
+     * @param resync Whether resync operation is performed.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> updateResourceEntries(final String bundleId, final String language, final Map<String, ResourceEntryDataChangeSet> resourceEntries, final boolean resync) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.updateResourceEntries(bundleId, language, resourceEntries, resync);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getResourceEntry(String, String, String)}.
+     * Returns the resource entry specified by the key in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param resKey The resource key.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<ResourceEntryData> getResourceEntry(final String bundleId, final String language, final String resKey) {
+        return submit(new Operation<ResourceEntryData>() {
+            @Override
+            public ResourceEntryData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getResourceEntry(bundleId, language, resKey);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#updateResourceEntry(String, String, String, ResourceEntryDataChangeSet)}.
+     * Updates the resource entry specified by the key in the specified language.
+     *
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param resKey The resource key.
+     * @param changeSet The changes to be applied.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> updateResourceEntry(final String bundleId, final String language, final String resKey, final ResourceEntryDataChangeSet changeSet) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.updateResourceEntry(bundleId, language, resKey, changeSet);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getDocumentIds(DocumentType)}.
+     * Returns a set of document IDs of the document type.
+     *
+     * @param type The document type.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Set<String>> getDocumentIds(final DocumentType type) {
+        return submit(new Operation<Set<String>>() {
+            @Override
+            public Set<String> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getDocumentIds(type);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getDocumentInfo(DocumentType, String)}.
+     * Returns the document's information.
+     *
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<DocumentData> getDocumentInfo(final DocumentType type, final String documentId) {
+        return submit(new Operation<DocumentData>() {
+            @Override
+            public DocumentData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getDocumentInfo(type, documentId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getDocumentMetrics(DocumentType, String)}.
+     * Returns the document's metrics information.
+     *
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<DocumentMetrics> getDocumentMetrics(final DocumentType type, final String documentId) {
+        return submit(new Operation<DocumentMetrics>() {
+            @Override
+            public DocumentMetrics execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getDocumentMetrics(type, documentId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#updateDocumentContent(DocumentType, String, String, File)}.
+     * Updates the document's content in the specified language.
+     *
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @param language The language tag.
+     * @param file The content file.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> updateDocumentContent(final DocumentType type, final String documentId, final String language, final File file) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.updateDocumentContent(type, documentId, language, file);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getDocumentContent(DocumentType, String, String)}.
+     * Returns the document's content in the specified language.
+     *
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @param language The language tag.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<byte[]> getDocumentContent(final DocumentType type, final String documentId, final String language) {
+        return submit(new Operation<byte[]>() {
+            @Override
+            public byte[] execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getDocumentContent(type, documentId, language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#downloadDocumentContent(DocumentType, String, String, Path)}.
+     * Downloads the document's content in the specified language to the file.
+     *
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @param language The language tag.
+     * @param target The file where the content is written.
+     * @return A future completed when the content was written.
+     */
+    public CompletableFuture<Void> downloadDocumentContent(final DocumentType type, final String documentId,
+            final String language, final Path target) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.downloadDocumentContent(type, documentId, language, target);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Downloads the document's content in multiple languages concurrently. The
+     * content in each language is written to the file named by the document ID
+     * in the subdirectory named by the language tag, that is,
+     * <code>directory/&lt;language&gt;/&lt;documentId&gt;</code>. The number of
+     * concurrent downloads is limited by the executor of this client, and the
+     * request throttle of the service client.
+     * <p>
+     * The returned future fails if the download failed in any of the languages.
+     * Canceling the returned future cancels all downloads not completed yet.
+     *
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @param languages The language tags.
+     * @param directory The base directory of the files.
+     * @return A future completed with the files indexed by language tag.
+     */
+    public CompletableFuture<Map<String, Path>> downloadDocumentContent(final DocumentType type,
+            final String documentId, Collection<String> languages, Path directory) {
+        Objects.requireNonNull(languages, "languages must not be null");
+        Objects.requireNonNull(directory, "directory must not be null");
+
+        final Map<String, Path> files = new LinkedHashMap<>();
+        final List<CompletableFuture<Void>> downloads = new ArrayList<>(languages.size());
+        for (String language : languages) {
+            if (language == null || language.isEmpty()) {
+                throw new IllegalArgumentException("languages must not contain an empty language tag.");
+            }
+            if (files.containsKey(language)) {
+                continue;
+            }
+            Path target = directory.resolve(language).resolve(documentId);
+            files.put(language, target);
+            downloads.add(downloadDocumentContent(type, documentId, language, target));
+        }
+
+        final CompletableFuture<Map<String, Path>> result = new CompletableFuture<Map<String, Path>>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean canceled = super.cancel(mayInterruptIfRunning);
+                if (canceled) {
+                    for (CompletableFuture<Void> download : downloads) {
+                        download.cancel(mayInterruptIfRunning);
+                    }
+                }
+                return canceled;
+            }
+        };
+        CompletableFuture.allOf(downloads.toArray(new CompletableFuture<?>[downloads.size()]))
+                .whenComplete(new BiConsumer<Void, Throwable>() {
+                    @Override
+                    public void accept(Void ignored, Throwable t) {
+                        if (t != null) {
+                            result.completeExceptionally(t instanceof CompletionException && t.getCause() != null
+                                    ? t.getCause() : t);
+                        } else {
+                            result.complete(Collections.unmodifiableMap(files));
+                        }
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getTranslationRequests(boolean)}.
+     * Returns a map containing translation requests indexed by translation request ID.
+     *
+     * @param summary Whether only summary information is returned.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Map<String, TranslationRequestData>> getTranslationRequests(final boolean summary) {
+        return submit(new Operation<Map<String, TranslationRequestData>>() {
+            @Override
+            public Map<String, TranslationRequestData> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getTranslationRequests(summary);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getTranslationRequest(String, boolean)}.
+     * Returns the translation request specified by the translation request ID.
+     *
+     * @param trId The translation request ID.
+     * @param summary Whether only summary information is returned.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<TranslationRequestData> getTranslationRequest(final String trId, final boolean summary) {
+        return submit(new Operation<TranslationRequestData>() {
+            @Override
+            public TranslationRequestData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getTranslationRequest(trId, summary);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#createTranslationRequest(NewTranslationRequestData, boolean)}.
+     * Creates a new translation request.
+     *
+     * @param newTranslationRequestData The configuration of the new translation request.
+     * @param async Whether the request is processed asynchronously by the service.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<TranslationRequestData> createTranslationRequest(final NewTranslationRequestData newTranslationRequestData, final boolean async) {
+        return submit(new Operation<TranslationRequestData>() {
+            @Override
+            public TranslationRequestData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.createTranslationRequest(newTranslationRequestData, async);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#updateTranslationRequest(String, TranslationRequestDataChangeSet, boolean)}.
+     * Updates the translation request.
+     *
+     * @param trId The translation request ID.
+     * @param changeSet The changes to be applied.
+     * @param async Whether the request is processed asynchronously by the service.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<TranslationRequestData> updateTranslationRequest(final String trId, final TranslationRequestDataChangeSet changeSet, final boolean async) {
+        return submit(new Operation<TranslationRequestData>() {
+            @Override
+            public TranslationRequestData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.updateTranslationRequest(trId, changeSet, async);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#deleteTranslationRequest(String)}.
+     * Deletes the translation request.
+     *
+     * @param trId The translation request ID.
+     * @return A future completed with null when the operation is done.
+     */
+    public CompletableFuture<Void> deleteTranslationRequest(final String trId) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.deleteTranslationRequest(trId);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getTRBundleInfo(String, String)}.
+     * Returns the bundle's information included in the translation request.
+     *
+     * @param trId The translation request ID.
+     * @param bundleId The bundle ID.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<BundleData> getTRBundleInfo(final String trId, final String bundleId) {
+        return submit(new Operation<BundleData>() {
+            @Override
+            public BundleData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getTRBundleInfo(trId, bundleId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getTRResourceEntries(String, String, String)}.
+     * Returns a map containing resource entries of the bundle included in the translation request.
+     *
+     * @param trId The translation request ID.
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Map<String, ResourceEntryData>> getTRResourceEntries(final String trId, final String bundleId, final String language) {
+        return submit(new Operation<Map<String, ResourceEntryData>>() {
+            @Override
+            public Map<String, ResourceEntryData> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getTRResourceEntries(trId, bundleId, language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#visitTRResourceEntries(String, String, String, ResourceEntryVisitor)}.
+     * Passes resource entries of the bundle included in the translation request to
+     * the visitor, which is called by the executor thread.
+     *
+     * @param trId The translation request ID.
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param visitor The visitor receiving resource entries.
+     * @return A future completed when all entries were visited.
+     */
+    public CompletableFuture<Void> visitTRResourceEntries(final String trId, final String bundleId,
+            final String language, final ResourceEntryVisitor visitor) {
+        return submit(new Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException, IOException {
+                client.visitTRResourceEntries(trId, bundleId, language, visitor);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getTRResourceEntry(String, String, String, String)}.
+     * Returns the resource entry of the bundle included in the translation request.
+     *
+     * @param trId The translation request ID.
+     * @param bundleId The bundle ID.
+     * @param language The language tag.
+     * @param resKey The resource key.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<ResourceEntryData> getTRResourceEntry(final String trId, final String bundleId, final String language, final String resKey) {
+        return submit(new Operation<ResourceEntryData>() {
+            @Override
+            public ResourceEntryData execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getTRResourceEntry(trId, bundleId, language, resKey);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ServiceClient#getTRSegments(String, DocumentType, String, String)}.
+     * Returns a map containing segments of the document included in the document translation request.
+     *
+     * @param trId The translation request ID.
+     * @param type The document type.
+     * @param documentId The document ID.
+     * @param language The language tag.
+     * @return A future completed with the result of the operation.
+     */
+    public CompletableFuture<Map<String, SegmentData>> getTRSegments(final String trId, final DocumentType type, final String documentId, final String language) {
+        return submit(new Operation<Map<String, SegmentData>>() {
+            @Override
+            public Map<String, SegmentData> execute(ServiceClient client) throws ServiceException, IOException {
+                return client.getTRSegments(trId, type, documentId, language);
+            }
+        });
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <code>CircuitBreaker</code> stops sending requests for an operation of a service
+ * while the operation keeps failing or responding slowly, so callers fail fast
+ * instead of waiting for timeouts.
+ * <p>
+ * A circuit breaker starts in {@link State#CLOSED CLOSED} state, and records outcomes
+ * of recent calls. When the failure rate or the slow call rate of the recent calls
+ * reaches the threshold, the circuit is {@link State#OPEN OPEN}, and calls are
+ * rejected immediately with {@link CircuitBreakerOpenException}. After the configured
+ * wait duration, the circuit becomes {@link State#HALF_OPEN HALF_OPEN}, and a limited
+ * number of trial calls are sent. Depending on the outcomes of the trial calls, the
+ * circuit is closed, or opened again.
+ * <p>
+ * Circuit breakers used by service clients are managed by {@link CircuitBreakerRegistry}.
+ */
+public final class CircuitBreaker {
+    private static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+    /**
+     * Circuit breaker states.
+     */
+    public enum State {
+        /**
+         * Calls are permitted, and their outcomes are recorded.
+         */
+        CLOSED,
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+        /**
+         * A limited number of trial calls are permitted.
+         */
+        HALF_OPEN;
+    }
+
+    /**
+     * The callback interface receiving state transitions of circuit breakers.
+     */
+    public interface StateListener {
+        /**
+         * Called when the state of the circuit breaker changed.
+         *
+         * @param circuitBreaker    The circuit breaker.
+         * @param from              The previous state.
+         * @param to                The new state.
+         */
+        void onStateTransition(CircuitBreaker circuitBreaker, State from, State to);
+    }
+
+    private static final byte FAILURE = 0x1;
+    private static final byte SLOW = 0x2;
+
+    // Totals across all circuit breakers, used by ClientMetrics
+    static final AtomicLong totalRejectedCount = new AtomicLong();
+    static final AtomicLong totalOpenedCount = new AtomicLong();
+
+    private final String serviceUrl;
+    private final String operation;
+
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumNumberOfCalls;
+    private final long waitNanosInOpenState;
+    private final int permittedCallsInHalfOpenState;
+
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile State state = State.CLOSED;
+
+    // Sliding window of outcomes in closed state
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCount;
+
+    private long openedAt;
+
+    // Trial calls in half-open state
+    private int halfOpenPermits;
+    private int halfOpenCalls;
+    private int halfOpenFailures;
+    private int halfOpenSlowCalls;
+
+    /**
+     * Constructor.
+     *
+     * @param serviceUrl    The service URL.
+     * @param operation     The operation name.
+     * @param config        The circuit breaker configuration. The values are copied
+     *                      when this object is created.
+     */
+    public CircuitBreaker(String serviceUrl, String operation, CircuitBreakerConfig config) {
+        if (serviceUrl == null || operation == null || config == null) {
+            throw new IllegalArgumentException("serviceUrl, operation and config must not be null.");
+        }
+        this.serviceUrl = serviceUrl;
+        this.operation = operation;
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDuration());
+        this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(),
+                config.getSlidingWindowSize());
+        this.waitNanosInOpenState = TimeUnit.MILLISECONDS.toNanos(config.getWaitDurationInOpenState());
+        this.permittedCallsInHalfOpenState = config.getPermittedCallsInHalfOpenState();
+        this.window = new byte[config.getSlidingWindowSize()];
+    }
+
+    /**
+     * Returns the service URL protected by this circuit breaker.
+     *
+     * @return The service URL.
+     */
+    public String getServiceUrl() {
+        return serviceUrl;
+    }
+
+    /**
+     * Returns the operation name protected by this circuit breaker.
+     *
+     * @return The operation name.
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return The current state.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the failure rate of recent calls in closed state.
+     *
+     * @return The failure rate in percentage, or -1 if the number of recorded
+     *         calls is less than the minimum number of calls.
+     */
+    public float getFailureRate() {
+        lock.lock();
+        try {
+            return windowCount < minimumNumberOfCalls ? -1.0f : rate(failureCount, windowCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the slow call rate of recent calls in closed state.
+     *
+     * @return The slow call rate in percentage, or -1 if the number of recorded
+     *         calls is less than the minimum number of calls.
+     */
+    public float getSlowCallRate() {
+        lock.lock();
+        try {
+            return windowCount < minimumNumberOfCalls ? -1.0f : rate(slowCount, windowCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of calls rejected by this circuit breaker.
+     *
+     * @return The number of rejected calls.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Adds a listener receiving state transitions of this circuit breaker.
+     *
+     * @param listener  The listener.
+     */
+    public void addListener(StateListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener must not be null");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes the listener.
+     *
+     * @param listener  The listener.
+     */
+    public void removeListener(StateListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Acquires a permission to make a call. When the permission is acquired, the
+     * caller must report the outcome by {@link #onSuccess(long)}, {@link #onError(long)}
+     * or {@link #releasePermission()}.
+     *
+     * @return true if the call is permitted, false if rejected.
+     */
+    public boolean tryAcquirePermission() {
+        State from = null;
+        boolean permitted;
+        lock.lock();
+        try {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= waitNanosInOpenState) {
+                from = transitionTo(State.HALF_OPEN);
+            }
+            switch (state) {
+            case CLOSED:
+                permitted = true;
+                break;
+            case HALF_OPEN:
+                permitted = halfOpenPermits > 0;
+                if (permitted) {
+                    halfOpenPermits--;
+                }
+                break;
+            default:
+                permitted = false;
+                break;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!permitted) {
+            rejectedCount.incrementAndGet();
+            totalRejectedCount.incrementAndGet();
+        }
+        if (from != null) {
+            notifyListeners(from, State.HALF_OPEN);
+        }
+        return permitted;
+    }
+
+    /**
+     * Records a successful call.
+     *
+     * @param durationNanos The duration of the call in nanoseconds.
+     */
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    /**
+     * Records a failed call.
+     *
+     * @param durationNanos The duration of the call in nanoseconds.
+     */
+    public void onError(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    /**
+     * Releases a permission without recording an outcome, for example, when the
+     * call was canceled by the caller.
+     */
+    public void releasePermission() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && halfOpenPermits + halfOpenCalls < permittedCallsInHalfOpenState) {
+                halfOpenPermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Resets this circuit breaker to closed state, and clears recorded outcomes.
+     */
+    public void reset() {
+        State from;
+        lock.lock();
+        try {
+            from = transitionTo(State.CLOSED);
+        } finally {
+            lock.unlock();
+        }
+        if (from != null) {
+            notifyListeners(from, State.CLOSED);
+        }
+    }
+
+    private void record(boolean failure, long durationNanos) {
+        byte outcome = (byte) ((failure ? FAILURE : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        State from = null;
+        State to = null;
+        lock.lock();
+        try {
+            switch (state) {
+            case CLOSED:
+                if (windowCount == window.length) {
+                    byte evicted = window[windowIndex];
+                    if ((evicted & FAILURE) != 0) {
+                        failureCount--;
+                    }
+                    if ((evicted & SLOW) != 0) {
+                        slowCount--;
+                    }
+                } else {
+                    windowCount++;
+                }
+                window[windowIndex] = outcome;
+                windowIndex = (windowIndex + 1) % window.length;
+                if ((outcome & FAILURE) != 0) {
+                    failureCount++;
+                }
+                if ((outcome & SLOW) != 0) {
+                    slowCount++;
+                }
+                if (windowCount >= minimumNumberOfCalls
+                        && exceedsThreshold(failureCount, slowCount, windowCount)) {
+                    to = State.OPEN;
+                }
+                break;
+
+            case HALF_OPEN:
+                halfOpenCalls++;
+                if ((outcome & FAILURE) != 0) {
+                    halfOpenFailures++;
+                }
+                if ((outcome & SLOW) != 0) {
+                    halfOpenSlowCalls++;
+                }
+                if (halfOpenCalls >= permittedCallsInHalfOpenState) {
+                    to = exceedsThreshold(halfOpenFailures, halfOpenSlowCalls, halfOpenCalls)
+                            ? State.OPEN : State.CLOSED;
+                }
+                break;
+
+            default:
+                // A call permitted before the circuit was opened
+                break;
+            }
+            if (to != null) {
+                from = transitionTo(to);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (from != null) {
+            notifyListeners(from, to);
+        }
+    }
+
+    private boolean exceedsThreshold(int failures, int slowCalls, int calls) {
+        return rate(failures, calls) >= failureRateThreshold
+                || rate(slowCalls, calls) >= slowCallRateThreshold;
+    }
+
+    private static float rate(int count, int total) {
+        return total == 0 ? 0.0f : count * 100.0f / total;
+    }
+
+    /**
+     * Changes the state, and resets counters for the new state. Must be called
+     * while holding the lock.
+     *
+     * @return The previous state, or null if the state was not changed.
+     */
+    private State transitionTo(State newState) {
+        State from = state;
+        switch (newState) {
+        case CLOSED:
+            windowIndex = 0;
+            windowCount = 0;
+            failureCount = 0;
+            slowCount = 0;
+            break;
+        case OPEN:
+            openedAt = System.nanoTime();
+            totalOpenedCount.incrementAndGet();
+            break;
+        case HALF_OPEN:
+            halfOpenPermits = permittedCallsInHalfOpenState;
+            halfOpenCalls = 0;
+            halfOpenFailures = 0;
+            halfOpenSlowCalls = 0;
+            break;
+        }
+        state = newState;
+        return from == newState ? null : from;
+    }
+
+    private void notifyListeners(State from, State to) {
+        logger.info("Circuit breaker for " + operation + " at " + serviceUrl
+                + " changed from " + from + " to " + to);
+        for (StateListener listener : listeners) {
+            try {
+                listener.onStateTransition(this, from, to);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Circuit breaker state listener failed.", e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker[" + operation + " at " + serviceUrl + ": " + state + "]";
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+/**
+ * <code>CircuitBreakerConfig</code> is used for specifying settings of
+ * {@link CircuitBreaker}. All time values are in milliseconds.
+ */
+public class CircuitBreakerConfig {
+    /**
+     * Default failure rate in percentage opening a circuit (50).
+     */
+    public static final float DEFAULT_FAILURE_RATE_THRESHOLD = 50.0f;
+
+    /**
+     * Default slow call rate in percentage opening a circuit (80).
+     */
+    public static final float DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80.0f;
+
+    /**
+     * Default duration of a call considered slow (5000 = 5 seconds).
+     */
+    public static final long DEFAULT_SLOW_CALL_DURATION = 5000L;
+
+    /**
+     * Default number of recent calls used for calculating the rates (20).
+     */
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+
+    /**
+     * Default minimum number of calls required before a circuit can be opened (10).
+     */
+    public static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 10;
+
+    /**
+     * Default time an open circuit waits before allowing trial calls
+     * (30000 = 30 seconds).
+     */
+    public static final long DEFAULT_WAIT_DURATION_IN_OPEN_STATE = 30000L;
+
+    /**
+     * Default number of trial calls allowed in half-open state (3).
+     */
+    public static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 3;
+
+    private float failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+    private float slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    private long slowCallDuration = DEFAULT_SLOW_CALL_DURATION;
+    private int slidingWindowSize = DEFAULT_SLIDING_WINDOW_SIZE;
+    private int minimumNumberOfCalls = DEFAULT_MINIMUM_NUMBER_OF_CALLS;
+    private long waitDurationInOpenState = DEFAULT_WAIT_DURATION_IN_OPEN_STATE;
+    private int permittedCallsInHalfOpenState = DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+
+    /**
+     * Returns the failure rate in percentage opening a circuit.
+     *
+     * @return The failure rate in percentage opening a circuit.
+     */
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Sets the failure rate in percentage opening a circuit. A call failed by
+     * an I/O error, or by HTTP status 429 or 5xx is counted as failure.
+     *
+     * @param failureRateThreshold  The failure rate in percentage, greater than 0
+     *                              and not greater than 100.
+     * @return This object.
+     */
+    public CircuitBreakerConfig setFailureRateThreshold(float failureRateThreshold) {
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 100)) {
+            throw new IllegalArgumentException("failureRateThreshold must be in range (0, 100].");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * Returns the slow call rate in percentage opening a circuit.
+     *
+     * @return The slow call rate in percentage opening a circuit.
+     */
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    /**
+     * Sets the slow call rate in percentage opening a circuit.
+     *
+     * @param slowCallRateThreshold The slow call rate in percentage, greater than 0
+     *                              and not greater than 100.
+     * @return This object.
+     * @see #setSlowCallDuration(long)
+     */
+    public CircuitBreakerConfig setSlowCallRateThreshold(float slowCallRateThreshold) {
+        if (!(slowCallRateThreshold > 0 && slowCallRateThreshold <= 100)) {
+            throw new IllegalArgumentException("slowCallRateThreshold must be in range (0, 100].");
+        }
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    /**
+     * Returns the duration of a call considered slow.
+     *
+     * @return The duration of a call considered slow.
+     */
+    public long getSlowCallDuration() {
+        return slowCallDuration;
+    }
+
+    /**
+     * Sets the duration of a call considered slow. A call taking longer than
+     * this, including failed calls, is counted as slow call.
+     *
+     * @param slowCallDuration  The duration of a call considered slow. Must be positive.
+     * @return This object.
+     */
+    public CircuitBreakerConfig setSlowCallDuration(long slowCallDuration) {
+        if (slowCallDuration <= 0) {
+            throw new IllegalArgumentException("slowCallDuration must be positive.");
+        }
+        this.slowCallDuration = slowCallDuration;
+        return this;
+    }
+
+    /**
+     * Returns the number of recent calls used for calculating the rates.
+     *
+     * @return The number of recent calls used for calculating the rates.
+     */
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    /**
+     * Sets the number of recent calls used for calculating the failure rate
+     * and the slow call rate in closed state.
+     *
+     * @param slidingWindowSize The number of recent calls. Must be positive.
+     * @return This object.
+     */
+    public CircuitBreakerConfig setSlidingWindowSize(int slidingWindowSize) {
+        if (slidingWindowSize <= 0) {
+            throw new IllegalArgumentException("slidingWindowSize must be positive.");
+        }
+        this.slidingWindowSize = slidingWindowSize;
+        return this;
+    }
+
+    /**
+     * Returns the minimum number of calls required before a circuit can be opened.
+     *
+     * @return The minimum number of calls required before a circuit can be opened.
+     */
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    /**
+     * Sets the minimum number of calls required before a circuit can be opened.
+     * When this is greater than the sliding window size, the sliding window size
+     * is used instead.
+     *
+     * @param minimumNumberOfCalls  The minimum number of calls. Must be positive.
+     * @return This object.
+     */
+    public CircuitBreakerConfig setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+        if (minimumNumberOfCalls <= 0) {
+            throw new IllegalArgumentException("minimumNumberOfCalls must be positive.");
+        }
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        return this;
+    }
+
+    /**
+     * Returns the time an open circuit waits before allowing trial calls.
+     *
+     * @return The time an open circuit waits before allowing trial calls.
+     */
+    public long getWaitDurationInOpenState() {
+        return waitDurationInOpenState;
+    }
+
+    /**
+     * Sets the time an open circuit rejects calls. After this time, the circuit
+     * becomes half-open, and allows a limited number of trial calls.
+     *
+     * @param waitDurationInOpenState   The time an open circuit waits before allowing
+     *                                  trial calls. Must be positive.
+     * @return This object.
+     */
+    public CircuitBreakerConfig setWaitDurationInOpenState(long waitDurationInOpenState) {
+        if (waitDurationInOpenState <= 0) {
+            throw new IllegalArgumentException("waitDurationInOpenState must be positive.");
+        }
+        this.waitDurationInOpenState = waitDurationInOpenState;
+        return this;
+    }
+
+    /**
+     * Returns the number of trial calls allowed in half-open state.
+     *
+     * @return The number of trial calls allowed in half-open state.
+     */
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+
+    /**
+     * Sets the number of trial calls allowed in half-open state. When all trial
+     * calls completed, the circuit is closed if the failure rate and the slow call
+     * rate of the trial calls are below the thresholds, otherwise opened again.
+     *
+     * @param permittedCallsInHalfOpenState The number of trial calls. Must be positive.
+     * @return This object.
+     */
+    public CircuitBreakerConfig setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        if (permittedCallsInHalfOpenState <= 0) {
+            throw new IllegalArgumentException("permittedCallsInHalfOpenState must be positive.");
+        }
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        return this;
+    }
+}
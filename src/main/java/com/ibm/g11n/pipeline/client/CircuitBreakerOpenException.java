@@ -0,0 +1,46 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+/**
+ * The exception thrown when a request is rejected without being sent,
+ * because the {@link CircuitBreaker} for the operation is open.
+ */
+public class CircuitBreakerOpenException extends ServiceException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient CircuitBreaker circuitBreaker;
+
+    /**
+     * Constructor.
+     *
+     * @param circuitBreaker    The circuit breaker which rejected the request.
+     */
+    public CircuitBreakerOpenException(CircuitBreaker circuitBreaker) {
+        super("Circuit breaker is " + circuitBreaker.getState() + " for "
+                + circuitBreaker.getOperation() + " at " + circuitBreaker.getServiceUrl());
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Returns the circuit breaker which rejected the request.
+     *
+     * @return The circuit breaker, or null if this exception was deserialized.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.ibm.g11n.pipeline.client.CircuitBreaker.StateListener;
+
+/**
+ * <code>CircuitBreakerRegistry</code> manages {@link CircuitBreaker} instances
+ * keyed by service URL and operation.
+ * <p>
+ * Because a service client is usually created for a short period, circuit breakers
+ * are kept by a registry shared by multiple service clients. By default, all service
+ * clients use the instance returned by {@link #getDefault()}.
+ */
+public final class CircuitBreakerRegistry {
+    private static final CircuitBreakerRegistry DEFAULT =
+            new CircuitBreakerRegistry(new CircuitBreakerConfig());
+
+    private final CircuitBreakerConfig config;
+    private final ConcurrentMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final List<StateListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param config    The configuration used for creating circuit breakers.
+     *                  The values are copied when a circuit breaker is created.
+     */
+    public CircuitBreakerRegistry(CircuitBreakerConfig config) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null.");
+        }
+        this.config = config;
+    }
+
+    /**
+     * Returns the registry shared by service clients by default.
+     *
+     * @return The shared instance of <code>CircuitBreakerRegistry</code>.
+     */
+    public static CircuitBreakerRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the configuration used for creating circuit breakers.
+     *
+     * @return The configuration used for creating circuit breakers.
+     */
+    public CircuitBreakerConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the circuit breaker for the operation of the service, creating
+     * a new one if not available.
+     *
+     * @param serviceUrl    The service URL.
+     * @param operation     The operation name.
+     * @return The circuit breaker.
+     */
+    public CircuitBreaker getCircuitBreaker(String serviceUrl, String operation) {
+        String key = serviceUrl + " " + operation;
+        CircuitBreaker breaker = breakers.get(key);
+        if (breaker == null) {
+            CircuitBreaker newBreaker = new CircuitBreaker(serviceUrl, operation, config);
+            breaker = breakers.putIfAbsent(key, newBreaker);
+            if (breaker == null) {
+                breaker = newBreaker;
+                for (StateListener listener : listeners) {
+                    breaker.addListener(listener);
+                }
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * Returns all circuit breakers created by this registry.
+     *
+     * @return An unmodifiable collection of circuit breakers.
+     */
+    public Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(new ArrayList<>(breakers.values()));
+    }
+
+    /**
+     * Adds a listener receiving state transitions of all circuit breakers in this
+     * registry, including circuit breakers created later.
+     *
+     * @param listener  The listener.
+     */
+    public void addListener(StateListener listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener must not be null");
+        }
+        listeners.add(listener);
+        for (CircuitBreaker breaker : breakers.values()) {
+            breaker.addListener(listener);
+        }
+    }
+
+    /**
+     * Removes the listener from all circuit breakers in this registry.
+     *
+     * @param listener  The listener.
+     */
+    public void removeListener(StateListener listener) {
+        listeners.remove(listener);
+        for (CircuitBreaker breaker : breakers.values()) {
+            breaker.removeListener(listener);
+        }
+    }
+
+    /**
+     * Resets all circuit breakers to closed state.
+     */
+    public void resetAll() {
+        for (CircuitBreaker breaker : breakers.values()) {
+            breaker.reset();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.ibm.g11n.pipeline.client.impl.VirtualThreads;
+
+/**
+ * <code>ClientExecutors</code> provides executors for running asynchronous
+ * and bulk client operations, such as operations executed by
+ * {@link AsyncServiceClient}.
+ * <p>
+ * On Java 21 or later runtime, operations can be executed on virtual threads.
+ * A virtual thread blocked on network I/O does not occupy an OS thread, so a large
+ * number of requests can be in flight at the same time without a large
+ * platform thread pool. The client avoids holding a monitor while waiting for
+ * network I/O, so virtual threads are not pinned to their carrier threads.
+ */
+public final class ClientExecutors {
+
+    /**
+     * Execution mode of client operations.
+     */
+    public enum ExecutionMode {
+        /**
+         * Operations are executed on platform (OS) threads.
+         */
+        PLATFORM_THREADS,
+        /**
+         * Operations are executed on virtual threads. This mode requires
+         * Java 21 or later runtime.
+         */
+        VIRTUAL_THREADS
+    }
+
+    private static class DefaultHolder {
+        static final ExecutorService INSTANCE =
+                newExecutor(getDefaultExecutionMode(), 0);
+    }
+
+    private ClientExecutors() {
+    }
+
+    /**
+     * Returns whether virtual threads are supported by the current runtime.
+     *
+     * @return true if virtual threads are supported.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.isSupported();
+    }
+
+    /**
+     * Returns the default execution mode. {@link ExecutionMode#VIRTUAL_THREADS VIRTUAL_THREADS}
+     * is used when supported by the current runtime, {@link ExecutionMode#PLATFORM_THREADS PLATFORM_THREADS}
+     * otherwise.
+     *
+     * @return The default execution mode.
+     */
+    public static ExecutionMode getDefaultExecutionMode() {
+        return isVirtualThreadSupported() ? ExecutionMode.VIRTUAL_THREADS : ExecutionMode.PLATFORM_THREADS;
+    }
+
+    /**
+     * Returns the shared executor using the default execution mode. The shared
+     * executor must not be shut down.
+     *
+     * @return The shared executor.
+     */
+    public static Executor getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a new executor for the execution mode.
+     * <p>
+     * With {@link ExecutionMode#VIRTUAL_THREADS VIRTUAL_THREADS}, a new virtual thread
+     * is started for each task, and <code>maxPlatformThreads</code> is ignored.
+     * With {@link ExecutionMode#PLATFORM_THREADS PLATFORM_THREADS}, tasks are executed
+     * by daemon threads in a pool.
+     *
+     * @param mode                  The execution mode. Must not be null.
+     * @param maxPlatformThreads    The number of platform threads in the pool, or 0
+     *                              for a pool creating new threads as needed.
+     * @return A new executor. The caller is responsible for shutting it down.
+     * @throws UnsupportedOperationException when the execution mode is not supported
+     *          by the current runtime.
+     */
+    public static ExecutorService newExecutor(ExecutionMode mode, int maxPlatformThreads) {
+        if (mode == null) {
+            throw new IllegalArgumentException("mode must not be null");
+        }
+        if (maxPlatformThreads < 0) {
+            throw new IllegalArgumentException("maxPlatformThreads must not be negative");
+        }
+
+        switch (mode) {
+        case VIRTUAL_THREADS:
+            return VirtualThreads.newThreadPerTaskExecutor("gp-client-virtual-");
+
+        case PLATFORM_THREADS:
+        default:
+            ThreadFactoryBuilder builder = new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("gp-client-worker-%d");
+            return maxPlatformThreads == 0
+                    ? Executors.newCachedThreadPool(builder.build())
+                    : Executors.newFixedThreadPool(maxPlatformThreads, builder.build());
+        }
+    }
+}
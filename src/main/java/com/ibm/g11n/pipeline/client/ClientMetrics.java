@@ -0,0 +1,162 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import com.ibm.g11n.pipeline.client.impl.ConditionalRequests;
+import com.ibm.g11n.pipeline.client.impl.Deadlines;
+import com.ibm.g11n.pipeline.client.impl.RequestCoalescer;
+import com.ibm.g11n.pipeline.client.impl.Retries;
+
+/**
+ * <code>ClientMetrics</code> provides runtime metrics of the client library
+ * collected across all {@link ServiceClient} instances in the JVM.
+ */
+public final class ClientMetrics {
+    private ClientMetrics() {
+    }
+
+    /**
+     * Returns the number of read requests actually sent while request coalescing
+     * is enabled.
+     * 
+     * @return The number of read requests actually sent.
+     * @see ServiceClient#setRequestCoalescingEnabled(boolean)
+     */
+    public static long getCoalescingExecutedCount() {
+        return RequestCoalescer.getExecutedCount();
+    }
+
+    /**
+     * Returns the number of read operations which did not send a request, but
+     * received the result of an identical in-flight request.
+     * 
+     * @return The number of coalesced read operations.
+     * @see ServiceClient#setRequestCoalescingEnabled(boolean)
+     */
+    public static long getCoalescedRequestCount() {
+        return RequestCoalescer.getCoalescedCount();
+    }
+
+    /**
+     * Returns the number of coalescable read requests currently in flight.
+     * 
+     * @return The number of coalescable read requests currently in flight.
+     */
+    public static int getCoalescingInFlightCount() {
+        return RequestCoalescer.getInFlightCount();
+    }
+
+    /**
+     * Returns the number of conditional read requests sent with validators
+     * of a cached response.
+     * 
+     * @return The number of conditional read requests.
+     * @see ServiceClient#setResponseCache(com.ibm.g11n.pipeline.client.cache.ResponseCache)
+     */
+    public static long getConditionalRequestCount() {
+        return ConditionalRequests.getConditionalCount();
+    }
+
+    /**
+     * Returns the number of conditional read requests answered by
+     * <code>304 Not Modified</code>, which returned the cached response.
+     * 
+     * @return The number of read requests answered by the response cache.
+     * @see ServiceClient#setResponseCache(com.ibm.g11n.pipeline.client.cache.ResponseCache)
+     */
+    public static long getNotModifiedCount() {
+        return ConditionalRequests.getNotModifiedCount();
+    }
+
+    /**
+     * Returns the number of retried requests, counting each retry.
+     * 
+     * @return The number of retries.
+     * @see ServiceClient#setRetryPolicy(RetryPolicy)
+     */
+    public static long getRetryCount() {
+        return Retries.getRetryCount();
+    }
+
+    /**
+     * Returns the number of retries delayed as specified by <code>Retry-After</code>
+     * response header.
+     * 
+     * @return The number of retries delayed by <code>Retry-After</code> response header.
+     */
+    public static long getRetryAfterCount() {
+        return Retries.getRetryAfterCount();
+    }
+
+    /**
+     * Returns the number of failed requests not retried because the
+     * {@link RetryBudget} was exhausted.
+     * 
+     * @return The number of requests not retried because of the retry budget.
+     */
+    public static long getRetryBudgetExhaustedCount() {
+        return Retries.getBudgetExhaustedCount();
+    }
+
+    /**
+     * Returns the number of requests rejected by open circuit breakers.
+     * 
+     * @return The number of requests rejected by circuit breakers.
+     * @see ServiceClient#setCircuitBreakerRegistry(CircuitBreakerRegistry)
+     */
+    public static long getCircuitBreakerRejectedCount() {
+        return CircuitBreaker.totalRejectedCount.get();
+    }
+
+    /**
+     * Returns the number of times circuit breakers were opened.
+     * 
+     * @return The number of times circuit breakers were opened.
+     */
+    public static long getCircuitBreakerOpenedCount() {
+        return CircuitBreaker.totalOpenedCount.get();
+    }
+
+    /**
+     * Returns the number of operations which waited for the limits of
+     * {@link RequestThrottle}.
+     * 
+     * @return The number of operations delayed by request throttling.
+     * @see ServiceClient#setRequestThrottle(RequestThrottle)
+     */
+    public static long getThrottleDelayedCount() {
+        return RequestThrottle.totalDelayedCount.get();
+    }
+
+    /**
+     * Returns the number of operations failed with {@link RequestThrottledException}.
+     * 
+     * @return The number of operations rejected by request throttling.
+     */
+    public static long getThrottleRejectedCount() {
+        return RequestThrottle.totalRejectedCount.get();
+    }
+
+    /**
+     * Returns the number of operations aborted because their deadlines expired.
+     * 
+     * @return The number of operations aborted by deadlines.
+     * @see Deadline
+     */
+    public static long getDeadlineExceededCount() {
+        return Deadlines.getDeadlineExceededCount();
+    }
+}
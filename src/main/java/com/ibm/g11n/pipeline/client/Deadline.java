@@ -0,0 +1,131 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>Deadline</code> is a point in time by which a service operation must
+ * complete. The deadline bounds the entire operation, including waits for
+ * request limits, connecting, sending the request, reading the response and
+ * retries. When the deadline expires, the operation is aborted, the connection
+ * is released, and the operation fails with {@link ServiceException} caused by
+ * <code>java.net.SocketTimeoutException</code>.
+ * <p>
+ * A deadline is attached to the current thread by {@link #attach(Deadline)},
+ * and applies to all operations issued by the thread until detached. For example,
+ * <pre>
+ *      Deadline prev = Deadline.attach(Deadline.after(500, TimeUnit.MILLISECONDS));
+ *      try {
+ *          strings = client.getResourceStrings(bundleId, language, false);
+ *      } finally {
+ *          Deadline.attach(prev);
+ *      }
+ * </pre>
+ * When {@link TimeoutConfig} also specifies a call timeout for the operation,
+ * the earlier deadline is used.
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    // Keeps the arithmetic on System.nanoTime() values free from overflow
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 4;
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Returns a deadline expiring after the specified time from now.
+     *
+     * @param timeout   The time until the deadline. Must not be negative.
+     * @param unit      The time unit of the timeout. Must not be null.
+     * @return A deadline.
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("timeout must not be negative.");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null.");
+        }
+        long nanos = Math.min(unit.toNanos(timeout), MAX_TIMEOUT_NANOS);
+        return new Deadline(System.nanoTime() + nanos);
+    }
+
+    /**
+     * Returns whether this deadline has expired.
+     *
+     * @return true if this deadline has expired.
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Returns the time remaining until this deadline.
+     *
+     * @param unit  The time unit of the result.
+     * @return The time remaining until this deadline, or 0 if expired.
+     */
+    public long getRemaining(TimeUnit unit) {
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining <= 0 ? 0 : unit.convert(remaining, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns whether this deadline is earlier than the other deadline.
+     *
+     * @param other The other deadline. Must not be null.
+     * @return true if this deadline is earlier than the other deadline.
+     */
+    public boolean isBefore(Deadline other) {
+        return deadlineNanos - other.deadlineNanos < 0;
+    }
+
+    /**
+     * Returns the deadline attached to the current thread.
+     *
+     * @return The deadline attached to the current thread, or null.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attaches the deadline to the current thread, and returns the deadline previously
+     * attached. The caller should restore the previous deadline when the work is done.
+     *
+     * @param deadline  The deadline, or null to detach the current deadline.
+     * @return The deadline previously attached to the current thread, or null.
+     */
+    public static Deadline attach(Deadline deadline) {
+        Deadline prev = CURRENT.get();
+        if (deadline == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        return prev;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + getRemaining(TimeUnit.MILLISECONDS) + "ms]";
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+/**
+ * <code>OperationClass</code> is a category of service operations, used for
+ * applying different {@link RequestLimits} by {@link RequestThrottle}.
+ */
+public enum OperationClass {
+    /**
+     * Read operations on bundles, resource entries, users, configurations
+     * and translation requests.
+     */
+    READ,
+    /**
+     * Operations creating, updating or deleting bundles, resource entries, users,
+     * configurations and translation requests.
+     */
+    WRITE,
+    /**
+     * XLIFF export and import operations.
+     */
+    XLIFF,
+    /**
+     * Operations on documents and document translation requests.
+     */
+    DOCUMENT;
+}
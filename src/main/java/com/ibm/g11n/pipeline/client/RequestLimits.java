@@ -0,0 +1,133 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+/**
+ * <code>RequestLimits</code> is used for specifying limits applied by
+ * {@link RequestThrottle} to an {@link OperationClass}. All time values
+ * are in milliseconds.
+ */
+public class RequestLimits {
+    /**
+     * Default maximum time waiting for the limits (30000 = 30 seconds).
+     */
+    public static final long DEFAULT_MAX_WAIT = 30000L;
+
+    private double rate = 0;
+    private int burst = 1;
+    private int maxConcurrentRequests = 0;
+    private long maxWait = DEFAULT_MAX_WAIT;
+
+    /**
+     * Returns the maximum number of requests per second.
+     *
+     * @return The maximum number of requests per second, or 0 if unlimited.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the maximum number of requests per second. Requests exceeding the rate
+     * wait in the order of arrival.
+     *
+     * @param rate  The maximum number of requests per second, or 0 for unlimited.
+     * @return This object.
+     */
+    public RequestLimits setRate(double rate) {
+        if (!(rate >= 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("rate must be a finite non-negative number.");
+        }
+        this.rate = rate;
+        return this;
+    }
+
+    /**
+     * Returns the number of requests which can be sent at once without waiting,
+     * after a period without requests.
+     *
+     * @return The burst size.
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Sets the number of requests which can be sent at once without waiting,
+     * after a period without requests. The default value is 1.
+     *
+     * @param burst The burst size. Must be positive.
+     * @return This object.
+     */
+    public RequestLimits setBurst(int burst) {
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive.");
+        }
+        this.burst = burst;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of concurrent requests.
+     *
+     * @return The maximum number of concurrent requests, or 0 if unlimited.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Sets the maximum number of concurrent requests. An operation is counted
+     * until its response is completely read. Operations exceeding the limit wait
+     * in the order of arrival.
+     *
+     * @param maxConcurrentRequests The maximum number of concurrent requests,
+     *                              or 0 for unlimited.
+     * @return This object.
+     */
+    public RequestLimits setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests must not be negative.");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
+    /**
+     * Returns the maximum time waiting for the limits.
+     *
+     * @return The maximum time waiting for the limits.
+     */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    /**
+     * Sets the maximum time an operation waits for the limits. When the wait
+     * would exceed this, the operation fails with {@link RequestThrottledException}.
+     *
+     * @param maxWait   The maximum time waiting for the limits, or 0 for
+     *                  failing without waiting.
+     * @return This object.
+     */
+    public RequestLimits setMaxWait(long maxWait) {
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("maxWait must not be negative.");
+        }
+        this.maxWait = maxWait;
+        return this;
+    }
+}
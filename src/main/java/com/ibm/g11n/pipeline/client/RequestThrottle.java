@@ -0,0 +1,356 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.ibm.g11n.pipeline.client.transport.CancellationSignal;
+
+/**
+ * <code>RequestThrottle</code> applies client side rate limits and concurrency
+ * limits (bulkhead) to requests sent to a service instance, so bulk operations
+ * do not exhaust the service quota shared with interactive operations.
+ * <p>
+ * Limits are specified for each {@link OperationClass} by {@link RequestLimits},
+ * and applied separately to each service instance, identified by the service URL
+ * and the instance ID of {@link ServiceAccount}. Requests exceeding the limits
+ * wait in the order of arrival, up to the maximum wait time. An operation class
+ * without limits is not throttled.
+ * <p>
+ * By default, all service clients share the instance returned by {@link #getDefault()},
+ * which has no limits initially. For example, the following code limits write
+ * operations to 5 requests per second and 2 concurrent requests for each
+ * service instance.
+ * <pre>
+ *      RequestThrottle.getDefault().setLimits(OperationClass.WRITE,
+ *              new RequestLimits().setRate(5).setMaxConcurrentRequests(2));
+ * </pre>
+ */
+public final class RequestThrottle {
+    private static final RequestThrottle DEFAULT = new RequestThrottle();
+
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    // Totals across all throttles, used by ClientMetrics
+    static final AtomicLong totalDelayedCount = new AtomicLong();
+    static final AtomicLong totalRejectedCount = new AtomicLong();
+
+    private static final Permit NO_LIMIT_PERMIT = new Permit(null, null);
+
+    private final ReentrantLock configLock = new ReentrantLock();
+    private volatile Map<OperationClass, Limits> limitsMap =
+            Collections.unmodifiableMap(new EnumMap<OperationClass, Limits>(OperationClass.class));
+    private final ConcurrentMap<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the throttle shared by service clients by default.
+     *
+     * @return The shared instance of <code>RequestThrottle</code>.
+     */
+    public static RequestThrottle getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Sets the limits for the operation class. The values are copied when this
+     * method is called, and replace the limits currently used. Requests already
+     * sent or waiting are not affected.
+     *
+     * @param operationClass    The operation class.
+     * @param limits            The limits, or null to remove the limits.
+     * @return This object.
+     */
+    public RequestThrottle setLimits(OperationClass operationClass, RequestLimits limits) {
+        if (operationClass == null) {
+            throw new IllegalArgumentException("operationClass must not be null.");
+        }
+        configLock.lock();
+        try {
+            EnumMap<OperationClass, Limits> newMap = new EnumMap<>(OperationClass.class);
+            newMap.putAll(limitsMap);
+            if (limits == null || (limits.getRate() == 0 && limits.getMaxConcurrentRequests() == 0)) {
+                newMap.remove(operationClass);
+            } else {
+                newMap.put(operationClass, new Limits(limits));
+            }
+            limitsMap = Collections.unmodifiableMap(newMap);
+
+            // Limiters for the operation class are created again with the new limits
+            String suffix = " " + operationClass.name();
+            for (Iterator<String> itr = limiters.keySet().iterator(); itr.hasNext();) {
+                if (itr.next().endsWith(suffix)) {
+                    itr.remove();
+                }
+            }
+        } finally {
+            configLock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Returns the limits for the operation class.
+     *
+     * @param operationClass    The operation class.
+     * @return A copy of the limits, or null if the operation class is not throttled.
+     */
+    public RequestLimits getLimits(OperationClass operationClass) {
+        Limits limits = limitsMap.get(operationClass);
+        if (limits == null) {
+            return null;
+        }
+        return new RequestLimits()
+                .setRate(limits.rate)
+                .setBurst(limits.burst)
+                .setMaxConcurrentRequests(limits.maxConcurrentRequests)
+                .setMaxWait(TimeUnit.NANOSECONDS.toMillis(limits.maxWaitNanos));
+    }
+
+    /**
+     * Acquires a permit for an operation. This method waits while the number of
+     * concurrent operations of the same class for the service instance is at the limit.
+     * The caller must call {@link Permit#beforeRequest()} before sending each request
+     * for the operation, and must release the permit when the operation completed.
+     *
+     * @param account           The service account.
+     * @param operationClass    The operation class.
+     * @param signal            The cancellation signal of the operation, or null.
+     * @return A permit for the operation.
+     * @throws RequestThrottledException when the permit was not available within
+     *          the maximum wait time.
+     * @throws InterruptedIOException when the wait was canceled or interrupted.
+     */
+    public Permit acquire(ServiceAccount account, OperationClass operationClass,
+            CancellationSignal signal) throws RequestThrottledException, InterruptedIOException {
+        Limits limits = limitsMap.get(operationClass);
+        if (limits == null) {
+            return NO_LIMIT_PERMIT;
+        }
+        String key = account.getUrl() + " " + account.getInstanceId() + " " + operationClass.name();
+        Limiter limiter = limiters.get(key);
+        if (limiter == null) {
+            Limiter newLimiter = new Limiter(operationClass, limits);
+            limiter = limiters.putIfAbsent(key, newLimiter);
+            if (limiter == null) {
+                limiter = newLimiter;
+            }
+        }
+        limiter.acquireConcurrency(signal);
+        return new Permit(limiter, signal);
+    }
+
+    /**
+     * A permit for an operation acquired by {@link RequestThrottle#acquire(ServiceAccount,
+     * OperationClass, CancellationSignal)}.
+     */
+    public static final class Permit {
+        private final Limiter limiter;
+        private final CancellationSignal signal;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Limiter limiter, CancellationSignal signal) {
+            this.limiter = limiter;
+            this.signal = signal;
+        }
+
+        /**
+         * Waits until a request can be sent within the rate limit. This method
+         * must be called before sending each request, including retries.
+         *
+         * @throws RequestThrottledException when the request could not be sent within
+         *          the maximum wait time.
+         * @throws InterruptedIOException when the wait was canceled or interrupted.
+         */
+        public void beforeRequest() throws RequestThrottledException, InterruptedIOException {
+            if (limiter != null) {
+                limiter.acquireRate(signal);
+            }
+        }
+
+        /**
+         * Releases this permit. Calling this method more than once has no effect.
+         */
+        public void release() {
+            if (limiter != null && released.compareAndSet(false, true)) {
+                limiter.releaseConcurrency();
+            }
+        }
+    }
+
+    /**
+     * Immutable copy of RequestLimits.
+     */
+    private static final class Limits {
+        final double rate;
+        final int burst;
+        final int maxConcurrentRequests;
+        final long maxWaitNanos;
+
+        Limits(RequestLimits limits) {
+            this.rate = limits.getRate();
+            this.burst = limits.getBurst();
+            this.maxConcurrentRequests = limits.getMaxConcurrentRequests();
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(limits.getMaxWait());
+        }
+    }
+
+    /**
+     * Limiter for an operation class of a service instance. The rate is controlled
+     * by generic cell rate algorithm (an equivalent of token bucket), where each
+     * request reserves a time slot in the order of arrival. Concurrent requests
+     * are limited by a FIFO queue of waiting operations.
+     */
+    private static final class Limiter {
+        private final OperationClass operationClass;
+        private final Limits limits;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final ArrayDeque<Object> waiters = new ArrayDeque<>();
+        private int available;
+        private long theoreticalArrival;
+
+        Limiter(OperationClass operationClass, Limits limits) {
+            this.operationClass = operationClass;
+            this.limits = limits;
+            this.intervalNanos = limits.rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / limits.rate) : 0;
+            this.toleranceNanos = intervalNanos * (limits.burst - 1);
+            this.available = limits.maxConcurrentRequests;
+            this.theoreticalArrival = System.nanoTime();
+        }
+
+        void acquireConcurrency(CancellationSignal signal)
+                throws RequestThrottledException, InterruptedIOException {
+            if (limits.maxConcurrentRequests == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (waiters.isEmpty() && available > 0) {
+                    available--;
+                    return;
+                }
+                if (limits.maxWaitNanos == 0) {
+                    throw rejected("Too many concurrent requests");
+                }
+                totalDelayedCount.incrementAndGet();
+                Object ticket = new Object();
+                waiters.addLast(ticket);
+                long deadline = System.nanoTime() + limits.maxWaitNanos;
+                try {
+                    while (true) {
+                        if (waiters.peekFirst() == ticket && available > 0) {
+                            available--;
+                            return;
+                        }
+                        if (signal != null) {
+                            signal.throwIfCanceled();
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw rejected("Timed out waiting for a concurrent request slot");
+                        }
+                        released.awaitNanos(signal == null ? remaining : Math.min(remaining, WAIT_SLICE_NANOS));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a request slot.");
+                } finally {
+                    waiters.remove(ticket);
+                    // The next waiter may proceed
+                    released.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void releaseConcurrency() {
+            if (limits.maxConcurrentRequests == 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                available++;
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void acquireRate(CancellationSignal signal) throws RequestThrottledException, InterruptedIOException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long waitNanos;
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                long tat = Math.max(theoreticalArrival, now);
+                waitNanos = Math.max(0, tat - toleranceNanos - now);
+                if (waitNanos > limits.maxWaitNanos) {
+                    throw rejected("Request rate limit exceeded");
+                }
+                theoreticalArrival = tat + intervalNanos;
+            } finally {
+                lock.unlock();
+            }
+            if (waitNanos > 0) {
+                totalDelayedCount.incrementAndGet();
+                sleep(waitNanos, signal);
+            }
+        }
+
+        private RequestThrottledException rejected(String reason) {
+            totalRejectedCount.incrementAndGet();
+            return new RequestThrottledException(operationClass,
+                    reason + " for " + operationClass + " operations.");
+        }
+    }
+
+    private static void sleep(long nanos, CancellationSignal signal) throws InterruptedIOException {
+        long deadline = System.nanoTime() + nanos;
+        try {
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.sleep(signal == null ? remaining : Math.min(remaining, WAIT_SLICE_NANOS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the request rate limit.");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+/**
+ * The exception thrown when a request is not sent, because it could not
+ * satisfy the {@link RequestLimits} within the maximum wait time.
+ */
+public class RequestThrottledException extends ServiceException {
+    private static final long serialVersionUID = 1L;
+
+    private final OperationClass operationClass;
+
+    /**
+     * Constructor.
+     *
+     * @param operationClass    The operation class of the request.
+     * @param message           The detail message.
+     */
+    public RequestThrottledException(OperationClass operationClass, String message) {
+        super(message);
+        this.operationClass = operationClass;
+    }
+
+    /**
+     * Returns the operation class of the request.
+     *
+     * @return The operation class of the request.
+     */
+    public OperationClass getOperationClass() {
+        return operationClass;
+    }
+}
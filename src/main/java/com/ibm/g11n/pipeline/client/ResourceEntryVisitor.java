@@ -0,0 +1,40 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.io.IOException;
+
+/**
+ * <code>ResourceEntryVisitor</code> receives resource entries one at a time from
+ * {@link ServiceClient#visitResourceEntries(String, String, ResourceEntryVisitor)}
+ * and {@link ServiceClient#visitTRResourceEntries(String, String, String, ResourceEntryVisitor)}.
+ * <p>
+ * Entries are decoded while the response body is read from the connection, and
+ * are not retained after the visitor returns, so a bundle of any size can be
+ * processed with constant memory.
+ */
+public interface ResourceEntryVisitor {
+    /**
+     * Called for each resource entry, in the order returned by the service.
+     *
+     * @param key       The resource key.
+     * @param entry     The resource entry data.
+     * @return true to continue, or false to stop reading the remaining entries.
+     * @throws IOException when the visitor failed. The exception is thrown to the
+     *          caller of the visit operation as is.
+     */
+    boolean visit(String key, ResourceEntryData entry) throws IOException;
+}
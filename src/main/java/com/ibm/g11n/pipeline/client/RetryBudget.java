@@ -0,0 +1,154 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <code>RetryBudget</code> limits retries when many requests are failing, so
+ * retries do not amplify load on the service during an outage.
+ * <p>
+ * The budget holds tokens, initially full. Each failed attempt takes one token,
+ * and each successful request returns a fraction of a token (token ratio). Retries
+ * are allowed only while more than half of the tokens are available. With the
+ * default settings, retries stop after about 50 consecutive failures, and resume
+ * once enough requests succeed again.
+ * <p>
+ * A budget may be shared by multiple {@link RetryPolicy} instances. By default,
+ * all service clients share the instance returned by {@link #getDefault()}.
+ */
+public final class RetryBudget {
+    /**
+     * Default maximum number of tokens (100).
+     */
+    public static final int DEFAULT_MAX_TOKENS = 100;
+
+    /**
+     * Default number of tokens returned by a successful request (0.1).
+     */
+    public static final double DEFAULT_TOKEN_RATIO = 0.1;
+
+    private static final RetryBudget DEFAULT = new RetryBudget(DEFAULT_MAX_TOKENS, DEFAULT_TOKEN_RATIO);
+
+    // Tokens are managed in 1/1000 units
+    private static final int SCALE = 1000;
+
+    private final int maxTokens;
+    private final double tokenRatio;
+    private final int maxMilliTokens;
+    private final int thresholdMilliTokens;
+    private final int successMilliTokens;
+    private final AtomicInteger milliTokens;
+
+    /**
+     * Constructor.
+     *
+     * @param maxTokens     The maximum number of tokens. Must be positive.
+     * @param tokenRatio    The number of tokens returned by a successful request.
+     *                      Must be positive, and not greater than 1.
+     */
+    public RetryBudget(int maxTokens, double tokenRatio) {
+        if (maxTokens <= 0 || maxTokens > Integer.MAX_VALUE / SCALE) {
+            throw new IllegalArgumentException("maxTokens is out of range.");
+        }
+        if (!(tokenRatio > 0 && tokenRatio <= 1)) {
+            throw new IllegalArgumentException("tokenRatio must be in range (0, 1].");
+        }
+        this.maxTokens = maxTokens;
+        this.tokenRatio = tokenRatio;
+        this.maxMilliTokens = maxTokens * SCALE;
+        this.thresholdMilliTokens = maxMilliTokens / 2;
+        this.successMilliTokens = Math.max(1, (int) (tokenRatio * SCALE));
+        this.milliTokens = new AtomicInteger(maxMilliTokens);
+    }
+
+    /**
+     * Returns the budget shared by service clients by default.
+     *
+     * @return The shared instance of <code>RetryBudget</code>.
+     */
+    public static RetryBudget getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the maximum number of tokens.
+     *
+     * @return The maximum number of tokens.
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    /**
+     * Returns the number of tokens returned by a successful request.
+     *
+     * @return The number of tokens returned by a successful request.
+     */
+    public double getTokenRatio() {
+        return tokenRatio;
+    }
+
+    /**
+     * Returns the number of tokens currently available.
+     *
+     * @return The number of tokens currently available.
+     */
+    public double getAvailableTokens() {
+        return (double) milliTokens.get() / SCALE;
+    }
+
+    /**
+     * Returns whether a retry is currently allowed.
+     *
+     * @return true if a retry is allowed.
+     */
+    public boolean canRetry() {
+        return milliTokens.get() > thresholdMilliTokens;
+    }
+
+    /**
+     * Records a successful request.
+     */
+    public void recordSuccess() {
+        while (true) {
+            int current = milliTokens.get();
+            if (current >= maxMilliTokens) {
+                return;
+            }
+            int next = Math.min(maxMilliTokens, current + successMilliTokens);
+            if (milliTokens.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a failed attempt, which could be retried.
+     */
+    public void recordFailure() {
+        while (true) {
+            int current = milliTokens.get();
+            if (current <= 0) {
+                return;
+            }
+            int next = Math.max(0, current - SCALE);
+            if (milliTokens.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * <code>RetryPolicy</code> is used for specifying how {@link ServiceClient}
+ * retries a request failed by a transient error.
+ * <p>
+ * A request is retried when it failed with an I/O error, such as connection
+ * reset or read timeout, or when the service responded with one of the retryable
+ * HTTP status codes (by default, 408, 429, 502, 503 and 504). By default, only
+ * requests with idempotent HTTP methods (GET, HEAD, PUT, DELETE and OPTIONS)
+ * are retried.
+ * <p>
+ * The delay before a retry is chosen randomly between 0 and the exponential
+ * backoff time (full jitter), that is, <code>min(maxBackoff, initialBackoff * 2^n)</code>
+ * for the n-th retry. When the response has <code>Retry-After</code> header,
+ * the delay specified by the server is used instead. All time values are in
+ * milliseconds.
+ * <p>
+ * Retries are also limited by a {@link RetryBudget} shared across requests,
+ * so clients stop retrying when most requests are failing.
+ */
+public class RetryPolicy {
+    /**
+     * Default maximum number of retries for a request (2).
+     */
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    /**
+     * Default backoff time for the first retry (200 milliseconds).
+     */
+    public static final long DEFAULT_INITIAL_BACKOFF = 200L;
+
+    /**
+     * Default maximum backoff time (10000 = 10 seconds).
+     */
+    public static final long DEFAULT_MAX_BACKOFF = 10000L;
+
+    /**
+     * Default maximum delay accepted from <code>Retry-After</code> response
+     * header (30000 = 30 seconds).
+     */
+    public static final long DEFAULT_MAX_RETRY_AFTER = 30000L;
+
+    private static final Set<Integer> DEFAULT_RETRYABLE_STATUS_CODES = Collections.unmodifiableSet(
+            new HashSet<Integer>(Arrays.asList(408, 429, 502, 503, 504)));
+
+    private static final Set<String> IDEMPOTENT_METHODS;
+    static {
+        Set<String> methods = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        methods.addAll(Arrays.asList("GET", "HEAD", "PUT", "DELETE", "OPTIONS"));
+        IDEMPOTENT_METHODS = Collections.unmodifiableSet(methods);
+    }
+
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    private long maxBackoff = DEFAULT_MAX_BACKOFF;
+    private long maxRetryAfter = DEFAULT_MAX_RETRY_AFTER;
+    private boolean retryNonIdempotent = false;
+    private Set<Integer> retryableStatusCodes = DEFAULT_RETRYABLE_STATUS_CODES;
+    private RetryBudget budget = RetryBudget.getDefault();
+
+    /**
+     * Returns the maximum number of retries for a request.
+     *
+     * @return The maximum number of retries for a request.
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Sets the maximum number of retries for a request. The request is sent
+     * at most <code>maxRetries + 1</code> times.
+     *
+     * @param maxRetries    The maximum number of retries. Must not be negative.
+     * @return This object.
+     */
+    public RetryPolicy setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must not be negative.");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Returns the backoff time for the first retry.
+     *
+     * @return The backoff time for the first retry.
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Sets the backoff time for the first retry. The backoff time is doubled
+     * for each subsequent retry.
+     *
+     * @param initialBackoff    The backoff time for the first retry. Must be positive.
+     * @return This object.
+     */
+    public RetryPolicy setInitialBackoff(long initialBackoff) {
+        if (initialBackoff <= 0) {
+            throw new IllegalArgumentException("initialBackoff must be positive.");
+        }
+        this.initialBackoff = initialBackoff;
+        return this;
+    }
+
+    /**
+     * Returns the maximum backoff time.
+     *
+     * @return The maximum backoff time.
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Sets the maximum backoff time.
+     *
+     * @param maxBackoff    The maximum backoff time. Must be positive.
+     * @return This object.
+     */
+    public RetryPolicy setMaxBackoff(long maxBackoff) {
+        if (maxBackoff <= 0) {
+            throw new IllegalArgumentException("maxBackoff must be positive.");
+        }
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    /**
+     * Returns the maximum delay accepted from <code>Retry-After</code> response header.
+     *
+     * @return The maximum delay accepted from <code>Retry-After</code> response header.
+     */
+    public long getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /**
+     * Sets the maximum delay accepted from <code>Retry-After</code> response header.
+     * When the server asks to wait longer than this, the request is not retried,
+     * and the response is returned to the caller.
+     *
+     * @param maxRetryAfter The maximum delay accepted from <code>Retry-After</code>
+     *                      response header. Must not be negative.
+     * @return This object.
+     */
+    public RetryPolicy setMaxRetryAfter(long maxRetryAfter) {
+        if (maxRetryAfter < 0) {
+            throw new IllegalArgumentException("maxRetryAfter must not be negative.");
+        }
+        this.maxRetryAfter = maxRetryAfter;
+        return this;
+    }
+
+    /**
+     * Returns whether requests with non-idempotent HTTP methods, such as POST,
+     * are also retried.
+     *
+     * @return true if requests with non-idempotent HTTP methods are also retried.
+     */
+    public boolean isRetryNonIdempotent() {
+        return retryNonIdempotent;
+    }
+
+    /**
+     * Sets whether requests with non-idempotent HTTP methods, such as POST,
+     * are also retried. Retrying such a request may repeat the operation when
+     * the service processed the original request, but the response was lost.
+     * It is disabled by default.
+     *
+     * @param retryNonIdempotent    true to retry requests with non-idempotent methods.
+     * @return This object.
+     */
+    public RetryPolicy setRetryNonIdempotent(boolean retryNonIdempotent) {
+        this.retryNonIdempotent = retryNonIdempotent;
+        return this;
+    }
+
+    /**
+     * Returns the set of HTTP status codes to be retried.
+     *
+     * @return The unmodifiable set of HTTP status codes to be retried.
+     */
+    public Set<Integer> getRetryableStatusCodes() {
+        return retryableStatusCodes;
+    }
+
+    /**
+     * Sets HTTP status codes to be retried.
+     *
+     * @param statusCodes   HTTP status codes to be retried.
+     * @return This object.
+     */
+    public RetryPolicy setRetryableStatusCodes(int... statusCodes) {
+        Set<Integer> codes = new HashSet<>();
+        for (int code : statusCodes) {
+            codes.add(code);
+        }
+        this.retryableStatusCodes = Collections.unmodifiableSet(codes);
+        return this;
+    }
+
+    /**
+     * Returns the retry budget.
+     *
+     * @return The retry budget.
+     */
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Sets the retry budget. By default, the shared instance returned by
+     * {@link RetryBudget#getDefault()} is used.
+     *
+     * @param budget    The retry budget. Must not be null.
+     * @return This object.
+     */
+    public RetryPolicy setBudget(RetryBudget budget) {
+        this.budget = Objects.requireNonNull(budget, "budget must not be null");
+        return this;
+    }
+
+    /**
+     * Returns whether a request with the HTTP method can be retried by this policy.
+     *
+     * @param method    The HTTP method.
+     * @return true if a request with the method can be retried.
+     */
+    public boolean isRetryableMethod(String method) {
+        return retryNonIdempotent || IDEMPOTENT_METHODS.contains(method);
+    }
+
+    /**
+     * Returns whether a response with the HTTP status code should be retried.
+     *
+     * @param statusCode    The HTTP status code.
+     * @return true if a response with the status code should be retried.
+     */
+    public boolean isRetryableStatus(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+}
@@ -28,6 +28,7 @@ import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.ibm.g11n.pipeline.client.rb.CloudResourceBundleControl;
+import com.ibm.g11n.pipeline.iam.TokenLifeCycleManager;
 import com.ibm.g11n.pipeline.iam.TokenManager;
 import com.ibm.g11n.pipeline.iam.TokenManagerException;
 import com.ibm.g11n.pipeline.iam.TokenManagerFactory;
@@ -504,6 +505,21 @@ public class ServiceAccount {
     public String getIamToken() throws TokenManagerException  {
        return tokenManager.getToken();
     }
+
+    /**
+     * IAM bearer token for the account. When the token is fetched from IAM,
+     * the request uses the timeouts of the timeout configuration, and does not
+     * take longer than the deadline.
+     * @param timeoutConfig The timeout configuration, or null for no timeouts.
+     * @param deadline The deadline, or null.
+     * @return IAM bearer token for the account
+     */
+    public String getIamToken(TimeoutConfig timeoutConfig, Deadline deadline) throws TokenManagerException {
+        if (tokenManager instanceof TokenLifeCycleManager) {
+            return ((TokenLifeCycleManager) tokenManager).getToken(timeoutConfig, deadline);
+        }
+        return tokenManager.getToken();
+    }
     
     /**
      * Returns the URL of IBM Globalization Pipeline service.
@@ -19,11 +19,22 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import com.ibm.g11n.pipeline.client.cache.LruResponseCache;
+import com.ibm.g11n.pipeline.client.cache.ResponseCache;
 import com.ibm.g11n.pipeline.client.impl.ServiceClientImpl;
+import com.ibm.g11n.pipeline.client.json.JsonCodec;
+import com.ibm.g11n.pipeline.client.json.JsonCodecs;
+import com.ibm.g11n.pipeline.client.transport.Http2Transport;
+import com.ibm.g11n.pipeline.client.transport.HttpTransport;
+import com.ibm.g11n.pipeline.client.transport.PooledHttpTransport;
 
 /**
  * <code>ServiceClient</code> provides public REST API access to
@@ -50,8 +61,33 @@ public abstract class ServiceClient {
         BASIC
     };
 
+    /**
+     * The environment variable name for selecting the default HTTP transport.
+     * When the value is "http2" and the Java runtime supports it, the shared
+     * {@link Http2Transport} is used by default. Otherwise, the shared
+     * {@link PooledHttpTransport} is used.
+     */
+    public static final String GP_HTTP_TRANSPORT = "GP_HTTP_TRANSPORT";
+
+    /**
+     * The default minimum size of a request body compressed when request
+     * compression is enabled (1024 bytes).
+     */
+    public static final int DEFAULT_REQUEST_COMPRESSION_THRESHOLD = 1024;
+
     protected final ServiceAccount account;
     protected AuthScheme scheme = AuthScheme.HMAC;
+    protected HttpTransport transport = getDefaultTransport();
+    protected boolean responseCompression = true;
+    protected boolean requestCompression = false;
+    protected int requestCompressionThreshold = DEFAULT_REQUEST_COMPRESSION_THRESHOLD;
+    protected boolean requestCoalescing = true;
+    protected ResponseCache responseCache = LruResponseCache.getDefault();
+    protected RetryPolicy retryPolicy = new RetryPolicy();
+    protected CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.getDefault();
+    protected RequestThrottle requestThrottle = RequestThrottle.getDefault();
+    protected TimeoutConfig timeouts = new TimeoutConfig();
+    protected JsonCodec jsonCodec = JsonCodecs.getDefault();
 
     /**
      * Protected constructor for a subclass extending <code>ServiceClient</code>.
@@ -123,6 +159,284 @@ public abstract class ServiceClient {
         this.scheme = scheme;
     }
 
+    private static HttpTransport getDefaultTransport() {
+        if ("http2".equalsIgnoreCase(System.getenv(GP_HTTP_TRANSPORT))
+                && Http2Transport.isSupported()) {
+            return Http2Transport.getDefault();
+        }
+        return PooledHttpTransport.getDefault();
+    }
+
+    /**
+     * Returns the HTTP transport used for sending requests to IBM Globalization
+     * Pipeline service's REST endpoints.
+     * <p>
+     * By default, the shared instance of {@link PooledHttpTransport} is used,
+     * or the shared instance of {@link Http2Transport} is used when
+     * the environment variable {@link #GP_HTTP_TRANSPORT} is set to "http2".
+     * 
+     * @return The HTTP transport.
+     */
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Sets the HTTP transport.
+     * <p>
+     * The transport is not closed by this service client. The caller is
+     * responsible for closing a transport created by the caller.
+     * 
+     * @param transport The HTTP transport. Must not be null.
+     */
+    public void setTransport(HttpTransport transport) {
+        this.transport = Objects.requireNonNull(transport, "transport must not be null");
+    }
+
+    /**
+     * Returns the JSON codec used for request and response bodies.
+     * <p>
+     * By default, the codec returned by {@link JsonCodecs#getDefault()} is used.
+     * 
+     * @return The JSON codec.
+     */
+    public JsonCodec getJsonCodec() {
+        return jsonCodec;
+    }
+
+    /**
+     * Sets the JSON codec used for request and response bodies.
+     * 
+     * @param jsonCodec The JSON codec. Must not be null.
+     */
+    public void setJsonCodec(JsonCodec jsonCodec) {
+        this.jsonCodec = Objects.requireNonNull(jsonCodec, "jsonCodec must not be null");
+    }
+
+    /**
+     * Returns whether this client accepts compressed (gzip or deflate)
+     * response bodies.
+     * <p>
+     * By default, compressed responses are accepted.
+     * 
+     * @return true if compressed responses are accepted.
+     */
+    public boolean isResponseCompressionEnabled() {
+        return responseCompression;
+    }
+
+    /**
+     * Sets whether this client accepts compressed (gzip or deflate) response
+     * bodies. When enabled, compressed responses are decompressed while they
+     * are read from the connection.
+     * 
+     * @param enabled   true to accept compressed responses.
+     */
+    public void setResponseCompressionEnabled(boolean enabled) {
+        this.responseCompression = enabled;
+    }
+
+    /**
+     * Returns whether this client compresses request bodies.
+     * <p>
+     * By default, request bodies are not compressed.
+     * 
+     * @return true if request bodies are compressed.
+     */
+    public boolean isRequestCompressionEnabled() {
+        return requestCompression;
+    }
+
+    /**
+     * Sets whether this client compresses request bodies larger than
+     * or equal to the threshold size with gzip.
+     * 
+     * @param enabled   true to compress request bodies.
+     * @see #setRequestCompressionThreshold(int)
+     */
+    public void setRequestCompressionEnabled(boolean enabled) {
+        this.requestCompression = enabled;
+    }
+
+    /**
+     * Returns the minimum size of a request body compressed when request
+     * compression is enabled.
+     * 
+     * @return The minimum size of a request body compressed in bytes.
+     */
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of a request body compressed when request
+     * compression is enabled. A smaller body is sent without compression.
+     * 
+     * @param threshold The minimum size of a request body compressed in bytes.
+     *                  Must not be negative.
+     */
+    public void setRequestCompressionThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.requestCompressionThreshold = threshold;
+    }
+
+
+    /**
+     * Returns whether concurrent identical read requests are coalesced.
+     * <p>
+     * By default, request coalescing is enabled.
+     * 
+     * @return true if concurrent identical read requests are coalesced.
+     */
+    public boolean isRequestCoalescingEnabled() {
+        return requestCoalescing;
+    }
+
+    /**
+     * Sets whether concurrent identical read requests are coalesced.
+     * <p>
+     * When enabled, a read operation issued while an identical request (same
+     * endpoint and same credentials) is in flight does not send another request.
+     * Instead, it waits for the in-flight request and returns the same result.
+     * Each caller receives its own copy of the result, so the returned objects,
+     * such as the map returned by {@link #getResourceStrings(String, String, boolean)},
+     * may be modified by the caller. The number of coalesced requests is available from
+     * {@link ClientMetrics#getCoalescedRequestCount()}.
+     * 
+     * @param enabled   true to coalesce concurrent identical read requests.
+     */
+    public void setRequestCoalescingEnabled(boolean enabled) {
+        this.requestCoalescing = enabled;
+    }
+
+    /**
+     * Returns the cache used for conditional read requests.
+     * 
+     * @return The response cache, or null if conditional requests are disabled.
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Sets the cache used for conditional read requests.
+     * <p>
+     * When a read operation receives a response with <code>ETag</code> or
+     * <code>Last-Modified</code> header, the response body is stored in the cache.
+     * An identical read operation later sends a conditional request, and decodes
+     * the cached body when the server responds with <code>304 Not Modified</code>.
+     * Each operation returns a newly decoded object, which may be modified by the
+     * caller. The number of conditional requests answered by the cache is available
+     * from {@link ClientMetrics#getNotModifiedCount()}.
+     * <p>
+     * By default, the shared instance of {@link LruResponseCache} is used, which
+     * holds up to {@link LruResponseCache#DEFAULT_MAX_ENTRIES} responses and
+     * {@link LruResponseCache#DEFAULT_MAX_BYTES} bytes of response bodies.
+     * 
+     * @param responseCache The response cache, or null to disable conditional requests.
+     */
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Returns the retry policy used for requests failed by transient errors.
+     * 
+     * @return The retry policy, or null if retries are disabled.
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Sets the retry policy used for requests failed by transient errors.
+     * <p>
+     * By default, requests with idempotent HTTP methods are retried up to
+     * {@link RetryPolicy#DEFAULT_MAX_RETRIES} times with exponential backoff,
+     * limited by the shared {@link RetryBudget}. The number of retries is available
+     * from {@link ClientMetrics#getRetryCount()}.
+     * 
+     * @param retryPolicy   The retry policy, or null to disable retries.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Returns the registry of circuit breakers used by this client.
+     * 
+     * @return The circuit breaker registry, or null if circuit breakers are disabled.
+     */
+    public CircuitBreakerRegistry getCircuitBreakerRegistry() {
+        return circuitBreakers;
+    }
+
+    /**
+     * Sets the registry of circuit breakers used by this client.
+     * <p>
+     * Each request is guarded by a {@link CircuitBreaker} for the service URL and
+     * the operation. While the circuit is open, the operation fails immediately
+     * with {@link CircuitBreakerOpenException} without sending a request.
+     * <p>
+     * By default, the shared instance returned by {@link CircuitBreakerRegistry#getDefault()}
+     * is used.
+     * 
+     * @param registry  The circuit breaker registry, or null to disable circuit breakers.
+     */
+    public void setCircuitBreakerRegistry(CircuitBreakerRegistry registry) {
+        this.circuitBreakers = registry;
+    }
+
+    /**
+     * Returns the request throttle used by this client.
+     * 
+     * @return The request throttle, or null if requests are not throttled.
+     */
+    public RequestThrottle getRequestThrottle() {
+        return requestThrottle;
+    }
+
+    /**
+     * Sets the request throttle used by this client.
+     * <p>
+     * The request throttle limits the request rate and the number of concurrent
+     * requests to a service instance for each {@link OperationClass}. Operations
+     * over the limits wait in the order of arrival, and fail with
+     * {@link RequestThrottledException} when the wait exceeds the maximum wait time.
+     * <p>
+     * By default, the shared instance returned by {@link RequestThrottle#getDefault()}
+     * is used, which does not have any limits until configured.
+     * 
+     * @param requestThrottle   The request throttle, or null to disable throttling.
+     */
+    public void setRequestThrottle(RequestThrottle requestThrottle) {
+        this.requestThrottle = requestThrottle;
+    }
+
+    /**
+     * Returns the timeout configuration used by this client.
+     * 
+     * @return The timeout configuration, or null if requests have no timeouts.
+     */
+    public TimeoutConfig getTimeoutConfig() {
+        return timeouts;
+    }
+
+    /**
+     * Sets the timeout configuration used by this client.
+     * <p>
+     * By default, each request attempt uses {@link TimeoutConfig#DEFAULT_CONNECT_TIMEOUT}
+     * and {@link TimeoutConfig#DEFAULT_READ_TIMEOUT}, and operations do not have
+     * call timeouts. A {@link Deadline} attached to the calling thread bounds
+     * the operations issued by the thread regardless of this configuration.
+     * 
+     * @param timeoutConfig The timeout configuration, or null for no timeouts.
+     */
+    public void setTimeoutConfig(TimeoutConfig timeoutConfig) {
+        this.timeouts = timeoutConfig;
+    }
 
     //
     // $service/v2 APIs
@@ -258,6 +572,40 @@ public abstract class ServiceClient {
     public abstract Map<String, ResourceEntryData> getResourceEntries(String bundleId,
             String language) throws ServiceException;
 
+    /**
+     * Reads resource string entries in the bundle and the language, and passes
+     * them to the visitor one at a time, while the response is read from the
+     * connection.
+     * <p>
+     * Unlike {@link #getResourceEntries(String, String)}, this method does not
+     * build a map of all entries, so it is suitable for very large bundles. Entries
+     * are visited in the order returned by the service, not sorted by key. Responses
+     * are neither cached nor shared with concurrent identical requests.
+     * <p>
+     * The default implementation passes the entries returned by
+     * {@link #getResourceEntries(String, String)} to the visitor. Subclasses
+     * should override it to read entries while the response is received.
+     * 
+     * @param bundleId  The bundle ID.
+     * @param language  The language specified by BCP 47 language tag.
+     * @param visitor   The visitor receiving resource entries.
+     * @throws ServiceException when the operation failed.
+     * @throws IOException when the visitor failed.
+     */
+    public void visitResourceEntries(String bundleId, String language,
+            ResourceEntryVisitor visitor) throws ServiceException, IOException {
+        visitEntries(getResourceEntries(bundleId, language), visitor);
+    }
+
+    private static void visitEntries(Map<String, ResourceEntryData> entries,
+            ResourceEntryVisitor visitor) throws IOException {
+        for (Map.Entry<String, ResourceEntryData> entry : entries.entrySet()) {
+            if (!visitor.visit(entry.getKey(), entry.getValue())) {
+                break;
+            }
+        }
+    }
+
 
     /**
      * Returns per language metrics information
@@ -553,7 +901,12 @@ public abstract class ServiceClient {
             String language) throws IllegalArgumentException, ServiceException;
 
     /**
-     * Write the contents of a document in a particular language to an OutputStream
+     * Write the contents of a document in a particular language to an OutputStream.
+     * <p>
+     * The content is written while it is downloaded, without buffering the entire
+     * document in memory. When the connection fails during the download, the rest
+     * of the content is requested again according to the retry policy, using
+     * HTTP <code>Range</code> requests if the server supports them.
      * 
      * @param type  The type of document being requested.
      * @param documentId  The document ID.
@@ -567,6 +920,58 @@ public abstract class ServiceClient {
     public abstract void writeDocumentContent(DocumentType type, String documentId,
             String language, OutputStream os) throws IllegalArgumentException, ServiceException, IOException;
 
+    /**
+     * Downloads the contents of a document in a particular language to a file.
+     * <p>
+     * The content is written to a temporary file in the same directory through
+     * a <code>FileChannel</code>, which replaces the target file when the download
+     * completed. When the connection fails during the download, it is resumed by
+     * HTTP <code>Range</code> requests if the server supports them, or restarted
+     * otherwise, according to the retry policy. The target file is not modified
+     * when the operation failed.
+     * <p>
+     * The default implementation writes the content to the temporary file with
+     * {@link #writeDocumentContent(DocumentType, String, String, OutputStream)}.
+     * 
+     * @param type  The type of document being requested.
+     * @param documentId  The document ID.
+     * @param language  The language specified by BCP 47 language tag.
+     * @param target  The file where the contents of the document will be written.
+     *                Missing parent directories are created.
+     * @throws IllegalArgumentException if the documentId or language parameters 
+     *         are invalid.
+     * @throws ServiceException when the operation failed.
+     * @throws IOException when writing document contents to the file failed.
+     */
+    public void downloadDocumentContent(DocumentType type, String documentId,
+            String language, Path target) throws IllegalArgumentException, ServiceException, IOException {
+        if (target == null) {
+            throw new IllegalArgumentException("target must be specified.");
+        }
+
+        Path absTarget = target.toAbsolutePath();
+        Path dir = absTarget.getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, absTarget.getFileName().toString() + ".", ".part");
+        boolean completed = false;
+        try {
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                writeDocumentContent(type, documentId, language, os);
+            }
+            try {
+                Files.move(temp, absTarget, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absTarget, StandardCopyOption.REPLACE_EXISTING);
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
     /**
      * Deletes a translatable document.
      * <p>
@@ -890,6 +1295,27 @@ public abstract class ServiceClient {
     public abstract Map<String, ResourceEntryData> getTRResourceEntries(String trId, String bundleId,
             String language) throws ServiceException;
 
+    /**
+     * Reads resource string entries in the bundle and the language included in
+     * the translation request, and passes them to the visitor one at a time,
+     * while the response is read from the connection.
+     * See {@link #visitResourceEntries(String, String, ResourceEntryVisitor)}.
+     * <p>
+     * The default implementation passes the entries returned by
+     * {@link #getTRResourceEntries(String, String, String)} to the visitor.
+     * 
+     * @param trId      The translation request ID.
+     * @param bundleId  The bundle ID.
+     * @param language  The language specified by BCP 47 language tag.
+     * @param visitor   The visitor receiving resource entries.
+     * @throws ServiceException when the operation failed.
+     * @throws IOException when the visitor failed.
+     */
+    public void visitTRResourceEntries(String trId, String bundleId,
+            String language, ResourceEntryVisitor visitor) throws ServiceException, IOException {
+        visitEntries(getTRResourceEntries(trId, bundleId, language), visitor);
+    }
+
     /**
      * Returns the resource entry specified by the bundle ID, the language and the resource key
      * included in the translation request.
@@ -915,7 +1341,8 @@ public abstract class ServiceClient {
      * @param srcLanguage   The source language specified by BCP 47 language tag.
      * @param trgLanguage   The target language specified by BCP 47 language tag.
      * @param bundleIds     The set of bundle IDs, or null for all bundles.
-     * @param outputXliff   The output XLIFF stream.
+     * @param outputXliff   The output XLIFF stream. The XLIFF data is written while
+     *                      it is received.
      * @throws ServiceException when the operation failed.
      * @throws IOException      when writing XLIFF data to the output stream failed.
      */
@@ -925,6 +1352,9 @@ public abstract class ServiceClient {
     /**
      * Updates bundle contents with the input XLIFF 2.0 stream. The input XLIFF must contains
      * resource entries for a pair of source language and target language.
+     * <p>
+     * The input is spooled to a temporary file before it is sent, so the request
+     * body can be signed and retried without holding the XLIFF in memory.
      * 
      * @param inputXliff    The input XLIFF stream.
      * @throws ServiceException when the operation failed.
@@ -932,6 +1362,27 @@ public abstract class ServiceClient {
      */
     public abstract void updateBundlesWithXliff(InputStream inputXliff) throws ServiceException, IOException;
 
+    /**
+     * Updates bundle contents with the XLIFF 2.0 file. The input XLIFF must contains
+     * resource entries for a pair of source language and target language. The file
+     * is sent without loading it into memory.
+     * <p>
+     * The default implementation opens the file and passes the stream to
+     * {@link #updateBundlesWithXliff(InputStream)}.
+     * 
+     * @param inputXliff    The input XLIFF file.
+     * @throws ServiceException when the operation failed.
+     * @throws IOException      when reading XLIFF data from the file failed.
+     */
+    public void updateBundlesWithXliff(File inputXliff) throws ServiceException, IOException {
+        if (inputXliff == null) {
+            throw new IllegalArgumentException("inputXliff must be specified.");
+        }
+        try (InputStream is = Files.newInputStream(inputXliff.toPath())) {
+            updateBundlesWithXliff(is);
+        }
+    }
+
     /**
      * Returns bundle contents for the specified source-target language pair in XLIFF 2.0
      * format included in the translation request.
@@ -0,0 +1,130 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * <code>TimeoutConfig</code> is used for specifying timeouts applied to
+ * requests sent by {@link ServiceClient}. All time values are in milliseconds,
+ * and 0 means no timeout.
+ * <p>
+ * The connect timeout and the read timeout apply to each request attempt.
+ * The call timeout of an {@link OperationClass} is the default {@link Deadline}
+ * of an operation, bounding all attempts of the operation together with
+ * the time spent for reading the response.
+ */
+public class TimeoutConfig {
+    /**
+     * Default timeout for establishing a connection (10000 = 10 seconds).
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    /**
+     * Default timeout waiting for data from the service (60000 = 60 seconds).
+     */
+    public static final int DEFAULT_READ_TIMEOUT = 60000;
+
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int readTimeout = DEFAULT_READ_TIMEOUT;
+    private final Map<OperationClass, Long> callTimeouts = new EnumMap<>(OperationClass.class);
+
+    /**
+     * Returns the timeout for establishing a connection.
+     *
+     * @return The connect timeout, or 0 if no timeout.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Sets the timeout for establishing a connection. The default value is
+     * {@link #DEFAULT_CONNECT_TIMEOUT}.
+     *
+     * @param connectTimeout    The connect timeout, or 0 for no timeout.
+     * @return This object.
+     */
+    public TimeoutConfig setConnectTimeout(int connectTimeout) {
+        if (connectTimeout < 0) {
+            throw new IllegalArgumentException("connectTimeout must not be negative.");
+        }
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Returns the timeout waiting for data from the service.
+     *
+     * @return The read timeout, or 0 if no timeout.
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets the timeout waiting for data from the service. The timeout applies
+     * to each read from the connection, not to the entire response. The default
+     * value is {@link #DEFAULT_READ_TIMEOUT}.
+     *
+     * @param readTimeout   The read timeout, or 0 for no timeout.
+     * @return This object.
+     */
+    public TimeoutConfig setReadTimeout(int readTimeout) {
+        if (readTimeout < 0) {
+            throw new IllegalArgumentException("readTimeout must not be negative.");
+        }
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Returns the call timeout of operations in the operation class.
+     *
+     * @param operationClass    The operation class.
+     * @return The call timeout, or 0 if no timeout.
+     */
+    public long getCallTimeout(OperationClass operationClass) {
+        Long timeout = callTimeouts.get(operationClass);
+        return timeout == null ? 0 : timeout.longValue();
+    }
+
+    /**
+     * Sets the call timeout of operations in the operation class. An operation
+     * is aborted when it is not completed within the call timeout, including
+     * retries. If a {@link Deadline} is attached to the calling thread, the
+     * earlier one is used. By default, no call timeout is set.
+     *
+     * @param operationClass    The operation class. Must not be null.
+     * @param callTimeout       The call timeout, or 0 for no timeout.
+     * @return This object.
+     */
+    public TimeoutConfig setCallTimeout(OperationClass operationClass, long callTimeout) {
+        if (operationClass == null) {
+            throw new IllegalArgumentException("operationClass must not be null.");
+        }
+        if (callTimeout < 0) {
+            throw new IllegalArgumentException("callTimeout must not be negative.");
+        }
+        if (callTimeout == 0) {
+            callTimeouts.remove(operationClass);
+        } else {
+            callTimeouts.put(operationClass, callTimeout);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * <code>CachedResponse</code> is an immutable entry of {@link ResponseCache},
+ * holding a response body and its validators.
+ * <p>
+ * The body is kept as bytes rather than a decoded object, so a service client
+ * decodes a new object for each caller, and the size of an entry is known.
+ */
+public final class CachedResponse {
+    private final String etag;
+    private final String lastModified;
+    private final byte[] body;
+
+    /**
+     * Constructor.
+     *
+     * @param etag          The value of <code>ETag</code> response header, or null.
+     * @param lastModified  The value of <code>Last-Modified</code> response header, or null.
+     * @param body          The response body, without content encoding. The array is
+     *                      not copied, and must not be modified after this call.
+     * @throws IllegalArgumentException when both validators are null, or body is null.
+     */
+    public CachedResponse(String etag, String lastModified, byte[] body) {
+        if (etag == null && lastModified == null) {
+            throw new IllegalArgumentException("etag or lastModified must be specified.");
+        }
+        if (body == null) {
+            throw new IllegalArgumentException("body must not be null.");
+        }
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.body = body;
+    }
+
+    /**
+     * Returns the entity tag of the response.
+     *
+     * @return The entity tag of the response, or null.
+     */
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * Returns the last modified date of the response in HTTP date format.
+     *
+     * @return The last modified date of the response, or null.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns a new input stream reading the response body.
+     *
+     * @return A new input stream reading the response body.
+     */
+    public InputStream getBody() {
+        return new ByteArrayInputStream(body);
+    }
+
+    /**
+     * Returns the size of the response body in bytes.
+     *
+     * @return The size of the response body in bytes.
+     */
+    public int getBodyLength() {
+        return body.length;
+    }
+}
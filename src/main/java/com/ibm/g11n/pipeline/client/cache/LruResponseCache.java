@@ -0,0 +1,205 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <code>LruResponseCache</code> is a {@link ResponseCache} holding a bounded
+ * number of entries in memory, up to a total size of response bodies. When
+ * either limit is exceeded, the least recently used entries are evicted. A
+ * response larger than the total size limit is not cached.
+ */
+public final class LruResponseCache implements ResponseCache {
+    /**
+     * Default maximum number of entries of the shared cache (256).
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    /**
+     * Default maximum total size of response bodies (16777216 = 16 MiB).
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final LruResponseCache DEFAULT =
+            new LruResponseCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedResponse> entries =
+            new LinkedHashMap<String, CachedResponse>(16, 0.75f, true);
+    private long totalBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Constructor. The total size of response bodies is limited to {@link #DEFAULT_MAX_BYTES}.
+     *
+     * @param maxEntries    The maximum number of entries. Must be positive.
+     */
+    public LruResponseCache(int maxEntries) {
+        this(maxEntries, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxEntries    The maximum number of entries. Must be positive.
+     * @param maxBytes      The maximum total size of response bodies in bytes. Must be positive.
+     */
+    public LruResponseCache(int maxEntries, long maxBytes) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cache shared by service clients by default.
+     *
+     * @return The shared instance of <code>LruResponseCache</code>.
+     */
+    public static LruResponseCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return The maximum number of entries.
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns the maximum total size of response bodies.
+     *
+     * @return The maximum total size of response bodies in bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the current number of entries.
+     *
+     * @return The current number of entries.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current total size of response bodies.
+     *
+     * @return The current total size of response bodies in bytes.
+     */
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries evicted because of the limits.
+     *
+     * @return The number of evicted entries.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public CachedResponse get(String key) {
+        lock.lock();
+        try {
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        if (key == null || response == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            removeEntry(key);
+            if (response.getBodyLength() > maxBytes) {
+                return;
+            }
+            entries.put(key, response);
+            totalBytes += response.getBodyLength();
+            Iterator<Map.Entry<String, CachedResponse>> itr = entries.entrySet().iterator();
+            while (entries.size() > maxEntries || totalBytes > maxBytes) {
+                // The iteration order is from the least recently used entry
+                CachedResponse eldest = itr.next().getValue();
+                itr.remove();
+                totalBytes -= eldest.getBodyLength();
+                evictionCount.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        lock.lock();
+        try {
+            removeEntry(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeEntry(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.getBodyLength();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.cache;
+
+/**
+ * <code>ResponseCache</code> stores response bodies of read operations
+ * together with their validators (<code>ETag</code> and <code>Last-Modified</code>),
+ * so a service client can send conditional requests and decode the cached
+ * body when the server responds with <code>304 Not Modified</code>.
+ * <p>
+ * A cache only stores validators and response bodies. Whether a cached object is still
+ * fresh is always confirmed by the server, so an implementation may drop any
+ * entry at any time. Implementations must be thread safe.
+ */
+public interface ResponseCache {
+    /**
+     * Returns the cached response for the key.
+     *
+     * @param key   The cache key.
+     * @return The cached response, or null if not available.
+     */
+    CachedResponse get(String key);
+
+    /**
+     * Stores the response for the key, replacing an existing entry.
+     *
+     * @param key       The cache key.
+     * @param response  The response to be cached.
+     */
+    void put(String key, CachedResponse response);
+
+    /**
+     * Removes the entry for the key.
+     *
+     * @param key   The cache key.
+     */
+    void remove(String key);
+
+    /**
+     * Removes all entries.
+     */
+    void clear();
+}
@@ -0,0 +1,20 @@
+/**
+ * Provides the response cache used by
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient ServiceClient} for
+ * conditional read requests.
+ *
+ * <p>
+ * When a read operation receives a response with <code>ETag</code> or
+ * <code>Last-Modified</code> header, the service client stores the response
+ * body with the validators in a
+ * {@link com.ibm.g11n.pipeline.client.cache.ResponseCache ResponseCache}.
+ * The next identical operation sends <code>If-None-Match</code> and/or
+ * <code>If-Modified-Since</code> headers, and decodes the cached body without
+ * downloading the response again when the server responds with
+ * <code>304 Not Modified</code>. Each operation returns a newly decoded object.
+ * By default, service clients share a
+ * {@link com.ibm.g11n.pipeline.client.cache.LruResponseCache LruResponseCache}
+ * instance, bounded by the number of entries and the total size of bodies. A different cache can be specified by
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient#setResponseCache(ResponseCache)}.
+ */
+package com.ibm.g11n.pipeline.client.cache;
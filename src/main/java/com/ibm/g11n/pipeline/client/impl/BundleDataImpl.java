@@ -15,11 +15,13 @@
  */
 package com.ibm.g11n.pipeline.client.impl;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.google.gson.stream.JsonReader;
 import com.ibm.g11n.pipeline.client.BundleData;
 
 /**
@@ -131,5 +133,51 @@ class BundleDataImpl extends BundleData {
         public String getNoTranslationPattern() {
             return noTranslationPattern;
         }
+
+        /**
+         * Reads a bundle without reflection.
+         */
+        static RestBundle read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestBundle bundle = new RestBundle();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "sourceLanguage":
+                    bundle.sourceLanguage = JsonReaders.readString(in);
+                    break;
+                case "targetLanguages":
+                    bundle.targetLanguages = JsonReaders.readStringSet(in);
+                    break;
+                case "readOnly":
+                    bundle.readOnly = JsonReaders.readBoolean(in);
+                    break;
+                case "notes":
+                    bundle.notes = JsonReaders.readStringList(in);
+                    break;
+                case "metadata":
+                    bundle.metadata = JsonReaders.readStringMap(in);
+                    break;
+                case "partner":
+                    bundle.partner = JsonReaders.readString(in);
+                    break;
+                case "segmentSeparatorPattern":
+                    bundle.segmentSeparatorPattern = JsonReaders.readString(in);
+                    break;
+                case "noTranslationPattern":
+                    bundle.noTranslationPattern = JsonReaders.readString(in);
+                    break;
+                default:
+                    if (!bundle.readField(name, in)) {
+                        in.skipValue();
+                    }
+                }
+            }
+            in.endObject();
+            return bundle;
+        }
     }
 }
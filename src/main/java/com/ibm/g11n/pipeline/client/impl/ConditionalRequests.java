@@ -0,0 +1,133 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.g11n.pipeline.client.cache.CachedResponse;
+import com.ibm.g11n.pipeline.client.cache.LruResponseCache;
+import com.ibm.g11n.pipeline.client.cache.ResponseCache;
+import com.ibm.g11n.pipeline.client.transport.TransportResponse;
+
+/**
+ * Conditional GET support backed by {@link ResponseCache}.
+ */
+public final class ConditionalRequests {
+    private static final AtomicLong conditionalCount = new AtomicLong();
+    private static final AtomicLong notModifiedCount = new AtomicLong();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Returns the number of conditional requests sent.
+     *
+     * @return The number of conditional requests sent.
+     */
+    public static long getConditionalCount() {
+        return conditionalCount.get();
+    }
+
+    /**
+     * Returns the number of conditional requests answered by 304 Not Modified.
+     *
+     * @return The number of conditional requests answered by 304 Not Modified.
+     */
+    public static long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * Returns the cache key for a GET request. The key does not include
+     * credentials, because the server authorizes every conditional request,
+     * and only returns 304 when the representation matches the validators.
+     */
+    static String cacheKey(String url, Class<?> responseType) {
+        return responseType.getName() + " " + url;
+    }
+
+    /**
+     * Returns request headers carrying validators of the cached response.
+     */
+    static Map<String, String> getValidatorHeaders(CachedResponse cached) {
+        Map<String, String> headers = new HashMap<>(4);
+        if (cached.getETag() != null) {
+            headers.put("If-None-Match", cached.getETag());
+        }
+        if (cached.getLastModified() != null) {
+            headers.put("If-Modified-Since", cached.getLastModified());
+        }
+        conditionalCount.incrementAndGet();
+        return headers;
+    }
+
+    /**
+     * Returns whether the response confirms the cached response is still valid.
+     */
+    static boolean isNotModified(TransportResponse response) {
+        if (response.getStatus() == 304) {
+            notModifiedCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the maximum size of the response body kept for the cache, or -1
+     * when the response is not cached. Only a successful response with a
+     * validator, which is not known to exceed the size limit of the cache,
+     * is kept.
+     */
+    static long getBodyLimit(ResponseCache cache, TransportResponse response) {
+        if (response.getStatus() != 200
+                || (response.getHeader("ETag") == null && response.getHeader("Last-Modified") == null)) {
+            return -1;
+        }
+        long limit = cache instanceof LruResponseCache
+                ? ((LruResponseCache) cache).getMaxBytes() : Integer.MAX_VALUE;
+        // A compressed body does not get smaller when it is decompressed
+        if (response.getContentLength() > limit) {
+            return -1;
+        }
+        return limit;
+    }
+
+    /**
+     * Updates the cache with a successful response. The cache stores the
+     * response body, which is decoded again on a cache hit, so callers never
+     * share a decoded object. The body is null when it was not kept, because
+     * it exceeded the limit returned by {@link #getBodyLimit(ResponseCache, TransportResponse)}.
+     */
+    static void update(ResponseCache cache, String key, TransportResponse response, Object value,
+            byte[] body, CachedResponse previous) {
+        if (response.getStatus() != 200 || value == null) {
+            return;
+        }
+        if (value instanceof ServiceResponse
+                && ((ServiceResponse) value).getStatus() != ServiceResponse.Status.SUCCESS) {
+            return;
+        }
+        String etag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        if ((etag != null || lastModified != null) && body != null) {
+            cache.put(key, new CachedResponse(etag, lastModified, body));
+        } else if (previous != null) {
+            cache.remove(key);
+        }
+    }
+}
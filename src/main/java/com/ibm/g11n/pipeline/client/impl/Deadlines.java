@@ -0,0 +1,229 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.ibm.g11n.pipeline.client.Deadline;
+import com.ibm.g11n.pipeline.client.OperationClass;
+import com.ibm.g11n.pipeline.client.TimeoutConfig;
+import com.ibm.g11n.pipeline.client.transport.CancellationSignal;
+
+/**
+ * Deadline handling of API calls based on {@link Deadline} and {@link TimeoutConfig}.
+ */
+public final class Deadlines {
+    private static final AtomicLong exceededCount = new AtomicLong();
+
+    private Deadlines() {
+    }
+
+    /**
+     * Returns the number of operations aborted by deadlines.
+     *
+     * @return The number of operations aborted by deadlines.
+     */
+    public static long getDeadlineExceededCount() {
+        return exceededCount.get();
+    }
+
+    private static class TimerHolder {
+        static final ScheduledThreadPoolExecutor INSTANCE = createTimer();
+
+        private static ScheduledThreadPoolExecutor createTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                    new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("gp-client-deadline-%d")
+                        .build());
+            // Most calls complete before their deadlines
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+
+    /**
+     * Returns the deadline of an operation, which is the earlier of the deadline
+     * attached to the current thread and the call timeout of the operation class.
+     *
+     * @return The deadline, or null if the operation has no deadline.
+     */
+    static Deadline getDeadline(TimeoutConfig config, OperationClass operationClass) {
+        Deadline deadline = Deadline.current();
+        long callTimeout = config == null ? 0 : config.getCallTimeout(operationClass);
+        if (callTimeout > 0) {
+            Deadline callDeadline = Deadline.after(callTimeout, TimeUnit.MILLISECONDS);
+            if (deadline == null || callDeadline.isBefore(deadline)) {
+                deadline = callDeadline;
+            }
+        }
+        return deadline;
+    }
+
+    /**
+     * Returns the timeout of a request attempt, which does not exceed the time
+     * remaining until the deadline.
+     *
+     * @param timeout   The configured timeout in milliseconds, or 0 for no timeout.
+     * @param deadline  The deadline, or null.
+     * @return The timeout in milliseconds, or 0 for no timeout.
+     */
+    static int getTimeout(int timeout, Deadline deadline) {
+        if (deadline == null) {
+            return timeout;
+        }
+        // 0 means no timeout, so at least 1 millisecond
+        long remaining = Math.max(1, deadline.getRemaining(TimeUnit.MILLISECONDS));
+        if (timeout > 0 && timeout < remaining) {
+            return timeout;
+        }
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the exception reporting the deadline was exceeded.
+     *
+     * @param activity  The activity interrupted by the deadline.
+     * @param cause     The I/O error caused by the deadline, or null.
+     * @param count     Whether the operation is counted.
+     */
+    static SocketTimeoutException exceeded(String activity, IOException cause, boolean count) {
+        if (count) {
+            exceededCount.incrementAndGet();
+        }
+        SocketTimeoutException e = new SocketTimeoutException("Deadline exceeded while " + activity);
+        if (cause != null) {
+            e.initCause(cause);
+        }
+        return e;
+    }
+
+    /**
+     * The scope of an API call bounded by a deadline. The cancellation signal of
+     * the scope is canceled when the deadline expires, or when the signal of the
+     * caller is canceled, so the connection used by the call is aborted.
+     */
+    static final class Scope {
+        private final Deadline deadline;
+        private final String description;
+        private final CancellationSignal signal = new CancellationSignal();
+        private final CancellationSignal parent;
+        private final Runnable parentListener;
+        private final ScheduledFuture<?> timer;
+        private final AtomicBoolean exceeded = new AtomicBoolean();
+
+        Scope(Deadline deadline, CancellationSignal parent, String description) {
+            this.deadline = deadline;
+            this.description = description;
+            this.parent = parent;
+            if (parent != null) {
+                parentListener = new Runnable() {
+                    @Override
+                    public void run() {
+                        signal.cancel();
+                    }
+                };
+                parent.addListener(parentListener);
+            } else {
+                parentListener = null;
+            }
+            timer = TimerHolder.INSTANCE.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    signal.cancel();
+                }
+            }, deadline.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+
+        Deadline getDeadline() {
+            return deadline;
+        }
+
+        CancellationSignal getSignal() {
+            return signal;
+        }
+
+        boolean isExpired() {
+            return deadline.isExpired();
+        }
+
+        /**
+         * Returns the exception reporting the deadline was exceeded.
+         */
+        SocketTimeoutException exceeded(IOException cause) {
+            return Deadlines.exceeded("processing " + description, cause,
+                    exceeded.compareAndSet(false, true));
+        }
+
+        /**
+         * Returns the stream reporting an I/O error after the deadline as
+         * the deadline exceeded.
+         */
+        InputStream wrap(InputStream is) {
+            return new FilterInputStream(is) {
+                @Override
+                public int read() throws IOException {
+                    try {
+                        return super.read();
+                    } catch (IOException e) {
+                        throw translate(e);
+                    }
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    try {
+                        return super.read(b, off, len);
+                    } catch (IOException e) {
+                        throw translate(e);
+                    }
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    try {
+                        return super.skip(n);
+                    } catch (IOException e) {
+                        throw translate(e);
+                    }
+                }
+            };
+        }
+
+        private IOException translate(IOException e) {
+            return isExpired() ? exceeded(e) : e;
+        }
+
+        /**
+         * Ends the scope, and releases the timer.
+         */
+        void close() {
+            timer.cancel(false);
+            if (parent != null) {
+                parent.removeListener(parentListener);
+            }
+        }
+    }
+}
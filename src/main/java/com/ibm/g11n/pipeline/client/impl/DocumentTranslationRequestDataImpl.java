@@ -15,16 +15,19 @@
  */
 package com.ibm.g11n.pipeline.client.impl;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
+import com.google.gson.stream.JsonReader;
 import com.ibm.g11n.pipeline.client.DocumentTranslationRequestData;
 import com.ibm.g11n.pipeline.client.DocumentTranslationRequestDataChangeSet;
 import com.ibm.g11n.pipeline.client.IndustryDomain;
@@ -287,6 +290,123 @@ public class DocumentTranslationRequestDataImpl extends DocumentTranslationReque
         public Date getMergedAt() {
             return mergedAt;
         }
+
+        /**
+         * Reads a document translation request without reflection.
+         */
+        static RestDocumentTranslationRequest read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestDocumentTranslationRequest tr = new RestDocumentTranslationRequest();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "targetLanguagesMap":
+                    tr.targetLanguagesMap = readTargetLanguagesMap(in);
+                    break;
+                case "wordCountsMap":
+                    tr.wordCountsMap = readWordCountsMap(in);
+                    break;
+                case "partner":
+                    tr.partner = JsonReaders.readString(in);
+                    break;
+                case "name":
+                    tr.name = JsonReaders.readString(in);
+                    break;
+                case "organization":
+                    tr.organization = JsonReaders.readString(in);
+                    break;
+                case "emails":
+                    tr.emails = JsonReaders.readStringList(in);
+                    break;
+                case "phones":
+                    tr.phones = JsonReaders.readStringList(in);
+                    break;
+                case "domains":
+                    tr.domains = JsonReaders.readStringSet(in);
+                    break;
+                case "notes":
+                    tr.notes = JsonReaders.readStringList(in);
+                    break;
+                case "metadata":
+                    tr.metadata = JsonReaders.readStringMap(in);
+                    break;
+                case "partnerParameters":
+                    tr.partnerParameters = JsonReaders.readStringMap(in);
+                    break;
+                case "status":
+                    tr.status = JsonReaders.readString(in);
+                    break;
+                case "estimatedCompletion":
+                    tr.estimatedCompletion = JsonReaders.readDate(in);
+                    break;
+                case "createdAt":
+                    tr.createdAt = JsonReaders.readDate(in);
+                    break;
+                case "startedAt":
+                    tr.startedAt = JsonReaders.readDate(in);
+                    break;
+                case "submittedAt":
+                    tr.submittedAt = JsonReaders.readDate(in);
+                    break;
+                case "translatedAt":
+                    tr.translatedAt = JsonReaders.readDate(in);
+                    break;
+                case "mergedAt":
+                    tr.mergedAt = JsonReaders.readDate(in);
+                    break;
+                default:
+                    if (!tr.readField(name, in)) {
+                        in.skipValue();
+                    }
+                }
+            }
+            in.endObject();
+            return tr;
+        }
+
+        private static Map<String, Map<String, Set<String>>> readTargetLanguagesMap(JsonReader in)
+                throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            Map<String, Map<String, Set<String>>> map = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                map.put(key, JsonReaders.readStringSetMap(in));
+            }
+            in.endObject();
+            return map;
+        }
+
+        private static Map<String, Map<String, RestWordCountData>> readWordCountsMap(JsonReader in)
+                throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            Map<String, Map<String, RestWordCountData>> map = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String type = in.nextName();
+                if (JsonReaders.nextIsNull(in)) {
+                    map.put(type, null);
+                    continue;
+                }
+                Map<String, RestWordCountData> byDocument = new LinkedHashMap<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String key = in.nextName();
+                    byDocument.put(key, RestWordCountData.read(in));
+                }
+                in.endObject();
+                map.put(type, byDocument);
+            }
+            in.endObject();
+            return map;
+        }
     }
 
     /**
@@ -305,6 +425,32 @@ public class DocumentTranslationRequestDataImpl extends DocumentTranslationReque
         public Map<String, Integer> getCounts() {
             return counts;
         }
+
+        /**
+         * Reads word count data without reflection.
+         */
+        static RestWordCountData read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestWordCountData wc = new RestWordCountData();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "sourceLanguage":
+                    wc.sourceLanguage = JsonReaders.readString(in);
+                    break;
+                case "counts":
+                    wc.counts = JsonReaders.readIntegerMap(in);
+                    break;
+                default:
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return wc;
+        }
     }
 
     /**
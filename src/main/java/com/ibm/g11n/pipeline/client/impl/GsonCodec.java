@@ -0,0 +1,202 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map.Entry;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.ibm.g11n.pipeline.client.TranslationRequestStatus;
+import com.ibm.g11n.pipeline.client.TranslationStatus;
+import com.ibm.g11n.pipeline.client.json.JsonCodec;
+import com.ibm.g11n.pipeline.client.impl.BundleDataImpl.RestBundle;
+import com.ibm.g11n.pipeline.client.impl.DocumentTranslationRequestDataImpl.RestDocumentTranslationRequest;
+import com.ibm.g11n.pipeline.client.impl.ResourceEntryDataImpl.RestResourceEntry;
+import com.ibm.g11n.pipeline.client.impl.SegmentDataImpl.RestSegmentData;
+import com.ibm.g11n.pipeline.client.impl.ServiceClientImpl.EnumWithFallbackAdapter;
+import com.ibm.g11n.pipeline.client.impl.ServiceClientImpl.NullMapValueTypeAdapterFactory;
+import com.ibm.g11n.pipeline.client.impl.TranslationRequestDataImpl.RestTranslationRequest;
+
+/**
+ * The built-in {@link JsonCodec} based on Gson.
+ * <p>
+ * A <code>Gson</code> object is immutable and thread safe once created, and
+ * caches the type adapters it resolved, so creating one per request spends
+ * most of the time on reflection rather than on parsing. The shared instance
+ * also reads the data objects used in bulk responses (resource entries,
+ * bundles, segments and translation requests) with hand written streaming
+ * type adapters, and dates with a parser that does not use
+ * <code>SimpleDateFormat</code>.
+ */
+public final class GsonCodec implements JsonCodec {
+    static final EnumWithFallbackAdapter<TranslationStatus> TRANSLATION_STATUS_ADAPTER =
+            new EnumWithFallbackAdapter<TranslationStatus>(TranslationStatus.UNKNOWN);
+
+    static final EnumWithFallbackAdapter<TranslationRequestStatus> TRANSLATION_REQUEST_STATUS_ADAPTER =
+            new EnumWithFallbackAdapter<TranslationRequestStatus>(TranslationRequestStatus.UNKNOWN);
+
+    private static final Gson GSON = createGson();
+
+    private static final GsonCodec DEFAULT = new GsonCodec();
+
+    private GsonCodec() {
+    }
+
+    /**
+     * Returns the shared instance.
+     *
+     * @return The shared instance of <code>GsonCodec</code>.
+     */
+    public static GsonCodec getDefault() {
+        return DEFAULT;
+    }
+
+    @Override
+    public <T> T fromJson(Reader reader, Type type) throws IOException {
+        try {
+            return GSON.fromJson(new JsonReader(reader), type);
+        } catch (JsonParseException e) {
+            throw new IOException("Failed to read JSON: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void toJson(Object value, Type type, Writer writer) throws IOException {
+        try {
+            GSON.toJson(value, type, writer);
+        } catch (JsonParseException e) {
+            throw new IOException("Failed to write JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the shared Gson object.
+     *
+     * @return The shared Gson object.
+     */
+    static Gson getGson() {
+        return GSON;
+    }
+
+    private static Gson createGson() {
+        GsonBuilder builder = new GsonBuilder();
+
+        // ISO8601 date format support
+        builder.registerTypeAdapter(Date.class, Iso8601DateAdapter.INSTANCE);
+
+        builder.registerTypeAdapter(TranslationStatus.class, TRANSLATION_STATUS_ADAPTER);
+        builder.registerTypeAdapter(TranslationRequestStatus.class, TRANSLATION_REQUEST_STATUS_ADAPTER);
+
+        builder.registerTypeAdapter(
+                new TypeToken<EnumMap<TranslationStatus, Integer>>() {}.getType(),
+                new TranslationStatusMetricsAdapter());
+
+        // Factories registered later take precedence, so the data objects
+        // are read by RestTypeAdapterFactory before reaching the map factory.
+        builder.registerTypeAdapterFactory(new NullMapValueTypeAdapterFactory());
+        builder.registerTypeAdapterFactory(new RestTypeAdapterFactory());
+
+        return builder.create();
+    }
+
+    /**
+     * Type adapter for translation status metrics, such as
+     * <code>{"SOURCE_LANGUAGE":3,"TRANSLATED":5}</code>.
+     */
+    private static class TranslationStatusMetricsAdapter
+            extends TypeAdapter<EnumMap<TranslationStatus, Integer>> {
+        @Override
+        public EnumMap<TranslationStatus, Integer> read(JsonReader in) throws IOException {
+            return JsonReaders.readTranslationStatusMetrics(in);
+        }
+
+        @Override
+        public void write(JsonWriter out, EnumMap<TranslationStatus, Integer> value)
+                throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            for (Entry<TranslationStatus, Integer> entry : value.entrySet()) {
+                out.name(entry.getKey().name());
+                out.value(entry.getValue());
+            }
+            out.endObject();
+        }
+    }
+
+    /**
+     * TypeAdapterFactory reading the data objects with their static <code>read</code>
+     * methods. Data objects are only serialized in tests and diagnostics, so writing
+     * is delegated to the reflective type adapter.
+     */
+    static class RestTypeAdapterFactory implements TypeAdapterFactory {
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+            final Class<?> rawType = typeToken.getRawType();
+            if (rawType != RestResourceEntry.class
+                    && rawType != RestBundle.class
+                    && rawType != RestSegmentData.class
+                    && rawType != RestTranslationRequest.class
+                    && rawType != RestDocumentTranslationRequest.class) {
+                return null;
+            }
+
+            final TypeAdapter<T> delegate = gson.getDelegateAdapter(this, typeToken);
+            return new TypeAdapter<T>() {
+                @Override
+                public void write(JsonWriter out, T value) throws IOException {
+                    delegate.write(out, value);
+                }
+
+                @SuppressWarnings("unchecked")
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    return (T) readRestObject(rawType, in);
+                }
+            };
+        }
+
+        private static Object readRestObject(Class<?> rawType, JsonReader in) throws IOException {
+            if (rawType == RestResourceEntry.class) {
+                return RestResourceEntry.read(in);
+            }
+            if (rawType == RestBundle.class) {
+                return RestBundle.read(in);
+            }
+            if (rawType == RestSegmentData.class) {
+                return RestSegmentData.read(in);
+            }
+            if (rawType == RestTranslationRequest.class) {
+                return RestTranslationRequest.read(in);
+            }
+            return RestDocumentTranslationRequest.read(in);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Date;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Type adapter for ISO 8601 date-time used by the REST API, such as
+ * "2019-03-14T21:35:40.263Z".
+ * <p>
+ * Unlike <code>SimpleDateFormat</code> used by Gson's default date adapter,
+ * this adapter does not share mutable state, so threads decoding responses
+ * concurrently do not contend for a lock. Dates are written in UTC with
+ * milliseconds.
+ */
+final class Iso8601DateAdapter extends TypeAdapter<Date> {
+    static final Iso8601DateAdapter INSTANCE = new Iso8601DateAdapter();
+
+    private Iso8601DateAdapter() {
+    }
+
+    @Override
+    public Date read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String value = in.nextString();
+        try {
+            return new Date(parse(value));
+        } catch (ParseException e) {
+            throw new JsonSyntaxException(value, e);
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, Date value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(format(value.getTime()));
+    }
+
+    /**
+     * Parses ISO 8601 date-time in the form of <code>yyyy-MM-dd['T'HH:mm[:ss[.fraction]]][zone]</code>,
+     * where zone is "Z", or an offset in +HH, +HHmm or +HH:mm. The time is
+     * in UTC when zone is omitted.
+     *
+     * @param s The text.
+     * @return The time in milliseconds since the epoch.
+     * @throws ParseException when the text is not in the form.
+     */
+    static long parse(String s) throws ParseException {
+        Cursor c = new Cursor(s);
+        int year = c.digits(4);
+        c.expect('-');
+        int month = c.digits(2);
+        c.expect('-');
+        int day = c.digits(2);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            throw new ParseException("Invalid date: " + s, 0);
+        }
+
+        int hour = 0, minute = 0, second = 0, millis = 0;
+        if (c.accept('T') || c.accept('t')) {
+            hour = c.digits(2);
+            c.expect(':');
+            minute = c.digits(2);
+            if (c.accept(':')) {
+                second = c.digits(2);
+                if (c.accept('.') || c.accept(',')) {
+                    // Fraction of second; digits after milliseconds are truncated
+                    int scale = 100;
+                    int n = 0;
+                    while (c.isDigit()) {
+                        millis += (c.next() - '0') * scale;
+                        scale /= 10;
+                        n++;
+                    }
+                    if (n == 0) {
+                        throw c.error();
+                    }
+                }
+            }
+            if (hour > 23 || minute > 59 || second > 60) {
+                throw new ParseException("Invalid time: " + s, 0);
+            }
+        }
+
+        int offsetMinutes = 0;
+        if (!c.atEnd()) {
+            if (c.accept('Z') || c.accept('z')) {
+                // UTC
+            } else {
+                int sign;
+                if (c.accept('+')) {
+                    sign = 1;
+                } else if (c.accept('-')) {
+                    sign = -1;
+                } else {
+                    throw c.error();
+                }
+                int offsetHours = c.digits(2);
+                int offsetMins = 0;
+                if (!c.atEnd()) {
+                    c.accept(':');
+                    offsetMins = c.digits(2);
+                }
+                offsetMinutes = sign * (offsetHours * 60 + offsetMins);
+            }
+            if (!c.atEnd()) {
+                throw c.error();
+            }
+        }
+
+        long epochDay = toEpochDay(year, month, day);
+        long epochSecond = epochDay * 86400L + hour * 3600L + minute * 60L + second
+                - offsetMinutes * 60L;
+        return epochSecond * 1000L + millis;
+    }
+
+    /**
+     * Formats the time in UTC, for example, "2019-03-14T21:35:40.263Z".
+     *
+     * @param millis    The time in milliseconds since the epoch.
+     * @return The formatted text.
+     */
+    static String format(long millis) {
+        long epochSecond = floorDiv(millis, 1000L);
+        int millisOfSecond = (int) (millis - epochSecond * 1000L);
+        long epochDay = floorDiv(epochSecond, 86400L);
+        int secondOfDay = (int) (epochSecond - epochDay * 86400L);
+
+        // Civil date from days since 1970-01-01 in a year starting from March
+        long days = epochDay + 719468;
+        long era = floorDiv(days, 146097L);
+        long dayOfEra = days - era * 146097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (int) ((5 * dayOfYear + 2) / 153);
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        char[] buf = new char[24];
+        put(buf, 0, (int) year, 4);
+        buf[4] = '-';
+        put(buf, 5, month, 2);
+        buf[7] = '-';
+        put(buf, 8, day, 2);
+        buf[10] = 'T';
+        put(buf, 11, secondOfDay / 3600, 2);
+        buf[13] = ':';
+        put(buf, 14, secondOfDay / 60 % 60, 2);
+        buf[16] = ':';
+        put(buf, 17, secondOfDay % 60, 2);
+        buf[19] = '.';
+        put(buf, 20, millisOfSecond, 3);
+        buf[23] = 'Z';
+        return new String(buf);
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 in the proleptic Gregorian calendar.
+     */
+    static long toEpochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = floorDiv(y, 400L);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static void put(char[] buf, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Math#floorDiv is not available in Java 7
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    /**
+     * Position in the text being parsed.
+     */
+    private static final class Cursor {
+        private final String s;
+        private int pos;
+
+        Cursor(String s) {
+            this.s = s;
+        }
+
+        boolean atEnd() {
+            return pos >= s.length();
+        }
+
+        boolean isDigit() {
+            return pos < s.length() && s.charAt(pos) >= '0' && s.charAt(pos) <= '9';
+        }
+
+        char next() {
+            return s.charAt(pos++);
+        }
+
+        boolean accept(char ch) {
+            if (pos < s.length() && s.charAt(pos) == ch) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char ch) throws ParseException {
+            if (!accept(ch)) {
+                throw error();
+            }
+        }
+
+        int digits(int count) throws ParseException {
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                if (!isDigit()) {
+                    throw error();
+                }
+                value = value * 10 + (next() - '0');
+            }
+            return value;
+        }
+
+        ParseException error() {
+            return new ParseException("Unparseable date: \"" + s + "\"", pos);
+        }
+    }
+}
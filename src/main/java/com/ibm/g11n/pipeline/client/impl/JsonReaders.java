@@ -0,0 +1,181 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.ibm.g11n.pipeline.client.TranslationStatus;
+
+/**
+ * Helper methods used by the streaming type adapters for reading JSON values.
+ * Values are converted in the same way as Gson's default type adapters, and
+ * JSON null is read as Java null. Collections are created with the same
+ * iteration order as the JSON input.
+ */
+final class JsonReaders {
+    private JsonReaders() {
+    }
+
+    /**
+     * Returns true and consumes the value if the next value is JSON null.
+     */
+    static boolean nextIsNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Reads a boolean value. JSON null is read as false.
+     */
+    static boolean readBoolean(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    static Integer readInteger(JsonReader in) throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        return in.nextInt();
+    }
+
+    static TranslationStatus readTranslationStatus(JsonReader in) throws IOException {
+        return GsonCodec.TRANSLATION_STATUS_ADAPTER.read(in);
+    }
+
+    static Date readDate(JsonReader in) throws IOException {
+        return Iso8601DateAdapter.INSTANCE.read(in);
+    }
+
+    static List<String> readStringList(JsonReader in) throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        List<String> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(readString(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    static Set<String> readStringSet(JsonReader in) throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        Set<String> set = new LinkedHashSet<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            set.add(readString(in));
+        }
+        in.endArray();
+        return set;
+    }
+
+    static Map<String, String> readStringMap(JsonReader in) throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            map.put(key, readString(in));
+        }
+        in.endObject();
+        return map;
+    }
+
+    static Map<String, Integer> readIntegerMap(JsonReader in) throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        Map<String, Integer> map = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            map.put(key, readInteger(in));
+        }
+        in.endObject();
+        return map;
+    }
+
+    static Map<String, Set<String>> readStringSetMap(JsonReader in) throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        Map<String, Set<String>> map = new LinkedHashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            map.put(key, readStringSet(in));
+        }
+        in.endObject();
+        return map;
+    }
+
+    /**
+     * Reads translation status metrics, such as <code>{"SOURCE_LANGUAGE":3,"TRANSLATED":5}</code>.
+     */
+    static EnumMap<TranslationStatus, Integer> readTranslationStatusMetrics(JsonReader in)
+            throws IOException {
+        if (nextIsNull(in)) {
+            return null;
+        }
+        EnumMap<TranslationStatus, Integer> map = new EnumMap<>(TranslationStatus.class);
+        in.beginObject();
+        while (in.hasNext()) {
+            TranslationStatus status =
+                    GsonCodec.TRANSLATION_STATUS_ADAPTER.toEnumWithFallback(in.nextName());
+            map.put(status, readInteger(in));
+        }
+        in.endObject();
+        return map;
+    }
+}
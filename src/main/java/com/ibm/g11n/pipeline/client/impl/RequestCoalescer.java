@@ -0,0 +1,279 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.g11n.pipeline.client.Deadline;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient.AuthScheme;
+import com.ibm.g11n.pipeline.client.ServiceException;
+import com.ibm.g11n.pipeline.client.transport.CancellationSignal;
+
+/**
+ * <code>RequestCoalescer</code> lets concurrent identical idempotent requests
+ * share a single in-flight request (single-flight).
+ * <p>
+ * The first caller of {@link #execute(Key, Call)} for a key executes the call.
+ * Other callers arriving with an equal key while the call is in flight wait for
+ * the call, and receive their own copy of the result made by {@link Call#copy(Object)},
+ * or an exception wrapping the same failure. In-flight requests are tracked JVM wide, because a new
+ * <code>ServiceClient</code> instance is usually created for each operation.
+ * <p>
+ * The call stops accepting other callers by {@link Flight#stopJoining()} before it
+ * reads the response body, so it knows whether the body must be kept for copies.
+ * Callers arriving after that send their own request.
+ */
+public final class RequestCoalescer {
+    private static final ConcurrentMap<Key, Flight> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private static final AtomicLong executedCount = new AtomicLong();
+    private static final AtomicLong coalescedCount = new AtomicLong();
+
+    private static final long CANCEL_POLL_MILLIS = 100;
+
+    private RequestCoalescer() {
+    }
+
+    /**
+     * A call executed by the coalescer.
+     */
+    interface Call<T> {
+        /**
+         * Executes the call. The call must invoke {@link Flight#stopJoining()}
+         * before it starts processing the response.
+         */
+        T call(Flight flight) throws ServiceException;
+
+        /**
+         * Returns a copy of the result of the call executed by another caller,
+         * so callers do not share mutable objects.
+         */
+        T copy(T result) throws ServiceException;
+    }
+
+    /**
+     * Returns the number of calls that were actually executed.
+     *
+     * @return The number of calls actually executed.
+     */
+    public static long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * Returns the number of calls that received the result of another
+     * in-flight call instead of sending their own request.
+     *
+     * @return The number of coalesced calls.
+     */
+    public static long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return The number of calls currently in flight.
+     */
+    public static int getInFlightCount() {
+        return IN_FLIGHT.size();
+    }
+
+    /**
+     * Executes the call, or waits for an in-flight call with the same key.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T execute(Key key, Call<T> call) throws ServiceException {
+        while (true) {
+            Flight flight = new Flight(key);
+            Flight existing = IN_FLIGHT.putIfAbsent(key, flight);
+            if (existing == null) {
+                executedCount.incrementAndGet();
+                return (T) lead(flight, call);
+            }
+            if (!existing.join()) {
+                // The call already stopped accepting other callers
+                continue;
+            }
+
+            existing.await();
+            if (existing.leaderCanceled) {
+                // The caller executing the request was canceled. This caller
+                // is not canceled, so try again.
+                continue;
+            }
+            coalescedCount.incrementAndGet();
+            if (existing.failure != null) {
+                throw new ServiceException(existing.failure.getMessage(), existing.failure);
+            }
+            return call.copy((T) existing.result);
+        }
+    }
+
+    private static Object lead(Flight flight, Call<?> call) throws ServiceException {
+        try {
+            Object result = call.call(flight);
+            flight.result = result;
+            return result;
+        } catch (ServiceException | RuntimeException e) {
+            CancellationSignal signal = CancellationSignal.current();
+            flight.leaderCanceled = signal != null && signal.isCanceled();
+            flight.failure = e;
+            throw e;
+        } finally {
+            flight.stopJoining();
+            flight.done.countDown();
+        }
+    }
+
+    /**
+     * An in-flight call, and the callers waiting for it.
+     */
+    static final class Flight {
+        private final Key key;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Object result;
+        volatile Exception failure;
+        volatile boolean leaderCanceled;
+        private int waiters;
+        private boolean joinable = true;
+
+        Flight(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a waiting caller, unless the call stopped accepting callers.
+         */
+        synchronized boolean join() {
+            if (joinable) {
+                waiters++;
+            }
+            return joinable;
+        }
+
+        /**
+         * Stops accepting other callers, and returns whether any caller is waiting
+         * for the result. Calling this method again has no effect.
+         *
+         * @return true if the result is copied for other callers.
+         */
+        synchronized boolean stopJoining() {
+            if (joinable) {
+                joinable = false;
+                IN_FLIGHT.remove(key, this);
+            }
+            return waiters > 0;
+        }
+
+        void await() throws ServiceException {
+            CancellationSignal signal = CancellationSignal.current();
+            Deadline deadline = Deadline.current();
+            try {
+                if (signal == null && deadline == null) {
+                    done.await();
+                    return;
+                }
+                while (!done.await(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (signal != null && signal.isCanceled()) {
+                        throw new ServiceException(
+                                new InterruptedIOException("The request was canceled."));
+                    }
+                    if (deadline != null && deadline.isExpired()) {
+                        throw new ServiceException(Deadlines.exceeded(
+                                "waiting for an in-flight request", null, true));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceException("Interrupted while waiting for an in-flight request", e);
+            }
+        }
+    }
+
+    /**
+     * Identifies a request. Two requests are identical when they have the same
+     * method, URL, expected response type, and are sent with the same
+     * credentials.
+     */
+    static final class Key {
+        private final String method;
+        private final String url;
+        private final Class<?> responseType;
+        private final AuthScheme scheme;
+        private final String userId;
+        private final String password;
+        private final ServiceAccount iamAccount;
+        private final int hash;
+
+        Key(String method, String url, Class<?> responseType, ServiceAccount account,
+                AuthScheme scheme, boolean anonymous) {
+            this.method = method;
+            this.url = url;
+            this.responseType = responseType;
+            if (anonymous) {
+                this.scheme = null;
+                this.userId = null;
+                this.password = null;
+                this.iamAccount = null;
+            } else if (account.isIamEnabled()) {
+                // Token managers are not comparable; share only within the account
+                this.scheme = null;
+                this.userId = null;
+                this.password = null;
+                this.iamAccount = account;
+            } else {
+                this.scheme = scheme;
+                this.userId = account.getUserId();
+                this.password = account.getPassword();
+                this.iamAccount = null;
+            }
+            this.hash = Objects.hash(method, url, responseType, this.scheme, this.userId,
+                    System.identityHashCode(this.iamAccount));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash
+                    && method.equals(other.method)
+                    && url.equals(other.url)
+                    && responseType == other.responseType
+                    && scheme == other.scheme
+                    && iamAccount == other.iamAccount
+                    && Objects.equals(userId, other.userId)
+                    && Objects.equals(password, other.password);
+        }
+    }
+}
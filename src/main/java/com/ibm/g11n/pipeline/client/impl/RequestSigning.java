@@ -0,0 +1,423 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Date header and Authorization header values for API requests.
+ * <p>
+ * These are calculated for every request, so this class avoids repeating the
+ * work shared by requests. The Date header value is formatted once per second,
+ * the Basic credential is encoded once per user, and <code>Mac</code> instances
+ * are reused from a small pool shared by all threads, and fed with the request
+ * body without copying.
+ */
+final class RequestSigning {
+    private RequestSigning() {
+    }
+
+    //
+    // Date header
+    //
+
+    private static final String[] DAYS_OF_WEEK = {"Thu", "Fri", "Sat", "Sun", "Mon", "Tue", "Wed"};
+    private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun",
+        "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+
+    /**
+     * Date header value with the epoch second it was formatted for.
+     */
+    private static final class CachedDate {
+        final long epochSecond;
+        final String value;
+
+        CachedDate(long epochSecond, String value) {
+            this.epochSecond = epochSecond;
+            this.value = value;
+        }
+    }
+
+    private static volatile CachedDate cachedDate = new CachedDate(Long.MIN_VALUE, null);
+
+    /**
+     * Returns the current time in RFC 1123 format used by the Date header,
+     * for example, "Tue, 15 Nov 1994 08:12:31 GMT".
+     */
+    static String getDateHeader() {
+        return getDateHeader(System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the time in RFC 1123 format used by the Date header.
+     *
+     * @param millis    The time in milliseconds since the epoch.
+     */
+    static String getDateHeader(long millis) {
+        long epochSecond = floorDiv(millis, 1000L);
+        CachedDate cached = cachedDate;
+        if (cached.epochSecond == epochSecond) {
+            return cached.value;
+        }
+        String value = formatDate(epochSecond);
+        cachedDate = new CachedDate(epochSecond, value);
+        return value;
+    }
+
+    /**
+     * Formats the time in RFC 1123 format, in the proleptic Gregorian calendar.
+     */
+    static String formatDate(long epochSecond) {
+        long epochDay = floorDiv(epochSecond, 86400L);
+        int secondOfDay = (int) (epochSecond - epochDay * 86400L);
+
+        // Civil date from days since 1970-01-01, shifting the year to start
+        // from March, so the leap day comes at the end of a year
+        long days = epochDay + 719468;
+        long era = floorDiv(days, 146097L);
+        long dayOfEra = days - era * 146097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (int) ((5 * dayOfYear + 2) / 153);
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        StringBuilder buf = new StringBuilder(29);
+        buf.append(DAYS_OF_WEEK[(int) (epochDay - floorDiv(epochDay, 7L) * 7)]).append(", ");
+        appendTwoDigits(buf, day);
+        buf.append(' ').append(MONTHS[month - 1]).append(' ');
+        buf.append(year).append(' ');
+        appendTwoDigits(buf, secondOfDay / 3600);
+        buf.append(':');
+        appendTwoDigits(buf, secondOfDay / 60 % 60);
+        buf.append(':');
+        appendTwoDigits(buf, secondOfDay % 60);
+        buf.append(" GMT");
+        return buf.toString();
+    }
+
+    // Math#floorDiv is not available in Java 7
+    private static long floorDiv(long x, long y) {
+        long q = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            q--;
+        }
+        return q;
+    }
+
+    private static void appendTwoDigits(StringBuilder buf, int value) {
+        buf.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    //
+    // Basic credential
+    //
+
+    private static final int MAX_CACHED_CREDENTIALS = 64;
+
+    /**
+     * Basic Authorization header value with the secret it was encoded from.
+     */
+    private static final class BasicCredential {
+        final String secret;
+        final String authorization;
+
+        BasicCredential(String secret, String authorization) {
+            this.secret = secret;
+            this.authorization = authorization;
+        }
+    }
+
+    private static final ConcurrentMap<String, BasicCredential> basicCredentials =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Returns the Authorization header value for Basic authentication.
+     */
+    static String getBasicAuthorization(String uid, String secret) {
+        if (uid == null || secret == null) {
+            throw new IllegalArgumentException("uid and secret must not be null");
+        }
+        BasicCredential cached = basicCredentials.get(uid);
+        if (cached != null && cached.secret.equals(secret)) {
+            return cached.authorization;
+        }
+        String token = uid + ":" + secret;
+        String authorization = "Basic "
+                + BaseEncoding.base64().encode(token.getBytes(StandardCharsets.ISO_8859_1));
+        if (basicCredentials.size() >= MAX_CACHED_CREDENTIALS) {
+            // Applications rarely use many users, so simply start over
+            basicCredentials.clear();
+        }
+        basicCredentials.put(uid, new BasicCredential(secret, authorization));
+        return authorization;
+    }
+
+    //
+    // Globalization Pipeline HMAC credential
+    //
+
+    private static final byte LINE_SEP = 0x0A;
+    private static final String HMAC_SHA1_ALGORITHM = "HmacSHA1";
+    private static final String HMAC_PREFIX = "GaaS-HMAC ";
+    private static final int FILE_CHUNK_SIZE = 16 * 1024;
+    private static final char[] BASE64_CHARS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * <code>Mac</code> instance used by one request at a time, initialized with
+     * the last secret it signed with, and buffers for encoding the message and
+     * the header value.
+     */
+    private static final class Signer {
+        final Mac mac;
+        final byte[] hmac;
+        String secret;
+        byte[] buf = new byte[256];
+        char[] chars = new char[128];
+        byte[] chunk;
+
+        Signer() {
+            try {
+                mac = Mac.getInstance(HMAC_SHA1_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+            hmac = new byte[mac.getMacLength()];
+        }
+
+        Mac init(String secret) {
+            if (!secret.equals(this.secret)) {
+                // Actual secret used by GaaS looks like: "zg5SlD+ftXYRIZDblLgEA/ILkkCNqE1y"
+                // This is actually a base64 encoded random bytes. Although we could
+                // get original random bytes by decoding base64, but we don't do it because
+                // it can be any 'String' in future. We simply get byte[] expression of the
+                // secret 'String' (which is restricted to a subset of US-ASCII).
+                try {
+                    mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.ISO_8859_1),
+                            HMAC_SHA1_ALGORITHM));
+                } catch (InvalidKeyException e) {
+                    this.secret = null;
+                    throw new RuntimeException(e);
+                }
+                this.secret = secret;
+            } else {
+                mac.reset();
+            }
+            return mac;
+        }
+
+        /**
+         * Returns the buffer used for reading a request body file.
+         */
+        byte[] getChunk() {
+            if (chunk == null) {
+                chunk = new byte[FILE_CHUNK_SIZE];
+            }
+            return chunk;
+        }
+
+        /**
+         * Feeds the ISO-8859-1 bytes of the string followed by a line separator.
+         */
+        void updateLine(String s) {
+            int len = s.length();
+            if (buf.length < len + 1) {
+                buf = new byte[Math.max(len + 1, buf.length * 2)];
+            }
+            for (int i = 0; i < len; i++) {
+                char c = s.charAt(i);
+                // Same as String#getBytes with ISO-8859-1
+                buf[i] = c <= 0xFF ? (byte) c : (byte) '?';
+            }
+            buf[len] = LINE_SEP;
+            mac.update(buf, 0, len + 1);
+        }
+
+        /**
+         * Completes the signature, and returns "GaaS-HMAC {uid}:{base64 signature}".
+         */
+        String finish(String uid) {
+            try {
+                mac.doFinal(hmac, 0);
+            } catch (ShortBufferException e) {
+                throw new RuntimeException(e);
+            }
+            int len = HMAC_PREFIX.length() + uid.length() + 1 + (hmac.length + 2) / 3 * 4;
+            if (chars.length < len) {
+                chars = new char[len];
+            }
+            int pos = 0;
+            HMAC_PREFIX.getChars(0, HMAC_PREFIX.length(), chars, pos);
+            pos += HMAC_PREFIX.length();
+            uid.getChars(0, uid.length(), chars, pos);
+            pos += uid.length();
+            chars[pos++] = ':';
+            for (int i = 0; i < hmac.length; i += 3) {
+                int b = (hmac[i] & 0xFF) << 16;
+                if (i + 1 < hmac.length) {
+                    b |= (hmac[i + 1] & 0xFF) << 8;
+                }
+                if (i + 2 < hmac.length) {
+                    b |= hmac[i + 2] & 0xFF;
+                }
+                chars[pos++] = BASE64_CHARS[(b >>> 18) & 0x3F];
+                chars[pos++] = BASE64_CHARS[(b >>> 12) & 0x3F];
+                chars[pos++] = i + 1 < hmac.length ? BASE64_CHARS[(b >>> 6) & 0x3F] : '=';
+                chars[pos++] = i + 2 < hmac.length ? BASE64_CHARS[b & 0x3F] : '=';
+            }
+            return new String(chars, 0, pos);
+        }
+    }
+
+    // Signing does not block except for reading a file, so a few signers per
+    // processor are enough. A thread-local signer would be created for every
+    // virtual thread.
+    private static final int MAX_POOLED_SIGNERS =
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final Queue<Signer> signerPool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooledSignerCount = new AtomicInteger();
+
+    /**
+     * Takes a signer from the pool, or creates a new one if the pool is empty.
+     */
+    private static Signer acquireSigner() {
+        Signer signer = signerPool.poll();
+        if (signer == null) {
+            return new Signer();
+        }
+        pooledSignerCount.decrementAndGet();
+        return signer;
+    }
+
+    /**
+     * Returns the signer to the pool, unless the pool is full.
+     */
+    private static void releaseSigner(Signer signer) {
+        if (pooledSignerCount.incrementAndGet() <= MAX_POOLED_SIGNERS) {
+            signerPool.offer(signer);
+        } else {
+            pooledSignerCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of signers in the pool.
+     */
+    static int getPooledSignerCount() {
+        return pooledSignerCount.get();
+    }
+
+    /**
+     * Returns the maximum number of signers kept in the pool.
+     */
+    static int getMaxPooledSigners() {
+        return MAX_POOLED_SIGNERS;
+    }
+
+    /**
+     * Returns the Authorization header value for Globalization Pipeline HMAC
+     * authentication. The message signed is method, URL, date and body joined
+     * by line separators.
+     *
+     * @param body  The request body actually sent, or null.
+     */
+    static String getHmacAuthorization(String uid, String secret, String method, String url,
+            String rfc1123Date, byte[] body) {
+        if (uid == null || secret == null || method == null || url == null || rfc1123Date == null) {
+            throw new IllegalArgumentException("uid, secret, method, url and rfc1123Date must not be null");
+        }
+        Signer signer = acquireSigner();
+        try {
+            Mac mac = signer.init(secret);
+            signer.updateLine(method);
+            signer.updateLine(url);
+            signer.updateLine(rfc1123Date);
+            if (body != null) {
+                mac.update(body);
+            }
+            return signer.finish(uid);
+        } finally {
+            releaseSigner(signer);
+        }
+    }
+
+    /**
+     * Returns the value of Authorization header using HMAC scheme, for a request
+     * sending the first <code>length</code> bytes of the file. The file is read
+     * in a separate pass through a small buffer of the signer, so the heap used
+     * does not depend on the file size.
+     *
+     * @param uid           The user ID.
+     * @param secret        The secret.
+     * @param method        The HTTP method.
+     * @param url           The request URL.
+     * @param rfc1123Date   The value of Date header.
+     * @param body          The file containing the request body.
+     * @param length        The number of bytes sent from the file.
+     * @return The value of Authorization header.
+     * @throws IOException when the file could not be read, or is shorter than the length.
+     */
+    static String getHmacAuthorization(String uid, String secret, String method, String url,
+            String rfc1123Date, File body, long length) throws IOException {
+        if (uid == null || secret == null || method == null || url == null
+                || rfc1123Date == null || body == null) {
+            throw new IllegalArgumentException("uid, secret, method, url, rfc1123Date and body must not be null");
+        }
+        Signer signer = acquireSigner();
+        try {
+            Mac mac = signer.init(secret);
+            signer.updateLine(method);
+            signer.updateLine(url);
+            signer.updateLine(rfc1123Date);
+            byte[] chunk = signer.getChunk();
+            try (FileInputStream fis = new FileInputStream(body)) {
+                long remaining = length;
+                while (remaining > 0) {
+                    int n = fis.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                    if (n < 0) {
+                        throw new EOFException("The file " + body.getName() + " was truncated while signing.");
+                    }
+                    mac.update(chunk, 0, n);
+                    remaining -= n;
+                }
+            }
+            return signer.finish(uid);
+        } finally {
+            // The signer is reset by init when it is used next time
+            releaseSigner(signer);
+        }
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.ibm.g11n.pipeline.client.impl;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import com.google.gson.stream.JsonReader;
 import com.ibm.g11n.pipeline.client.ResourceEntryData;
 import com.ibm.g11n.pipeline.client.TranslationStatus;
 
@@ -112,5 +114,51 @@ class ResourceEntryDataImpl extends ResourceEntryData {
         public Integer getSequenceNumber() {
             return sequenceNumber;
         }
+
+        /**
+         * Reads a resource entry without reflection.
+         */
+        static RestResourceEntry read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestResourceEntry entry = new RestResourceEntry();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "value":
+                    entry.value = JsonReaders.readString(in);
+                    break;
+                case "sourceValue":
+                    entry.sourceValue = JsonReaders.readString(in);
+                    break;
+                case "reviewed":
+                    entry.reviewed = JsonReaders.readBoolean(in);
+                    break;
+                case "translationStatus":
+                    entry.translationStatus = JsonReaders.readTranslationStatus(in);
+                    break;
+                case "notes":
+                    entry.notes = JsonReaders.readStringList(in);
+                    break;
+                case "metadata":
+                    entry.metadata = JsonReaders.readStringMap(in);
+                    break;
+                case "partnerStatus":
+                    entry.partnerStatus = JsonReaders.readString(in);
+                    break;
+                case "sequenceNumber":
+                    entry.sequenceNumber = JsonReaders.readInteger(in);
+                    break;
+                default:
+                    if (!entry.readField(name, in)) {
+                        in.skipValue();
+                    }
+                }
+            }
+            in.endObject();
+            return entry;
+        }
     }
 }
@@ -15,8 +15,11 @@
  */
 package com.ibm.g11n.pipeline.client.impl;
 
+import java.io.IOException;
 import java.util.Date;
 
+import com.google.gson.stream.JsonReader;
+
 /**
  * The base data object used for deserializing JSON response from
  * Globalization Pipeline service.
@@ -40,4 +43,26 @@ abstract class RestObject {
     public Date getUpdatedAt() {
         return updatedAt;
     }
+
+    /**
+     * Reads the value of a field defined by this class, used by streaming
+     * type adapters of subclasses.
+     *
+     * @param name  The field name.
+     * @param in    The JSON reader positioned at the value.
+     * @return true if the field was read, false if the field is unknown.
+     * @throws IOException when the value could not be read.
+     */
+    protected boolean readField(String name, JsonReader in) throws IOException {
+        switch (name) {
+        case "updatedBy":
+            updatedBy = JsonReaders.readString(in);
+            return true;
+        case "updatedAt":
+            updatedAt = JsonReaders.readDate(in);
+            return true;
+        default:
+            return false;
+        }
+    }
 }
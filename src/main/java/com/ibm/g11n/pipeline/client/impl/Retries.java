@@ -0,0 +1,222 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.ProtocolException;
+import java.net.UnknownHostException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import com.ibm.g11n.pipeline.client.RetryBudget;
+import com.ibm.g11n.pipeline.client.RetryPolicy;
+import com.ibm.g11n.pipeline.client.transport.CancellationSignal;
+import com.ibm.g11n.pipeline.client.transport.TransportResponse;
+
+/**
+ * Retry decisions based on {@link RetryPolicy}.
+ */
+public final class Retries {
+    private static final long SLEEP_SLICE = 100L;
+
+    private static final AtomicLong retryCount = new AtomicLong();
+    private static final AtomicLong budgetExhaustedCount = new AtomicLong();
+    private static final AtomicLong retryAfterCount = new AtomicLong();
+
+    private Retries() {
+    }
+
+    /**
+     * Returns the number of retries.
+     *
+     * @return The number of retries.
+     */
+    public static long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Returns the number of retries not attempted because the retry budget
+     * was exhausted.
+     *
+     * @return The number of retries not attempted because of the retry budget.
+     */
+    public static long getBudgetExhaustedCount() {
+        return budgetExhaustedCount.get();
+    }
+
+    /**
+     * Returns the number of retries delayed by <code>Retry-After</code> response header.
+     *
+     * @return The number of retries delayed by <code>Retry-After</code> response header.
+     */
+    public static long getRetryAfterCount() {
+        return retryAfterCount.get();
+    }
+
+    /**
+     * Returns the delay before retrying a request failed by the exception,
+     * or -1 if the request should not be retried.
+     */
+    static long getRetryDelay(RetryPolicy policy, String method, int retries, IOException e,
+            CancellationSignal signal) {
+        if (policy == null || !isRetryable(e, signal)) {
+            return -1;
+        }
+        RetryBudget budget = policy.getBudget();
+        budget.recordFailure();
+        if (!canRetry(policy, method, retries)) {
+            return -1;
+        }
+        retryCount.incrementAndGet();
+        return getBackoff(policy, retries);
+    }
+
+    /**
+     * Returns the delay before retrying a request with the response, or -1 if
+     * the response should be returned to the caller.
+     */
+    static long getRetryDelay(RetryPolicy policy, String method, int retries, TransportResponse resp) {
+        if (policy == null) {
+            return -1;
+        }
+        RetryBudget budget = policy.getBudget();
+        if (!policy.isRetryableStatus(resp.getStatus())) {
+            budget.recordSuccess();
+            return -1;
+        }
+        budget.recordFailure();
+        if (!canRetry(policy, method, retries)) {
+            return -1;
+        }
+
+        long delay;
+        long retryAfter = parseRetryAfter(resp.getHeader("Retry-After"));
+        if (retryAfter >= 0) {
+            if (retryAfter > policy.getMaxRetryAfter()) {
+                // The server asks to wait longer than we accept
+                return -1;
+            }
+            retryAfterCount.incrementAndGet();
+            delay = retryAfter;
+        } else {
+            delay = getBackoff(policy, retries);
+        }
+        retryCount.incrementAndGet();
+        return delay;
+    }
+
+    private static boolean canRetry(RetryPolicy policy, String method, int retries) {
+        if (retries >= policy.getMaxRetries() || !policy.isRetryableMethod(method)) {
+            return false;
+        }
+        if (!policy.getBudget().canRetry()) {
+            budgetExhaustedCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isRetryable(IOException e, CancellationSignal signal) {
+        if (signal != null && signal.isCanceled()) {
+            return false;
+        }
+        if (e instanceof InterruptedIOException && Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        // Errors which would not be resolved by sending the same request again
+        return !(e instanceof UnknownHostException
+                || e instanceof MalformedURLException
+                || e instanceof ProtocolException
+                || e instanceof SSLHandshakeException
+                || e instanceof SSLPeerUnverifiedException);
+    }
+
+    /**
+     * Returns a random delay between 0 and the exponential backoff time (full jitter).
+     */
+    static long getBackoff(RetryPolicy policy, int retries) {
+        long cap = policy.getMaxBackoff();
+        long backoff = policy.getInitialBackoff();
+        for (int i = 0; i < retries && backoff < cap; i++) {
+            backoff *= 2;
+        }
+        backoff = Math.min(backoff, cap);
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    /**
+     * Parses the value of Retry-After header, in delay-seconds or HTTP-date.
+     *
+     * @return The delay in milliseconds, or -1 if not available.
+     */
+    static long parseRetryAfter(String value) {
+        if (value == null) {
+            return -1;
+        }
+        value = value.trim();
+        if (value.isEmpty()) {
+            return -1;
+        }
+        if (Character.isDigit(value.charAt(0))) {
+            try {
+                return Long.parseLong(value) * 1000L;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH);
+        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = sdf.parse(value);
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Waits before a retry. The wait ends early when the operation is canceled.
+     */
+    static void sleep(long millis, CancellationSignal signal) throws InterruptedIOException {
+        long deadline = System.nanoTime() + millis * 1000000L;
+        try {
+            while (true) {
+                if (signal != null) {
+                    signal.throwIfCanceled();
+                }
+                long remaining = (deadline - System.nanoTime()) / 1000000L;
+                if (remaining <= 0) {
+                    return;
+                }
+                Thread.sleep(signal == null ? remaining : Math.min(remaining, SLEEP_SLICE));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for retry.");
+        }
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.ibm.g11n.pipeline.client.impl;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import com.google.gson.stream.JsonReader;
 import com.ibm.g11n.pipeline.client.SegmentData;
 import com.ibm.g11n.pipeline.client.TranslationStatus;
 
@@ -117,5 +119,54 @@ class SegmentDataImpl extends SegmentData {
         public Integer getSequenceNumber() {
             return sequenceNumber;
         }
+
+        /**
+         * Reads a segment without reflection.
+         */
+        static RestSegmentData read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestSegmentData segment = new RestSegmentData();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "segmentKey":
+                    segment.segmentKey = JsonReaders.readString(in);
+                    break;
+                case "value":
+                    segment.value = JsonReaders.readString(in);
+                    break;
+                case "sourceValue":
+                    segment.sourceValue = JsonReaders.readString(in);
+                    break;
+                case "reviewed":
+                    segment.reviewed = JsonReaders.readBoolean(in);
+                    break;
+                case "translationStatus":
+                    segment.translationStatus = JsonReaders.readTranslationStatus(in);
+                    break;
+                case "notes":
+                    segment.notes = JsonReaders.readStringList(in);
+                    break;
+                case "metadata":
+                    segment.metadata = JsonReaders.readStringMap(in);
+                    break;
+                case "partnerStatus":
+                    segment.partnerStatus = JsonReaders.readString(in);
+                    break;
+                case "sequenceNumber":
+                    segment.sequenceNumber = JsonReaders.readInteger(in);
+                    break;
+                default:
+                    if (!segment.readField(name, in)) {
+                        in.skipValue();
+                    }
+                }
+            }
+            in.endObject();
+            return segment;
+        }
     }
 }
@@ -18,41 +18,44 @@ package com.ibm.g11n.pipeline.client.impl;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.io.Reader;
+import java.io.StringWriter;
 import java.lang.reflect.Type;
-import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.text.SimpleDateFormat;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TimeZone;
 import java.util.TreeMap;
 import java.util.TreeSet;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import com.google.common.base.Strings;
-import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.UrlEscapers;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.InstanceCreator;
 import com.google.gson.TypeAdapter;
 import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
@@ -62,6 +65,10 @@ import com.google.gson.stream.JsonWriter;
 import com.ibm.g11n.pipeline.client.BundleData;
 import com.ibm.g11n.pipeline.client.BundleDataChangeSet;
 import com.ibm.g11n.pipeline.client.BundleMetrics;
+import com.ibm.g11n.pipeline.client.CircuitBreaker;
+import com.ibm.g11n.pipeline.client.CircuitBreakerOpenException;
+import com.ibm.g11n.pipeline.client.CircuitBreakerRegistry;
+import com.ibm.g11n.pipeline.client.Deadline;
 import com.ibm.g11n.pipeline.client.DocumentData;
 import com.ibm.g11n.pipeline.client.DocumentDataChangeSet;
 import com.ibm.g11n.pipeline.client.DocumentMetrics;
@@ -77,8 +84,13 @@ import com.ibm.g11n.pipeline.client.NewResourceEntryData;
 import com.ibm.g11n.pipeline.client.NewTranslationConfigData;
 import com.ibm.g11n.pipeline.client.NewTranslationRequestData;
 import com.ibm.g11n.pipeline.client.NewUserData;
+import com.ibm.g11n.pipeline.client.OperationClass;
+import com.ibm.g11n.pipeline.client.RequestThrottle;
+import com.ibm.g11n.pipeline.client.RequestThrottledException;
 import com.ibm.g11n.pipeline.client.ResourceEntryData;
 import com.ibm.g11n.pipeline.client.ResourceEntryDataChangeSet;
+import com.ibm.g11n.pipeline.client.ResourceEntryVisitor;
+import com.ibm.g11n.pipeline.client.RetryPolicy;
 import com.ibm.g11n.pipeline.client.ReviewStatusMetrics;
 import com.ibm.g11n.pipeline.client.SegmentData;
 import com.ibm.g11n.pipeline.client.ServiceAccount;
@@ -86,13 +98,15 @@ import com.ibm.g11n.pipeline.client.ServiceClient;
 import com.ibm.g11n.pipeline.client.ServiceException;
 import com.ibm.g11n.pipeline.client.ServiceInfo;
 import com.ibm.g11n.pipeline.client.ServiceInstanceInfo;
+import com.ibm.g11n.pipeline.client.TimeoutConfig;
 import com.ibm.g11n.pipeline.client.TranslationConfigData;
 import com.ibm.g11n.pipeline.client.TranslationRequestData;
 import com.ibm.g11n.pipeline.client.TranslationRequestDataChangeSet;
-import com.ibm.g11n.pipeline.client.TranslationRequestStatus;
 import com.ibm.g11n.pipeline.client.TranslationStatus;
 import com.ibm.g11n.pipeline.client.UserData;
 import com.ibm.g11n.pipeline.client.UserDataChangeSet;
+import com.ibm.g11n.pipeline.client.cache.CachedResponse;
+import com.ibm.g11n.pipeline.client.cache.ResponseCache;
 import com.ibm.g11n.pipeline.client.impl.BundleDataImpl.RestBundle;
 import com.ibm.g11n.pipeline.client.impl.DocumentDataImpl.RestDocument;
 import com.ibm.g11n.pipeline.client.impl.DocumentTranslationRequestDataImpl.RestDocumentTranslationRequest;
@@ -107,10 +121,14 @@ import com.ibm.g11n.pipeline.client.impl.TranslationConfigDataImpl.RestTranslati
 import com.ibm.g11n.pipeline.client.impl.TranslationRequestDataImpl.RestInputTranslationRequestData;
 import com.ibm.g11n.pipeline.client.impl.TranslationRequestDataImpl.RestTranslationRequest;
 import com.ibm.g11n.pipeline.client.impl.UserDataImpl.RestUser;
+import com.ibm.g11n.pipeline.client.transport.CancellationSignal;
+import com.ibm.g11n.pipeline.client.transport.RequestBody;
+import com.ibm.g11n.pipeline.client.transport.TransportRequest;
+import com.ibm.g11n.pipeline.client.transport.TransportResponse;
 import com.ibm.g11n.pipeline.iam.TokenManagerException;
 
 /**
- * ServiceClient implementation by GSON and JDK's HttpURLConnection.
+ * ServiceClient implementation by GSON and pluggable HTTP transport.
  * 
  * @author Yoshito Umaoka
  */
@@ -202,8 +220,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("newBundleData must be specified.");
         }
 
-        Gson gson = createGson(NewBundleData.class.getName());
-        String jsonBody = gson.toJson(newBundleData, NewBundleData.class);
+        String jsonBody = toJson(newBundleData, NewBundleData.class);
         ServiceResponse resp = invokeApiJson(
                 "PUT",
                 escapePathSegment(account.getInstanceId()) + "/v2/bundles/"
@@ -280,8 +297,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("changeSet must be specified.");
         }
 
-        Gson gson = createGson(BundleDataChangeSet.class.getName());
-        String jsonBody = gson.toJson(changeSet, BundleDataChangeSet.class);
+        String jsonBody = toJson(changeSet, BundleDataChangeSet.class);
         ServiceResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/bundles/"
@@ -386,6 +402,26 @@ public class ServiceClientImpl extends ServiceClient {
         return resultEntries;
     }
 
+    @Override
+    public void visitResourceEntries(String bundleId, String language,
+            ResourceEntryVisitor visitor) throws ServiceException, IOException {
+        if (bundleId == null || bundleId.isEmpty()) {
+            throw new IllegalArgumentException("bundleId must be specified.");
+        }
+        if (language == null || language.isEmpty()) {
+            throw new IllegalArgumentException("language must be specified.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor must be specified.");
+        }
+
+        visitResourceEntries(
+                escapePathSegment(account.getInstanceId()) + "/v2/bundles/"
+                    + escapePathSegment(bundleId) + "/" + language
+                    + "?fields=resourceEntries",
+                visitor);
+    }
+
     private static class GetLanguageMetricsResponse extends ServiceResponse {
         private EnumMap<TranslationStatus, Integer> translationStatusMetrics;
         private ReviewStatusMetrics reviewStatusMetrics;
@@ -453,8 +489,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("newResourceEntries must be specified.");
         }
 
-        Gson gson = createGson(Map.class.getName());
-        String jsonBody = gson.toJson(newResourceEntries, Map.class);
+        String jsonBody = toJson(newResourceEntries, Map.class);
         ServiceResponse resp = invokeApiJson(
                 "PUT",
                 escapePathSegment(account.getInstanceId()) + "/v2/bundles/"
@@ -508,8 +543,7 @@ public class ServiceClientImpl extends ServiceClient {
         if (resourceEntries == null || resourceEntries.isEmpty()) {
             jsonBody = "{}";
         } else {
-            Gson gson = createGson(Map.class.getName());
-            jsonBody = gson.toJson(resourceEntries, Map.class);
+            jsonBody = toJson(resourceEntries, Map.class);
         }
 
         ServiceResponse resp = invokeApiJson(
@@ -573,8 +607,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("changeSet must be specified.");
         }
 
-        Gson gson = createGson(ResourceEntryDataChangeSet.class.getName());
-        String jsonBody = gson.toJson(changeSet, ResourceEntryDataChangeSet.class);
+        String jsonBody = toJson(changeSet, ResourceEntryDataChangeSet.class);
         ServiceResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/bundles/"
@@ -624,8 +657,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("newDocumentData must be specified.");
         }
 
-        Gson gson = createGson(NewBundleData.class.getName());
-        String jsonBody = gson.toJson(newDocumentData, NewDocumentData.class);
+        String jsonBody = toJson(newDocumentData, NewDocumentData.class);
         ServiceResponse resp = invokeApiJson(
                 "PUT",
                 escapePathSegment(account.getInstanceId()) + "/v2/documents/"
@@ -702,8 +734,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("changeSet must be specified.");
         }
 
-        Gson gson = createGson(DocumentDataChangeSet.class.getName());
-        String jsonBody = gson.toJson(changeSet, DocumentDataChangeSet.class);
+        String jsonBody = toJson(changeSet, DocumentDataChangeSet.class);
         ServiceResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/documents/"
@@ -747,22 +778,14 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("file must be a regular file.");
         }
 
-        FileInputStream fis;
-        try {
-            fis = new FileInputStream(file);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read the document content from "
-                    + file.getName() + ": " + e.getMessage(), e);
-        }
-
-        ServiceResponse resp = invokeApiInputStream(
+        ServiceResponse resp = invokeApiFile(
                 "PUT",
                 escapePathSegment(account.getInstanceId()) + "/v2/documents/"
                         + type.toString().toLowerCase() + "/"
                         + documentId + "/"
                         + language,
                 type.getMediaType(),
-                fis,
+                file,
                 ServiceResponse.class,
                 false);
 
@@ -775,40 +798,244 @@ public class ServiceClientImpl extends ServiceClient {
     @Override
     public byte[] getDocumentContent(DocumentType type, String documentId, String language)
             throws ServiceException {
+        String apiPath = getDocumentApiPath(type, documentId, language);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            downloadContent(apiPath, new ContentSink() {
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    baos.write(b, off, len);
+                }
+
+                @Override
+                public boolean reset() {
+                    baos.reset();
+                    return true;
+                }
+            });
+        } catch (IOException e) {
+            // never happens
+            throw new ServiceException(e);
+        }
+        return baos.toByteArray();
+    }
+
+    @Override
+    public void writeDocumentContent(DocumentType type, String documentId, String language,
+            final OutputStream os) throws IllegalArgumentException, ServiceException, IOException {
+        String apiPath = getDocumentApiPath(type, documentId, language);
+        if (os == null) {
+            throw new IllegalArgumentException("os must be specified.");
+        }
+        downloadContent(apiPath, new ContentSink() {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                os.write(b, off, len);
+            }
+
+            @Override
+            public boolean reset() {
+                // Bytes already written cannot be taken back
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public void downloadDocumentContent(DocumentType type, String documentId, String language,
+            Path target) throws IllegalArgumentException, ServiceException, IOException {
+        String apiPath = getDocumentApiPath(type, documentId, language);
+        if (target == null) {
+            throw new IllegalArgumentException("target must be specified.");
+        }
+
+        // The content is written to a temporary file in the same directory,
+        // which replaces the target only when the download completed.
+        Path absTarget = target.toAbsolutePath();
+        Path dir = absTarget.getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, absTarget.getFileName().toString() + ".", ".part");
+        boolean completed = false;
+        try {
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                downloadContent(apiPath, new ContentSink() {
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+                        while (bb.hasRemaining()) {
+                            channel.write(bb);
+                        }
+                    }
+
+                    @Override
+                    public boolean reset() throws IOException {
+                        channel.truncate(0);
+                        channel.position(0);
+                        return true;
+                    }
+                });
+            }
+            try {
+                Files.move(temp, absTarget, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absTarget, StandardCopyOption.REPLACE_EXISTING);
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private String getDocumentApiPath(DocumentType type, String documentId, String language) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must be specified.");
+        }
         if (Strings.isNullOrEmpty(documentId)) {
             throw new IllegalArgumentException("documentId must be specified.");
         }
         if (Strings.isNullOrEmpty(language)) {
             throw new IllegalArgumentException("language must be specified.");
         }
+        return escapePathSegment(account.getInstanceId()) + "/v2/documents/"
+                + type.toString().toLowerCase() + "/"
+                + documentId + "/"
+                + language;
+    }
 
-        ApiResponse resp;
-        String method = "GET";
-        String apiPath = escapePathSegment(account.getInstanceId()) + "/v2/documents/"
-                        + type.toString().toLowerCase() + "/"
-                        + documentId + "/"
-                        + language;
-                
-        try {
-            resp = invokeApi(method,apiPath,null,null,false);
-        } catch (Exception e) {
-            String errMsg = "Error while processing API request GET " + apiPath;
-            throw new ServiceException(errMsg, e);
+    /**
+     * Destination of downloaded content.
+     */
+    private interface ContentSink {
+        void write(byte[] b, int off, int len) throws IOException;
+
+        /**
+         * Discards the content written so far, or returns false if not possible.
+         */
+        boolean reset() throws IOException;
+    }
+
+    private static final int MAX_ERROR_BODY_SIZE = 64 * 1024;
+
+    /**
+     * Streams the content returned by the GET request to the sink. When reading
+     * the response fails after the response was received, the download is
+     * resumed by a request with <code>Range</code> header starting from the
+     * bytes already received, if the server advertised byte range support for
+     * the unencoded content. Otherwise, the content is requested again, and
+     * either replaces the content in the sink, or the bytes already received
+     * are skipped. The number of attempts is limited by the retry policy.
+     */
+    private void downloadContent(String apiPath, ContentSink sink)
+            throws ServiceException, IOException {
+        byte[] buf = new byte[8192];
+        long received = 0;
+        String validator = null;
+        boolean rangeSupported = false;
+
+        for (int resumes = 0; ; resumes++) {
+            Map<String, String> headers = null;
+            if (received > 0 && rangeSupported) {
+                headers = new HashMap<>();
+                headers.put("Range", "bytes=" + received + "-");
+                if (validator != null) {
+                    // The full content is returned instead if it was changed
+                    headers.put("If-Range", validator);
+                }
+            }
+
+            boolean responseReceived = false;
+            try (TransportResponse resp = executeApi("GET", apiPath, null, null, null, false, headers)) {
+                responseReceived = true;
+                int status = resp.getStatus();
+                boolean partial = status == 206;
+                if (partial && (headers == null
+                        || !isContentRangeFrom(resp.getHeader("Content-Range"), received))) {
+                    throw new ServiceException("Received unexpected partial content ("
+                            + resp.getHeader("Content-Range") + ") from GET " + apiPath);
+                }
+                if (status >= 300) {
+                    throw new ServiceException("Received HTTP status: " + status + " from GET "
+                            + apiPath + ", body: " + readErrorBody(resp));
+                }
+
+                long skip = 0;
+                if (!partial) {
+                    if (received > 0 && !sink.reset()) {
+                        skip = received;
+                    } else {
+                        received = 0;
+                    }
+                    validator = resp.getHeader("ETag");
+                    if (validator == null || validator.startsWith("W/")) {
+                        // A weak entity tag cannot be used with If-Range
+                        validator = resp.getHeader("Last-Modified");
+                    }
+                    rangeSupported = "bytes".equalsIgnoreCase(resp.getHeader("Accept-Ranges"))
+                            && resp.getHeader("Content-Encoding") == null;
+                }
+
+                try (InputStream is = openResponseBody(resp)) {
+                    int n;
+                    while ((n = is.read(buf)) != -1) {
+                        int off = (int) Math.min(skip, n);
+                        skip -= off;
+                        if (off < n) {
+                            try {
+                                sink.write(buf, off, n - off);
+                            } catch (IOException e) {
+                                throw new OutputException(e);
+                            }
+                            received += n - off;
+                        }
+                    }
+                }
+                if (skip > 0) {
+                    throw new ServiceException("The content was changed while downloading from GET "
+                            + apiPath);
+                }
+                return;
+            } catch (OutputException e) {
+                throw (IOException) e.getCause();
+            } catch (ServiceException e) {
+                throw e;
+            } catch (IOException e) {
+                long delay = responseReceived
+                        ? Retries.getRetryDelay(retryPolicy, "GET", resumes, e, CancellationSignal.current())
+                        : -1;
+                if (delay < 0) {
+                    throw new ServiceException("Error while processing API request GET " + apiPath, e);
+                }
+                Retries.sleep(delay, CancellationSignal.current());
+            } catch (Exception e) {
+                throw new ServiceException("Error while processing API request GET " + apiPath, e);
+            }
         }
-        
-        if (resp.status >= 300) {
-            String bodyStr = resp.body != null ? new String(resp.body, StandardCharsets.UTF_8) : null;
-            throw new ServiceException("Received HTTP status: " + resp.status + " from " + method
-                    + " " + apiPath + ", body: " + bodyStr);
+    }
+
+    /**
+     * Returns true if the value of Content-Range header is "bytes {start}-...".
+     */
+    private static boolean isContentRangeFrom(String contentRange, long start) {
+        if (contentRange == null) {
+            return false;
         }
-        return resp.body;
+        String prefix = "bytes " + start + "-";
+        return contentRange.regionMatches(true, 0, prefix, 0, prefix.length());
     }
 
-    @Override
-    public void writeDocumentContent(DocumentType type, String documentId, String language, OutputStream os)
-            throws IllegalArgumentException, ServiceException, IOException {
-        
-        os.write(getDocumentContent(type, documentId, language));
+    private static String readErrorBody(TransportResponse resp) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = openResponseBody(resp)) {
+            byte[] buf = new byte[2048];
+            int bytes;
+            while (baos.size() < MAX_ERROR_BODY_SIZE && (bytes = is.read(buf)) != -1) {
+                baos.write(buf, 0, bytes);
+            }
+        }
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
     }
 
     //
@@ -854,8 +1081,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("newUserData must be specified.");
         }
 
-        Gson gson = createGson(NewUserData.class.getName());
-        String jsonBody = gson.toJson(newUserData, NewUserData.class);
+        String jsonBody = toJson(newUserData, NewUserData.class);
         UserResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/users/new",
@@ -912,8 +1138,7 @@ public class ServiceClientImpl extends ServiceClient {
         if (changeSet == null) {
             jsonBody = "{}";
         } else {
-            Gson gson = createGson(UserDataChangeSet.class.getName());
-            jsonBody = gson.toJson(changeSet, UserDataChangeSet.class);
+            jsonBody = toJson(changeSet, UserDataChangeSet.class);
         }
 
         UserResponse resp = invokeApiJson(
@@ -1063,8 +1288,7 @@ public class ServiceClientImpl extends ServiceClient {
             throw new IllegalArgumentException("configData must be specified");
         }
 
-        Gson gson = createGson(NewTranslationConfigData.class.getName());
-        String jsonBody = gson.toJson(configData, NewTranslationConfigData.class);
+        String jsonBody = toJson(configData, NewTranslationConfigData.class);
 
         ServiceResponse resp = invokeApiJson(
                 "PUT",
@@ -1194,8 +1418,7 @@ public class ServiceClientImpl extends ServiceClient {
         }
 
         RestInputTranslationRequestData newRestTRData = new RestInputTranslationRequestData(newTranslationRequestData);
-        Gson gson = createGson(RestInputTranslationRequestData.class.getName());
-        String jsonBody = gson.toJson(newRestTRData, RestInputTranslationRequestData.class);
+        String jsonBody = toJson(newRestTRData, RestInputTranslationRequestData.class);
         TranslationRequestResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/trs/new" + "?async=" + async,
@@ -1226,8 +1449,7 @@ public class ServiceClientImpl extends ServiceClient {
         }
 
         RestInputTranslationRequestData restChangeSet = new RestInputTranslationRequestData(changeSet);
-        Gson gson = createGson(RestInputTranslationRequestData.class.getName());
-        String jsonBody = gson.toJson(restChangeSet, RestInputTranslationRequestData.class);
+        String jsonBody = toJson(restChangeSet, RestInputTranslationRequestData.class);
         TranslationRequestResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/trs/"
@@ -1319,6 +1541,29 @@ public class ServiceClientImpl extends ServiceClient {
         return resultEntries;
     }
 
+    @Override
+    public void visitTRResourceEntries(String trId, String bundleId, String language,
+            ResourceEntryVisitor visitor) throws ServiceException, IOException {
+        if (trId == null || trId.isEmpty()) {
+            throw new IllegalArgumentException("Non-empty trId must be specified.");
+        }
+        if (bundleId == null || bundleId.isEmpty()) {
+            throw new IllegalArgumentException("Non-empty bundleId must be specified.");
+        }
+        if (language == null || language.isEmpty()) {
+            throw new IllegalArgumentException("Non-empty languageId must be specified.");
+        }
+        if (visitor == null) {
+            throw new IllegalArgumentException("visitor must be specified.");
+        }
+
+        visitResourceEntries(
+                escapePathSegment(account.getInstanceId()) + "/v2/trs/"
+                    + escapePathSegment(trId) + "/"
+                    + escapePathSegment(bundleId) + "/" + language,
+                visitor);
+    }
+
 
     @Override
     public ResourceEntryData getTRResourceEntry(String trId,
@@ -1389,52 +1634,28 @@ public class ServiceClientImpl extends ServiceClient {
             }
         }
 
-        ApiResponse resp = null;
-        try {
-            resp = invokeApi("GET", urlBuf.toString(), null, null, false);
-        } catch (Exception e) {
-            String errMsg = "Error while processing API request GET " + urlBuf;
-            throw new ServiceException(errMsg, e);
-        }
-        assert resp != null;
-
-        if (resp.contentType == null || !resp.contentType.equalsIgnoreCase("application/xliff+xml")) {
-            throw new ServiceException("Received HTTP status: " + resp.status
-                    + " with non-XLIFF response (" + resp.contentType + ") from GET"
-                    + " " + urlBuf.toString());
-        }
-        assert resp.body != null;
-        outputXliff.write(resp.body);
+        exportXliff(urlBuf.toString(), outputXliff);
     }
 
 
     @Override
     public void updateBundlesWithXliff(InputStream inputXliff)
             throws ServiceException, IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buf = new byte[2048];
-        int bytes;
-        while ((bytes = inputXliff.read(buf)) != -1) {
-            baos.write(buf, 0, bytes);
-        }
-        byte[] inputXliffBytes = baos.toByteArray();
-
-        String method = "POST";
         String apiPath = escapePathSegment(account.getInstanceId())
                 + "/v2/xliff/bundles";
+        importXliff(apiPath, inputXliff);
+    }
 
-        ApiResponse resp = null;
-        try {
-            resp = invokeApi(method, apiPath, "application/xliff+xml", inputXliffBytes, false);
-        } catch (Exception e) {
-            String errMsg = "Error while processing API request " + method + " " + apiPath;
-            throw new ServiceException(errMsg, e);
-        }
-        if (resp.status >= 300) {
-            String bodyStr = resp.body != null ? new String(resp.body, StandardCharsets.UTF_8) : null;
-            throw new ServiceException("Received HTTP status: " + resp.status + " from " + method
-                    + " " + apiPath + ", body: " + bodyStr);
+
+    @Override
+    public void updateBundlesWithXliff(File inputXliff)
+            throws ServiceException, IOException {
+        if (inputXliff == null) {
+            throw new IllegalArgumentException("inputXliff must be specified.");
         }
+        String apiPath = escapePathSegment(account.getInstanceId())
+                + "/v2/xliff/bundles";
+        importXliff(apiPath, inputXliff);
     }
 
 
@@ -1462,24 +1683,82 @@ public class ServiceClientImpl extends ServiceClient {
             .append("/")
             .append(trgLanguage);
 
-        ApiResponse resp = null;
-        try {
-            resp = invokeApi("GET", urlBuf.toString(), null, null, false);
+        exportXliff(urlBuf.toString(), outputXliff);
+    }
+
+
+    /**
+     * Copies the XLIFF content returned by the GET request to the output
+     * stream while it is read from the connection.
+     */
+    private void exportXliff(String apiPath, OutputStream outputXliff)
+            throws ServiceException, IOException {
+        try (TransportResponse resp = executeApi("GET", apiPath, null, null, false)) {
+            String contentType = resp.getContentType();
+            if (contentType == null || !contentType.equalsIgnoreCase("application/xliff+xml")) {
+                throw new ServiceException("Received HTTP status: " + resp.getStatus()
+                        + " with non-XLIFF response (" + contentType + ") from GET"
+                        + " " + apiPath);
+            }
+            try (InputStream is = openResponseBody(resp)) {
+                byte[] buf = new byte[8192];
+                int bytes;
+                while ((bytes = is.read(buf)) != -1) {
+                    try {
+                        outputXliff.write(buf, 0, bytes);
+                    } catch (IOException e) {
+                        throw new OutputException(e);
+                    }
+                }
+            }
+        } catch (OutputException e) {
+            throw (IOException) e.getCause();
+        } catch (ServiceException e) {
+            throw e;
         } catch (Exception e) {
-            String errMsg = "Error while processing API request GET " + urlBuf;
+            String errMsg = "Error while processing API request GET " + apiPath;
             throw new ServiceException(errMsg, e);
         }
-        assert resp != null;
+    }
 
-        if (resp.contentType == null || !resp.contentType.equalsIgnoreCase("application/xliff+xml")) {
-            throw new ServiceException("Received HTTP status: " + resp.status
-                    + " with non-XLIFF response (" + resp.contentType + ") from GET"
-                    + " " + urlBuf.toString());
+    /**
+     * Posts the XLIFF content to the API. The content is spooled to a temporary
+     * file, instead of memory, because the request body must be signed before
+     * it is sent, and may be sent again by retries. The file is sent with a
+     * fixed length body, and signed by reading it in small chunks.
+     */
+    private void importXliff(String apiPath, InputStream inputXliff)
+            throws ServiceException, IOException {
+        Path spool = Files.createTempFile("gp-xliff", ".xlf");
+        try {
+            Files.copy(inputXliff, spool, StandardCopyOption.REPLACE_EXISTING);
+            importXliff(apiPath, spool.toFile());
+        } finally {
+            Files.deleteIfExists(spool);
         }
-        assert resp.body != null;
-        outputXliff.write(resp.body);
     }
 
+    private void importXliff(String apiPath, File inputXliff) throws ServiceException {
+        String method = "POST";
+        int status;
+        String bodyStr = null;
+        try (TransportResponse resp = executeApi(method, apiPath, "application/xliff+xml",
+                null, inputXliff, false, null)) {
+            status = resp.getStatus();
+            if (status >= 300) {
+                bodyStr = readErrorBody(resp);
+            }
+        } catch (CircuitBreakerOpenException | RequestThrottledException e) {
+            throw e;
+        } catch (Exception e) {
+            String errMsg = "Error while processing API request " + method + " " + apiPath;
+            throw new ServiceException(errMsg, e);
+        }
+        if (status >= 300) {
+            throw new ServiceException("Received HTTP status: " + status + " from " + method
+                    + " " + apiPath + ", body: " + bodyStr);
+        }
+    }
 
     //
     // Private method used for calling REST endpoints
@@ -1490,10 +1769,58 @@ public class ServiceClientImpl extends ServiceClient {
         return invokeApiJson(method, apiPath, inJson, classOfT, false);
     }
 
-    private <T> T invokeApiJson(String method, String apiPath, String inJson, Class<T> classOfT,
-            boolean anonymous) throws ServiceException {
+    private <T> T invokeApiJson(final String method, final String apiPath, final String inJson,
+            final Class<T> classOfT, final boolean anonymous) throws ServiceException {
+        if (requestCoalescing && inJson == null && method.equals("GET")) {
+            // Concurrent identical GET requests share a single in-flight request.
+            // When other callers joined, the response body is kept, so each caller
+            // receives its own decoded object, and a change made by a caller is not
+            // visible to others.
+            RequestCoalescer.Key key = new RequestCoalescer.Key(method,
+                    account.getUrl() + "/" + apiPath, classOfT, account, scheme, anonymous);
+            return RequestCoalescer.execute(key, new RequestCoalescer.Call<JsonResult<T>>() {
+                @Override
+                public JsonResult<T> call(RequestCoalescer.Flight flight) throws ServiceException {
+                    return sendApiJson(method, apiPath, inJson, classOfT, anonymous, flight);
+                }
+
+                @Override
+                public JsonResult<T> copy(JsonResult<T> result) throws ServiceException {
+                    try {
+                        return new JsonResult<T>(decodeJson(result.body, classOfT), result.body);
+                    } catch (IOException e) {
+                        throw new ServiceException("Error while processing API request "
+                                + method + " " + apiPath, e);
+                    }
+                }
+            }).value;
+        }
+        return sendApiJson(method, apiPath, inJson, classOfT, anonymous, null).value;
+    }
+
+    /**
+     * A decoded JSON response, with the response body when it was kept for
+     * decoding the response again, or null.
+     */
+    private static final class JsonResult<T> {
+        final T value;
+        final byte[] body;
+
+        JsonResult(T value, byte[] body) {
+            this.value = value;
+            this.body = body;
+        }
+    }
 
-        T responseObj = null;
+    /**
+     * Sends a JSON API request. For a coalesced request, the response body is
+     * kept in the result when other callers joined the flight.
+     */
+    private <T> JsonResult<T> sendApiJson(String method, String apiPath, String inJson,
+            Class<T> classOfT, boolean anonymous, RequestCoalescer.Flight flight)
+                    throws ServiceException {
+
+        JsonResult<T> result = null;
         try {
             // Request body in UTF-8
             String contentType = null;
@@ -1503,40 +1830,65 @@ public class ServiceClientImpl extends ServiceClient {
                 contentType = "application/json";
             }
 
-            ApiResponse resp = invokeApi(method, apiPath, contentType, requestBody, anonymous);
-
-            if (resp.contentType == null || !resp.contentType.equalsIgnoreCase("application/json")) {
-                throw new ServiceException("Received HTTP status: " + resp.status
-                        + " with non-JSON response from " + method + " " + apiPath);
+            // Conditional GET with validators of the cached response
+            ResponseCache cache = (requestBody == null && method.equals("GET")) ? responseCache : null;
+            String cacheKey = null;
+            CachedResponse cached = null;
+            Map<String, String> validators = null;
+            if (cache != null) {
+                cacheKey = ConditionalRequests.cacheKey(account.getUrl() + "/" + apiPath, classOfT);
+                cached = cache.get(cacheKey);
+                if (cached != null) {
+                    validators = ConditionalRequests.getValidatorHeaders(cached);
+                }
             }
 
-            Reader reader = new InputStreamReader(new ByteArrayInputStream(resp.body), StandardCharsets.UTF_8);
-            Gson gson = createGson(classOfT.getName());
-            responseObj = gson.fromJson(reader, classOfT);
-            
-
+            try (TransportResponse resp = executeApi(method, apiPath, contentType, requestBody, null,
+                    anonymous, validators)) {
+                boolean keepBody = flight != null && flight.stopJoining();
+                if (cached != null && ConditionalRequests.isNotModified(resp)) {
+                    // A new object is decoded from the cached body for each caller
+                    if (keepBody) {
+                        byte[] body = ByteStreams.toByteArray(cached.getBody());
+                        return new JsonResult<T>(decodeJson(body, classOfT), body);
+                    }
+                    try (Reader reader = new InputStreamReader(cached.getBody(), StandardCharsets.UTF_8)) {
+                        return new JsonResult<T>(jsonCodec.<T>fromJson(reader, classOfT), null);
+                    }
+                }
+                // The body is copied only when it is needed for another caller,
+                // or the cache can store it
+                long copyLimit = keepBody ? Long.MAX_VALUE
+                        : cache != null ? ConditionalRequests.getBodyLimit(cache, resp) : -1;
+                result = readJson(resp, classOfT, method, apiPath, copyLimit);
+                if (cache != null) {
+                    ConditionalRequests.update(cache, cacheKey, resp, result.value, result.body, cached);
+                }
+            }
+        } catch (CircuitBreakerOpenException | RequestThrottledException e) {
+            throw e;
         } catch (Exception e) {
             // Error handling
             String errMsg = "Error while processing API request " + method + " " + apiPath;
             throw new ServiceException(errMsg, e);
         }
 
-        return responseObj;
+        return result;
     }
     
-    private <T> T invokeApiInputStream(String method, String apiPath, String contentType, FileInputStream fis, Class<T> classOfT,
-            boolean anonymous) throws ServiceException {
+    /**
+     * Sends the content of the file as the request body, streaming it from the
+     * file without loading it into memory.
+     */
+    private <T> T invokeApiFile(String method, String apiPath, String contentType, File file,
+            Class<T> classOfT, boolean anonymous) throws ServiceException {
 
-        byte[] requestBody = null;
         T responseObj = null;
-        try {
-            requestBody = ByteStreams.toByteArray((InputStream) fis);
-            ApiResponse resp = invokeApi(method, apiPath, contentType, requestBody, anonymous);
-
-            Reader reader = new InputStreamReader(new ByteArrayInputStream(resp.body), StandardCharsets.UTF_8);
-            Gson gson = createGson(classOfT.getName());
-            responseObj = gson.fromJson(reader, classOfT);
-
+        try (TransportResponse resp = executeApi(method, apiPath, contentType, null, file,
+                anonymous, null)) {
+            responseObj = readJson(resp, classOfT, method, apiPath, -1).value;
+        } catch (CircuitBreakerOpenException | RequestThrottledException e) {
+            throw e;
         } catch (Exception e) {
             // Error handling
             String errMsg = "Error while processing API request " + method + " " + apiPath;
@@ -1546,157 +1898,591 @@ public class ServiceClientImpl extends ServiceClient {
         return responseObj;
     }
 
-    private static class ApiResponse {
-        int status;
-        String contentType;
-        byte[] body;
+    /**
+     * Decodes the JSON response body while it is read from the connection,
+     * without buffering the entire body in memory. When copyLimit is not negative,
+     * the body is also copied to the result, unless it is larger than copyLimit.
+     */
+    private <T> JsonResult<T> readJson(TransportResponse resp, Class<T> classOfT, String method,
+            String apiPath, long copyLimit) throws IOException, ServiceException {
+        String contentType = resp.getContentType();
+        if (contentType == null || !contentType.equalsIgnoreCase("application/json")) {
+            throw new ServiceException("Received HTTP status: " + resp.getStatus()
+                    + " with non-JSON response from " + method + " " + apiPath);
+        }
+
+        InputStream is = openResponseBody(resp);
+        BodyCopy body = null;
+        if (copyLimit >= 0) {
+            // The (decompressed) body is copied while it is decoded
+            long length = resp.getContentLength();
+            body = new BodyCopy(length > 0 && length <= Math.min(copyLimit, Integer.MAX_VALUE - 8)
+                    ? (int) length : 8192, copyLimit);
+            is = new CopyingInputStream(is, body);
+        }
+        T value;
+        try (Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8)) {
+            value = jsonCodec.fromJson(reader, classOfT);
+        }
+        return new JsonResult<T>(value, body == null ? null : body.getBody());
     }
 
-    private ApiResponse invokeApi(String method, String apiPath, String inContentType, byte[] inBody,
-            boolean anonymous) throws IOException,TokenManagerException {
-        String urlStr = account.getUrl() + "/" + apiPath;
-        URL targetUrl = new URL(urlStr);
-        HttpURLConnection conn = (HttpURLConnection)targetUrl.openConnection();
-        conn.setRequestMethod(method);
+    /**
+     * Decodes a response body kept by {@link #readJson(TransportResponse, Class, String, String, long)}.
+     */
+    private <T> T decodeJson(byte[] body, Class<T> classOfT) throws IOException {
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            return jsonCodec.fromJson(reader, classOfT);
+        }
+    }
 
-        // Date header
-        SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH);
-        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
-        String dateHeader = sdf.format(new Date());
+    /**
+     * Copy of a response body, which is dropped when it exceeds the limit.
+     */
+    private static final class BodyCopy extends ByteArrayOutputStream {
+        private final long limit;
+        private boolean exceeded;
 
-        conn.setRequestProperty("Date", dateHeader);
+        BodyCopy(int size, long limit) {
+            super(size);
+            this.limit = limit;
+        }
 
-        // Authorization header
-        if (!anonymous) {
-            StringBuilder authHeader = new StringBuilder();
-            if (account.isIamEnabled()) {
-                authHeader.append("Bearer ");
-                authHeader.append(account.getIamToken());
-            } else {
-                String uid = account.getUserId();
-                String secret = account.getPassword();
+        @Override
+        public void write(int b) {
+            if (ensureLimit(1)) {
+                super.write(b);
+            }
+        }
 
-                switch (scheme) {
-                case BASIC:
-                    authHeader.append("Basic ");
-                    authHeader.append(getBasicCredential(uid, secret));
-                    break;
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (ensureLimit(len)) {
+                super.write(b, off, len);
+            }
+        }
 
-                case HMAC:
-                    authHeader.append("GaaS-HMAC ");
-                    authHeader.append(getHmacCredential(uid, secret, method,
-                            urlStr, dateHeader, inBody));
-                    break;
-                }
+        private boolean ensureLimit(int len) {
+            if (!exceeded && count + (long) len > limit) {
+                exceeded = true;
+                buf = new byte[0];
+                count = 0;
             }
-            conn.setRequestProperty("Authorization", authHeader.toString());
+            return !exceeded;
         }
 
-        // write the request body
-        if (inBody != null) {
-            conn.setRequestProperty("Content-Type", inContentType);
-            conn.setDoOutput(true);
-            try(OutputStream os=conn.getOutputStream()){
-                os.write(inBody);
+        /**
+         * Returns the body, or null if it exceeded the limit. The buffer is
+         * returned as is when its size was given by Content-Length.
+         */
+        byte[] getBody() {
+            if (exceeded) {
+                return null;
             }
+            return count == buf.length ? buf : Arrays.copyOf(buf, count);
         }
+    }
 
-        // receiving response
-        ApiResponse resp = new ApiResponse();
+    /**
+     * Input stream writing a copy of the bytes read to an output stream.
+     */
+    private static final class CopyingInputStream extends FilterInputStream {
+        private final ByteArrayOutputStream copy;
 
-        resp.status = conn.getResponseCode();
-        resp.contentType = conn.getContentType();
+        CopyingInputStream(InputStream in, ByteArrayOutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
 
-        // response body
-        int bodyLen = conn.getContentLength();
-        if (bodyLen < 0) {
-            bodyLen = 2048; // default length for initial byte array
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                copy.write(b);
+            }
+            return b;
         }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(bodyLen);
-        try (InputStream is = conn.getErrorStream() == null
-                ? conn.getInputStream()
-                : conn.getErrorStream()) {
-            byte[] buf = new byte[2048];
-            int bytes;
-            while ((bytes = is.read(buf)) != -1) {
-                baos.write(buf, 0, bytes);
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                copy.write(b, off, n);
             }
+            return n;
+        }
 
-            resp.body = baos.toByteArray();
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes are read, so they are copied
+            byte[] buf = new byte[(int) Math.min(n, 4096)];
+            int read = read(buf, 0, buf.length);
+            return read < 0 ? 0 : read;
+        }
 
-            return resp;
+        @Override
+        public boolean markSupported() {
+            return false;
         }
     }
 
-    private static final char SEP = ':';
+    // Wraps an exception thrown by ResourceEntryVisitor or the caller's output,
+    // so it is not confused with I/O errors of the request.
+    private static class OutputException extends Exception {
+        private static final long serialVersionUID = 1L;
 
-    //
-    // Basic credential
-    //
-    private static String getBasicCredential(String uid, String secret) {
-        if (uid == null || secret == null) {
-            throw new IllegalArgumentException("uid and secrent must not be null");
+        OutputException(IOException cause) {
+            super(cause);
         }
-        String token = uid + ":" + secret;
+    }
+
+    /**
+     * Decodes resource entries in the response one at a time and passes them
+     * to the visitor. The response is read with the streaming type adapter of
+     * RestResourceEntry, bypassing the JSON codec, the response cache and
+     * request coalescing.
+     */
+    private void visitResourceEntries(String apiPath, ResourceEntryVisitor visitor)
+            throws ServiceException, IOException {
+        String status = null;
+        String message = null;
+        try (TransportResponse resp = executeApi("GET", apiPath, null, null, false)) {
+            String contentType = resp.getContentType();
+            if (contentType == null || !contentType.equalsIgnoreCase("application/json")) {
+                throw new ServiceException("Received HTTP status: " + resp.getStatus()
+                        + " with non-JSON response from GET " + apiPath);
+            }
+            try (JsonReader reader = new JsonReader(
+                    new InputStreamReader(openResponseBody(resp), StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals("status")) {
+                        status = JsonReaders.readString(reader);
+                    } else if (name.equals("message")) {
+                        message = JsonReaders.readString(reader);
+                    } else if (name.equals("resourceEntries") && !JsonReaders.nextIsNull(reader)) {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            String key = reader.nextName();
+                            ResourceEntryDataImpl entry =
+                                    new ResourceEntryDataImpl(RestResourceEntry.read(reader));
+                            try {
+                                if (!visitor.visit(key, entry)) {
+                                    // The rest of the response is discarded
+                                    return;
+                                }
+                            } catch (IOException e) {
+                                throw new OutputException(e);
+                            }
+                        }
+                        reader.endObject();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+        } catch (OutputException e) {
+            throw (IOException) e.getCause();
+        } catch (ServiceException e) {
+            throw e;
+        } catch (Exception e) {
+            // Error handling
+            String errMsg = "Error while processing API request GET " + apiPath;
+            throw new ServiceException(errMsg, e);
+        }
+
+        if ("ERROR".equals(status)) {
+            throw new ServiceException(message);
+        }
+    }
+
+    /**
+     * Serializes a request body with the JSON codec used by this client.
+     */
+    private String toJson(Object value, Type type) throws ServiceException {
+        StringWriter writer = new StringWriter();
         try {
-            return BaseEncoding.base64().encode(token.getBytes("ISO-8859-1"));
+            jsonCodec.toJson(value, type, writer);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new ServiceException("Failed to serialize the request body.", e);
         }
+        return writer.toString();
     }
 
-    //
-    // Globalization Pipeline HMAC credential
-    //
+    /**
+     * Sends the API request, and returns the response. The caller is
+     * responsible for closing the response.
+     */
+    private TransportResponse executeApi(String method, String apiPath, String inContentType,
+            byte[] inBody, boolean anonymous) throws IOException, TokenManagerException, ServiceException {
+        return executeApi(method, apiPath, inContentType, inBody, null, anonymous, null);
+    }
+
+    /**
+     * Sends an API request within the limits of the request throttle, and the
+     * deadline of the operation. The response holds the throttle permit, and
+     * is aborted when the deadline expires until it is closed. The request body
+     * is either the byte array or the content of the file.
+     */
+    private TransportResponse executeApi(String method, String apiPath, String inContentType,
+            byte[] inBody, File inFile, boolean anonymous, Map<String, String> headers)
+                    throws IOException, TokenManagerException, ServiceException {
+        OperationClass operationClass = getOperationClass(method, apiPath);
+        TimeoutConfig timeoutConfig = timeouts;
+        RequestThrottle throttle = requestThrottle;
+
+        CancellationSignal signal = CancellationSignal.current();
+        Deadline deadline = Deadlines.getDeadline(timeoutConfig, operationClass);
+        Deadlines.Scope scope = null;
+        if (deadline != null) {
+            scope = new Deadlines.Scope(deadline, signal, method + " " + apiPath);
+            signal = scope.getSignal();
+        }
+
+        RequestThrottle.Permit permit = null;
+        TransportResponse resp = null;
+        try {
+            if (throttle != null) {
+                permit = throttle.acquire(account, operationClass, signal);
+            }
+            resp = sendApiRequest(method, apiPath, inContentType, inBody, inFile, anonymous, headers,
+                    permit, signal, scope, timeoutConfig);
+            if (permit != null || scope != null) {
+                resp = new CallResponse(resp, permit, scope);
+            }
+            return resp;
+        } catch (IOException e) {
+            if (scope != null && scope.isExpired()) {
+                throw scope.exceeded(e);
+            }
+            throw e;
+        } finally {
+            if (resp == null) {
+                if (permit != null) {
+                    permit.release();
+                }
+                if (scope != null) {
+                    scope.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends an API request guarded by the circuit breaker for the operation,
+     * and retries it according to the retry policy. Each attempt is sent with
+     * a new Date header and credential. A retry is not attempted when its delay
+     * would exceed the deadline.
+     */
+    private TransportResponse sendApiRequest(String method, String apiPath, String inContentType,
+            byte[] inBody, File inFile, boolean anonymous, Map<String, String> headers,
+            RequestThrottle.Permit permit,
+            CancellationSignal signal, Deadlines.Scope scope, TimeoutConfig timeoutConfig)
+                    throws IOException, TokenManagerException, ServiceException {
+        RetryPolicy policy = retryPolicy;
+        CircuitBreakerRegistry registry = circuitBreakers;
+        CircuitBreaker breaker = registry == null ? null
+                : registry.getCircuitBreaker(account.getUrl(), getOperationName(method, apiPath));
+        Deadline deadline = scope == null ? null : scope.getDeadline();
+
+        for (int retryCount = 0; ; retryCount++) {
+            if (deadline != null && deadline.isExpired()) {
+                throw scope.exceeded(null);
+            }
+            TransportRequest request = createApiRequest(method, apiPath, inContentType, inBody, inFile,
+                    anonymous, timeoutConfig, deadline);
+            request.setCancellationSignal(signal);
+            if (timeoutConfig != null) {
+                request.setConnectTimeout(Deadlines.getTimeout(timeoutConfig.getConnectTimeout(), deadline));
+                request.setReadTimeout(Deadlines.getTimeout(timeoutConfig.getReadTimeout(), deadline));
+            } else if (deadline != null) {
+                request.setConnectTimeout(Deadlines.getTimeout(0, deadline));
+                request.setReadTimeout(Deadlines.getTimeout(0, deadline));
+            }
+            if (headers != null) {
+                for (Entry<String, String> header : headers.entrySet()) {
+                    request.setHeader(header.getKey(), header.getValue());
+                }
+            }
+
+            if (permit != null) {
+                permit.beforeRequest();
+            }
+            if (breaker != null && !breaker.tryAcquirePermission()) {
+                throw new CircuitBreakerOpenException(breaker);
+            }
+
+            TransportResponse resp;
+            long start = System.nanoTime();
+            try {
+                resp = transport.execute(request);
+            } catch (IOException e) {
+                if (breaker != null) {
+                    if (signal != null && signal.isCanceled()) {
+                        breaker.releasePermission();
+                    } else {
+                        breaker.onError(System.nanoTime() - start);
+                    }
+                }
+                long delay = Retries.getRetryDelay(policy, method, retryCount, e, signal);
+                if (delay < 0 || (deadline != null
+                        && delay >= deadline.getRemaining(TimeUnit.MILLISECONDS))) {
+                    throw e;
+                }
+                Retries.sleep(delay, signal);
+                continue;
+            } catch (RuntimeException e) {
+                if (breaker != null) {
+                    breaker.releasePermission();
+                }
+                throw e;
+            }
 
-    private static final byte LINE_SEP = 0x0A;
-    private static final String ENC = "ISO-8859-1";
-    private static final String HMAC_SHA1_ALGORITHM = "HmacSHA1";
+            if (breaker != null) {
+                int status = resp.getStatus();
+                if (status == 429 || status >= 500) {
+                    breaker.onError(System.nanoTime() - start);
+                } else {
+                    breaker.onSuccess(System.nanoTime() - start);
+                }
+            }
 
-    private static String getHmacCredential(String uid, String secret, String method, String url,
-            String rfc1123Date, byte[] body) {
-        if (uid == null || method == null || url == null || rfc1123Date == null) {
-            throw new IllegalArgumentException("uid, secret, method, url and rfc1123Date must not be null");
+            long delay = Retries.getRetryDelay(policy, method, retryCount, resp);
+            if (delay < 0 || (deadline != null
+                    && delay >= deadline.getRemaining(TimeUnit.MILLISECONDS))) {
+                return resp;
+            }
+            resp.close();
+            Retries.sleep(delay, signal);
         }
+    }
 
-        StringBuilder credential = new StringBuilder(uid);
-        credential.append(SEP);
+    /**
+     * Returns the operation class of the API request used for request throttling.
+     */
+    static OperationClass getOperationClass(String method, String apiPath) {
+        String[] segments = apiPath.split("[/?]", 4);
+        String collection = segments.length > 2 ? segments[2] : "";
+        switch (collection) {
+        case "xliff":
+        case "doc-xliff":
+            return OperationClass.XLIFF;
+        case "documents":
+        case "doc-trs":
+            return OperationClass.DOCUMENT;
+        default:
+            return method.equals("GET") || method.equals("HEAD")
+                    ? OperationClass.READ : OperationClass.WRITE;
+        }
+    }
 
-        try {
-            // Actual secret used by GaaS looks like: "zg5SlD+ftXYRIZDblLgEA/ILkkCNqE1y"
-            // This is actually a base64 encoded random bytes. Although we could
-            // get original random bytes by decoding base64, but we don't do it because
-            // it can be any 'String' in future. We simply get byte[] expression of the
-            // secret 'String' (which is restricted to a subset of US-ASCII).
-            SecretKeySpec key = new SecretKeySpec(secret.getBytes(ENC), HMAC_SHA1_ALGORITHM);
-            Mac mac = Mac.getInstance(HMAC_SHA1_ALGORITHM);
-            mac.init(key);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            baos.write(method.getBytes(ENC));
-            baos.write(LINE_SEP);
-            baos.write(url.getBytes(ENC));
-            baos.write(LINE_SEP);
-            baos.write(rfc1123Date.getBytes(ENC));
-            baos.write(LINE_SEP);
-            if (body != null) {
-                baos.write(body);
+    /**
+     * A response releasing the request throttle permit and the deadline
+     * scope when closed.
+     */
+    private static final class CallResponse implements TransportResponse {
+        private final TransportResponse resp;
+        private final RequestThrottle.Permit permit;
+        private final Deadlines.Scope scope;
+
+        CallResponse(TransportResponse resp, RequestThrottle.Permit permit, Deadlines.Scope scope) {
+            this.resp = resp;
+            this.permit = permit;
+            this.scope = scope;
+        }
+
+        @Override
+        public int getStatus() {
+            return resp.getStatus();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return resp.getHeader(name);
+        }
+
+        @Override
+        public String getContentType() {
+            return resp.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return resp.getContentLength();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream body = resp.getBody();
+            return scope == null ? body : scope.wrap(body);
+        }
+
+        @Override
+        public void close() {
+            try {
+                resp.close();
+            } finally {
+                if (permit != null) {
+                    permit.release();
+                }
+                if (scope != null) {
+                    scope.close();
+                }
             }
-            byte[] msg = baos.toByteArray();
+        }
+    }
 
-            // signing
-            byte[] hmac = mac.doFinal(msg);
-            credential.append(BaseEncoding.base64().encode(hmac));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        } catch (InvalidKeyException e) {
-            throw new RuntimeException(e);
+    /**
+     * Returns the operation name used as the key of a circuit breaker. Path segments
+     * after the resource collection are replaced with "*", for example, the operation
+     * name for GET "{instanceId}/v2/bundles/{bundleId}" is "GET {instanceId}/v2/bundles/*".
+     */
+    static String getOperationName(String method, String apiPath) {
+        int queryIdx = apiPath.indexOf('?');
+        String path = queryIdx < 0 ? apiPath : apiPath.substring(0, queryIdx);
+        String[] segments = path.split("/");
+        StringBuilder buf = new StringBuilder(method).append(' ');
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                buf.append('/');
+            }
+            String segment = segments[i];
+            if (i == 0) {
+                // Service instance ID, or a reserved name such as $service
+                buf.append(segment.startsWith("$") ? segment : "{instanceId}");
+            } else if (i <= 2) {
+                buf.append(segment);
+            } else {
+                buf.append('*');
+            }
+        }
+        return buf.toString();
+    }
+
+    private TransportRequest createApiRequest(String method, String apiPath, String inContentType,
+            byte[] inBody, File inFile, boolean anonymous, TimeoutConfig timeoutConfig, Deadline deadline)
+                    throws IOException, TokenManagerException {
+        String urlStr = account.getUrl() + "/" + apiPath;
+        TransportRequest request = new TransportRequest(method, new URL(urlStr));
+
+        // Date header
+        String dateHeader = RequestSigning.getDateHeader();
+        request.setHeader("Date", dateHeader);
+
+        if (responseCompression) {
+            request.setHeader("Accept-Encoding", "gzip, deflate");
+        }
+
+        // A file is sent as is, with the length fixed here, so the HMAC
+        // credential covers exactly the bytes streamed from the file.
+        RequestBody fileBody = inFile == null ? null : RequestBody.create(inContentType, inFile);
+
+        // Compress the request body. The HMAC credential below is calculated
+        // from the compressed bytes actually sent to the server.
+        if (inBody != null && requestCompression && inBody.length >= requestCompressionThreshold) {
+            inBody = gzip(inBody);
+            request.setHeader("Content-Encoding", "gzip");
+        }
+
+        // Authorization header
+        if (!anonymous) {
+            String authHeader = null;
+            if (account.isIamEnabled()) {
+                authHeader = "Bearer " + account.getIamToken(timeoutConfig, deadline);
+            } else {
+                String uid = account.getUserId();
+                String secret = account.getPassword();
+
+                switch (scheme) {
+                case BASIC:
+                    authHeader = RequestSigning.getBasicAuthorization(uid, secret);
+                    break;
+
+                case HMAC:
+                    if (fileBody != null) {
+                        authHeader = RequestSigning.getHmacAuthorization(uid, secret, method,
+                                urlStr, dateHeader, inFile, fileBody.getContentLength());
+                    } else {
+                        authHeader = RequestSigning.getHmacAuthorization(uid, secret, method,
+                                urlStr, dateHeader, inBody);
+                    }
+                    break;
+                }
+            }
+            request.setHeader("Authorization", authHeader);
+        }
+
+        // request body
+        if (fileBody != null) {
+            request.setBody(fileBody);
+        } else if (inBody != null) {
+            request.setBody(RequestBody.create(inContentType, inBody));
+        }
+
+        return request;
+    }
+
+    /**
+     * Returns the response body stream, decompressing the content if necessary.
+     */
+    private static InputStream openResponseBody(TransportResponse resp) throws IOException {
+        return decodeContent(resp.getBody(), resp.getHeader("Content-Encoding"));
+    }
+
+    //
+    // Content encoding
+    //
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(Math.max(data.length / 4, 64));
+        try (GZIPOutputStream gzos = new GZIPOutputStream(baos)) {
+            gzos.write(data);
         }
+        return baos.toByteArray();
+    }
 
-        return credential.toString();
+    /**
+     * Wraps the response body stream with a decoder for the content encoding,
+     * so compressed content is decompressed while it is read.
+     */
+    private static InputStream decodeContent(InputStream is, String contentEncoding)
+            throws IOException {
+        if (contentEncoding == null) {
+            return is;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || encoding.equals("identity")) {
+            return is;
+        }
+
+        // An empty body may be sent with Content-Encoding header
+        PushbackInputStream pis = new PushbackInputStream(is, 1);
+        int b = pis.read();
+        if (b == -1) {
+            return pis;
+        }
+        pis.unread(b);
+
+        switch (encoding) {
+        case "gzip":
+        case "x-gzip":
+            return new GZIPInputStream(pis, 8192);
+        case "deflate":
+            final Inflater inflater = new Inflater();
+            return new InflaterInputStream(pis, inflater, 8192) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        default:
+            throw new IOException("Unsupported content encoding: " + contentEncoding);
+        }
     }
 
     //
@@ -1746,21 +2532,6 @@ public class ServiceClientImpl extends ServiceClient {
         }
     }
 
-    private static class EnumMapInstanceCreator<K extends Enum<K>, V>
-            implements InstanceCreator<EnumMap<K, V>> {
-        private final Class<K> enumClazz;
-
-        public EnumMapInstanceCreator(final Class<K> enumClazz) {
-            super();
-            this.enumClazz = enumClazz;
-        }
-
-        @Override
-        public EnumMap<K, V> createInstance(final Type type) {
-            return new EnumMap<K, V>(enumClazz);
-        }
-    }
-
     // TypeAdapterFactory used for serializing map entries with null value.
     // updateResourceStrings and some other REST APIs handles properties
     // with null value as deletion directive.
@@ -1793,36 +2564,6 @@ public class ServiceClientImpl extends ServiceClient {
             };
         }
     }
-    /**
-     * Creates a new Gson object
-     * 
-     * @param className A class name used for serialization/deserialization.
-     *                  <p>Note: This implementation does not use this argument
-     *                  for now. If we need different kinds of type adapters
-     *                  depending on class, the implementation might be updated
-     *                  to set up appropriate set of type adapters.
-     * @return  A Gson object
-     */
-    private static Gson createGson(String className) {
-        GsonBuilder builder = new GsonBuilder();
-
-        // ISO8601 date format support
-        builder.setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX");
-
-        builder.registerTypeAdapter(TranslationStatus.class,
-                new EnumWithFallbackAdapter<TranslationStatus>(TranslationStatus.UNKNOWN));
-
-        builder.registerTypeAdapter(TranslationRequestStatus.class,
-                new EnumWithFallbackAdapter<TranslationRequestStatus>(TranslationRequestStatus.UNKNOWN));
-
-        builder.registerTypeAdapter(
-                new TypeToken<EnumMap<TranslationStatus, Integer>>() {}.getType(),
-                new EnumMapInstanceCreator<TranslationStatus, Integer>(TranslationStatus.class));
-
-        builder.registerTypeAdapterFactory(new NullMapValueTypeAdapterFactory());
-       
-        return builder.create();
-    }
 
     private static String escapePathSegment(String pathSegment) {
         return UrlEscapers.urlPathSegmentEscaper().escape(pathSegment);
@@ -1903,8 +2644,7 @@ public class ServiceClientImpl extends ServiceClient {
         }
 
         RestInputDocumentTranslationRequestData newRestTRData = new RestInputDocumentTranslationRequestData(newTranslationRequestData);
-        Gson gson = createGson(RestInputDocumentTranslationRequestData.class.getName());
-        String jsonBody = gson.toJson(newRestTRData, RestInputDocumentTranslationRequestData.class);
+        String jsonBody = toJson(newRestTRData, RestInputDocumentTranslationRequestData.class);
         DocumentTranslationRequestResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/doc-trs/new" + "?async=" + async,
@@ -1937,8 +2677,7 @@ public class ServiceClientImpl extends ServiceClient {
         }
 
         RestInputDocumentTranslationRequestData restChangeSet = new RestInputDocumentTranslationRequestData(changeSet);
-        Gson gson = createGson(RestInputDocumentTranslationRequestData.class.getName());
-        String jsonBody = gson.toJson(restChangeSet, RestInputDocumentTranslationRequestData.class);
+        String jsonBody = toJson(restChangeSet, RestInputDocumentTranslationRequestData.class);
         DocumentTranslationRequestResponse resp = invokeApiJson(
                 "POST",
                 escapePathSegment(account.getInstanceId()) + "/v2/doc-trs/"
@@ -2130,22 +2869,7 @@ public class ServiceClientImpl extends ServiceClient {
             }
         }
 
-        ApiResponse resp = null;
-        try {
-            resp = invokeApi("GET", urlBuf.toString(), null, null, false);
-        } catch (Exception e) {
-            String errMsg = "Error while processing API request GET " + urlBuf;
-            throw new ServiceException(errMsg, e);
-        }
-        assert resp != null;
-
-        if (resp.contentType == null || !resp.contentType.equalsIgnoreCase("application/xliff+xml")) {
-            throw new ServiceException("Received HTTP status: " + resp.status
-                    + " with non-XLIFF response (" + resp.contentType + ") from GET"
-                    + " " + urlBuf.toString());
-        }
-        assert resp.body != null;
-        outputXliff.write(resp.body);
+        exportXliff(urlBuf.toString(), outputXliff);
     }
     
 
@@ -2155,30 +2879,9 @@ public class ServiceClientImpl extends ServiceClient {
     @Override
     public void updateDocumentsWithXliff(InputStream inputXliff)
             throws ServiceException, IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buf = new byte[2048];
-        int bytes;
-        while ((bytes = inputXliff.read(buf)) != -1) {
-            baos.write(buf, 0, bytes);
-        }
-        byte[] inputXliffBytes = baos.toByteArray();
-
-        String method = "POST";
         String apiPath = escapePathSegment(account.getInstanceId())
                 + "/v2/doc-xliff";
-
-        ApiResponse resp = null;
-        try {
-            resp = invokeApi(method, apiPath, "application/xliff+xml", inputXliffBytes, false);
-        } catch (Exception e) {
-            String errMsg = "Error while processing API request " + method + " " + apiPath;
-            throw new ServiceException(errMsg, e);
-        }
-        if (resp.status >= 300) {
-            String bodyStr = resp.body != null ? new String(resp.body, StandardCharsets.UTF_8) : null;
-            throw new ServiceException("Received HTTP status: " + resp.status + " from " + method
-                    + " " + apiPath + ", body: " + bodyStr);
-        }
+        importXliff(apiPath, inputXliff);
     }
 
 
@@ -2209,22 +2912,7 @@ public class ServiceClientImpl extends ServiceClient {
             .append("/")
             .append(trgLanguage);
 
-        ApiResponse resp = null;
-        try {
-            resp = invokeApi("GET", urlBuf.toString(), null, null, false);
-        } catch (Exception e) {
-            String errMsg = "Error while processing API request GET " + urlBuf;
-            throw new ServiceException(errMsg, e);
-        }
-        assert resp != null;
-
-        if (resp.contentType == null || !resp.contentType.equalsIgnoreCase("application/xliff+xml")) {
-            throw new ServiceException("Received HTTP status: " + resp.status
-                    + " with non-XLIFF response (" + resp.contentType + ") from GET"
-                    + " " + urlBuf.toString());
-        }
-        assert resp.body != null;
-        outputXliff.write(resp.body);
+        exportXliff(urlBuf.toString(), outputXliff);
     }
 
     /* (non-Javadoc)
@@ -15,16 +15,19 @@
  */
 package com.ibm.g11n.pipeline.client.impl;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
+import com.google.gson.stream.JsonReader;
 import com.ibm.g11n.pipeline.client.IndustryDomain;
 import com.ibm.g11n.pipeline.client.NewTranslationRequestData;
 import com.ibm.g11n.pipeline.client.TranslationRequestData;
@@ -281,6 +284,97 @@ public class TranslationRequestDataImpl extends TranslationRequestData {
         public Date getMergedAt() {
             return mergedAt;
         }
+
+        /**
+         * Reads a translation request without reflection.
+         */
+        static RestTranslationRequest read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestTranslationRequest tr = new RestTranslationRequest();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "targetLanguagesByBundle":
+                    tr.targetLanguagesByBundle = JsonReaders.readStringSetMap(in);
+                    break;
+                case "wordCountsByBundle":
+                    tr.wordCountsByBundle = readWordCounts(in);
+                    break;
+                case "partner":
+                    tr.partner = JsonReaders.readString(in);
+                    break;
+                case "name":
+                    tr.name = JsonReaders.readString(in);
+                    break;
+                case "organization":
+                    tr.organization = JsonReaders.readString(in);
+                    break;
+                case "emails":
+                    tr.emails = JsonReaders.readStringList(in);
+                    break;
+                case "phones":
+                    tr.phones = JsonReaders.readStringList(in);
+                    break;
+                case "domains":
+                    tr.domains = JsonReaders.readStringSet(in);
+                    break;
+                case "notes":
+                    tr.notes = JsonReaders.readStringList(in);
+                    break;
+                case "metadata":
+                    tr.metadata = JsonReaders.readStringMap(in);
+                    break;
+                case "partnerParameters":
+                    tr.partnerParameters = JsonReaders.readStringMap(in);
+                    break;
+                case "status":
+                    tr.status = JsonReaders.readString(in);
+                    break;
+                case "estimatedCompletion":
+                    tr.estimatedCompletion = JsonReaders.readDate(in);
+                    break;
+                case "createdAt":
+                    tr.createdAt = JsonReaders.readDate(in);
+                    break;
+                case "startedAt":
+                    tr.startedAt = JsonReaders.readDate(in);
+                    break;
+                case "submittedAt":
+                    tr.submittedAt = JsonReaders.readDate(in);
+                    break;
+                case "translatedAt":
+                    tr.translatedAt = JsonReaders.readDate(in);
+                    break;
+                case "mergedAt":
+                    tr.mergedAt = JsonReaders.readDate(in);
+                    break;
+                default:
+                    if (!tr.readField(name, in)) {
+                        in.skipValue();
+                    }
+                }
+            }
+            in.endObject();
+            return tr;
+        }
+
+        private static Map<String, RestWordCountData> readWordCounts(JsonReader in)
+                throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            Map<String, RestWordCountData> map = new LinkedHashMap<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                map.put(key, RestWordCountData.read(in));
+            }
+            in.endObject();
+            return map;
+        }
     }
 
     /**
@@ -299,6 +393,32 @@ public class TranslationRequestDataImpl extends TranslationRequestData {
         public Map<String, Integer> getCounts() {
             return counts;
         }
+
+        /**
+         * Reads word count data without reflection.
+         */
+        static RestWordCountData read(JsonReader in) throws IOException {
+            if (JsonReaders.nextIsNull(in)) {
+                return null;
+            }
+            RestWordCountData wc = new RestWordCountData();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                case "sourceLanguage":
+                    wc.sourceLanguage = JsonReaders.readString(in);
+                    break;
+                case "counts":
+                    wc.counts = JsonReaders.readIntegerMap(in);
+                    break;
+                default:
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return wc;
+        }
     }
 
     /**
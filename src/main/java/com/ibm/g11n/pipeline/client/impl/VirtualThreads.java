@@ -0,0 +1,51 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Access to virtual threads introduced in Java 21.
+ * <p>
+ * This is the implementation used on Java runtimes older than 21, where
+ * virtual threads are not available. The jar contains another version of
+ * this class for Java 21 or later runtime.
+ */
+public final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * Returns whether virtual threads are supported by the current runtime.
+     *
+     * @return true if virtual threads are supported.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for each task.
+     *
+     * @param namePrefix    The prefix of thread names.
+     * @return A new executor.
+     * @throws UnsupportedOperationException when virtual threads are not supported.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        throw new UnsupportedOperationException(
+                "Virtual threads require Java 21 or later runtime.");
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+
+/**
+ * <code>JsonCodec</code> is the interface used by
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient ServiceClient} for
+ * serializing request bodies to JSON and deserializing JSON response bodies.
+ * <p>
+ * The objects passed to a codec are plain data classes of this SDK, which may
+ * be non-public. Their fields have the same names as the JSON properties, and
+ * must be bound directly without using accessor methods or constructors with
+ * arguments. An implementation must also follow these conventions of the
+ * REST API:
+ * <ul>
+ * <li><code>java.util.Date</code> values are ISO 8601 date time strings, such
+ * as <code>"2019-03-04T05:06:07.089Z"</code>.</li>
+ * <li>Enum constants are read case insensitively, and an unknown constant is
+ * read as the constant <code>UNKNOWN</code> when the enum type has one.</li>
+ * <li>Null values in a <code>java.util.Map</code> are written as JSON null,
+ * because some operations use them as deletion directives.</li>
+ * </ul>
+ * <p>
+ * An implementation must be thread safe. A single instance is usually shared by
+ * multiple <code>ServiceClient</code> instances.
+ */
+public interface JsonCodec {
+    /**
+     * Reads a JSON value from the reader and converts it to an object of the type.
+     * The reader is not closed by this method.
+     *
+     * @param <T>       The type of the result.
+     * @param reader    The reader supplying the JSON text.
+     * @param type      The type of the result, which may be a parameterized type.
+     * @return  The object read from the JSON text, or null if the input is empty
+     *          or JSON null.
+     * @throws IOException when the input could not be read, or is not valid JSON
+     *          for the type.
+     */
+    <T> T fromJson(Reader reader, Type type) throws IOException;
+
+    /**
+     * Writes the object to the writer as JSON. The writer is not closed by this method.
+     *
+     * @param value     The object to be written.
+     * @param type      The type of the object, which may be a parameterized type.
+     * @param writer    The writer receiving the JSON text.
+     * @throws IOException when the JSON text could not be written.
+     */
+    void toJson(Object value, Type type, Writer writer) throws IOException;
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.json;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ibm.g11n.pipeline.client.impl.GsonCodec;
+
+/**
+ * Provides the {@link JsonCodec} used by default.
+ * <p>
+ * The built-in codec is based on Gson, with streaming type adapters for the
+ * data objects of bulk responses. A different implementation can be installed
+ * in either of the following ways.
+ * <ul>
+ * <li>Registering the class implementing <code>JsonCodec</code>, with a public
+ * no-argument constructor, in
+ * <code>META-INF/services/com.ibm.g11n.pipeline.client.json.JsonCodec</code>.
+ * The first implementation found by <code>java.util.ServiceLoader</code> becomes
+ * the default.</li>
+ * <li>Calling {@link #setDefault(JsonCodec)} before creating service clients, or
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient#setJsonCodec(JsonCodec)}
+ * for a single client.</li>
+ * </ul>
+ */
+public final class JsonCodecs {
+    private static final Logger logger = Logger.getLogger(JsonCodecs.class.getName());
+
+    private static volatile JsonCodec defaultCodec;
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * Returns the built-in codec based on Gson.
+     *
+     * @return The shared instance of the built-in codec.
+     */
+    public static JsonCodec getGsonCodec() {
+        return GsonCodec.getDefault();
+    }
+
+    /**
+     * Returns the codec used by default. When no codec was set by
+     * {@link #setDefault(JsonCodec)}, the first implementation registered
+     * as a service provider is used, or the built-in codec if none.
+     *
+     * @return The default codec.
+     */
+    public static JsonCodec getDefault() {
+        JsonCodec codec = defaultCodec;
+        if (codec == null) {
+            synchronized (JsonCodecs.class) {
+                codec = defaultCodec;
+                if (codec == null) {
+                    codec = loadCodec();
+                    defaultCodec = codec;
+                }
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * Sets the codec used by default. Service clients already created are
+     * not affected.
+     *
+     * @param codec The codec, or null to use the service provider or the built-in
+     *              codec again.
+     */
+    public static void setDefault(JsonCodec codec) {
+        defaultCodec = codec;
+    }
+
+    private static JsonCodec loadCodec() {
+        try {
+            Iterator<JsonCodec> itr = ServiceLoader.load(JsonCodec.class).iterator();
+            if (itr.hasNext()) {
+                JsonCodec codec = itr.next();
+                logger.config("Using JSON codec: " + codec.getClass().getName());
+                return codec;
+            }
+        } catch (ServiceConfigurationError e) {
+            logger.log(Level.WARNING, "Failed to load a JSON codec provider, "
+                    + "the built-in codec is used.", e);
+        }
+        return getGsonCodec();
+    }
+}
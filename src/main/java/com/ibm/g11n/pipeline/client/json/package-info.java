@@ -0,0 +1,10 @@
+/**
+ * Provides the interface for plugging a JSON implementation into service clients.
+ * <p>
+ * Service clients serialize request bodies and deserialize response bodies
+ * with a {@link com.ibm.g11n.pipeline.client.json.JsonCodec JsonCodec}. By
+ * default, the built-in codec based on Gson is used. An application standardized
+ * on a different JSON library can register its own implementation as described
+ * in {@link com.ibm.g11n.pipeline.client.json.JsonCodecs JsonCodecs}.
+ */
+package com.ibm.g11n.pipeline.client.json;
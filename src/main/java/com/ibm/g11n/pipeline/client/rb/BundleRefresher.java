@@ -0,0 +1,88 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import com.ibm.g11n.pipeline.client.ServiceException;
+
+/**
+ * Refreshes cloud resource bundles in background, for the background refresh
+ * mode of {@link CloudResourceBundleControl}. An instance holds the settings
+ * at the time background refresh was configured.
+ */
+final class BundleRefresher {
+    private static final Logger logger = Logger.getLogger(BundleRefresher.class.getName());
+
+    private final long refreshInterval;
+    private final long maxStaleness;
+    private final Executor executor;
+
+    BundleRefresher(long refreshInterval, long maxStaleness, Executor executor) {
+        this.refreshInterval = refreshInterval;
+        this.maxStaleness = maxStaleness;
+        this.executor = executor;
+    }
+
+    long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Returns the maximum staleness in milliseconds, or
+     * {@link java.util.ResourceBundle.Control#TTL_NO_EXPIRATION_CONTROL} if unbounded.
+     */
+    long getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    /**
+     * Submits a refresh task for the bundle. The flag is cleared when the
+     * task completed.
+     */
+    void submit(final CloudResourceBundle bundle, final AtomicBoolean refreshing) {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    RefreshMetrics.refreshCount.incrementAndGet();
+                    if (bundle.refresh()) {
+                        RefreshMetrics.updatedCount.incrementAndGet();
+                    }
+                } catch (ServiceException e) {
+                    RefreshMetrics.failedCount.incrementAndGet();
+                    logger.fine("Could not refresh resource data for " + bundle.getLocale()
+                            + " from the translation bundle " + bundle.getBundleId()
+                            + ": " + e.getMessage());
+                } catch (RuntimeException e) {
+                    RefreshMetrics.failedCount.incrementAndGet();
+                    logger.warning("Unexpected error while refreshing the translation bundle "
+                            + bundle.getBundleId() + ": " + e);
+                } finally {
+                    refreshing.set(false);
+                }
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.google.common.hash.Hashing;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+
+/**
+ * <code>BundleSnapshotStore</code> keeps the resource data of cloud resource bundles
+ * in a local directory, so an application can serve resource strings immediately at
+ * startup, or while the Globalization Pipeline service is unavailable.
+ * <p>
+ * When a store is set to {@link CloudResourceBundleControl#setSnapshotStore(BundleSnapshotStore)},
+ * the resource data fetched from the service is written to the store. A bundle
+ * requested for the first time is created from the snapshot if available, and
+ * refreshed from the service in background. When the resource data cannot be
+ * fetched from the service, the snapshot is used instead.
+ * <p>
+ * Each snapshot is a versioned binary file, stored in a sub directory for the
+ * service instance and the bundle, and read through a memory map. A snapshot
+ * written by an incompatible version, or a broken snapshot is ignored. An instance
+ * of this class is thread safe, and multiple processes may share a directory.
+ */
+public final class BundleSnapshotStore {
+    private static final Logger logger = Logger.getLogger(BundleSnapshotStore.class.getName());
+
+    private static final int MAGIC = 0x47505342;    // "GPSB"
+    private static final int VERSION = 1;
+    private static final String FILE_EXTENSION = ".gpsnap";
+    private static final long NO_UPDATED_AT = Long.MIN_VALUE;
+    private static final int NULL_STRING = -1;
+
+    private final Path directory;
+
+    /**
+     * Constructs a snapshot store using the specified directory. The directory
+     * is created when a snapshot is written for the first time.
+     * 
+     * @param directory The directory storing snapshots.
+     * @throws IllegalArgumentException when <code>directory</code> is null.
+     */
+    public BundleSnapshotStore(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must be specified.");
+        }
+        this.directory = directory.toAbsolutePath();
+    }
+
+    /**
+     * Returns the directory storing snapshots.
+     * 
+     * @return The directory storing snapshots.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Resource data read from a snapshot.
+     */
+    static final class Snapshot {
+        private final Map<String, String> data;
+        private final Date bundleUpdatedAt;
+        private final long savedTime;
+
+        Snapshot(Map<String, String> data, Date bundleUpdatedAt, long savedTime) {
+            this.data = data;
+            this.bundleUpdatedAt = bundleUpdatedAt;
+            this.savedTime = savedTime;
+        }
+
+        Map<String, String> getData() {
+            return data;
+        }
+
+        Date getBundleUpdatedAt() {
+            return bundleUpdatedAt;
+        }
+
+        /**
+         * Returns the time when the resource data was fetched from the service.
+         */
+        long getSavedTime() {
+            return savedTime;
+        }
+    }
+
+    /**
+     * Reads the snapshot of the bundle in the locale.
+     * 
+     * @param account   The service account.
+     * @param bundleId  The bundle ID.
+     * @param locale    The locale.
+     * @return The snapshot, or null if not available.
+     */
+    Snapshot read(ServiceAccount account, String bundleId, Locale locale) {
+        Path file = getSnapshotPath(account, bundleId, locale);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large: " + size + " bytes");
+            }
+            // The file is read into a heap buffer, not mapped. On Windows, a mapped
+            // file cannot be replaced until the mapping is garbage collected, which
+            // makes the atomic move in write() fail.
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) {
+                    break;
+                }
+            }
+            buf.flip();
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file");
+            }
+            int version = buf.getInt();
+            if (version != VERSION) {
+                logger.fine("Ignored the snapshot " + file + " with unsupported version " + version);
+                return null;
+            }
+            long savedTime = buf.getLong();
+            long updatedAt = buf.getLong();
+            int count = buf.getInt();
+            // Each entry uses at least 8 bytes for the string lengths
+            if (count < 0 || count > buf.remaining() / 8) {
+                throw new IOException("Illegal entry count: " + count);
+            }
+            String[] keys = new String[count];
+            String[] values = new String[count];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                keys[i] = readString(buf, scratch);
+                if (keys[i] == null) {
+                    throw new IOException("Null resource key");
+                }
+                values[i] = readString(buf, scratch);
+            }
+            if (buf.hasRemaining()) {
+                throw new IOException("Unexpected data after the last entry");
+            }
+            return new Snapshot(StringTable.of(keys, values, count), updatedAt == NO_UPDATED_AT ? null : new Date(updatedAt), savedTime);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | BufferUnderflowException e) {
+            logger.info("Could not read the snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private static String readString(ByteBuffer buf, byte[] scratch) throws IOException {
+        int len = buf.getInt();
+        if (len == NULL_STRING) {
+            return null;
+        }
+        if (len < 0 || len > buf.remaining()) {
+            throw new IOException("Illegal string length: " + len);
+        }
+        byte[] bytes = len <= scratch.length ? scratch : new byte[len];
+        buf.get(bytes, 0, len);
+        return new String(bytes, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the snapshot of the bundle in the locale. The snapshot is written to
+     * a temporary file, which replaces the current snapshot when completed.
+     * 
+     * @param account           The service account.
+     * @param bundleId          The bundle ID.
+     * @param locale            The locale.
+     * @param data              The resource data.
+     * @param bundleUpdatedAt   The last update time of the bundle, or null.
+     * @param savedTime         The time when the resource data was fetched.
+     * @throws IOException when the snapshot could not be written.
+     */
+    void write(ServiceAccount account, String bundleId, Locale locale, Map<String, String> data,
+            Date bundleUpdatedAt, long savedTime) throws IOException {
+        Path file = getSnapshotPath(account, bundleId, locale);
+        Path dir = file.getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString() + ".", ".tmp");
+        boolean completed = false;
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(savedTime);
+                out.writeLong(bundleUpdatedAt == null ? NO_UPDATED_AT : bundleUpdatedAt.getTime());
+                out.writeInt(data.size());
+                for (Map.Entry<String, String> entry : data.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue());
+                }
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the path of the snapshot file, in the form of
+     * <code>&lt;directory&gt;/&lt;service instance hash&gt;/&lt;bundle ID&gt;/&lt;language tag&gt;.gpsnap</code>.
+     */
+    Path getSnapshotPath(ServiceAccount account, String bundleId, Locale locale) {
+        // The service instance is identified by a hash, so the directory name
+        // is short and does not expose the service URL.
+        String instanceKey = Hashing.sha256().hashString(
+                account.getUrl() + "\n" + account.getInstanceId(), StandardCharsets.UTF_8).toString();
+        return directory.resolve(instanceKey)
+                .resolve(escapeFileName(bundleId))
+                .resolve(escapeFileName(locale.toLanguageTag()) + FILE_EXTENSION);
+    }
+
+    /**
+     * Escapes characters other than ASCII letters, digits, '-' and '_' in the
+     * name by percent encoding of UTF-8 bytes, so the name is safe as a file name
+     * on any platform.
+     */
+    private static String escapeFileName(String name) {
+        StringBuilder buf = new StringBuilder(name.length());
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_') {
+                buf.append(c);
+            } else {
+                buf.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return buf.toString();
+    }
+}
@@ -15,13 +15,18 @@
  */
 package com.ibm.g11n.pipeline.client.rb;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
+import com.ibm.g11n.pipeline.client.BundleData;
+import com.ibm.g11n.pipeline.client.CircuitBreakerOpenException;
 import com.ibm.g11n.pipeline.client.ServiceAccount;
 import com.ibm.g11n.pipeline.client.ServiceClient;
 import com.ibm.g11n.pipeline.client.ServiceException;
@@ -36,7 +41,19 @@ public final class CloudResourceBundle extends ResourceBundle {
 
     private static final Logger logger = Logger.getLogger(CloudResourceBundle.class.getName());
 
-    private volatile Map<String, String> data;
+    private volatile StringTable data;
+    private final ServiceAccount serviceAccount;
+    private final String bundleId;
+    private final Locale cloudLocale;
+    private volatile Date bundleUpdatedAt;
+    private final long loadTime;
+    private final BundleSnapshotStore snapshotStore;
+
+    // Background refresh state, used when the control enables background refresh
+    private volatile BundleRefresher refresher;
+    private volatile long validatedTime;
+    private volatile long nextRefreshTime;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
 
     /**
      * Package local factory method creating a new CloundResourceBundle instance
@@ -48,11 +65,56 @@ public final class CloudResourceBundle extends ResourceBundle {
      * @return An instance of CloundResourceBundle.
      */
     static CloudResourceBundle loadBundle(ServiceAccount serviceAccount, String bundleId, Locale locale) {
+        return loadBundle(serviceAccount, bundleId, locale, null);
+    }
+
+    /**
+     * Package local factory method creating a new CloundResourceBundle instance
+     * for the specified service account, bundle ID and locale, with the bundle
+     * information fetched by the caller.
+     * 
+     * @param serviceAccount    The service account for IBM Globalization Pipeline
+     * @param bundleId          The bundle ID
+     * @param locale            The locale
+     * @param bundleInfo        The bundle information fetched before this call,
+     *                          or null if not available.
+     * @return An instance of CloundResourceBundle.
+     */
+    static CloudResourceBundle loadBundle(ServiceAccount serviceAccount, String bundleId, Locale locale,
+            BundleData bundleInfo) {
+        return loadBundle(serviceAccount, bundleId, locale, bundleInfo, null);
+    }
+
+    /**
+     * Package local factory method creating a new CloundResourceBundle instance
+     * for the specified service account, bundle ID and locale. The resource data
+     * fetched from the service is written to the snapshot store.
+     * 
+     * @param serviceAccount    The service account for IBM Globalization Pipeline
+     * @param bundleId          The bundle ID
+     * @param locale            The locale
+     * @param bundleInfo        The bundle information fetched before this call,
+     *                          or null if not available.
+     * @param snapshotStore     The snapshot store, or null.
+     * @return An instance of CloundResourceBundle.
+     */
+    static CloudResourceBundle loadBundle(ServiceAccount serviceAccount, String bundleId, Locale locale,
+            BundleData bundleInfo, BundleSnapshotStore snapshotStore) {
         CloudResourceBundle crb = null;
         ServiceClient client = ServiceClient.getInstance(serviceAccount);
         try {
+            // The bundle information is not fetched here, to avoid another
+            // request per load. Without it, the last update time is recorded
+            // by the first update check.
+            Date updatedAt = bundleInfo != null ? bundleInfo.getUpdatedAt() : null;
             Map<String, String> resStrings = client.getResourceStrings(bundleId, locale.toLanguageTag(), false);
-            crb = new CloudResourceBundle(resStrings);
+            crb = new CloudResourceBundle(resStrings, serviceAccount, bundleId, locale, updatedAt,
+                    System.currentTimeMillis(), snapshotStore);
+            crb.saveSnapshot();
+        } catch (CircuitBreakerOpenException e) {
+            // The service is known to be unavailable - fall back without waiting
+            logger.fine("Skipped fetching resource data for " + locale
+                    + " from the translation bundle " + bundleId + ": " + e.getMessage());
         } catch (ServiceException e) {
             logger.info("Could not fetch resource data for " + locale
                     + " from the translation bundle " + bundleId + ": " + e.getMessage());
@@ -60,14 +122,232 @@ public final class CloudResourceBundle extends ResourceBundle {
         return crb;
     }
 
+    /**
+     * Package local factory method creating a new CloundResourceBundle instance
+     * from the snapshot of the resource data, without accessing the service.
+     * 
+     * @param serviceAccount    The service account for IBM Globalization Pipeline
+     * @param bundleId          The bundle ID
+     * @param locale            The locale
+     * @param snapshotStore     The snapshot store
+     * @return An instance of CloundResourceBundle, or null if the snapshot is not available.
+     */
+    static CloudResourceBundle loadSnapshot(ServiceAccount serviceAccount, String bundleId, Locale locale,
+            BundleSnapshotStore snapshotStore) {
+        BundleSnapshotStore.Snapshot snapshot = snapshotStore.read(serviceAccount, bundleId, locale);
+        if (snapshot == null) {
+            return null;
+        }
+        RefreshMetrics.snapshotLoadCount.incrementAndGet();
+        // The snapshot is as fresh as when the data was fetched from the service
+        return new CloudResourceBundle(snapshot.getData(), serviceAccount, bundleId, locale,
+                snapshot.getBundleUpdatedAt(), snapshot.getSavedTime(), snapshotStore);
+    }
+
+    /**
+     * Returns the last update time of the bundle, or null if not available.
+     * 
+     * @param client    The service client
+     * @param bundleId  The bundle ID
+     * @return The last update time of the bundle, or null.
+     * @throws CircuitBreakerOpenException when the service is known to be unavailable.
+     */
+    static Date fetchBundleUpdatedAt(ServiceClient client, String bundleId)
+            throws CircuitBreakerOpenException {
+        try {
+            return client.getBundleInfo(bundleId).getUpdatedAt();
+        } catch (CircuitBreakerOpenException e) {
+            throw e;
+        } catch (ServiceException e) {
+            logger.fine("Could not fetch the last update time of the translation bundle "
+                    + bundleId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Private constructor, only called from {@link #loadBundle(ServiceAccount, String, Locale)}.
      * This class does not have any public constructors.
      * 
-     * @param data  The resource string key/value pairs
+     * @param data              The resource string key/value pairs
+     * @param serviceAccount    The service account
+     * @param bundleId          The bundle ID
+     * @param locale            The locale
+     * @param bundleUpdatedAt   The last update time of the bundle, or null if not available
+     * @param loadTime          The time when the resource data was fetched from the service
+     * @param snapshotStore     The snapshot store, or null
+     */
+    private CloudResourceBundle(Map<String, String> data, ServiceAccount serviceAccount,
+            String bundleId, Locale locale, Date bundleUpdatedAt, long loadTime,
+            BundleSnapshotStore snapshotStore) {
+        this.data = StringTable.of(data);
+        this.serviceAccount = serviceAccount;
+        this.bundleId = bundleId;
+        this.cloudLocale = locale;
+        this.bundleUpdatedAt = bundleUpdatedAt;
+        this.loadTime = loadTime;
+        this.validatedTime = loadTime;
+        this.snapshotStore = snapshotStore;
+    }
+
+    /**
+     * Writes the current resource data to the snapshot store, if available.
+     * A failure is logged, and does not affect the bundle.
+     */
+    private void saveSnapshot() {
+        if (snapshotStore == null) {
+            return;
+        }
+        try {
+            snapshotStore.write(serviceAccount, bundleId, cloudLocale, data, bundleUpdatedAt,
+                    System.currentTimeMillis());
+        } catch (IOException e) {
+            logger.info("Could not write the snapshot of resource data for " + cloudLocale
+                    + " from the translation bundle " + bundleId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the bundle ID in the Globalization Pipeline service instance.
+     * 
+     * @return The bundle ID.
      */
-    private CloudResourceBundle(Map<String, String> data) {
-        this.data = data;
+    String getBundleId() {
+        return bundleId;
+    }
+
+    /**
+     * Returns the last update time of the bundle, fetched before the resource data
+     * or by the first update check.
+     * 
+     * @return The last update time of the bundle, or null if not available.
+     */
+    Date getBundleUpdatedAt() {
+        return bundleUpdatedAt;
+    }
+
+    /**
+     * Returns the time when the resource data was fetched from the service.
+     * For a bundle created from a snapshot, this is the time recorded in the snapshot.
+     * 
+     * @return The load time in milliseconds since the epoch.
+     */
+    long getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * Returns the time when the resource data was last confirmed to be
+     * up to date, by loading or a background refresh.
+     * 
+     * @return The validated time in milliseconds since the epoch.
+     */
+    long getValidatedTime() {
+        return validatedTime;
+    }
+
+    /**
+     * Sets the refresher used for refreshing the resource data in background,
+     * or null to disable background refresh.
+     * 
+     * @param refresher The refresher, or null.
+     */
+    void setRefresher(BundleRefresher refresher) {
+        if (refresher != null && refresher != this.refresher) {
+            nextRefreshTime = validatedTime + refresher.getRefreshInterval();
+        }
+        this.refresher = refresher;
+    }
+
+    /**
+     * Fetches the resource data from the service if the bundle was updated,
+     * and replaces the current data. Called by a background refresh task.
+     * 
+     * @return true if the data was replaced, false if the bundle was not updated.
+     * @throws ServiceException when the data could not be fetched.
+     */
+    boolean refresh() throws ServiceException {
+        long start = System.currentTimeMillis();
+        ServiceClient client = ServiceClient.getInstance(serviceAccount);
+        Date updatedAt = fetchBundleUpdatedAt(client, bundleId);
+        boolean updated = false;
+        if (isUpdatedAt(updatedAt)) {
+            data = StringTable.of(client.getResourceStrings(bundleId, cloudLocale.toLanguageTag(), false));
+            bundleUpdatedAt = updatedAt;
+            updated = true;
+            saveSnapshot();
+        } else if (bundleUpdatedAt == null) {
+            bundleUpdatedAt = updatedAt;
+        }
+        validatedTime = start;
+        return updated;
+    }
+
+    /**
+     * Fetches the last update time of the bundle, and returns whether the bundle
+     * was updated after the resource data was loaded. When the last update time
+     * was not available at loading, the fetched time is recorded for later checks.
+     * 
+     * @param client    The service client
+     * @return true if the bundle was updated, or the last update time is not available.
+     * @throws CircuitBreakerOpenException when the service is known to be unavailable.
+     */
+    boolean checkUpdated(ServiceClient client) throws CircuitBreakerOpenException {
+        Date updatedAt = fetchBundleUpdatedAt(client, bundleId);
+        if (isUpdatedAt(updatedAt)) {
+            return true;
+        }
+        if (bundleUpdatedAt == null) {
+            bundleUpdatedAt = updatedAt;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the bundle last updated at the specified time is newer
+     * than the resource data.
+     * 
+     * @param updatedAt The last update time of the bundle, or null.
+     * @return true if the bundle is newer, or the last update time is not available.
+     */
+    private boolean isUpdatedAt(Date updatedAt) {
+        if (updatedAt == null) {
+            return true;
+        }
+        Date current = bundleUpdatedAt;
+        if (current == null) {
+            // The resource data includes all updates made before it was loaded
+            return updatedAt.getTime() > loadTime;
+        }
+        return updatedAt.after(current);
+    }
+
+    /**
+     * Starts a background refresh if the refresh interval has elapsed and no
+     * refresh is in progress. This method does not wait for the service.
+     */
+    private void checkRefresh() {
+        BundleRefresher r = refresher;
+        if (r == null) {
+            return;
+        }
+        if (System.currentTimeMillis() >= nextRefreshTime) {
+            startRefresh(r);
+        }
+    }
+
+    /**
+     * Starts a background refresh by the refresher, unless a refresh is already
+     * in progress. Used for refreshing a bundle created from a snapshot.
+     * 
+     * @param r The refresher.
+     */
+    void startRefresh(BundleRefresher r) {
+        if (refreshing.compareAndSet(false, true)) {
+            // A failed refresh is attempted again after another interval
+            nextRefreshTime = System.currentTimeMillis() + r.getRefreshInterval();
+            r.submit(this, refreshing);
+        }
     }
 
     /**
@@ -75,6 +355,7 @@ public final class CloudResourceBundle extends ResourceBundle {
      */
     @Override
     public Enumeration<String> getKeys() {
+        checkRefresh();
         return Collections.enumeration(data.keySet());
     }
 
@@ -83,6 +364,7 @@ public final class CloudResourceBundle extends ResourceBundle {
      */
     @Override
     protected Object handleGetObject(String arg0) {
+        checkRefresh();
         return data.get(arg0);
     }
 }
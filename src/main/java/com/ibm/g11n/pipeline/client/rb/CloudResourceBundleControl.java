@@ -16,17 +16,42 @@
 package com.ibm.g11n.pipeline.client.rb;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.ResourceBundle.Control;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
+import com.ibm.g11n.pipeline.client.BundleData;
+import com.ibm.g11n.pipeline.client.CircuitBreakerOpenException;
+import com.ibm.g11n.pipeline.client.ClientExecutors;
 import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceException;
 
 /**
  * <code>CloudResourceBundleControl</code> is a concrete subclass of {@link Control}.
@@ -41,6 +66,8 @@ import com.ibm.g11n.pipeline.client.ServiceAccount;
  */
 public final class CloudResourceBundleControl extends Control {
 
+    private static final Logger logger = Logger.getLogger(CloudResourceBundleControl.class.getName());
+
     private static final String FORMAT_GP_CLOUD_BUNDLE = "gp.cloud.bundle";
 
     /**
@@ -97,6 +124,30 @@ public final class CloudResourceBundleControl extends Control {
     private Pattern exclusionPattern;
     private NameMapper nameMapper;
     private LookupMode mode;
+    private volatile BundleRefresher refresher;
+    private volatile BundleSnapshotStore snapshotStore;
+
+    /**
+     * Default number of bundles fetched concurrently by preload methods (8).
+     */
+    public static final int DEFAULT_PRELOAD_PARALLELISM = 8;
+
+    /**
+     * Default time a bundle fetched by preload methods is kept for the first
+     * {@link #newBundle(String, Locale, String, ClassLoader, boolean) newBundle}
+     * call for it (600000 = 10 minutes).
+     */
+    public static final long DEFAULT_PRELOAD_RETENTION = 600000L;
+
+    /**
+     * Maximum number of bundles fetched by preload methods kept at a time (1024).
+     */
+    public static final int MAX_PRELOADED_BUNDLES = 1024;
+
+    // Bundles fetched by preload methods, until used by newBundle or expired
+    private final ConcurrentMap<String, CloudResourceBundle> preloadedBundles = new ConcurrentHashMap<>();
+    private final List<PreloadTask> preloads = new CopyOnWriteArrayList<>();
+    private volatile long preloadRetention = DEFAULT_PRELOAD_RETENTION;
 
     /**
      * The environment variable name for specifying resource bundle lookup mode.
@@ -394,17 +445,155 @@ public final class CloudResourceBundleControl extends Control {
 
     @Override
     public long getTimeToLive(String baseName, Locale locale) {
+        BundleRefresher r = refresher;
+        if (r != null) {
+            // Cached bundles are refreshed in background, and expired by the JDK
+            // cache only when not refreshed within the maximum staleness.
+            return r.getMaxStaleness();
+        }
         return ttl;
     }
 
+    /**
+     * Enables or disables the background refresh mode (stale-while-revalidate).
+     * <p>
+     * In the background refresh mode, a cloud resource bundle keeps serving the
+     * current resource data after the refresh interval has elapsed since it was
+     * loaded or last refreshed. The next access to the bundle starts a refresh on
+     * the executor returned by {@link ClientExecutors#getDefault()}, which fetches
+     * the bundle information, and replaces the resource data in place only when
+     * the bundle was updated. When a refresh fails, the current data is kept,
+     * and the refresh is attempted again after another interval. The calling
+     * thread does not wait for the service once a bundle has been loaded.
+     * <p>
+     * The cache expiration of this control is not used in this mode. When the
+     * resource data has not been refreshed successfully within the maximum
+     * staleness, the cached bundle expires, and it is reloaded on the calling
+     * thread by {@link ResourceBundle#getBundle(String, Locale, Control)}, in
+     * the same way as an expired bundle without background refresh.
+     * <p>
+     * The settings apply to bundles returned by this control after this method
+     * is called. The activity of background refresh is reported by {@link RefreshMetrics}.
+     * 
+     * @param refreshInterval   The refresh interval in milliseconds, or 0 to disable
+     *                          the background refresh mode.
+     * @param maxStaleness      The maximum staleness in milliseconds, which must be
+     *                          larger than <code>refreshInterval</code>, or
+     *                          {@link Control#TTL_NO_EXPIRATION_CONTROL} for no limit.
+     *                          Ignored when <code>refreshInterval</code> is 0.
+     * @return This object.
+     * @throws IllegalArgumentException when <code>refreshInterval</code> or
+     * <code>maxStaleness</code> is illegal.
+     */
+    public CloudResourceBundleControl setBackgroundRefresh(long refreshInterval, long maxStaleness) {
+        if (refreshInterval < 0) {
+            throw new IllegalArgumentException("Illegal refreshInterval: " + refreshInterval);
+        }
+        if (refreshInterval == 0) {
+            refresher = null;
+            return this;
+        }
+        if (maxStaleness <= refreshInterval && maxStaleness != Control.TTL_NO_EXPIRATION_CONTROL) {
+            throw new IllegalArgumentException("Illegal maxStaleness: " + maxStaleness);
+        }
+        refresher = new BundleRefresher(refreshInterval, maxStaleness, ClientExecutors.getDefault());
+        return this;
+    }
+
+    /**
+     * Returns the refresh interval of the background refresh mode.
+     * 
+     * @return The refresh interval in milliseconds, or 0 if the background refresh
+     * mode is disabled.
+     * @see #setBackgroundRefresh(long, long)
+     */
+    public long getRefreshInterval() {
+        BundleRefresher r = refresher;
+        return r == null ? 0 : r.getRefreshInterval();
+    }
+
+    /**
+     * Returns the maximum staleness of the background refresh mode.
+     * 
+     * @return The maximum staleness in milliseconds, {@link Control#TTL_NO_EXPIRATION_CONTROL}
+     * if unbounded, or 0 if the background refresh mode is disabled.
+     * @see #setBackgroundRefresh(long, long)
+     */
+    public long getMaxStaleness() {
+        BundleRefresher r = refresher;
+        return r == null ? 0 : r.getMaxStaleness();
+    }
+
+    /**
+     * Sets the snapshot store keeping the resource data on the local file system.
+     * <p>
+     * With a snapshot store, the resource data fetched from the service by this
+     * control is written to the store. When a cloud resource bundle is requested
+     * for the first time, for example, after the application started, and the cache
+     * is not disabled by {@link Control#TTL_DONT_CACHE}, the bundle is
+     * created from the snapshot if available, without waiting for the service, and
+     * a refresh from the service is started in background on the executor returned
+     * by {@link ClientExecutors#getDefault()}. The refresh replaces the resource data
+     * in place when the bundle was updated after the snapshot was written. When the
+     * resource data cannot be fetched from the service, for example, while the service
+     * is unreachable, the bundle is created from the snapshot instead.
+     * <p>
+     * The settings apply to bundles loaded by this control after this method is called.
+     * 
+     * @param snapshotStore The snapshot store, or null to disable snapshots.
+     * @return This object.
+     */
+    public CloudResourceBundleControl setSnapshotStore(BundleSnapshotStore snapshotStore) {
+        this.snapshotStore = snapshotStore;
+        return this;
+    }
+
+    /**
+     * Returns the snapshot store used by this control.
+     * 
+     * @return The snapshot store, or null if snapshots are disabled.
+     * @see #setSnapshotStore(BundleSnapshotStore)
+     */
+    public BundleSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For a cloud resource bundle, this implementation fetches the bundle information,
+     * and returns false if the last update time of the bundle is not newer than the
+     * time recorded when the contents were loaded, or than the load time when it was
+     * not recorded. In this case, the cached bundle is used for another cache
+     * expiration period, without downloading the contents again. This method returns true when the last update time is not available,
+     * or the bundle information could not be fetched.
+     * <p>
+     * In the background refresh mode, this method does not access the service. It
+     * returns false if the bundle was refreshed within the maximum staleness.
+     * @see #setBackgroundRefresh(long, long)
+     */
     @Override
     public boolean needsReload(String baseName, Locale locale, String format, ClassLoader loader,
         ResourceBundle bundle, long loadTime) {
-        // We may implement light weight 'last update' check.
-        // For now, always returns true, that means, whenever cached
-        // bundle is expired, reload the contents from the Globalization
-        // Pipeline service instance.
-        return true;
+        if (!(bundle instanceof CloudResourceBundle)) {
+            return true;
+        }
+        CloudResourceBundle crb = (CloudResourceBundle) bundle;
+        BundleRefresher r = refresher;
+        if (r != null) {
+            long maxStaleness = r.getMaxStaleness();
+            if (maxStaleness < 0
+                    || System.currentTimeMillis() - crb.getValidatedTime() < maxStaleness) {
+                return false;
+            }
+            RefreshMetrics.staleReloadCount.incrementAndGet();
+            return true;
+        }
+        try {
+            return crb.checkUpdated(ServiceClient.getInstance(serviceAccount));
+        } catch (CircuitBreakerOpenException e) {
+            return true;
+        }
     }
 
     @Override
@@ -433,8 +622,424 @@ public final class CloudResourceBundleControl extends Control {
             return null;
         }
 
-        // loadBundle returns null if locale is not available
-        return CloudResourceBundle.loadBundle(serviceAccount, bundleId, locale);
+        CloudResourceBundle crb = null;
+        if (!preloadedBundles.isEmpty()) {
+            crb = preloadedBundles.remove(preloadKey(bundleId, locale));
+            if (crb != null && System.currentTimeMillis() - crb.getLoadTime() >= preloadRetention) {
+                crb = null;
+            }
+            removeExpiredPreloads();
+        }
+        long expiration = getTimeToLive(baseName, locale);
+        if (crb != null && expiration >= 0
+                && System.currentTimeMillis() - crb.getLoadTime() >= expiration) {
+            crb = null;
+        }
+        BundleSnapshotStore store = snapshotStore;
+        BundleRefresher r = refresher;
+        if (crb == null && store != null && !reload && expiration != Control.TTL_DONT_CACHE) {
+            // Serve the snapshot without waiting for the service, and refresh it in background
+            crb = CloudResourceBundle.loadSnapshot(serviceAccount, bundleId, locale, store);
+            if (crb != null) {
+                crb.setRefresher(r);
+                crb.startRefresh(r != null ? r : new BundleRefresher(0,
+                        Control.TTL_NO_EXPIRATION_CONTROL, ClientExecutors.getDefault()));
+                return crb;
+            }
+        }
+        if (crb == null) {
+            // loadBundle returns null if locale is not available
+            crb = CloudResourceBundle.loadBundle(serviceAccount, bundleId, locale, null, store);
+        }
+        if (crb == null && store != null) {
+            // The resource data could not be fetched from the service
+            crb = CloudResourceBundle.loadSnapshot(serviceAccount, bundleId, locale, store);
+        }
+        if (crb != null) {
+            crb.setRefresher(r);
+        }
+        return crb;
+    }
+
+    /**
+     * The result of a preload operation.
+     */
+    public static final class PreloadResult {
+        private final int loadedCount;
+        private final List<String> failures;
+
+        PreloadResult(int loadedCount, List<String> failures) {
+            this.loadedCount = loadedCount;
+            this.failures = Collections.unmodifiableList(failures);
+        }
+
+        /**
+         * Returns the number of bundles fetched from the service.
+         * 
+         * @return The number of bundles fetched.
+         */
+        public int getLoadedCount() {
+            return loadedCount;
+        }
+
+        /**
+         * Returns the bundles which could not be fetched, in the form of
+         * <code>bundleId (languageTag)</code>.
+         * 
+         * @return The list of bundles which could not be fetched.
+         */
+        public List<String> getFailures() {
+            return failures;
+        }
+    }
+
+    /**
+     * Fetches cloud resource bundles for the base names and locales in the
+     * background, so the first {@link ResourceBundle#getBundle(String, Locale, Control)}
+     * calls for them do not wait for the service. This method is equivalent to
+     * <code>preload(baseNames, locales, DEFAULT_PRELOAD_PARALLELISM)</code>.
+     * 
+     * @param baseNames The resource bundle base names.
+     * @param locales   The locales.
+     * @return A future for the result, completed when all bundles were processed.
+     * @see #preload(Collection, Collection, int)
+     */
+    public Future<PreloadResult> preload(Collection<String> baseNames,
+            Collection<Locale> locales) {
+        return preload(baseNames, locales, DEFAULT_PRELOAD_PARALLELISM);
+    }
+
+    /**
+     * Fetches cloud resource bundles for the base names and locales in the
+     * background, so the first {@link ResourceBundle#getBundle(String, Locale, Control)}
+     * calls for them do not wait for the service.
+     * <p>
+     * Base names excluded by the inclusion/exclusion patterns, or not mapped to
+     * a bundle ID by the name mapper are ignored. Each fetched bundle is used by
+     * the first {@link #newBundle(String, Locale, String, ClassLoader, boolean) newBundle}
+     * call for it, if not expired by then. A fetched bundle is discarded when it is not
+     * used within the preload retention time set by {@link #setPreloadRetention(long)}, and at most {@link #MAX_PRELOADED_BUNDLES}
+     * bundles are kept. Bundles are fetched on the executor returned by
+     * {@link ClientExecutors#getDefault()}.
+     * 
+     * @param baseNames     The resource bundle base names.
+     * @param locales       The locales.
+     * @param parallelism   The maximum number of bundles fetched concurrently.
+     * @return A future for the result, completed when all bundles were processed.
+     * @throws IllegalArgumentException when <code>parallelism</code> is not positive.
+     */
+    public Future<PreloadResult> preload(Collection<String> baseNames,
+            Collection<Locale> locales, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+        final Map<String, BundleData> keys = new LinkedHashMap<>();
+        if (mode != LookupMode.LOCAL_ONLY) {
+            for (String baseName : baseNames) {
+                if (isExcluded(baseName)) {
+                    continue;
+                }
+                String bundleId = nameMapper != null ? nameMapper.getBundleID(baseName) : baseName;
+                if (bundleId == null) {
+                    continue;
+                }
+                for (Locale locale : locales) {
+                    if (!locale.getLanguage().isEmpty()) {
+                        keys.put(preloadKey(bundleId, locale), null);
+                    }
+                }
+            }
+        }
+        return startPreload(new Discovery() {
+            @Override
+            public Map<String, BundleData> discover(ServiceClient client, int parallelism) {
+                return keys;
+            }
+        }, parallelism);
+    }
+
+    /**
+     * Discovers the bundles in the service instance, and fetches the bundles in
+     * all source and target languages in the background. This method is equivalent
+     * to <code>preloadAll(DEFAULT_PRELOAD_PARALLELISM)</code>.
+     * 
+     * @return A future for the result, completed when all bundles were processed.
+     * @see #preloadAll(int)
+     */
+    public Future<PreloadResult> preloadAll() {
+        return preloadAll(DEFAULT_PRELOAD_PARALLELISM);
+    }
+
+    /**
+     * Discovers the bundles in the service instance by {@link ServiceClient#getBundleIds()},
+     * and fetches the bundles in the languages returned by {@link ServiceClient#getBundleInfo(String)}
+     * in the background. The fetched bundles are used in the same way as
+     * {@link #preload(Collection, Collection, int)}. When a name mapper is not used,
+     * bundle IDs excluded by the inclusion/exclusion patterns are ignored.
+     * 
+     * @param parallelism   The maximum number of requests sent concurrently.
+     * @return A future for the result, completed when all bundles were processed,
+     *          or failed when the list of bundles could not be fetched.
+     * @throws IllegalArgumentException when <code>parallelism</code> is not positive.
+     */
+    public Future<PreloadResult> preloadAll(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+        return startPreload(new Discovery() {
+            @Override
+            public Map<String, BundleData> discover(final ServiceClient client, int parallelism)
+                    throws ServiceException {
+                if (mode == LookupMode.LOCAL_ONLY) {
+                    return Collections.emptyMap();
+                }
+                List<String> bundleIds = new ArrayList<>();
+                for (String bundleId : client.getBundleIds()) {
+                    if (nameMapper != null || !isExcluded(bundleId)) {
+                        bundleIds.add(bundleId);
+                    }
+                }
+                final Map<String, BundleData> keys =
+                        Collections.synchronizedMap(new LinkedHashMap<String, BundleData>());
+                runParallel(bundleIds, parallelism, new Task<String>() {
+                    @Override
+                    public void run(String bundleId) {
+                        try {
+                            BundleData bundle = client.getBundleInfo(bundleId);
+                            if (bundle.getSourceLanguage() != null) {
+                                keys.put(preloadKey(bundleId,
+                                        Locale.forLanguageTag(bundle.getSourceLanguage())), bundle);
+                            }
+                            Set<String> targets = bundle.getTargetLanguages();
+                            if (targets != null) {
+                                for (String target : targets) {
+                                    keys.put(preloadKey(bundleId, Locale.forLanguageTag(target)), bundle);
+                                }
+                            }
+                        } catch (ServiceException e) {
+                            logger.info("Could not fetch the bundle information of " + bundleId
+                                    + ": " + e.getMessage());
+                        }
+                    }
+                });
+                return keys;
+            }
+        }, parallelism);
+    }
+
+    /**
+     * Sets the time a bundle fetched by preload methods is kept for the first
+     * {@link #newBundle(String, Locale, String, ClassLoader, boolean) newBundle}
+     * call for it. A preloaded bundle not used within this time is discarded.
+     * The default value is {@link #DEFAULT_PRELOAD_RETENTION}.
+     * 
+     * @param retention The retention time in milliseconds. Must be positive.
+     * @return This object.
+     * @throws IllegalArgumentException when <code>retention</code> is not positive.
+     */
+    public CloudResourceBundleControl setPreloadRetention(long retention) {
+        if (retention <= 0) {
+            throw new IllegalArgumentException("retention must be positive.");
+        }
+        this.preloadRetention = retention;
+        return this;
+    }
+
+    /**
+     * Returns the number of preloaded bundles kept for newBundle calls.
+     */
+    int getPreloadedBundleCount() {
+        return preloadedBundles.size();
+    }
+
+    /**
+     * Returns whether all preload operations started on this control have completed.
+     * 
+     * @return true if no preload operations are in progress.
+     */
+    public boolean isReady() {
+        for (PreloadTask preload : preloads) {
+            if (!preload.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits until all preload operations started on this control have completed,
+     * regardless of whether they succeeded, up to the timeout. This method can be
+     * used by an application readiness check.
+     * 
+     * @param timeout   The maximum time to wait.
+     * @param unit      The time unit of the timeout.
+     * @return true if all preload operations have completed, false if the timeout elapsed.
+     * @throws InterruptedException when the current thread was interrupted.
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (PreloadTask preload : preloads) {
+            try {
+                preload.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | CancellationException e) {
+                // completed
+            } catch (TimeoutException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the bundles to be preloaded, mapped to the bundle information
+     * already fetched, or null.
+     */
+    private interface Discovery {
+        Map<String, BundleData> discover(ServiceClient client, int parallelism) throws ServiceException;
+    }
+
+    private interface Task<T> {
+        void run(T item);
+    }
+
+    private static String preloadKey(String bundleId, Locale locale) {
+        // Bundle IDs do not contain '/'
+        return bundleId + "/" + locale.toLanguageTag();
+    }
+
+    /**
+     * A preload operation, which is removed from the operations in progress
+     * when it is completed.
+     */
+    private final class PreloadTask extends FutureTask<PreloadResult> {
+        PreloadTask(Callable<PreloadResult> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            // Completed operations no longer affect readiness
+            preloads.remove(this);
+        }
+
+        void fail(Throwable t) {
+            setException(t);
+        }
+    }
+
+    /**
+     * Starts a preload operation, which discovers the bundles to be fetched,
+     * then fetches them concurrently.
+     */
+    private Future<PreloadResult> startPreload(final Discovery discovery,
+            final int parallelism) {
+        PreloadTask task = new PreloadTask(new Callable<PreloadResult>() {
+            @Override
+            public PreloadResult call() throws ServiceException {
+                return fetchAll(discovery.discover(
+                        ServiceClient.getInstance(serviceAccount), parallelism), parallelism);
+            }
+        });
+        preloads.add(task);
+        try {
+            ClientExecutors.getDefault().execute(task);
+        } catch (RejectedExecutionException e) {
+            task.fail(e);
+        }
+        return task;
+    }
+
+    /**
+     * Removes preloaded bundles not used within the preload retention time.
+     */
+    private void removeExpiredPreloads() {
+        long now = System.currentTimeMillis();
+        long retention = preloadRetention;
+        for (Iterator<CloudResourceBundle> itr = preloadedBundles.values().iterator(); itr.hasNext();) {
+            if (now - itr.next().getLoadTime() >= retention) {
+                itr.remove();
+            }
+        }
+    }
+
+    private PreloadResult fetchAll(Map<String, BundleData> keys, int parallelism) {
+        final AtomicInteger loadedCount = new AtomicInteger();
+        final List<String> failures = new CopyOnWriteArrayList<>();
+        List<Map.Entry<String, BundleData>> entries;
+        synchronized (keys) {
+            entries = new ArrayList<>(keys.entrySet());
+        }
+        runParallel(entries, parallelism, new Task<Map.Entry<String, BundleData>>() {
+            @Override
+            public void run(Map.Entry<String, BundleData> entry) {
+                String key = entry.getKey();
+                int idx = key.lastIndexOf('/');
+                String bundleId = key.substring(0, idx);
+                Locale locale = Locale.forLanguageTag(key.substring(idx + 1));
+                CloudResourceBundle bundle = CloudResourceBundle.loadBundle(serviceAccount, bundleId,
+                        locale, entry.getValue(), snapshotStore);
+                if (bundle == null) {
+                    failures.add(bundleId + " (" + locale.toLanguageTag() + ")");
+                } else {
+                    if (preloadedBundles.size() >= MAX_PRELOADED_BUNDLES) {
+                        removeExpiredPreloads();
+                    }
+                    if (preloadedBundles.size() < MAX_PRELOADED_BUNDLES) {
+                        preloadedBundles.put(key, bundle);
+                    } else {
+                        logger.fine("Too many preloaded bundles, " + bundleId + " ("
+                                + locale.toLanguageTag() + ") is not kept.");
+                    }
+                    loadedCount.incrementAndGet();
+                }
+            }
+        });
+        return new PreloadResult(loadedCount.get(), new ArrayList<>(failures));
+    }
+
+    /**
+     * Runs the task for each item on the default client executor, with at most
+     * <code>parallelism</code> items processed at the same time, and waits until
+     * all items were processed.
+     */
+    private static <T> void runParallel(Collection<T> items, int parallelism, final Task<T> task) {
+        final List<T> list = new ArrayList<>(items);
+        final AtomicInteger next = new AtomicInteger();
+        int workers = Math.min(parallelism, list.size());
+        final CountDownLatch done = new CountDownLatch(workers);
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int index;
+                    while ((index = next.getAndIncrement()) < list.size()) {
+                        task.run(list.get(index));
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        Executor executor = ClientExecutors.getDefault();
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                worker.run();
+            }
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private boolean isExcluded(String baseName) {
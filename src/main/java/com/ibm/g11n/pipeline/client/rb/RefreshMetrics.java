@@ -0,0 +1,86 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <code>RefreshMetrics</code> provides runtime metrics of background refresh
+ * of cloud resource bundles, collected across all {@link CloudResourceBundleControl}
+ * instances in the JVM.
+ * 
+ * @see CloudResourceBundleControl#setBackgroundRefresh(long, long)
+ * @see CloudResourceBundleControl#setSnapshotStore(BundleSnapshotStore)
+ */
+public final class RefreshMetrics {
+    static final AtomicLong refreshCount = new AtomicLong();
+    static final AtomicLong updatedCount = new AtomicLong();
+    static final AtomicLong failedCount = new AtomicLong();
+    static final AtomicLong staleReloadCount = new AtomicLong();
+    static final AtomicLong snapshotLoadCount = new AtomicLong();
+
+    private RefreshMetrics() {
+    }
+
+    /**
+     * Returns the number of background refreshes executed.
+     * 
+     * @return The number of background refreshes.
+     */
+    public static long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * Returns the number of background refreshes which replaced the resource
+     * data of a bundle, because the bundle was updated.
+     * 
+     * @return The number of background refreshes which replaced the data.
+     */
+    public static long getUpdatedCount() {
+        return updatedCount.get();
+    }
+
+    /**
+     * Returns the number of background refreshes failed. The current resource
+     * data is kept when a refresh failed.
+     * 
+     * @return The number of failed background refreshes.
+     */
+    public static long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the number of bundles reloaded on the calling thread, because the
+     * resource data was not refreshed within the maximum staleness.
+     * 
+     * @return The number of bundles reloaded because of the maximum staleness.
+     */
+    public static long getStaleReloadCount() {
+        return staleReloadCount.get();
+    }
+
+    /**
+     * Returns the number of bundles created from a snapshot in {@link BundleSnapshotStore},
+     * at startup or because the resource data could not be fetched from the service.
+     * 
+     * @return The number of bundles created from a snapshot.
+     */
+    public static long getSnapshotLoadCount() {
+        return snapshotLoadCount.get();
+    }
+}
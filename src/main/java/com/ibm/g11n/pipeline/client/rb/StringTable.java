@@ -0,0 +1,195 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * <code>StringTable</code> is a compact, immutable map of resource strings used
+ * by {@link CloudResourceBundle}.
+ * <p>
+ * Keys and values are kept in a pair of parallel arrays, indexed by an open
+ * addressing hash table with linear probing. Compared with a map creating a
+ * node object for each entry, this uses less than half of the memory for the
+ * map structure, and a lookup is a hash probe instead of a tree walk. The
+ * table is created once and never modified, so it can be read by multiple
+ * threads without synchronization. A null value is allowed.
+ */
+final class StringTable extends AbstractMap<String, String> {
+    private static final StringTable EMPTY = new StringTable(new String[0], new String[0], 0, 2);
+
+    // keys.length is a power of 2, larger than size, so a probe always ends at an empty slot
+    private final String[] keys;
+    private final String[] values;
+    private final int size;
+
+    /**
+     * Returns a string table containing the entries of the map.
+     * 
+     * @param map   The map.
+     * @return A string table containing the entries, or the map itself if it is
+     * already a string table.
+     */
+    static StringTable of(Map<String, String> map) {
+        if (map instanceof StringTable) {
+            return (StringTable) map;
+        }
+        int count = map.size();
+        String[] k = new String[count];
+        String[] v = new String[count];
+        int i = 0;
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (i == count) {
+                // The map was modified while copying
+                break;
+            }
+            k[i] = entry.getKey();
+            v[i] = entry.getValue();
+            i++;
+        }
+        return of(k, v, i);
+    }
+
+    /**
+     * Returns a string table containing the entries specified by parallel
+     * arrays of keys and values. When a key appears more than once, the last
+     * value is used. The arrays are not retained.
+     * 
+     * @param keys      The keys, must not contain null.
+     * @param values    The values.
+     * @param count     The number of entries in the arrays.
+     * @return A string table containing the entries.
+     */
+    static StringTable of(String[] keys, String[] values, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        // The maximum load factor is 0.75
+        int capacity = Integer.highestOneBit(Math.max(count + count / 3, 1)) << 1;
+        return new StringTable(keys, values, count, capacity);
+    }
+
+    private StringTable(String[] srcKeys, String[] srcValues, int count, int capacity) {
+        keys = new String[capacity];
+        values = new String[capacity];
+        int mask = capacity - 1;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            String key = srcKeys[i];
+            if (key == null) {
+                throw new NullPointerException("Null resource key");
+            }
+            int idx = hash(key) & mask;
+            while (keys[idx] != null && !keys[idx].equals(key)) {
+                idx = (idx + 1) & mask;
+            }
+            if (keys[idx] == null) {
+                keys[idx] = key;
+                n++;
+            }
+            values[idx] = srcValues[i];
+        }
+        size = n;
+    }
+
+    private static int hash(Object key) {
+        // Spreads the upper bits, which are ignored by the mask of a small table
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        int mask = keys.length - 1;
+        int idx = hash(key) & mask;
+        String k;
+        while ((k = keys[idx]) != null) {
+            if (k == key || k.equals(key)) {
+                return idx;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public String get(Object key) {
+        int idx = indexOf(key);
+        return idx < 0 ? null : values[idx];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int next = advance(0);
+
+                    private int advance(int idx) {
+                        while (idx < keys.length && keys[idx] == null) {
+                            idx++;
+                        }
+                        return idx;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (next >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, String> entry =
+                                new SimpleImmutableEntry<>(keys[next], values[next]);
+                        next = advance(next + 1);
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * <code>CancellationSignal</code> is used for canceling in-flight HTTP requests.
+ * <p>
+ * An {@link HttpTransport} implementation registers a listener which aborts
+ * the underlying connection while a request carrying the signal is in flight,
+ * and while its response body is being read. Calling {@link #cancel()}
+ * closes the connection, so a thread blocked on network I/O is released.
+ * <p>
+ * A signal can be also attached to the current thread by {@link #attach(CancellationSignal)},
+ * so requests issued by the thread pick up the signal through {@link #current()}.
+ */
+public final class CancellationSignal {
+    private static final Logger logger = Logger.getLogger(CancellationSignal.class.getName());
+
+    private static final ThreadLocal<CancellationSignal> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean canceled;
+
+    /**
+     * Returns whether this signal has been canceled.
+     *
+     * @return true if this signal has been canceled.
+     */
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Cancels this signal, and invokes the registered listeners. Calling
+     * this method more than once has no effect.
+     */
+    public void cancel() {
+        synchronized (listeners) {
+            if (canceled) {
+                return;
+            }
+            canceled = true;
+        }
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Cancellation listener failed", e);
+            }
+        }
+        listeners.clear();
+    }
+
+    /**
+     * Registers a listener invoked when this signal is canceled. If this signal
+     * is already canceled, the listener is invoked immediately.
+     *
+     * @param listener  The listener. Must not be null.
+     */
+    public void addListener(Runnable listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        synchronized (listeners) {
+            if (!canceled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Removes the listener.
+     *
+     * @param listener  The listener.
+     */
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Throws <code>InterruptedIOException</code> if this signal has been canceled.
+     *
+     * @throws InterruptedIOException if this signal has been canceled.
+     */
+    public void throwIfCanceled() throws InterruptedIOException {
+        if (canceled) {
+            throw new InterruptedIOException("The request was canceled.");
+        }
+    }
+
+    /**
+     * Returns the signal attached to the current thread.
+     *
+     * @return The signal attached to the current thread, or null.
+     */
+    public static CancellationSignal current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Attaches the signal to the current thread, and returns the signal previously
+     * attached. The caller should restore the previous signal when the work is done.
+     *
+     * @param signal    The signal, or null to detach the current signal.
+     * @return The signal previously attached to the current thread, or null.
+     */
+    public static CancellationSignal attach(CancellationSignal signal) {
+        CancellationSignal prev = CURRENT.get();
+        if (signal == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(signal);
+        }
+        return prev;
+    }
+}
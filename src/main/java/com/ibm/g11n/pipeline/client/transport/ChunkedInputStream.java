@@ -0,0 +1,117 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream decoding HTTP/1.1 chunked transfer encoding. Closing this
+ * stream does not close the underlying stream.
+ */
+final class ChunkedInputStream extends InputStream {
+    private final InputStream in;
+    private long chunkRemaining;
+    private boolean firstChunk = true;
+    private boolean eof;
+
+    ChunkedInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (eof) {
+            return -1;
+        }
+        if (chunkRemaining == 0) {
+            nextChunk();
+            if (eof) {
+                return -1;
+            }
+        }
+        int n = in.read(b, off, (int) Math.min(len, chunkRemaining));
+        if (n == -1) {
+            throw new EOFException("Premature end of chunked response body.");
+        }
+        chunkRemaining -= n;
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (eof) {
+            return 0;
+        }
+        return (int) Math.min(in.available(), chunkRemaining);
+    }
+
+    boolean isEof() {
+        return eof;
+    }
+
+    private void nextChunk() throws IOException {
+        if (!firstChunk) {
+            // CRLF after the previous chunk data
+            String crlf = PooledConnection.readLine(in);
+            if (crlf == null || !crlf.isEmpty()) {
+                throw new IOException("Malformed chunked response body.");
+            }
+        }
+        firstChunk = false;
+
+        String line = PooledConnection.readLine(in);
+        if (line == null) {
+            throw new EOFException("Premature end of chunked response body.");
+        }
+        int ext = line.indexOf(';');
+        if (ext >= 0) {
+            line = line.substring(0, ext);
+        }
+        try {
+            chunkRemaining = Long.parseLong(line.trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed chunk size: " + line);
+        }
+        if (chunkRemaining < 0) {
+            throw new IOException("Malformed chunk size: " + line);
+        }
+        if (chunkRemaining == 0) {
+            // skip trailers
+            String trailer;
+            do {
+                trailer = PooledConnection.readLine(in);
+            } while (trailer != null && !trailer.isEmpty());
+            eof = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Does not close the underlying connection stream
+    }
+}
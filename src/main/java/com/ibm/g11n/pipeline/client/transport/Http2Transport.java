@@ -0,0 +1,90 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.IOException;
+
+/**
+ * <code>HttpTransport</code> implementation multiplexing concurrent requests
+ * over HTTP/2 connections.
+ * <p>
+ * This transport is built on <code>java.net.http.HttpClient</code>, and is
+ * available only on Java 11 or later runtime. The library jar is a multi-release
+ * jar, and this class is replaced with the HTTP/2 implementation on Java 11 or later.
+ * On older runtimes, {@link #isSupported()} returns false, and the constructor
+ * throws <code>UnsupportedOperationException</code>.
+ */
+public class Http2Transport implements HttpTransport {
+
+    /**
+     * Default timeout for establishing a connection (10000 = 10 seconds).
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    /**
+     * Returns whether the HTTP/2 transport is supported by the current runtime.
+     *
+     * @return true if the HTTP/2 transport is supported.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the shared instance of <code>Http2Transport</code>.
+     *
+     * @return The shared instance of <code>Http2Transport</code>.
+     * @throws UnsupportedOperationException when the HTTP/2 transport is not
+     *          supported by the current runtime.
+     */
+    public static Http2Transport getDefault() {
+        throw new UnsupportedOperationException(
+                "HTTP/2 transport requires Java 11 or later runtime.");
+    }
+
+    /**
+     * Constructs a new HTTP/2 transport.
+     *
+     * @throws UnsupportedOperationException when the HTTP/2 transport is not
+     *          supported by the current runtime.
+     */
+    public Http2Transport() {
+        this(DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Constructs a new HTTP/2 transport with the specified connect timeout.
+     *
+     * @param connectTimeout    The timeout for establishing a connection in
+     *                          milliseconds, or 0 for no timeout.
+     * @throws UnsupportedOperationException when the HTTP/2 transport is not
+     *          supported by the current runtime.
+     */
+    public Http2Transport(int connectTimeout) {
+        throw new UnsupportedOperationException(
+                "HTTP/2 transport requires Java 11 or later runtime.");
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        throw new UnsupportedOperationException(
+                "HTTP/2 transport requires Java 11 or later runtime.");
+    }
+
+    @Override
+    public void close() {
+    }
+}
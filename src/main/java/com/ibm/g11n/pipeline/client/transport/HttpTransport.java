@@ -0,0 +1,48 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <code>HttpTransport</code> is the interface used by
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient ServiceClient} for sending
+ * an HTTP request to IBM Globalization Pipeline service and receiving the response.
+ * <p>
+ * An implementation must be thread safe. A single instance is usually shared by
+ * multiple <code>ServiceClient</code> instances.
+ */
+public interface HttpTransport extends Closeable {
+    /**
+     * Sends the HTTP request and returns the response.
+     * <p>
+     * The caller must close the returned response when the response body is no
+     * longer used, so the implementation can release the underlying connection.
+     *
+     * @param request   The HTTP request.
+     * @return  The HTTP response.
+     * @throws IOException when the request could not be sent, or the response
+     *          could not be received.
+     */
+    TransportResponse execute(TransportRequest request) throws IOException;
+
+    /**
+     * Closes this transport and releases any resources held by it.
+     */
+    @Override
+    void close();
+}
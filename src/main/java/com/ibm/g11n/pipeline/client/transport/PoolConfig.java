@@ -0,0 +1,231 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+/**
+ * <code>PoolConfig</code> is used for specifying connection pool settings of
+ * {@link PooledHttpTransport}.
+ * <p>
+ * A route is a combination of URL scheme, host and port. All time values are
+ * in milliseconds.
+ */
+public class PoolConfig {
+    /**
+     * Default maximum number of connections per route (10).
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+    /**
+     * Default keep-alive time of an idle connection (30000 = 30 seconds).
+     */
+    public static final long DEFAULT_KEEP_ALIVE = 30000L;
+
+    /**
+     * Default maximum lifetime of a connection (300000 = 5 minutes).
+     */
+    public static final long DEFAULT_TIME_TO_LIVE = 300000L;
+
+    /**
+     * Default idle time after which a pooled connection is validated
+     * before reuse (2000 = 2 seconds).
+     */
+    public static final long DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000L;
+
+    /**
+     * Default maximum time waiting for an available connection
+     * (60000 = 1 minute).
+     */
+    public static final long DEFAULT_LEASE_TIMEOUT = 60000L;
+
+    private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private int maxIdleConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    private long keepAlive = DEFAULT_KEEP_ALIVE;
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private long validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY;
+    private long leaseTimeout = DEFAULT_LEASE_TIMEOUT;
+    private boolean tcpKeepAlive = true;
+
+    /**
+     * Returns the maximum number of connections per route.
+     *
+     * @return The maximum number of connections per route.
+     */
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of connections per route, including both
+     * connections in use and idle connections. A request waits for an available
+     * connection when the limit is reached.
+     *
+     * @param maxConnectionsPerRoute    The maximum number of connections per route.
+     *                                  Must be positive.
+     * @return This object.
+     */
+    public PoolConfig setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        if (maxConnectionsPerRoute <= 0) {
+            throw new IllegalArgumentException("maxConnectionsPerRoute must be positive.");
+        }
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of idle connections kept per route.
+     *
+     * @return The maximum number of idle connections kept per route.
+     */
+    public int getMaxIdleConnectionsPerRoute() {
+        return maxIdleConnectionsPerRoute;
+    }
+
+    /**
+     * Sets the maximum number of idle connections kept per route. A connection
+     * released when the limit is reached is closed.
+     *
+     * @param maxIdleConnectionsPerRoute    The maximum number of idle connections kept
+     *                                      per route. Must not be negative.
+     * @return This object.
+     */
+    public PoolConfig setMaxIdleConnectionsPerRoute(int maxIdleConnectionsPerRoute) {
+        if (maxIdleConnectionsPerRoute < 0) {
+            throw new IllegalArgumentException("maxIdleConnectionsPerRoute must not be negative.");
+        }
+        this.maxIdleConnectionsPerRoute = maxIdleConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Returns the keep-alive time of an idle connection.
+     *
+     * @return The keep-alive time of an idle connection.
+     */
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Sets the keep-alive time of an idle connection. An idle connection is
+     * evicted from the pool after this time. When the server specifies a shorter
+     * timeout in the Keep-Alive response header, the server's value is used.
+     *
+     * @param keepAlive The keep-alive time of an idle connection. Must be positive.
+     * @return This object.
+     */
+    public PoolConfig setKeepAlive(long keepAlive) {
+        if (keepAlive <= 0) {
+            throw new IllegalArgumentException("keepAlive must be positive.");
+        }
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * Returns the maximum lifetime of a connection.
+     *
+     * @return The maximum lifetime of a connection, or 0 if unlimited.
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets the maximum lifetime of a connection. A connection older than this
+     * is not reused. Limiting the lifetime allows the client to pick up DNS changes.
+     *
+     * @param timeToLive    The maximum lifetime of a connection, or 0 for unlimited.
+     * @return This object.
+     */
+    public PoolConfig setTimeToLive(long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("timeToLive must not be negative.");
+        }
+        this.timeToLive = timeToLive;
+        return this;
+    }
+
+    /**
+     * Returns the idle time after which a pooled connection is validated before reuse.
+     *
+     * @return The idle time after which a pooled connection is validated before reuse.
+     */
+    public long getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    /**
+     * Sets the idle time after which a pooled connection is checked for being
+     * closed by the server before reuse.
+     *
+     * @param validateAfterInactivity   The idle time, or 0 to validate a connection
+     *                                  on every reuse.
+     * @return This object.
+     */
+    public PoolConfig setValidateAfterInactivity(long validateAfterInactivity) {
+        if (validateAfterInactivity < 0) {
+            throw new IllegalArgumentException("validateAfterInactivity must not be negative.");
+        }
+        this.validateAfterInactivity = validateAfterInactivity;
+        return this;
+    }
+
+    /**
+     * Returns the maximum time waiting for an available connection.
+     *
+     * @return The maximum time waiting for an available connection.
+     */
+    public long getLeaseTimeout() {
+        return leaseTimeout;
+    }
+
+    /**
+     * Sets the maximum time waiting for an available connection when all
+     * connections for the route are in use.
+     *
+     * @param leaseTimeout  The maximum time waiting for an available connection.
+     *                      Must not be negative.
+     * @return This object.
+     */
+    public PoolConfig setLeaseTimeout(long leaseTimeout) {
+        if (leaseTimeout < 0) {
+            throw new IllegalArgumentException("leaseTimeout must not be negative.");
+        }
+        this.leaseTimeout = leaseTimeout;
+        return this;
+    }
+
+    /**
+     * Returns whether TCP keep-alive (SO_KEEPALIVE) is enabled on pooled sockets.
+     *
+     * @return true if TCP keep-alive is enabled.
+     */
+    public boolean isTcpKeepAlive() {
+        return tcpKeepAlive;
+    }
+
+    /**
+     * Sets whether TCP keep-alive (SO_KEEPALIVE) is enabled on pooled sockets.
+     * It is enabled by default.
+     *
+     * @param tcpKeepAlive  true to enable TCP keep-alive.
+     * @return This object.
+     */
+    public PoolConfig setTcpKeepAlive(boolean tcpKeepAlive) {
+        this.tcpKeepAlive = tcpKeepAlive;
+        return this;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+/**
+ * <code>PoolStats</code> is a snapshot of connection pool statistics
+ * of {@link PooledHttpTransport}.
+ */
+public final class PoolStats {
+    private final int leased;
+    private final int available;
+    private final int pending;
+    private final int max;
+    private final long created;
+    private final long reused;
+    private final long closed;
+
+    PoolStats(int leased, int available, int pending, int max,
+            long created, long reused, long closed) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+        this.created = created;
+        this.reused = reused;
+        this.closed = closed;
+    }
+
+    /**
+     * Returns the number of connections currently used for requests.
+     *
+     * @return The number of connections currently used for requests.
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * Returns the number of idle connections available for reuse.
+     *
+     * @return The number of idle connections available for reuse.
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Returns the number of requests waiting for a connection.
+     *
+     * @return The number of requests waiting for a connection.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Returns the maximum number of connections.
+     *
+     * @return The maximum number of connections.
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the total number of connections opened.
+     *
+     * @return The total number of connections opened.
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * Returns the total number of requests sent over a reused connection.
+     *
+     * @return The total number of requests sent over a reused connection.
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * Returns the total number of connections closed, including connections
+     * evicted from the pool.
+     *
+     * @return The total number of connections closed.
+     */
+    public long getClosed() {
+        return closed;
+    }
+
+    @Override
+    public String toString() {
+        return "[leased: " + leased
+                + "; available: " + available
+                + "; pending: " + pending
+                + "; max: " + max
+                + "; created: " + created
+                + "; reused: " + reused
+                + "; closed: " + closed + "]";
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An HTTP/1.1 connection managed by {@link PooledHttpTransport}.
+ */
+final class PooledConnection {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 65536;
+
+    private final Socket socket;
+    private final BufferedInputStream in;
+    private final BufferedOutputStream out;
+    private final long createdAt;
+    private volatile long lastUsedAt;
+    private volatile long keepAliveNanos;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    PooledConnection(Socket socket, long keepAliveNanos) throws IOException {
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+        this.createdAt = System.nanoTime();
+        this.lastUsedAt = createdAt;
+        this.keepAliveNanos = keepAliveNanos;
+    }
+
+    BufferedInputStream getInputStream() {
+        return in;
+    }
+
+    BufferedOutputStream getOutputStream() {
+        return out;
+    }
+
+    void setReadTimeout(int readTimeout) throws IOException {
+        socket.setSoTimeout(readTimeout);
+    }
+
+    /**
+     * Marks this connection idle, and sets the keep-alive time allowed for the
+     * idle period.
+     */
+    void markIdle(long keepAliveNanos) {
+        this.lastUsedAt = System.nanoTime();
+        this.keepAliveNanos = keepAliveNanos;
+    }
+
+    long getIdleNanos(long now) {
+        return now - lastUsedAt;
+    }
+
+    /**
+     * Returns whether this idle connection is no longer reusable because
+     * of keep-alive time or maximum lifetime.
+     */
+    boolean isExpired(long now, long timeToLiveNanos) {
+        if (now - lastUsedAt >= keepAliveNanos) {
+            return true;
+        }
+        return timeToLiveNanos > 0 && now - createdAt >= timeToLiveNanos;
+    }
+
+    /**
+     * Checks if the server has closed this idle connection, or has sent unexpected
+     * data on it. The check blocks at most 1 millisecond.
+     */
+    boolean isStale() {
+        if (closed.get() || socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return true;
+        }
+        try {
+            int timeout = socket.getSoTimeout();
+            try {
+                socket.setSoTimeout(1);
+                in.mark(1);
+                int b = in.read();
+                if (b == -1) {
+                    return true;
+                }
+                // An idle connection should not have pending data
+                in.reset();
+                return true;
+            } finally {
+                socket.setSoTimeout(timeout);
+            }
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Closes this connection.
+     *
+     * @return true if this call closed the connection, false if it was already closed.
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        return true;
+    }
+
+    /**
+     * Reads a line terminated by LF (optionally preceded by CR) in ISO-8859-1.
+     *
+     * @return The line without line terminator, or null if the stream reached
+     *         the end before reading any bytes.
+     */
+    static String readLine(InputStream is) throws IOException {
+        ByteArrayOutputStream buf = null;
+        int b;
+        int count = 0;
+        while ((b = is.read()) != -1) {
+            if (b == '\n') {
+                break;
+            }
+            if (buf == null) {
+                buf = new ByteArrayOutputStream(64);
+            }
+            buf.write(b);
+            if (++count > MAX_LINE_LENGTH) {
+                throw new IOException("HTTP header line is too long.");
+            }
+        }
+        if (b == -1 && buf == null) {
+            return null;
+        }
+        if (buf == null) {
+            return "";
+        }
+        byte[] bytes = buf.toByteArray();
+        int len = bytes.length;
+        if (len > 0 && bytes[len - 1] == '\r') {
+            len--;
+        }
+        return new String(bytes, 0, len, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,1010 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * <code>HttpTransport</code> implementation maintaining a pool of persistent
+ * HTTP/1.1 connections.
+ * <p>
+ * Connections are pooled per route (URL scheme, host and port). The maximum number
+ * of connections per route, keep-alive time of idle connections and other pool
+ * settings are specified by {@link PoolConfig}. Idle connections are evicted by
+ * a background daemon thread once they expire. The current state of the pool is
+ * available through {@link #getTotalStats()} and {@link #getStats(String)}.
+ * <p>
+ * When the JDK's default {@link ProxySelector} selects a proxy for a route,
+ * requests for the route are sent by {@link UrlConnectionTransport} instead.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    private static final Logger logger = Logger.getLogger(PooledHttpTransport.class.getName());
+
+    private static final int MAX_DRAIN_BYTES = 65536;
+    private static final int CHUNK_SIZE = 8192;
+    private static final long LEASE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final String USER_AGENT = "Java/" + System.getProperty("java.version");
+
+    private final int maxConnectionsPerRoute;
+    private final int maxIdleConnectionsPerRoute;
+    private final long keepAliveNanos;
+    private final long timeToLiveNanos;
+    private final long validateAfterInactivityNanos;
+    private final long leaseTimeout;
+    private final boolean tcpKeepAlive;
+
+    private final SSLSocketFactory sslSocketFactory;
+    private final ConcurrentMap<String, RoutePool> routePools = new ConcurrentHashMap<>();
+    private final UrlConnectionTransport proxyTransport = new UrlConnectionTransport();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+
+    private static class DefaultHolder {
+        static final PooledHttpTransport INSTANCE = new PooledHttpTransport();
+    }
+
+    /**
+     * Returns the shared instance of <code>PooledHttpTransport</code> with the
+     * default pool settings. The shared instance is used by
+     * {@link com.ibm.g11n.pipeline.client.ServiceClient ServiceClient} by default,
+     * and must not be closed.
+     *
+     * @return The shared instance of <code>PooledHttpTransport</code>.
+     */
+    public static PooledHttpTransport getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Constructor with the default pool settings.
+     */
+    public PooledHttpTransport() {
+        this(new PoolConfig());
+    }
+
+    /**
+     * Constructor with the specified pool settings.
+     *
+     * @param config    The pool settings. Must not be null.
+     */
+    public PooledHttpTransport(PoolConfig config) {
+        this(config, (SSLSocketFactory) SSLSocketFactory.getDefault());
+    }
+
+    /**
+     * Constructor with the specified pool settings and the SSL socket factory
+     * used for HTTPS connections.
+     *
+     * @param config            The pool settings. Must not be null.
+     * @param sslSocketFactory  The SSL socket factory. Must not be null.
+     */
+    public PooledHttpTransport(PoolConfig config, SSLSocketFactory sslSocketFactory) {
+        if (config == null) {
+            throw new IllegalArgumentException("config must not be null");
+        }
+        if (sslSocketFactory == null) {
+            throw new IllegalArgumentException("sslSocketFactory must not be null");
+        }
+        this.maxConnectionsPerRoute = config.getMaxConnectionsPerRoute();
+        this.maxIdleConnectionsPerRoute = config.getMaxIdleConnectionsPerRoute();
+        this.keepAliveNanos = TimeUnit.MILLISECONDS.toNanos(config.getKeepAlive());
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(config.getTimeToLive());
+        this.validateAfterInactivityNanos =
+                TimeUnit.MILLISECONDS.toNanos(config.getValidateAfterInactivity());
+        this.leaseTimeout = config.getLeaseTimeout();
+        this.tcpKeepAlive = config.isTcpKeepAlive();
+        this.sslSocketFactory = sslSocketFactory;
+
+        evictor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("gp-http-pool-evictor-%d")
+                    .build());
+        long period = Math.max(1000L, config.getKeepAlive() / 2);
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                closeExpiredConnections();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The transport is already closed.");
+        }
+
+        URL url = request.getUrl();
+        RoutePool pool = getRoutePool(url);
+        if (pool.proxied) {
+            return proxyTransport.execute(request);
+        }
+
+        CancellationSignal signal = request.getCancellationSignal();
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+
+        RequestBody body = request.getBody();
+        boolean retry = false;
+        while (true) {
+            PooledConnection conn = pool.lease(retry, signal);
+            boolean reused = conn != null;
+            boolean responseStarted = false;
+            Runnable abort = null;
+            try {
+                if (conn == null) {
+                    conn = connect(pool, request.getConnectTimeout());
+                } else {
+                    pool.reused.incrementAndGet();
+                }
+                if (signal != null) {
+                    abort = new ConnectionAbort(pool, conn);
+                    signal.addListener(abort);
+                }
+                conn.setReadTimeout(request.getReadTimeout());
+                writeRequest(conn, pool, request);
+
+                String statusLine = PooledConnection.readLine(conn.getInputStream());
+                if (statusLine == null) {
+                    throw new IOException("The server closed the connection without response.");
+                }
+                responseStarted = true;
+                return readResponse(conn, pool, request.getMethod(), statusLine, signal, abort);
+            } catch (IOException | RuntimeException e) {
+                if (abort != null) {
+                    signal.removeListener(abort);
+                }
+                pool.discard(conn);
+                if (signal != null && signal.isCanceled()) {
+                    InterruptedIOException ie = new InterruptedIOException("The request was canceled.");
+                    ie.initCause(e);
+                    throw ie;
+                }
+                // A pooled connection might have been closed by the server while
+                // it was idle. In this case, the request is sent once again with
+                // a new connection.
+                if (reused && !retry && !responseStarted
+                        && !(e instanceof SocketTimeoutException)
+                        && (body == null || body.isRepeatable())) {
+                    logger.log(Level.FINE, "Retrying the request on a new connection to "
+                            + pool.key, e);
+                    retry = true;
+                    continue;
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot of statistics for all routes.
+     *
+     * @return The snapshot of statistics for all routes.
+     */
+    public PoolStats getTotalStats() {
+        int leased = 0, available = 0, pending = 0, max = 0;
+        long created = 0, reused = 0, closedCount = 0;
+        for (RoutePool pool : routePools.values()) {
+            if (pool.proxied) {
+                continue;
+            }
+            PoolStats stats = pool.getStats();
+            leased += stats.getLeased();
+            available += stats.getAvailable();
+            pending += stats.getPending();
+            max += stats.getMax();
+            created += stats.getCreated();
+            reused += stats.getReused();
+            closedCount += stats.getClosed();
+        }
+        return new PoolStats(leased, available, pending, max, created, reused, closedCount);
+    }
+
+    /**
+     * Returns the snapshot of statistics for the route.
+     *
+     * @param route The route, such as "https://gp-rest.ng.bluemix.net:443".
+     * @return The snapshot of statistics for the route, or null if the route
+     *         has not been used by this transport.
+     * @see #getRoutes()
+     */
+    public PoolStats getStats(String route) {
+        RoutePool pool = routePools.get(route);
+        if (pool == null || pool.proxied) {
+            return null;
+        }
+        return pool.getStats();
+    }
+
+    /**
+     * Returns the set of routes used by this transport. A route is represented
+     * by a string in the form of <i>scheme</i>://<i>host</i>:<i>port</i>.
+     *
+     * @return The set of routes used by this transport.
+     */
+    public Set<String> getRoutes() {
+        Set<String> routes = new TreeSet<>();
+        for (RoutePool pool : routePools.values()) {
+            if (!pool.proxied) {
+                routes.add(pool.key);
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Closes idle connections whose keep-alive time or maximum lifetime
+     * has passed. This method is periodically called by the background
+     * eviction thread.
+     */
+    public void closeExpiredConnections() {
+        long now = System.nanoTime();
+        for (RoutePool pool : routePools.values()) {
+            pool.closeIdle(now, -1);
+        }
+    }
+
+    /**
+     * Closes connections that have been idle longer than the specified time.
+     *
+     * @param idleTime  The idle time.
+     * @param unit      The time unit of <code>idleTime</code>.
+     */
+    public void closeIdleConnections(long idleTime, TimeUnit unit) {
+        long now = System.nanoTime();
+        long idleNanos = Math.max(0, unit.toNanos(idleTime));
+        for (RoutePool pool : routePools.values()) {
+            pool.closeIdle(now, idleNanos);
+        }
+    }
+
+    /**
+     * Closes all idle connections and stops the background eviction thread.
+     * Connections currently in use are closed when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        for (RoutePool pool : routePools.values()) {
+            pool.closeIdle(System.nanoTime(), 0);
+        }
+    }
+
+    private RoutePool getRoutePool(URL url) {
+        String scheme = url.getProtocol().toLowerCase(Locale.ROOT);
+        boolean secure;
+        if (scheme.equals("https")) {
+            secure = true;
+        } else if (scheme.equals("http")) {
+            secure = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported URL scheme: " + scheme);
+        }
+        String host = url.getHost().toLowerCase(Locale.ROOT);
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        String key = scheme + "://" + host + ":" + port;
+
+        RoutePool pool = routePools.get(key);
+        if (pool == null) {
+            RoutePool newPool = new RoutePool(key, host, port, secure, isProxied(url));
+            pool = routePools.putIfAbsent(key, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    private static boolean isProxied(URL url) {
+        ProxySelector selector = ProxySelector.getDefault();
+        if (selector == null) {
+            return false;
+        }
+        try {
+            List<Proxy> proxies = selector.select(url.toURI());
+            return proxies != null && !proxies.isEmpty()
+                    && proxies.get(0).type() != Proxy.Type.DIRECT;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection connect(RoutePool pool, int connectTimeout) throws IOException {
+        String host = pool.host;
+        if (host.startsWith("[") && host.endsWith("]")) {
+            // IPv6 literal
+            host = host.substring(1, host.length() - 1);
+        }
+
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(tcpKeepAlive);
+            socket.connect(new InetSocketAddress(host, pool.port), connectTimeout);
+            if (pool.secure) {
+                SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket(
+                        socket, host, pool.port, true);
+                SSLParameters params = sslSocket.getSSLParameters();
+                params.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(params);
+                sslSocket.setSoTimeout(connectTimeout);
+                sslSocket.startHandshake();
+                socket = sslSocket;
+            }
+            PooledConnection conn = new PooledConnection(socket, keepAliveNanos);
+            pool.created.incrementAndGet();
+            return conn;
+        } catch (IOException | RuntimeException e) {
+            try {
+                socket.close();
+            } catch (IOException e1) {
+                // ignore
+            }
+            throw e;
+        }
+    }
+
+    private void writeRequest(PooledConnection conn, RoutePool pool, TransportRequest request)
+            throws IOException {
+        URL url = request.getUrl();
+        String method = request.getMethod();
+        RequestBody body = request.getBody();
+
+        String target = url.getFile();
+        if (target.isEmpty()) {
+            target = "/";
+        }
+
+        StringBuilder head = new StringBuilder(512);
+        head.append(method).append(' ').append(target).append(" HTTP/1.1\r\n");
+
+        head.append("Host: ").append(url.getHost());
+        if (url.getPort() != -1 && url.getPort() != url.getDefaultPort()) {
+            head.append(':').append(url.getPort());
+        }
+        head.append("\r\n");
+
+        for (Entry<String, String> header : request.getHeaders().entrySet()) {
+            String name = header.getKey();
+            if (name.equalsIgnoreCase("Host")
+                    || name.equalsIgnoreCase("Content-Length")
+                    || name.equalsIgnoreCase("Transfer-Encoding")) {
+                continue;
+            }
+            appendHeader(head, name, header.getValue());
+        }
+        if (request.getHeader("User-Agent") == null) {
+            appendHeader(head, "User-Agent", USER_AGENT);
+        }
+        if (request.getHeader("Accept") == null) {
+            appendHeader(head, "Accept", "*/*");
+        }
+
+        long contentLength = -1;
+        if (body != null) {
+            if (request.getHeader("Content-Type") == null) {
+                appendHeader(head, "Content-Type", body.getContentType());
+            }
+            contentLength = body.getContentLength();
+            if (contentLength >= 0) {
+                appendHeader(head, "Content-Length", Long.toString(contentLength));
+            } else {
+                appendHeader(head, "Transfer-Encoding", "chunked");
+            }
+        } else if (method.equals("POST") || method.equals("PUT") || method.equals("PATCH")) {
+            appendHeader(head, "Content-Length", "0");
+        }
+        head.append("\r\n");
+
+        OutputStream out = conn.getOutputStream();
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+
+        if (body != null) {
+            if (contentLength >= 0) {
+                FixedLengthOutputStream fos = new FixedLengthOutputStream(out, contentLength);
+                body.writeTo(fos);
+                fos.finish();
+            } else {
+                ChunkedOutputStream cos = new ChunkedOutputStream(out, CHUNK_SIZE);
+                body.writeTo(cos);
+                cos.finish();
+            }
+        }
+        out.flush();
+    }
+
+    private static void appendHeader(StringBuilder head, String name, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\r' || c == '\n') {
+                throw new IllegalArgumentException("Illegal character in header " + name);
+            }
+        }
+        head.append(name).append(": ").append(value).append("\r\n");
+    }
+
+    private TransportResponse readResponse(PooledConnection conn, RoutePool pool,
+            String method, String statusLine, CancellationSignal signal, Runnable abort)
+            throws IOException {
+        InputStream in = conn.getInputStream();
+        int status;
+        boolean http10;
+        Map<String, List<String>> headers;
+
+        while (true) {
+            if (!statusLine.startsWith("HTTP/")) {
+                throw new IOException("Malformed HTTP status line: " + statusLine);
+            }
+            int sp1 = statusLine.indexOf(' ');
+            if (sp1 < 0 || statusLine.length() < sp1 + 4) {
+                throw new IOException("Malformed HTTP status line: " + statusLine);
+            }
+            http10 = statusLine.startsWith("HTTP/1.0");
+            try {
+                status = Integer.parseInt(statusLine.substring(sp1 + 1, sp1 + 4));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed HTTP status line: " + statusLine);
+            }
+            headers = readHeaders(in);
+            if (status >= 200 || status == 101) {
+                break;
+            }
+            // Skip informational response such as 100 Continue
+            statusLine = PooledConnection.readLine(in);
+            if (statusLine == null) {
+                throw new IOException("The server closed the connection without response.");
+            }
+        }
+
+        boolean keepAlive = !http10;
+        List<String> connHeaders = headers.get("Connection");
+        if (connHeaders != null) {
+            for (String v : connHeaders) {
+                for (String token : v.split(",")) {
+                    token = token.trim();
+                    if (token.equalsIgnoreCase("close")) {
+                        keepAlive = false;
+                    } else if (token.equalsIgnoreCase("keep-alive") && http10) {
+                        keepAlive = true;
+                    }
+                }
+            }
+        }
+
+        long idleKeepAlive = keepAliveNanos;
+        String keepAliveHeader = firstHeader(headers, "Keep-Alive");
+        if (keepAliveHeader != null) {
+            for (String param : keepAliveHeader.split(",")) {
+                param = param.trim();
+                if (param.regionMatches(true, 0, "timeout=", 0, 8)) {
+                    try {
+                        long timeout = TimeUnit.SECONDS.toNanos(Long.parseLong(param.substring(8).trim()));
+                        idleKeepAlive = Math.min(idleKeepAlive, timeout);
+                    } catch (NumberFormatException e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+
+        long contentLength = -1;
+        String contentLengthHeader = firstHeader(headers, "Content-Length");
+        if (contentLengthHeader != null) {
+            try {
+                contentLength = Long.parseLong(contentLengthHeader.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed Content-Length: " + contentLengthHeader);
+            }
+        }
+
+        String transferEncoding = firstHeader(headers, "Transfer-Encoding");
+        InputStream content;
+        boolean empty = false;
+        if (method.equals("HEAD") || status == 204 || status == 304) {
+            content = new ByteArrayInputStream(new byte[0]);
+            empty = true;
+        } else if (transferEncoding != null
+                && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            content = new ChunkedInputStream(in);
+        } else if (contentLength >= 0) {
+            content = new FixedLengthInputStream(in, contentLength);
+            empty = contentLength == 0;
+        } else {
+            // Response body is terminated by closing the connection
+            content = in;
+            keepAlive = false;
+        }
+
+        PooledResponse response = new PooledResponse(status, headers, contentLength,
+                new ResponseBodyStream(content, pool, conn, keepAlive, idleKeepAlive,
+                        signal, abort));
+        if (empty) {
+            // No body - release the connection immediately
+            response.body.release(true);
+        }
+        return response;
+    }
+
+    private static Map<String, List<String>> readHeaders(InputStream in) throws IOException {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String line;
+        while ((line = PooledConnection.readLine(in)) != null && !line.isEmpty()) {
+            int idx = line.indexOf(':');
+            if (idx <= 0) {
+                continue;
+            }
+            String name = line.substring(0, idx).trim();
+            String value = line.substring(idx + 1).trim();
+            List<String> values = headers.get(name);
+            if (values == null) {
+                values = new ArrayList<>(1);
+                headers.put(name, values);
+            }
+            values.add(value);
+        }
+        if (line == null) {
+            throw new IOException("The server closed the connection while sending headers.");
+        }
+        return headers;
+    }
+
+    private static String firstHeader(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Connection pool for a single route.
+     */
+    private final class RoutePool {
+        final String key;
+        final String host;
+        final int port;
+        final boolean secure;
+        final boolean proxied;
+
+        final Semaphore permits;
+        final Deque<PooledConnection> idle = new ArrayDeque<>();
+        final AtomicInteger leased = new AtomicInteger();
+        final AtomicInteger pending = new AtomicInteger();
+        final AtomicLong created = new AtomicLong();
+        final AtomicLong reused = new AtomicLong();
+        final AtomicLong closedCount = new AtomicLong();
+
+        RoutePool(String key, String host, int port, boolean secure, boolean proxied) {
+            this.key = key;
+            this.host = host;
+            this.port = port;
+            this.secure = secure;
+            this.proxied = proxied;
+            this.permits = new Semaphore(maxConnectionsPerRoute, true);
+        }
+
+        /**
+         * Leases a connection permit, and returns a reusable idle connection
+         * if available. When this method returns null, the caller is
+         * responsible for opening a new connection.
+         */
+        PooledConnection lease(boolean forceNew, CancellationSignal signal) throws IOException {
+            pending.incrementAndGet();
+            try {
+                if (signal == null) {
+                    if (!permits.tryAcquire(leaseTimeout, TimeUnit.MILLISECONDS)) {
+                        throw new IOException("Timeout waiting for a connection to " + key
+                                + ", pool stats: " + getStats());
+                    }
+                } else {
+                    // Wait in short slices, so a canceled request stops waiting
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseTimeout);
+                    while (true) {
+                        signal.throwIfCanceled();
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new IOException("Timeout waiting for a connection to " + key
+                                    + ", pool stats: " + getStats());
+                        }
+                        if (permits.tryAcquire(Math.min(remaining, LEASE_POLL_NANOS),
+                                TimeUnit.NANOSECONDS)) {
+                            break;
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a connection to " + key, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+            leased.incrementAndGet();
+
+            if (forceNew) {
+                return null;
+            }
+            while (true) {
+                PooledConnection conn;
+                synchronized (idle) {
+                    conn = idle.pollFirst();
+                }
+                if (conn == null) {
+                    return null;
+                }
+                long now = System.nanoTime();
+                if (conn.isExpired(now, timeToLiveNanos)
+                        || (conn.getIdleNanos(now) >= validateAfterInactivityNanos && conn.isStale())) {
+                    closeConnection(conn);
+                    continue;
+                }
+                return conn;
+            }
+        }
+
+        /**
+         * Releases the connection permit, and returns the connection to the pool
+         * if reusable.
+         */
+        void release(PooledConnection conn, boolean reusable, long idleKeepAlive) {
+            boolean pooled = false;
+            if (reusable && !closed && !conn.isClosed()) {
+                conn.markIdle(idleKeepAlive);
+                if (!conn.isExpired(System.nanoTime(), timeToLiveNanos)) {
+                    synchronized (idle) {
+                        if (idle.size() < maxIdleConnectionsPerRoute) {
+                            idle.addFirst(conn);
+                            pooled = true;
+                        }
+                    }
+                }
+            }
+            if (!pooled) {
+                closeConnection(conn);
+            }
+            leased.decrementAndGet();
+            permits.release();
+        }
+
+        /**
+         * Closes the connection (if not null) and releases the connection permit.
+         */
+        void discard(PooledConnection conn) {
+            if (conn != null) {
+                closeConnection(conn);
+            }
+            leased.decrementAndGet();
+            permits.release();
+        }
+
+        void closeIdle(long now, long maxIdleNanos) {
+            List<PooledConnection> toClose = null;
+            synchronized (idle) {
+                Iterator<PooledConnection> itr = idle.iterator();
+                while (itr.hasNext()) {
+                    PooledConnection conn = itr.next();
+                    if ((maxIdleNanos >= 0 && conn.getIdleNanos(now) >= maxIdleNanos)
+                            || conn.isExpired(now, timeToLiveNanos)) {
+                        itr.remove();
+                        if (toClose == null) {
+                            toClose = new ArrayList<>();
+                        }
+                        toClose.add(conn);
+                    }
+                }
+            }
+            if (toClose != null) {
+                for (PooledConnection conn : toClose) {
+                    closeConnection(conn);
+                }
+            }
+        }
+
+        void closeConnection(PooledConnection conn) {
+            if (conn.close()) {
+                closedCount.incrementAndGet();
+            }
+        }
+
+        PoolStats getStats() {
+            int available;
+            synchronized (idle) {
+                available = idle.size();
+            }
+            return new PoolStats(leased.get(), available, pending.get(),
+                    maxConnectionsPerRoute, created.get(), reused.get(), closedCount.get());
+        }
+    }
+
+    /**
+     * Closes the connection when the request is canceled.
+     */
+    private static final class ConnectionAbort implements Runnable {
+        private final RoutePool pool;
+        private final PooledConnection conn;
+
+        ConnectionAbort(RoutePool pool, PooledConnection conn) {
+            this.pool = pool;
+            this.conn = conn;
+        }
+
+        @Override
+        public void run() {
+            pool.closeConnection(conn);
+        }
+    }
+
+    /**
+     * Response body stream releasing the connection when the body is fully
+     * consumed, or the stream is closed.
+     */
+    private static final class ResponseBodyStream extends InputStream {
+        private final InputStream content;
+        private final RoutePool pool;
+        private final PooledConnection conn;
+        private final boolean keepAlive;
+        private final long idleKeepAlive;
+        private final CancellationSignal signal;
+        private final Runnable abort;
+        // Not a monitor, so a virtual thread blocked on read does not pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean released;
+
+        ResponseBodyStream(InputStream content, RoutePool pool, PooledConnection conn,
+                boolean keepAlive, long idleKeepAlive, CancellationSignal signal, Runnable abort) {
+            this.content = content;
+            this.pool = pool;
+            this.conn = conn;
+            this.keepAlive = keepAlive;
+            this.idleKeepAlive = idleKeepAlive;
+            this.signal = signal;
+            this.abort = abort;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            lock.lock();
+            try {
+                if (released) {
+                    return -1;
+                }
+                int n = content.read(b, off, len);
+                if (n == -1) {
+                    release(true);
+                }
+                return n;
+            } catch (IOException | RuntimeException e) {
+                release(false);
+                if (signal != null && signal.isCanceled()) {
+                    InterruptedIOException ie = new InterruptedIOException("The request was canceled.");
+                    ie.initCause(e);
+                    throw ie;
+                }
+                throw e;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            lock.lock();
+            try {
+                return released ? 0 : content.available();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                drainAndRelease();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drainAndRelease() {
+            if (released) {
+                return;
+            }
+            boolean reusable = false;
+            if (keepAlive) {
+                // Drain a small remaining body, so the connection can be reused
+                try {
+                    if (!(content instanceof FixedLengthInputStream)
+                            || ((FixedLengthInputStream) content).getRemaining() <= MAX_DRAIN_BYTES) {
+                        byte[] buf = new byte[4096];
+                        int total = 0;
+                        int n;
+                        while (total <= MAX_DRAIN_BYTES && (n = content.read(buf)) != -1) {
+                            total += n;
+                        }
+                        reusable = total <= MAX_DRAIN_BYTES;
+                    }
+                } catch (IOException e) {
+                    reusable = false;
+                }
+            }
+            release(reusable);
+        }
+
+        void release(boolean eof) {
+            lock.lock();
+            try {
+                if (released) {
+                    return;
+                }
+                released = true;
+            } finally {
+                lock.unlock();
+            }
+            if (abort != null) {
+                signal.removeListener(abort);
+            }
+            if (eof) {
+                pool.release(conn, keepAlive, idleKeepAlive);
+            } else {
+                pool.discard(conn);
+            }
+        }
+    }
+
+    private static final class PooledResponse implements TransportResponse {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final long contentLength;
+        private final ResponseBodyStream body;
+
+        PooledResponse(int status, Map<String, List<String>> headers, long contentLength,
+                ResponseBodyStream body) {
+            this.status = status;
+            this.headers = Collections.unmodifiableMap(headers);
+            this.contentLength = contentLength;
+            this.body = body;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return firstHeader(headers, name);
+        }
+
+        @Override
+        public String getContentType() {
+            return getHeader("Content-Type");
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            body.close();
+        }
+    }
+
+    /**
+     * Output stream verifying the number of bytes written matches
+     * the declared Content-Length.
+     */
+    private static final class FixedLengthOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final long length;
+        private long count;
+
+        FixedLengthOutputStream(OutputStream out, long length) {
+            this.out = out;
+            this.length = length;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count + 1 > length) {
+                throw new IOException("Request body exceeds Content-Length " + length);
+            }
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (count + len > length) {
+                throw new IOException("Request body exceeds Content-Length " + length);
+            }
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        void finish() throws IOException {
+            if (count != length) {
+                throw new IOException("Request body is shorter than Content-Length "
+                        + length + ": " + count);
+            }
+        }
+
+        @Override
+        public void close() {
+            // Does not close the underlying connection stream
+        }
+    }
+}
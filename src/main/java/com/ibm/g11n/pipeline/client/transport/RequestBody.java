@@ -0,0 +1,175 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * <code>RequestBody</code> represents the content of an HTTP request.
+ */
+public abstract class RequestBody {
+
+    /**
+     * Returns the media type of the content, such as "application/json".
+     *
+     * @return The media type of the content.
+     */
+    public abstract String getContentType();
+
+    /**
+     * Returns the length of the content in bytes, or -1 if the length
+     * is unknown. When the length is unknown, the content is sent with
+     * chunked transfer encoding.
+     *
+     * @return The length of the content in bytes, or -1.
+     */
+    public abstract long getContentLength();
+
+    /**
+     * Writes the content to the output stream. The implementation must not
+     * close the output stream.
+     *
+     * @param os    The output stream.
+     * @throws IOException when the content could not be written.
+     */
+    public abstract void writeTo(OutputStream os) throws IOException;
+
+    /**
+     * Returns whether {@link #writeTo(OutputStream)} can be called more than
+     * once. A transport may resend a repeatable body on a new connection.
+     *
+     * @return true if the content can be written more than once.
+     */
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /**
+     * Returns the file containing the content, when the content is exactly
+     * the first {@link #getContentLength()} bytes of a file. A transport may
+     * use it for sending the file without copying it through the heap.
+     *
+     * @return The file, or null.
+     */
+    File getFile() {
+        return null;
+    }
+
+    /**
+     * Creates a new request body for the byte array.
+     *
+     * @param contentType   The media type of the content. Must not be null.
+     * @param content       The content. Must not be null.
+     * @return A new request body.
+     */
+    public static RequestBody create(String contentType, byte[] content) {
+        return new ByteArrayBody(contentType, content);
+    }
+
+    /**
+     * Creates a new request body sending the content of the file. The length of
+     * the content is fixed to the size of the file when this method is called.
+     * The file is read when the body is written, and is never loaded into memory
+     * entirely.
+     *
+     * @param contentType   The media type of the content. Must not be null.
+     * @param file          The file. Must not be null.
+     * @return A new request body.
+     */
+    public static RequestBody create(String contentType, File file) {
+        return new FileBody(contentType, file);
+    }
+
+    private static class ByteArrayBody extends RequestBody {
+        private final String contentType;
+        private final byte[] content;
+
+        ByteArrayBody(String contentType, byte[] content) {
+            this.contentType = Objects.requireNonNull(contentType, "contentType must not be null");
+            this.content = Objects.requireNonNull(content, "content must not be null");
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public long getContentLength() {
+            return content.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            os.write(content);
+        }
+    }
+
+    private static class FileBody extends RequestBody {
+        private final String contentType;
+        private final File file;
+        private final long length;
+
+        FileBody(String contentType, File file) {
+            this.contentType = Objects.requireNonNull(contentType, "contentType must not be null");
+            this.file = Objects.requireNonNull(file, "file must not be null");
+            this.length = file.length();
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        File getFile() {
+            return file;
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            try (FileInputStream fis = new FileInputStream(file)) {
+                FileChannel channel = fis.getChannel();
+                WritableByteChannel target = Channels.newChannel(os);
+                long position = 0;
+                while (position < length) {
+                    long n = channel.transferTo(position, length - position, target);
+                    if (n <= 0) {
+                        if (position >= channel.size()) {
+                            throw new EOFException("The file " + file.getName()
+                                    + " was truncated while sending.");
+                        }
+                        continue;
+                    }
+                    position += n;
+                }
+            }
+        }
+    }
+}
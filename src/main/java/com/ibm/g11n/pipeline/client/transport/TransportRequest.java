@@ -0,0 +1,190 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * <code>TransportRequest</code> represents an HTTP request sent through
+ * {@link HttpTransport}.
+ */
+public final class TransportRequest {
+    private final String method;
+    private final URL url;
+    private final Map<String, String> headers =
+            new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+    private RequestBody body;
+    private int connectTimeout;
+    private int readTimeout;
+    private CancellationSignal cancellationSignal;
+
+    /**
+     * Constructor.
+     *
+     * @param method    The HTTP method, such as "GET". Must not be null.
+     * @param url       The target URL. Must not be null.
+     */
+    public TransportRequest(String method, URL url) {
+        this.method = Objects.requireNonNull(method, "method must not be null");
+        this.url = Objects.requireNonNull(url, "url must not be null");
+    }
+
+    /**
+     * Returns the HTTP method.
+     *
+     * @return The HTTP method.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the target URL.
+     *
+     * @return The target URL.
+     */
+    public URL getUrl() {
+        return url;
+    }
+
+    /**
+     * Returns the value of the request header. The header name is
+     * not case sensitive.
+     *
+     * @param name  The header name.
+     * @return The header value, or null if not set.
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    /**
+     * Returns an unmodifiable map containing all request headers.
+     *
+     * @return An unmodifiable map containing all request headers.
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Sets a request header. If the value is null, the header is removed.
+     *
+     * @param name  The header name. Must not be null.
+     * @param value The header value, or null.
+     * @return This object.
+     */
+    public TransportRequest setHeader(String name, String value) {
+        Objects.requireNonNull(name, "name must not be null");
+        if (value == null) {
+            headers.remove(name);
+        } else {
+            headers.put(name, value);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the request body.
+     *
+     * @return The request body, or null if the request has no body.
+     */
+    public RequestBody getBody() {
+        return body;
+    }
+
+    /**
+     * Sets the request body.
+     *
+     * @param body  The request body, or null.
+     * @return This object.
+     */
+    public TransportRequest setBody(RequestBody body) {
+        this.body = body;
+        return this;
+    }
+
+    /**
+     * Returns the connect timeout in milliseconds. 0 means no timeout.
+     *
+     * @return The connect timeout in milliseconds.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Sets the connect timeout in milliseconds. 0 means no timeout.
+     *
+     * @param connectTimeout    The connect timeout in milliseconds.
+     * @return This object.
+     */
+    public TransportRequest setConnectTimeout(int connectTimeout) {
+        if (connectTimeout < 0) {
+            throw new IllegalArgumentException("connectTimeout must not be negative.");
+        }
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Returns the read timeout in milliseconds. 0 means no timeout.
+     *
+     * @return The read timeout in milliseconds.
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets the read timeout in milliseconds. 0 means no timeout.
+     *
+     * @param readTimeout   The read timeout in milliseconds.
+     * @return This object.
+     */
+    public TransportRequest setReadTimeout(int readTimeout) {
+        if (readTimeout < 0) {
+            throw new IllegalArgumentException("readTimeout must not be negative.");
+        }
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Returns the signal used for canceling this request.
+     *
+     * @return The signal used for canceling this request, or null.
+     */
+    public CancellationSignal getCancellationSignal() {
+        return cancellationSignal;
+    }
+
+    /**
+     * Sets the signal used for canceling this request. When the signal is
+     * canceled, the transport aborts the connection used by this request.
+     *
+     * @param cancellationSignal    The signal, or null.
+     * @return This object.
+     */
+    public TransportRequest setCancellationSignal(CancellationSignal cancellationSignal) {
+        this.cancellationSignal = cancellationSignal;
+        return this;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * <code>TransportResponse</code> represents an HTTP response received through
+ * {@link HttpTransport}.
+ * <p>
+ * A response holds the underlying connection until it is closed, or until
+ * the response body is fully consumed.
+ */
+public interface TransportResponse extends Closeable {
+    /**
+     * Returns the HTTP status code.
+     *
+     * @return The HTTP status code.
+     */
+    int getStatus();
+
+    /**
+     * Returns the first value of the response header. The header name is not
+     * case sensitive.
+     *
+     * @param name  The header name.
+     * @return The header value, or null if the header is not available.
+     */
+    String getHeader(String name);
+
+    /**
+     * Returns the value of the Content-Type header.
+     *
+     * @return The value of the Content-Type header, or null.
+     */
+    String getContentType();
+
+    /**
+     * Returns the value of the Content-Length header.
+     *
+     * @return The value of the Content-Length header, or -1 if unknown.
+     */
+    long getContentLength();
+
+    /**
+     * Returns the input stream for reading the response body. When the response
+     * does not have any body, this method returns an empty stream.
+     *
+     * @return The input stream for reading the response body.
+     * @throws IOException when the response body is not available.
+     */
+    InputStream getBody() throws IOException;
+
+    /**
+     * Closes the response and releases the underlying connection.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <code>HttpTransport</code> implementation using JDK's {@link HttpURLConnection}.
+ * <p>
+ * Connection reuse is managed by the JDK's internal keep-alive cache, which can be
+ * configured by system properties such as <code>http.keepAlive</code> and
+ * <code>http.maxConnections</code>. This implementation honors the JDK's proxy
+ * settings.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private static final InputStream EMPTY = new ByteArrayInputStream(new byte[0]);
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        CancellationSignal signal = request.getCancellationSignal();
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+
+        final HttpURLConnection conn = (HttpURLConnection)request.getUrl().openConnection();
+        conn.setRequestMethod(request.getMethod());
+        conn.setConnectTimeout(request.getConnectTimeout());
+        conn.setReadTimeout(request.getReadTimeout());
+        conn.setUseCaches(false);
+
+        for (Entry<String, String> header : request.getHeaders().entrySet()) {
+            conn.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        Runnable abort = null;
+        if (signal != null) {
+            abort = new Runnable() {
+                @Override
+                public void run() {
+                    conn.disconnect();
+                }
+            };
+            signal.addListener(abort);
+        }
+
+        try {
+            int status = send(conn, request);
+            return new UrlConnectionResponse(conn, status, signal, abort);
+        } catch (IOException | RuntimeException e) {
+            if (abort != null) {
+                signal.removeListener(abort);
+                if (signal.isCanceled()) {
+                    InterruptedIOException ie = new InterruptedIOException("The request was canceled.");
+                    ie.initCause(e);
+                    throw ie;
+                }
+            }
+            throw e;
+        }
+    }
+
+    private static int send(HttpURLConnection conn, TransportRequest request)
+            throws IOException {
+        RequestBody body = request.getBody();
+        if (body != null) {
+            if (request.getHeader("Content-Type") == null) {
+                conn.setRequestProperty("Content-Type", body.getContentType());
+            }
+            conn.setDoOutput(true);
+            long length = body.getContentLength();
+            if (length >= 0) {
+                conn.setFixedLengthStreamingMode(length);
+            } else {
+                conn.setChunkedStreamingMode(0);
+            }
+            try (OutputStream os = conn.getOutputStream()) {
+                body.writeTo(os);
+            }
+        }
+
+        return conn.getResponseCode();
+    }
+
+    /**
+     * This implementation does nothing.
+     */
+    @Override
+    public void close() {
+    }
+
+    private static class UrlConnectionResponse implements TransportResponse {
+        private final HttpURLConnection conn;
+        private final int status;
+        private final CancellationSignal signal;
+        private final Runnable abort;
+        private final ReentrantLock lock = new ReentrantLock();
+        private InputStream body;
+
+        UrlConnectionResponse(HttpURLConnection conn, int status, CancellationSignal signal,
+                Runnable abort) {
+            this.conn = conn;
+            this.status = status;
+            this.signal = signal;
+            this.abort = abort;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return conn.getHeaderField(name);
+        }
+
+        @Override
+        public String getContentType() {
+            return conn.getContentType();
+        }
+
+        @Override
+        public long getContentLength() {
+            return conn.getContentLengthLong();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            lock.lock();
+            try {
+                if (body == null) {
+                    InputStream is = conn.getErrorStream();
+                    if (is == null && status < HttpURLConnection.HTTP_BAD_REQUEST) {
+                        is = conn.getInputStream();
+                    }
+                    body = is == null ? EMPTY : is;
+                }
+                return body;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (abort != null) {
+                signal.removeListener(abort);
+            }
+            lock.lock();
+            try {
+                if (body != null && body != EMPTY) {
+                    try {
+                        // Closing the stream after the body is fully consumed
+                        // returns the connection to the JDK's keep-alive cache.
+                        body.close();
+                    } catch (IOException e) {
+                        // ignore
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
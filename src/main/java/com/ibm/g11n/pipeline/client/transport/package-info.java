@@ -0,0 +1,23 @@
+/**
+ * Provides the HTTP transport layer used by
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient ServiceClient}.
+ *
+ * <p>
+ * {@link com.ibm.g11n.pipeline.client.transport.HttpTransport HttpTransport} is the
+ * extension point for sending HTTP requests to IBM Globalization Pipeline service.
+ * By default, a service client uses the shared instance of
+ * {@link com.ibm.g11n.pipeline.client.transport.PooledHttpTransport PooledHttpTransport},
+ * which keeps persistent connections per route, so multiple service clients
+ * accessing the same service endpoint reuse connections. A different implementation,
+ * or a <code>PooledHttpTransport</code> with custom
+ * {@link com.ibm.g11n.pipeline.client.transport.PoolConfig PoolConfig}, can be
+ * specified by {@link com.ibm.g11n.pipeline.client.ServiceClient#setTransport(HttpTransport)}.
+ * For example,
+ * <pre>
+ *      PooledHttpTransport transport = new PooledHttpTransport(
+ *              new PoolConfig().setMaxConnectionsPerRoute(20).setKeepAlive(60000));
+ *      ServiceClient client = ServiceClient.getInstance(account);
+ *      client.setTransport(transport);
+ * </pre>
+ */
+package com.ibm.g11n.pipeline.client.transport;
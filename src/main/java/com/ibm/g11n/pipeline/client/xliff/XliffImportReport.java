@@ -0,0 +1,139 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.xliff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>XliffImportReport</code> is the result of importing an XLIFF document
+ * by {@link XliffImporter}, reporting the outcome for each bundle.
+ */
+public final class XliffImportReport {
+    private final Map<String, BundleResult> results;
+
+    XliffImportReport(List<BundleResult> results) {
+        Map<String, BundleResult> map = new LinkedHashMap<>();
+        for (BundleResult result : results) {
+            map.put(result.getBundleId(), result);
+        }
+        this.results = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * The result of importing the contents of a bundle.
+     */
+    public static final class BundleResult {
+        private final String bundleId;
+        private final int attempts;
+        private final Exception error;
+        private final long elapsedMillis;
+
+        BundleResult(String bundleId, int attempts, Exception error, long elapsedMillis) {
+            this.bundleId = bundleId;
+            this.attempts = attempts;
+            this.error = error;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Returns the bundle ID.
+         *
+         * @return The bundle ID.
+         */
+        public String getBundleId() {
+            return bundleId;
+        }
+
+        /**
+         * Returns whether the contents of the bundle were imported.
+         *
+         * @return true if the contents of the bundle were imported.
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * Returns the number of upload attempts, or 0 if the upload was not
+         * attempted because the import was canceled.
+         *
+         * @return The number of upload attempts.
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * Returns the error of the last attempt.
+         *
+         * @return The error of the last attempt, or null if successful.
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * Returns the time spent for the bundle including retries, in milliseconds.
+         *
+         * @return The elapsed time in milliseconds.
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+
+    /**
+     * Returns the results indexed by bundle ID, in the order of the input document.
+     *
+     * @return An unmodifiable map of the results indexed by bundle ID.
+     */
+    public Map<String, BundleResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Returns whether the contents of all bundles were imported.
+     *
+     * @return true if the contents of all bundles were imported.
+     */
+    public boolean isSuccessful() {
+        for (BundleResult result : results.values()) {
+            if (!result.isSuccessful()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the IDs of bundles which failed to be imported.
+     *
+     * @return The list of bundle IDs, in the order of the input document.
+     */
+    public List<String> getFailedBundleIds() {
+        List<String> failed = new ArrayList<>();
+        for (BundleResult result : results.values()) {
+            if (!result.isSuccessful()) {
+                failed.add(result.getBundleId());
+            }
+        }
+        return failed;
+    }
+}
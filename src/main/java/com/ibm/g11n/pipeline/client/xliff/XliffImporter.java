@@ -0,0 +1,253 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.xliff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.g11n.pipeline.client.ClientExecutors;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceException;
+
+/**
+ * <code>XliffImporter</code> imports a large XLIFF 2.0 document by splitting it
+ * into bundles with {@link XliffSplitter}, and uploading the bundles concurrently.
+ * <p>
+ * Compared to a single {@link ServiceClient#updateBundlesWithXliff(InputStream)}
+ * request, the bundles are processed in parallel up to the configured parallelism,
+ * and an upload failure only requires the failed bundle to be sent again. Each
+ * bundle is retried up to the maximum attempts, and the outcome for each bundle
+ * is returned in an {@link XliffImportReport}. For example,
+ * <pre>
+ *      XliffImportReport report = new XliffImporter(client)
+ *              .setParallelism(8)
+ *              .importBundles(inputXliff);
+ *      if (!report.isSuccessful()) {
+ *          // handle report.getFailedBundleIds()
+ *      }
+ * </pre>
+ * The requests are also subject to the retry policy and the request throttle
+ * of the service client.
+ */
+public final class XliffImporter {
+    /**
+     * Default number of bundles uploaded concurrently (4).
+     */
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * Default maximum number of upload attempts for a bundle (3).
+     */
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * Default delay before uploading a bundle again (1000 = 1 second).
+     */
+    public static final long DEFAULT_RETRY_DELAY = 1000L;
+
+    private final ServiceClient client;
+    private Executor executor = ClientExecutors.getDefault();
+    private int parallelism = DEFAULT_PARALLELISM;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    /**
+     * Constructor.
+     *
+     * @param client    The service client used for uploading bundles. Must not be null.
+     */
+    public XliffImporter(ServiceClient client) {
+        this.client = Objects.requireNonNull(client, "client must not be null");
+    }
+
+    /**
+     * Sets the executor running uploads. By default, the shared executor returned
+     * by {@link ClientExecutors#getDefault()} is used.
+     *
+     * @param executor  The executor. Must not be null.
+     * @return This object.
+     */
+    public XliffImporter setExecutor(Executor executor) {
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bundles uploaded concurrently. The default
+     * value is {@link #DEFAULT_PARALLELISM}.
+     *
+     * @param parallelism   The maximum number of concurrent uploads. Must be positive.
+     * @return This object.
+     */
+    public XliffImporter setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive.");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of upload attempts for a bundle, including the
+     * first attempt. The default value is {@link #DEFAULT_MAX_ATTEMPTS}.
+     *
+     * @param maxAttempts   The maximum number of attempts. Must be positive.
+     * @return This object.
+     */
+    public XliffImporter setMaxAttempts(int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive.");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the delay before uploading a failed bundle again, in milliseconds.
+     * The default value is {@link #DEFAULT_RETRY_DELAY}.
+     *
+     * @param retryDelay    The delay in milliseconds. Must not be negative.
+     * @return This object.
+     */
+    public XliffImporter setRetryDelay(long retryDelay) {
+        if (retryDelay < 0) {
+            throw new IllegalArgumentException("retryDelay must not be negative.");
+        }
+        this.retryDelay = retryDelay;
+        return this;
+    }
+
+    /**
+     * Imports the XLIFF 2.0 document. The document is split into bundles in
+     * temporary files, which are deleted when this method returns. This method
+     * returns when all bundles were processed; a failure of a bundle does not
+     * stop the other bundles.
+     *
+     * @param inputXliff    The input XLIFF stream.
+     * @return The report of the import.
+     * @throws IOException when reading or splitting the input failed.
+     * @throws InterruptedIOException when the calling thread was interrupted while
+     *          waiting for the uploads. Uploads not started yet are canceled.
+     */
+    public XliffImportReport importBundles(InputStream inputXliff) throws IOException {
+        Path directory = Files.createTempDirectory("gp-xliff-split");
+        try {
+            return importBundles(XliffSplitter.split(inputXliff, directory));
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Imports the parts of an XLIFF document created by {@link XliffSplitter}.
+     * This method returns when all parts were processed.
+     *
+     * @param parts The parts to be uploaded.
+     * @return The report of the import.
+     * @throws InterruptedIOException when the calling thread was interrupted while
+     *          waiting for the uploads. Uploads not started yet are canceled.
+     */
+    public XliffImportReport importBundles(final List<XliffSplitter.Part> parts)
+            throws InterruptedIOException {
+        Objects.requireNonNull(parts, "parts must not be null");
+
+        final XliffImportReport.BundleResult[] results = new XliffImportReport.BundleResult[parts.size()];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean canceled = new AtomicBoolean();
+        int workers = Math.min(parallelism, parts.size());
+        final CountDownLatch done = new CountDownLatch(workers);
+
+        // Each worker takes the next part until no parts are left, so at most
+        // parallelism uploads run at the same time.
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int index;
+                    while (!canceled.get() && (index = next.getAndIncrement()) < parts.size()) {
+                        results[index] = upload(parts.get(index), canceled);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < workers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (RejectedExecutionException e) {
+                // The calling thread runs the worker instead
+                worker.run();
+            }
+        }
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            canceled.set(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for XLIFF uploads.");
+        }
+        return new XliffImportReport(Arrays.asList(results));
+    }
+
+    private XliffImportReport.BundleResult upload(XliffSplitter.Part part, AtomicBoolean canceled) {
+        long start = System.nanoTime();
+        int attempts = 0;
+        Exception error = null;
+        while (attempts < maxAttempts && !canceled.get()) {
+            if (attempts > 0 && retryDelay > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            attempts++;
+            try {
+                client.updateBundlesWithXliff(part.getPath().toFile());
+                error = null;
+                break;
+            } catch (ServiceException | IOException e) {
+                error = e;
+            }
+        }
+        if (attempts == 0) {
+            error = new ServiceException("The import was canceled.");
+        }
+        return new XliffImportReport.BundleResult(part.getBundleId(), attempts, error,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.xliff;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * <code>XliffSplitter</code> partitions an XLIFF 2.0 document into documents
+ * containing a single <code>&lt;file&gt;</code> element each. In XLIFF documents
+ * used by the service, a <code>&lt;file&gt;</code> element holds the resource
+ * entries of a bundle, identified by its <code>id</code> attribute.
+ * <p>
+ * The input is read with StAX, and each part is written to a file while it is
+ * read, so the size of the input is not limited by the heap. Each part keeps the
+ * root <code>&lt;xliff&gt;</code> element of the input with its attributes and
+ * namespace declarations, so it can be imported by
+ * {@link com.ibm.g11n.pipeline.client.ServiceClient#updateBundlesWithXliff(java.io.File)
+ * ServiceClient.updateBundlesWithXliff}.
+ */
+public final class XliffSplitter {
+    private static final String XLIFF_NS = "urn:oasis:names:tc:xliff:document:2.0";
+    private static final QName ID = new QName("id");
+
+    private XliffSplitter() {
+    }
+
+    /**
+     * A part of the XLIFF document, containing the contents of a bundle.
+     */
+    public static final class Part {
+        private final String bundleId;
+        private final Path path;
+
+        Part(String bundleId, Path path) {
+            this.bundleId = bundleId;
+            this.path = path;
+        }
+
+        /**
+         * Returns the bundle ID, specified by the <code>id</code> attribute of
+         * the <code>&lt;file&gt;</code> element.
+         *
+         * @return The bundle ID.
+         */
+        public String getBundleId() {
+            return bundleId;
+        }
+
+        /**
+         * Returns the file containing this part.
+         *
+         * @return The file containing this part.
+         */
+        public Path getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * Splits the XLIFF 2.0 document into parts by <code>&lt;file&gt;</code> element.
+     * The parts are written to new files in the directory, and returned in
+     * the document order. The caller is responsible for deleting the files.
+     *
+     * @param inputXliff    The input XLIFF stream.
+     * @param directory     The directory where the parts are written.
+     * @return The list of parts.
+     * @throws IOException when reading the input or writing the parts failed, or
+     *          the input is not a valid XLIFF 2.0 document.
+     */
+    public static List<Part> split(InputStream inputXliff, Path directory) throws IOException {
+        if (inputXliff == null) {
+            throw new IllegalArgumentException("inputXliff must be specified.");
+        }
+        if (directory == null) {
+            throw new IllegalArgumentException("directory must be specified.");
+        }
+
+        List<Part> parts = new ArrayList<>();
+        Set<String> bundleIds = new HashSet<>();
+        boolean completed = false;
+        XMLEventReader reader = null;
+        try {
+            reader = newInputFactory().createXMLEventReader(inputXliff);
+            StartElement root = null;
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    StartElement start = event.asStartElement();
+                    if (root == null) {
+                        if (!isXliffElement(start, "xliff")) {
+                            throw new IOException("The input is not an XLIFF 2.0 document.");
+                        }
+                        root = start;
+                    } else if (isXliffElement(start, "file")) {
+                        Part part = writePart(reader, root, start, directory, parts.size());
+                        parts.add(part);
+                        if (!bundleIds.add(part.getBundleId())) {
+                            throw new IOException("Duplicate <file> element for bundle "
+                                    + part.getBundleId());
+                        }
+                    } else {
+                        throw new IOException("Unexpected element <" + start.getName().getLocalPart()
+                                + "> in <xliff> at line " + start.getLocation().getLineNumber());
+                    }
+                }
+            }
+            if (root == null) {
+                throw new IOException("The input is not an XLIFF 2.0 document.");
+            }
+            completed = true;
+            return Collections.unmodifiableList(parts);
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to parse the XLIFF document.", e);
+        } finally {
+            close(reader);
+            if (!completed) {
+                for (Part part : parts) {
+                    Files.deleteIfExists(part.getPath());
+                }
+            }
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // XLIFF documents do not use DTD, and external entities must not be resolved
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static boolean isXliffElement(StartElement start, String localName) {
+        QName name = start.getName();
+        return XLIFF_NS.equals(name.getNamespaceURI()) && localName.equals(name.getLocalPart());
+    }
+
+    /**
+     * Copies the events from the start of the <code>&lt;file&gt;</code> element
+     * to its end into a new file, enclosed by the root element.
+     */
+    private static Part writePart(XMLEventReader reader, StartElement root, StartElement file,
+            Path directory, int index) throws IOException, XMLStreamException {
+        Attribute id = file.getAttributeByName(ID);
+        if (id == null || id.getValue().isEmpty()) {
+            throw new IOException("<file> element without id at line "
+                    + file.getLocation().getLineNumber());
+        }
+
+        Path path = directory.resolve(String.format("part-%05d.xlf", index));
+        XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+        boolean completed = false;
+        try (OutputStream os = Files.newOutputStream(path)) {
+            XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(os, "UTF-8");
+            writer.add(eventFactory.createStartDocument("UTF-8", "1.0"));
+            writer.add(eventFactory.createCharacters("\n"));
+            writer.add(root);
+            writer.add(eventFactory.createCharacters("\n"));
+            writer.add(file);
+            int depth = 1;
+            while (depth > 0) {
+                XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    depth++;
+                } else if (event.isEndElement()) {
+                    depth--;
+                } else if (event.isEndDocument()) {
+                    throw new IOException("Unexpected end of the XLIFF document.");
+                }
+                writer.add(event);
+            }
+            writer.add(eventFactory.createCharacters("\n"));
+            writer.add(eventFactory.createEndElement(root.getName(), null));
+            writer.add(eventFactory.createEndDocument());
+            writer.close();
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(path);
+            }
+        }
+        return new Part(id.getValue(), path);
+    }
+
+    private static void close(XMLEventReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Provides utilities for processing large XLIFF 2.0 documents.
+ *
+ * <p>
+ * {@link com.ibm.g11n.pipeline.client.xliff.XliffSplitter XliffSplitter} partitions
+ * an XLIFF document into bundles with a streaming parser, and
+ * {@link com.ibm.g11n.pipeline.client.xliff.XliffImporter XliffImporter} uploads
+ * the bundles concurrently, retrying failed bundles individually, and reports
+ * the result for each bundle in an
+ * {@link com.ibm.g11n.pipeline.client.xliff.XliffImportReport XliffImportReport}.
+ */
+package com.ibm.g11n.pipeline.client.xliff;
@@ -19,6 +19,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -27,10 +28,13 @@ import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.ibm.g11n.pipeline.client.Deadline;
+import com.ibm.g11n.pipeline.client.TimeoutConfig;
+import com.ibm.g11n.pipeline.client.json.JsonCodecs;
 
 /**
  * Manages IAM token for the given IAM API key. By default a stored token will
@@ -51,7 +55,6 @@ public class TokenLifeCycleManager implements TokenManager {
         private long expiration;
         private String scope;
     }
-    private static final Gson GSON = new Gson();
     private static final Map<String,TokenLifeCycleManager> instances=new ConcurrentHashMap<>();
     private double tokenExpiryThreshold=0.85;
     private final String iamTokenApiUrl;
@@ -59,6 +62,7 @@ public class TokenLifeCycleManager implements TokenManager {
     //Calculated according to the expiry threshold
     private volatile long expiresAt;
     private final String iamApiKey;
+    private final ReentrantLock refreshLock = new ReentrantLock();
     static final String IAM_TOKEN_EXPIRY_THRESHOLD_PROP_KEY="IAM_TOKEN_EXPIRY_THRESHOLD";
 
     private TokenLifeCycleManager(final String iamEndpoint,final String apiKey) {
@@ -87,14 +91,37 @@ public class TokenLifeCycleManager implements TokenManager {
      * 1. If has a valid token stored, send it.<br>
      * 2. If the stored token has expired, replace it with a new fetched token.<br>
      * Note: This method is thread-safe and makes only one call to IAM API to replace an expired IAM token.
+     * The call to IAM API uses the default timeouts of {@link TimeoutConfig}, bounded by
+     * the {@link Deadline} attached to the current thread.
      */
     @Override
     public String getToken() throws TokenManagerException {
+        return getToken(new TimeoutConfig(), Deadline.current());
+    }
+
+    /**
+     * Returns the token in the same way as {@link #getToken()}. The call to IAM API
+     * uses the connect and read timeouts of the timeout configuration, and the
+     * time spent for the call and for waiting for another thread replacing
+     * the token does not exceed the deadline.
+     *
+     * @param timeoutConfig The timeout configuration, or null for no timeouts.
+     * @param deadline      The deadline, or null.
+     * @return The token.
+     * @throws TokenManagerException when the token could not be fetched, or
+     * the deadline expired.
+     */
+    public String getToken(TimeoutConfig timeoutConfig, Deadline deadline) throws TokenManagerException {
         if (hasTokenExpired()) {
-            synchronized (this) {
+            // ReentrantLock instead of a monitor, so a virtual thread waiting
+            // for the token API response does not pin its carrier thread.
+            lockRefresh(deadline);
+            try {
                 if (hasTokenExpired()) {
                     try {
-                        final IAMToken iamToken = invokeTokenApi();
+                        final IAMToken iamToken = invokeTokenApi(
+                                getTimeout(timeoutConfig == null ? 0 : timeoutConfig.getConnectTimeout(), deadline),
+                                getTimeout(timeoutConfig == null ? 0 : timeoutConfig.getReadTimeout(), deadline));
                         expiresAt = (long) (TimeUnit.SECONDS.toNanos(
                                 iamToken.expires_in) * tokenExpiryThreshold)
                                 + System.nanoTime();
@@ -105,25 +132,69 @@ public class TokenLifeCycleManager implements TokenManager {
                     }
 
                 }
+            } finally {
+                refreshLock.unlock();
             }
         }
         return token;
     }
 
+    /**
+     * Acquires the refresh lock. With a deadline, a thread waiting for another
+     * thread fetching the token gives up when the deadline expires.
+     */
+    private void lockRefresh(final Deadline deadline) throws TokenManagerException {
+        if (deadline == null) {
+            refreshLock.lock();
+            return;
+        }
+        final boolean locked;
+        try {
+            locked = refreshLock.tryLock(deadline.getRemaining(TimeUnit.NANOSECONDS),
+                    TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TokenManagerException("Interrupted while waiting for Token.", e);
+        }
+        if (!locked) {
+            throw new TokenManagerException("Deadline exceeded while waiting for Token.", null);
+        }
+    }
+
+    /**
+     * Returns the timeout of the token API call, which does not exceed the time
+     * remaining until the deadline.
+     */
+    private static int getTimeout(final int timeout, final Deadline deadline) {
+        if (deadline == null) {
+            return timeout;
+        }
+        // 0 means no timeout, so at least 1 millisecond
+        final long remaining = Math.max(1, deadline.getRemaining(TimeUnit.MILLISECONDS));
+        if (timeout > 0 && timeout < remaining) {
+            return timeout;
+        }
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
     private boolean hasTokenExpired() {
         return expiresAt-System.nanoTime()<0;
     }
 
-    private IAMToken invokeTokenApi() throws IAMTokenException {
+    private IAMToken invokeTokenApi(final int connectTimeout, final int readTimeout)
+            throws IAMTokenException {
         try {
             final byte[] reqBody = generateRequestBody();
             final HttpURLConnection conn = generateRequest(reqBody);
+            conn.setConnectTimeout(connectTimeout);
+            conn.setReadTimeout(readTimeout);
             try (OutputStream os = conn.getOutputStream()) {
                 os.write(reqBody);
             }
             final int status = conn.getResponseCode();
             if (status == HttpURLConnection.HTTP_OK) {
-                return GSON.fromJson(getResponseBody(conn), IAMToken.class);
+                return JsonCodecs.getDefault().fromJson(
+                        new StringReader(getResponseBody(conn)), IAMToken.class);
             } else {
                 throw new IAMTokenException(
                         "Error in fetching token from IAM token API:"
@@ -0,0 +1,450 @@
+/*
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * <code>HttpTransport</code> implementation multiplexing concurrent requests
+ * over HTTP/2 connections.
+ * <p>
+ * This transport is built on <code>java.net.http.HttpClient</code>. All requests
+ * sent to the same service endpoint through one instance share a small number of
+ * HTTP/2 connections, instead of using one connection per in-flight request. When
+ * the server does not support HTTP/2, the client falls back to HTTP/1.1.
+ * <p>
+ * Because connections are shared, the timeout for establishing a connection
+ * is set per transport instance. The connect timeout and the read timeout of
+ * each request bound the wait for the response headers, and the read timeout
+ * also bounds each read of the response body.
+ * <p>
+ * This is the implementation used on Java 11 or later runtime.
+ */
+public class Http2Transport implements HttpTransport {
+
+    private static final Logger logger = Logger.getLogger(Http2Transport.class.getName());
+
+    /**
+     * Default timeout for establishing a connection (10000 = 10 seconds).
+     */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+
+    // Request bodies up to this size are buffered, larger bodies are streamed
+    private static final long MAX_BUFFERED_BODY = 1024 * 1024;
+    private static final int PIPE_SIZE = 65536;
+
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    static {
+        RESTRICTED_HEADERS.add("Connection");
+        RESTRICTED_HEADERS.add("Content-Length");
+        RESTRICTED_HEADERS.add("Expect");
+        RESTRICTED_HEADERS.add("Host");
+        RESTRICTED_HEADERS.add("Transfer-Encoding");
+        RESTRICTED_HEADERS.add("Upgrade");
+    }
+
+    private static final boolean SUPPORTED = checkSupported();
+
+    private static final class DefaultHolder {
+        static final Http2Transport INSTANCE = new Http2Transport();
+    }
+
+    private static final class ReadTimerHolder {
+        static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+        private static ScheduledThreadPoolExecutor createTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                    new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("gp-http2-read-timer-%d")
+                        .build());
+            // Most reads complete before their timeouts
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final ExecutorService bodyWriter;
+
+    /**
+     * Returns whether the HTTP/2 transport is supported by the current runtime.
+     *
+     * @return true if the HTTP/2 transport is supported.
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    private static boolean checkSupported() {
+        try {
+            // Early Java 11 updates do not allow setting Date header,
+            // which is required by HMAC authentication.
+            HttpRequest.newBuilder().header("Date", "Thu, 01 Jan 1970 00:00:00 GMT");
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the shared instance of <code>Http2Transport</code>. The shared
+     * instance must not be closed.
+     *
+     * @return The shared instance of <code>Http2Transport</code>.
+     * @throws UnsupportedOperationException when the HTTP/2 transport is not
+     *          supported by the current runtime.
+     */
+    public static Http2Transport getDefault() {
+        if (!SUPPORTED) {
+            throw new UnsupportedOperationException(
+                    "HTTP/2 transport is not supported by this Java runtime version.");
+        }
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Constructs a new HTTP/2 transport with the default connect timeout
+     * {@link #DEFAULT_CONNECT_TIMEOUT}.
+     *
+     * @throws UnsupportedOperationException when the HTTP/2 transport is not
+     *          supported by the current runtime.
+     */
+    public Http2Transport() {
+        this(DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    /**
+     * Constructs a new HTTP/2 transport with the specified connect timeout.
+     *
+     * @param connectTimeout    The timeout for establishing a connection in
+     *                          milliseconds, or 0 for no timeout.
+     * @throws UnsupportedOperationException when the HTTP/2 transport is not
+     *          supported by the current runtime.
+     */
+    public Http2Transport(int connectTimeout) {
+        if (!SUPPORTED) {
+            throw new UnsupportedOperationException(
+                    "HTTP/2 transport is not supported by this Java runtime version.");
+        }
+        if (connectTimeout < 0) {
+            throw new IllegalArgumentException("connectTimeout must not be negative.");
+        }
+        HttpClient.Builder clientBuilder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        if (connectTimeout > 0) {
+            clientBuilder.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+        httpClient = clientBuilder.build();
+        bodyWriter = Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("gp-http2-body-writer-%d")
+                    .build());
+    }
+
+    @Override
+    public TransportResponse execute(TransportRequest request) throws IOException {
+        CancellationSignal signal = request.getCancellationSignal();
+        if (signal != null) {
+            signal.throwIfCanceled();
+        }
+
+        URI uri;
+        try {
+            uri = request.getUrl().toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid request URL: " + request.getUrl(), e);
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        // The request timeout only bounds the wait for the response headers,
+        // the response body is read through ReadTimeoutInputStream.
+        if (request.getReadTimeout() > 0) {
+            builder.timeout(Duration.ofMillis(
+                    (long) request.getConnectTimeout() + request.getReadTimeout()));
+        }
+        for (Entry<String, String> header : request.getHeaders().entrySet()) {
+            if (!RESTRICTED_HEADERS.contains(header.getKey())) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        }
+
+        RequestBody body = request.getBody();
+        if (body != null) {
+            if (request.getHeader("Content-Type") == null) {
+                builder.header("Content-Type", body.getContentType());
+            }
+            builder.method(request.getMethod(), toPublisher(body));
+        } else {
+            builder.method(request.getMethod(), BodyPublishers.noBody());
+        }
+
+        CompletableFuture<HttpResponse<InputStream>> future =
+                httpClient.sendAsync(builder.build(), BodyHandlers.ofInputStream());
+        Runnable abort = null;
+        if (signal != null) {
+            abort = () -> {
+                future.cancel(true);
+                // Closing the body stream cancels the stream if the response
+                // is already available
+                future.thenAccept(r -> closeQuietly(r.body()));
+            };
+            signal.addListener(abort);
+        }
+
+        try {
+            return new Http2Response(future.get(), request.getReadTimeout(), signal, abort);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            removeListener(signal, abort);
+            throw new InterruptedIOException("Interrupted while waiting for response from " + uri);
+        } catch (CancellationException e) {
+            removeListener(signal, abort);
+            throw new InterruptedIOException("The request was canceled.");
+        } catch (ExecutionException e) {
+            removeListener(signal, abort);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void removeListener(CancellationSignal signal, Runnable abort) {
+        if (abort != null) {
+            signal.removeListener(abort);
+        }
+    }
+
+    private static void closeQuietly(InputStream is) {
+        try {
+            is.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private BodyPublisher toPublisher(final RequestBody body) throws IOException {
+        long length = body.getContentLength();
+        File file = body.getFile();
+        if (file != null && file.length() == length) {
+            // Sent by HttpClient directly from the file
+            return BodyPublishers.ofFile(file.toPath());
+        }
+        if (length >= 0 && length <= MAX_BUFFERED_BODY) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream((int) length);
+            body.writeTo(baos);
+            return BodyPublishers.ofByteArray(baos.toByteArray());
+        }
+
+        // Stream a large body through a pipe fed by a writer thread
+        BodyPublisher publisher = BodyPublishers.ofInputStream(() -> {
+            PipedInputStream pis = new PipedInputStream(PIPE_SIZE);
+            try {
+                final PipedOutputStream pos = new PipedOutputStream(pis);
+                bodyWriter.execute(() -> {
+                    try (PipedOutputStream out = pos) {
+                        body.writeTo(out);
+                    } catch (IOException e) {
+                        logger.log(Level.FINE, "Failed to write request body", e);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return pis;
+        });
+        return length >= 0 ? BodyPublishers.fromPublisher(publisher, length) : publisher;
+    }
+
+    /**
+     * Stops the request body writer threads. Connections are closed by
+     * <code>HttpClient</code> when they become idle.
+     */
+    @Override
+    public void close() {
+        bodyWriter.shutdown();
+    }
+
+    /**
+     * Response body stream closing the underlying stream when a read does not
+     * complete within the read timeout. <code>HttpClient</code> does not have
+     * a timeout for reading the body, and a blocked read returns when the
+     * stream is closed.
+     */
+    private static final class ReadTimeoutInputStream extends FilterInputStream implements Runnable {
+        private final int readTimeout;
+        private volatile boolean timedOut;
+
+        ReadTimeoutInputStream(InputStream in, int readTimeout) {
+            super(in);
+            this.readTimeout = readTimeout;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ScheduledFuture<?> timer = startTimer();
+            try {
+                return in.read();
+            } catch (IOException e) {
+                throw checkTimeout(e);
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ScheduledFuture<?> timer = startTimer();
+            try {
+                return in.read(b, off, len);
+            } catch (IOException e) {
+                throw checkTimeout(e);
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            ScheduledFuture<?> timer = startTimer();
+            try {
+                return in.skip(n);
+            } catch (IOException e) {
+                throw checkTimeout(e);
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        private ScheduledFuture<?> startTimer() throws IOException {
+            if (timedOut) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            return ReadTimerHolder.TIMER.schedule(this, readTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        private IOException checkTimeout(IOException e) {
+            if (!timedOut) {
+                return e;
+            }
+            SocketTimeoutException timeout = new SocketTimeoutException("Read timed out");
+            timeout.initCause(e);
+            return timeout;
+        }
+
+        /**
+         * Called by the timer when the read timeout expires.
+         */
+        @Override
+        public void run() {
+            timedOut = true;
+            closeQuietly(in);
+        }
+    }
+
+    private static final class Http2Response implements TransportResponse {
+        private final HttpResponse<InputStream> response;
+        private final InputStream body;
+        private final CancellationSignal signal;
+        private final Runnable abort;
+
+        Http2Response(HttpResponse<InputStream> response, int readTimeout,
+                CancellationSignal signal, Runnable abort) {
+            this.response = response;
+            this.body = readTimeout > 0
+                    ? new ReadTimeoutInputStream(response.body(), readTimeout)
+                    : response.body();
+            this.signal = signal;
+            this.abort = abort;
+        }
+
+        @Override
+        public int getStatus() {
+            return response.statusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return response.headers().firstValue(name).orElse(null);
+        }
+
+        @Override
+        public String getContentType() {
+            return getHeader("Content-Type");
+        }
+
+        @Override
+        public long getContentLength() {
+            return response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            removeListener(signal, abort);
+            // Closing the body stream cancels the remaining data transfer
+            closeQuietly(response.body());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for {@link AsyncServiceClient} using a local HTTP server.
+ */
+public class AsyncServiceClientTest {
+    private HttpServer server;
+    private ExecutorService executor;
+    private AsyncServiceClient asyncClient;
+
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+    private final CountDownLatch releaseResponse = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                    requestReceived.countDown();
+                    try {
+                        releaseResponse.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+                byte[] body = "{\"status\":\"SUCCESS\",\"bundleIds\":[\"b1\",\"b2\"]}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                } catch (IOException e) {
+                    // client aborted
+                }
+            }
+        });
+        server.start();
+
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/rest";
+        ServiceClient client = ServiceClient.getInstance(
+                ServiceAccount.getInstance(url, "inst", "user", "secret"));
+        executor = Executors.newFixedThreadPool(2);
+        asyncClient = new AsyncServiceClient(client, executor);
+    }
+
+    @After
+    public void tearDown() {
+        releaseResponse.countDown();
+        executor.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGetBundleIds() throws Exception {
+        CompletableFuture<Set<String>> future = asyncClient.getBundleIds();
+        Set<String> bundleIds = future.get(10, TimeUnit.SECONDS);
+        assertEquals(2, bundleIds.size());
+        assertTrue(bundleIds.contains("b1"));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        CompletableFuture<Void> future = asyncClient.submit(new AsyncServiceClient.Operation<Void>() {
+            @Override
+            public Void execute(ServiceClient client) throws ServiceException {
+                try {
+                    client.getBundleInfo("slow");
+                } catch (ServiceException e) {
+                    error.set(e.getCause());
+                    throw e;
+                } finally {
+                    done.countDown();
+                }
+                return null;
+            }
+        });
+
+        assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+
+        // The blocked request is aborted without waiting for the response
+        assertTrue("aborted", done.await(5, TimeUnit.SECONDS));
+        assertTrue(String.valueOf(error.get()), error.get() instanceof InterruptedIOException);
+        try {
+            future.get();
+            fail("CancellationException expected");
+        } catch (CancellationException e) {
+            // expected
+        } catch (ExecutionException e) {
+            fail("CancellationException expected");
+        }
+    }
+}
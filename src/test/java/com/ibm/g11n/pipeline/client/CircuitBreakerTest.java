@@ -0,0 +1,162 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.CircuitBreaker.State;
+import com.ibm.g11n.pipeline.client.CircuitBreaker.StateListener;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for CircuitBreaker.
+ */
+public class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    private static CircuitBreakerConfig newConfig() {
+        return new CircuitBreakerConfig()
+                .setSlidingWindowSize(10)
+                .setMinimumNumberOfCalls(4)
+                .setFailureRateThreshold(50)
+                .setSlowCallRateThreshold(50)
+                .setSlowCallDuration(1000)
+                .setWaitDurationInOpenState(100)
+                .setPermittedCallsInHalfOpenState(2);
+    }
+
+    @Test
+    public void testStateTransitions() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://localhost/rest", "GET op", newConfig());
+        final List<String> transitions = Collections.synchronizedList(new ArrayList<String>());
+        breaker.addListener(new StateListener() {
+            @Override
+            public void onStateTransition(CircuitBreaker circuitBreaker, State from, State to) {
+                transitions.add(from + "->" + to);
+            }
+        });
+
+        // Below the minimum number of calls
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            breaker.onError(FAST);
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(-1.0f, breaker.getFailureRate(), 0.0f);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onSuccess(FAST);
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1, breaker.getRejectedCount());
+
+        // Half-open after the wait duration, failed trial opens the circuit again
+        Thread.sleep(150);
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse("only 2 trial calls", breaker.tryAcquirePermission());
+        breaker.onSuccess(FAST);
+        breaker.onError(FAST);
+        assertEquals(State.OPEN, breaker.getState());
+
+        // Successful trial calls close the circuit
+        Thread.sleep(150);
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        assertEquals(
+                "[CLOSED->OPEN, OPEN->HALF_OPEN, HALF_OPEN->OPEN, OPEN->HALF_OPEN, HALF_OPEN->CLOSED]",
+                transitions.toString());
+    }
+
+    @Test
+    public void testSlowCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("http://localhost/rest", "GET op", newConfig());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquirePermission());
+            if (i % 2 == 0) {
+                breaker.onSuccess(SLOW);
+            } else {
+                breaker.onSuccess(FAST);
+            }
+        }
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        final AtomicInteger requestCount = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            ServiceAccount account = ServiceAccount.getInstance(
+                    "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+            CircuitBreakerRegistry registry = new CircuitBreakerRegistry(
+                    newConfig().setWaitDurationInOpenState(60000));
+
+            for (int i = 0; i < 10; i++) {
+                ServiceClient client = ServiceClient.getInstance(account);
+                client.setCircuitBreakerRegistry(registry);
+                try {
+                    client.getResourceStrings("bundle1", "de", false);
+                    fail("ServiceException is expected");
+                } catch (CircuitBreakerOpenException e) {
+                    assertEquals(State.OPEN, e.getCircuitBreaker().getState());
+                } catch (ServiceException e) {
+                    // HTTP 500
+                }
+            }
+            assertEquals("requests sent before the circuit was opened", 4, requestCount.get());
+
+            CircuitBreaker breaker = registry.getCircuitBreaker(account.getUrl(),
+                    "GET {instanceId}/v2/bundles/*/*");
+            assertEquals(State.OPEN, breaker.getState());
+            assertEquals(6, breaker.getRejectedCount());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
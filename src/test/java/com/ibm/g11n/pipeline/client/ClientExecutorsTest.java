@@ -0,0 +1,77 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ClientExecutors.ExecutionMode;
+
+/**
+ * Test cases for {@link ClientExecutors}.
+ */
+public class ClientExecutorsTest {
+    private static final Callable<String> THREAD_NAME = new Callable<String>() {
+        @Override
+        public String call() {
+            return Thread.currentThread().getName();
+        }
+    };
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        ExecutorService executor = ClientExecutors.newExecutor(ExecutionMode.PLATFORM_THREADS, 2);
+        try {
+            String name = executor.submit(THREAD_NAME).get(10, TimeUnit.SECONDS);
+            assertTrue(name, name.startsWith("gp-client-worker-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        if (!ClientExecutors.isVirtualThreadSupported()) {
+            // Set when testing the multi-release jar on Java 21 or later
+            assertFalse("The Java 21 classes are not used", Boolean.getBoolean("gp.test.java21"));
+            assertEquals(ExecutionMode.PLATFORM_THREADS, ClientExecutors.getDefaultExecutionMode());
+            try {
+                ClientExecutors.newExecutor(ExecutionMode.VIRTUAL_THREADS, 0);
+                fail("UnsupportedOperationException expected");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+            return;
+        }
+
+        assertEquals(ExecutionMode.VIRTUAL_THREADS, ClientExecutors.getDefaultExecutionMode());
+        ExecutorService executor = ClientExecutors.newExecutor(ExecutionMode.VIRTUAL_THREADS, 0);
+        try {
+            String name = executor.submit(THREAD_NAME).get(10, TimeUnit.SECONDS);
+            assertTrue(name, name.startsWith("gp-client-virtual-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
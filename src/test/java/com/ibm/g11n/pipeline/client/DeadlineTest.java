@@ -0,0 +1,155 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for Deadline and TimeoutConfig.
+ */
+public class DeadlineTest {
+    private HttpServer server;
+    private ServiceAccount account;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+    private volatile boolean unavailable;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                if (unavailable) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                // Never responds until the test ends
+                try {
+                    shutdown.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                byte[] body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{}}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+    }
+
+    @After
+    public void tearDown() {
+        shutdown.countDown();
+        server.stop(0);
+    }
+
+    private ServiceClient newClient() {
+        ServiceClient client = ServiceClient.getInstance(account);
+        client.setRequestCoalescingEnabled(false);
+        client.setResponseCache(null);
+        client.setCircuitBreakerRegistry(null);
+        return client;
+    }
+
+    private static void assertDeadlineExceeded(ServiceException e) {
+        Throwable cause = e.getCause();
+        assertTrue("cause: " + cause, cause instanceof SocketTimeoutException);
+        assertTrue(cause.getMessage(), cause.getMessage().startsWith("Deadline exceeded"));
+    }
+
+    @Test
+    public void testAttachedDeadline() throws Exception {
+        long exceededBefore = ClientMetrics.getDeadlineExceededCount();
+        long start = System.nanoTime();
+        Deadline prev = Deadline.attach(Deadline.after(300, TimeUnit.MILLISECONDS));
+        try {
+            newClient().getResourceStrings("bundle1", "de", false);
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            assertDeadlineExceeded(e);
+        } finally {
+            Deadline.attach(prev);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("elapsed: " + elapsed, elapsed < 3000);
+        assertEquals(1, ClientMetrics.getDeadlineExceededCount() - exceededBefore);
+        assertEquals(null, Deadline.current());
+    }
+
+    @Test
+    public void testCallTimeout() throws Exception {
+        ServiceClient client = newClient();
+        client.setTimeoutConfig(new TimeoutConfig().setCallTimeout(OperationClass.READ, 300));
+        long start = System.nanoTime();
+        try {
+            client.getResourceStrings("bundle1", "de", false);
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            assertDeadlineExceeded(e);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("elapsed: " + elapsed, elapsed < 3000);
+    }
+
+    @Test
+    public void testNoRetryBeyondDeadline() throws Exception {
+        unavailable = true;
+        ServiceClient client = newClient();
+        client.setRetryPolicy(new RetryPolicy().setBudget(new RetryBudget(100, 0.1)));
+        Deadline prev = Deadline.attach(Deadline.after(500, TimeUnit.MILLISECONDS));
+        try {
+            client.getResourceStrings("bundle1", "de", false);
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            // Retry-After exceeds the deadline, so the 503 response is returned
+        } finally {
+            Deadline.attach(prev);
+        }
+        assertEquals(1, requestCount.get());
+    }
+}
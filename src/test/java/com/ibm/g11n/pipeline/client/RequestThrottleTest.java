@@ -0,0 +1,176 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for RequestThrottle.
+ */
+public class RequestThrottleTest {
+    private HttpServer server;
+    private ExecutorService executor;
+    private ServiceAccount account;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+    private volatile long responseDelay;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                int current = concurrent.incrementAndGet();
+                while (true) {
+                    int max = maxConcurrent.get();
+                    if (current <= max || maxConcurrent.compareAndSet(max, current)) {
+                        break;
+                    }
+                }
+                requestReceived.countDown();
+                try {
+                    Thread.sleep(responseDelay);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                byte[] body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key1\":\"Wert1\"}}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                concurrent.decrementAndGet();
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        server.stop(0);
+    }
+
+    private ServiceClient newClient(RequestThrottle throttle) {
+        ServiceClient client = ServiceClient.getInstance(account);
+        client.setRequestThrottle(throttle);
+        // Identical requests must not be shared or answered by the cache
+        client.setRequestCoalescingEnabled(false);
+        client.setResponseCache(null);
+        return client;
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        responseDelay = 100;
+        RequestThrottle throttle = new RequestThrottle().setLimits(OperationClass.READ,
+                new RequestLimits().setMaxConcurrentRequests(2));
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            final ServiceClient client = newClient(throttle);
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return client.getResourceStrings("bundle1", "de", false).get("key1");
+                }
+            }));
+        }
+        for (Future<String> f : futures) {
+            assertEquals("Wert1", f.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(6, requestCount.get());
+        assertTrue("max concurrent requests: " + maxConcurrent.get(), maxConcurrent.get() <= 2);
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        RequestThrottle throttle = new RequestThrottle().setLimits(OperationClass.READ,
+                new RequestLimits().setRate(20));
+        ServiceClient client = newClient(throttle);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            client.getResourceStrings("bundle1", "de", false);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // 4 intervals of 50 milliseconds after the first request
+        assertTrue("elapsed: " + elapsed, elapsed >= 190);
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        responseDelay = 1000;
+        final RequestThrottle throttle = new RequestThrottle().setLimits(OperationClass.READ,
+                new RequestLimits().setMaxConcurrentRequests(1).setMaxWait(0));
+        Future<?> first = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                newClient(throttle).getResourceStrings("bundle1", "de", false);
+                return null;
+            }
+        });
+        assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+
+        long rejectedBefore = ClientMetrics.getThrottleRejectedCount();
+        try {
+            newClient(throttle).getResourceStrings("bundle1", "de", false);
+            fail("RequestThrottledException is expected");
+        } catch (RequestThrottledException e) {
+            assertEquals(OperationClass.READ, e.getOperationClass());
+        }
+        assertEquals(1, ClientMetrics.getThrottleRejectedCount() - rejectedBefore);
+
+        // Write operations are not limited
+        assertEquals(null, throttle.getLimits(OperationClass.WRITE));
+        first.get(10, TimeUnit.SECONDS);
+        assertEquals(1, requestCount.get());
+    }
+}
@@ -0,0 +1,153 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for ResourceEntryVisitor.
+ */
+public class ResourceEntryVisitorTest {
+    private static final int ENTRY_COUNT = 1000;
+
+    private HttpServer server;
+    private ServiceClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                StringBuilder buf = new StringBuilder("{\"status\":\"SUCCESS\",\"resourceEntries\":{");
+                // Keys in descending order, to verify entries are not sorted
+                for (int i = ENTRY_COUNT - 1; i >= 0; i--) {
+                    buf.append("\"key").append(i).append("\":{\"value\":\"Wert").append(i)
+                        .append("\",\"translationStatus\":\"TRANSLATED\",\"reviewed\":true}");
+                    if (i > 0) {
+                        buf.append(',');
+                    }
+                }
+                buf.append("}}");
+                sendJson(exchange, 200, buf.toString());
+            }
+        });
+        server.createContext("/rest/inst/v2/trs/tr1/bundle1/fr", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                sendJson(exchange, 404, "{\"status\":\"ERROR\",\"message\":\"Not found\"}");
+            }
+        });
+        server.start();
+        ServiceAccount account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        client = ServiceClient.getInstance(account);
+        client.setRetryPolicy(null);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    @Test
+    public void testVisitAll() throws Exception {
+        final List<String> keys = new ArrayList<>();
+        client.visitResourceEntries("bundle1", "de", new ResourceEntryVisitor() {
+            @Override
+            public boolean visit(String key, ResourceEntryData entry) {
+                assertEquals("Wert" + key.substring(3), entry.getValue());
+                assertEquals(TranslationStatus.TRANSLATED, entry.getTranslationStatus());
+                keys.add(key);
+                return true;
+            }
+        });
+        assertEquals(ENTRY_COUNT, keys.size());
+        assertEquals("key" + (ENTRY_COUNT - 1), keys.get(0));
+        assertEquals("key0", keys.get(ENTRY_COUNT - 1));
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        final List<String> keys = new ArrayList<>();
+        client.visitResourceEntries("bundle1", "de", new ResourceEntryVisitor() {
+            @Override
+            public boolean visit(String key, ResourceEntryData entry) {
+                keys.add(key);
+                return keys.size() < 10;
+            }
+        });
+        assertEquals(10, keys.size());
+
+        // The client is still usable after discarding the rest of the response
+        assertEquals(ENTRY_COUNT, client.getResourceEntries("bundle1", "de").size());
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        final IOException visitorError = new IOException("disk full");
+        try {
+            client.visitResourceEntries("bundle1", "de", new ResourceEntryVisitor() {
+                @Override
+                public boolean visit(String key, ResourceEntryData entry) throws IOException {
+                    throw visitorError;
+                }
+            });
+            fail("IOException is expected");
+        } catch (IOException e) {
+            assertSame(visitorError, e);
+        }
+
+        try {
+            client.visitTRResourceEntries("tr1", "bundle1", "fr", new ResourceEntryVisitor() {
+                @Override
+                public boolean visit(String key, ResourceEntryData entry) {
+                    fail("No entries are expected");
+                    return false;
+                }
+            });
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            assertEquals("Not found", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ClientMetrics;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.cache.CachedResponse;
+import com.ibm.g11n.pipeline.client.cache.LruResponseCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for conditional GET requests backed by the response cache.
+ */
+public class ConditionalRequestTest {
+    private HttpServer server;
+    private ServiceAccount account;
+    private LruResponseCache cache;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger fullResponseCount = new AtomicInteger();
+    private volatile String etag = "\"v1\"";
+    private volatile String value = "Wert1";
+    private volatile String lastIfNoneMatch;
+    private volatile boolean chunked;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                lastIfNoneMatch = ifNoneMatch;
+                if (etag != null) {
+                    exchange.getResponseHeaders().set("ETag", etag);
+                }
+                if (etag != null && etag.equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                fullResponseCount.incrementAndGet();
+                byte[] body = ("{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key1\":\"" + value + "\"}}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, chunked ? 0 : body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        cache = new LruResponseCache(10);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private ServiceClient newClient() {
+        ServiceClient client = ServiceClient.getInstance(account);
+        client.setResponseCache(cache);
+        return client;
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        long notModifiedBefore = ClientMetrics.getNotModifiedCount();
+
+        Map<String, String> first = newClient().getResourceStrings("bundle1", "de", false);
+        assertEquals("Wert1", first.get("key1"));
+        assertNull(lastIfNoneMatch);
+
+        Map<String, String> second = newClient().getResourceStrings("bundle1", "de", false);
+        assertEquals("\"v1\"", lastIfNoneMatch);
+        assertEquals(first, second);
+        assertEquals(2, requestCount.get());
+        assertEquals(1, fullResponseCount.get());
+        assertEquals(1, ClientMetrics.getNotModifiedCount() - notModifiedBefore);
+    }
+
+    @Test
+    public void testCachedResultNotShared() throws Exception {
+        Map<String, String> first = newClient().getResourceStrings("bundle1", "de", false);
+        first.put("key1", "changed");
+
+        // Each cache hit returns a new object decoded from the cached body
+        Map<String, String> second = newClient().getResourceStrings("bundle1", "de", false);
+        assertNotSame(first, second);
+        assertEquals("Wert1", second.get("key1"));
+        second.clear();
+        assertEquals("Wert1", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals(1, fullResponseCount.get());
+    }
+
+    @Test
+    public void testModified() throws Exception {
+        assertEquals("Wert1", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+
+        etag = "\"v2\"";
+        value = "Wert2";
+        assertEquals("Wert2", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals("\"v1\"", lastIfNoneMatch);
+
+        // The cache holds the new version
+        assertEquals("Wert2", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals("\"v2\"", lastIfNoneMatch);
+        assertEquals(2, fullResponseCount.get());
+    }
+
+    @Test
+    public void testCacheDisabled() throws Exception {
+        ServiceClient client = newClient();
+        client.setResponseCache(null);
+        client.getResourceStrings("bundle1", "de", false);
+        client.getResourceStrings("bundle1", "de", false);
+        assertNull(lastIfNoneMatch);
+        assertEquals(2, fullResponseCount.get());
+    }
+
+    @Test
+    public void testNoValidator() throws Exception {
+        etag = null;
+        newClient().getResourceStrings("bundle1", "de", false);
+        newClient().getResourceStrings("bundle1", "de", false);
+        assertEquals(0, cache.size());
+        assertNull(lastIfNoneMatch);
+        assertEquals(2, fullResponseCount.get());
+    }
+
+    @Test
+    public void testBodyLargerThanCache() throws Exception {
+        cache = new LruResponseCache(10, 20);
+        // Known to be too large by Content-Length
+        assertEquals("Wert1", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals(0, cache.size());
+
+        // Found too large while the body is read
+        chunked = true;
+        assertEquals("Wert1", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals(0, cache.size());
+        assertNull(lastIfNoneMatch);
+        assertEquals(2, fullResponseCount.get());
+
+        // A chunked body within the limit is cached
+        cache = new LruResponseCache(10);
+        newClient().getResourceStrings("bundle1", "de", false);
+        assertEquals(1, cache.size());
+        assertEquals("Wert1", newClient().getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals("\"v1\"", lastIfNoneMatch);
+        assertEquals(3, fullResponseCount.get());
+    }
+
+    private static CachedResponse response(String etag, int length) {
+        return new CachedResponse(etag, null, new byte[length]);
+    }
+
+    @Test
+    public void testLruEviction() {
+        LruResponseCache lru = new LruResponseCache(2);
+        lru.put("a", response("\"a\"", 1));
+        lru.put("b", response("\"b\"", 1));
+        assertNotNull(lru.get("a"));
+        lru.put("c", response("\"c\"", 1));
+
+        // "b" is the least recently used entry
+        assertNull(lru.get("b"));
+        assertNotNull(lru.get("a"));
+        assertNotNull(lru.get("c"));
+        assertEquals(2, lru.size());
+        assertEquals(1, lru.getEvictionCount());
+    }
+
+    @Test
+    public void testSizeLimit() {
+        LruResponseCache lru = new LruResponseCache(10, 100);
+        lru.put("a", response("\"a\"", 40));
+        lru.put("b", response("\"b\"", 40));
+        assertEquals(80, lru.getTotalBytes());
+        assertNotNull(lru.get("a"));
+
+        // "b" is evicted to keep the total size within the limit
+        lru.put("c", response("\"c\"", 50));
+        assertNull(lru.get("b"));
+        assertEquals(90, lru.getTotalBytes());
+
+        // Replacing an entry updates the total size
+        lru.put("c", response("\"c2\"", 10));
+        assertEquals(50, lru.getTotalBytes());
+
+        // A response larger than the limit is not cached
+        lru.put("d", response("\"d\"", 101));
+        assertNull(lru.get("d"));
+        assertEquals(2, lru.size());
+        lru.remove("a");
+        assertEquals(10, lru.getTotalBytes());
+    }
+}
@@ -0,0 +1,192 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.BaseEncoding;
+import com.ibm.g11n.pipeline.client.NewBundleData;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceInfo;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for compressed request and response bodies, using
+ * a local HTTP server.
+ */
+public class ContentEncodingTest {
+    private static final String SERVICE_INFO_JSON =
+            "{\"status\":\"SUCCESS\",\"supportedTranslation\":{\"en\":[\"de\",\"fr\"]},"
+            + "\"externalServices\":[]}";
+
+    private HttpServer server;
+    private ServiceClient client;
+    private String baseUrl;
+
+    private volatile String responseEncoding;
+    private volatile String acceptEncoding;
+    private volatile String requestEncoding;
+    private volatile String requestBody;
+    private volatile boolean hmacVerified;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/$service/v2/info", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+                String encoding = responseEncoding;
+                byte[] body = SERVICE_INFO_JSON.getBytes(StandardCharsets.UTF_8);
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                if ("gzip".equals(encoding)) {
+                    try (OutputStream os = new GZIPOutputStream(baos)) {
+                        os.write(body);
+                    }
+                    body = baos.toByteArray();
+                } else if ("deflate".equals(encoding)) {
+                    try (OutputStream os = new DeflaterOutputStream(baos)) {
+                        os.write(body);
+                    }
+                    body = baos.toByteArray();
+                }
+                if (encoding != null) {
+                    exchange.getResponseHeaders().set("Content-Encoding", encoding);
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.createContext("/rest/inst/v2/bundles/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+                byte[] sent = readFully(exchange.getRequestBody());
+                hmacVerified = verifyHmac(exchange, sent);
+                InputStream is = new ByteArrayInputStream(sent);
+                if ("gzip".equals(requestEncoding)) {
+                    is = new GZIPInputStream(is);
+                }
+                requestBody = new String(readFully(is), StandardCharsets.UTF_8);
+
+                byte[] body = "{\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/rest";
+        client = ServiceClient.getInstance(
+                ServiceAccount.getInstance(baseUrl, "inst", "user", "secret"));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCompressedResponse() throws Exception {
+        for (String encoding : new String[] {"gzip", "deflate", "identity"}) {
+            responseEncoding = encoding;
+            ServiceInfo info = client.getServiceInfo();
+            assertEquals(encoding, "gzip, deflate", acceptEncoding);
+            assertEquals(encoding, 2, info.getSupportedTranslation().get("en").size());
+        }
+
+        client.setResponseCompressionEnabled(false);
+        responseEncoding = null;
+        client.getServiceInfo();
+        assertNull(acceptEncoding);
+    }
+
+    @Test
+    public void testCompressedRequest() throws Exception {
+        // Not compressed by default
+        client.createBundle("bundle1", new NewBundleData("en"));
+        assertNull(requestEncoding);
+        assertTrue("HMAC", hmacVerified);
+        assertTrue(requestBody.contains("\"sourceLanguage\":\"en\""));
+
+        client.setRequestCompressionEnabled(true);
+        client.setRequestCompressionThreshold(1024);
+        client.createBundle("bundle2", new NewBundleData("en"));
+        assertNull("smaller than threshold", requestEncoding);
+
+        client.setRequestCompressionThreshold(0);
+        client.createBundle("bundle3", new NewBundleData("en"));
+        assertEquals("gzip", requestEncoding);
+        assertTrue("HMAC", hmacVerified);
+        assertTrue(requestBody.contains("\"sourceLanguage\":\"en\""));
+    }
+
+    private boolean verifyHmac(HttpExchange exchange, byte[] body) throws IOException {
+        try {
+            String auth = exchange.getRequestHeaders().getFirst("Authorization");
+            String date = exchange.getRequestHeaders().getFirst("Date");
+            String url = baseUrl + exchange.getRequestURI().toString().substring("/rest".length());
+
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec("secret".getBytes(StandardCharsets.ISO_8859_1), "HmacSHA1"));
+            mac.update((exchange.getRequestMethod() + "\n" + url + "\n" + date + "\n")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            mac.update(body);
+            String expected = "GaaS-HMAC user:" + BaseEncoding.base64().encode(mac.doFinal());
+            return expected.equals(auth);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = is.read(buf)) != -1) {
+            baos.write(buf, 0, n);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,215 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.AsyncServiceClient;
+import com.ibm.g11n.pipeline.client.DocumentType;
+import com.ibm.g11n.pipeline.client.RetryPolicy;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for streaming document content downloads.
+ */
+public class DocumentDownloadTest {
+    private static final int CONTENT_SIZE = 256 * 1024 + 17;
+
+    private HttpServer server;
+    private ServiceClient client;
+    private byte[] content;
+    private Path dir;
+
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    // Number of responses cut off in the middle of the content
+    private volatile int failures;
+    private volatile boolean acceptRanges = true;
+
+    @Before
+    public void setUp() throws IOException {
+        content = new byte[CONTENT_SIZE];
+        new Random(7).nextBytes(content);
+        dir = Files.createTempDirectory("gp-download");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        HttpHandler handler = new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                ranges.add(String.valueOf(range));
+                int start = 0;
+                if (range != null) {
+                    assertEquals("\"v1\"", exchange.getRequestHeaders().getFirst("If-Range"));
+                    start = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+                    exchange.getResponseHeaders().set("Content-Range",
+                            "bytes " + start + "-" + (CONTENT_SIZE - 1) + "/" + CONTENT_SIZE);
+                }
+                exchange.getResponseHeaders().set("Content-Type", "text/html");
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                if (acceptRanges) {
+                    exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+                }
+                exchange.sendResponseHeaders(range == null ? 200 : 206, CONTENT_SIZE - start);
+                OutputStream os = exchange.getResponseBody();
+                if (failures > 0) {
+                    failures--;
+                    // Drops the connection after sending a part of the content
+                    os.write(content, start, (CONTENT_SIZE - start) / 3);
+                    os.flush();
+                    exchange.close();
+                    return;
+                }
+                os.write(content, start, CONTENT_SIZE - start);
+                os.close();
+            }
+        };
+        for (String lang : Arrays.asList("en", "de", "fr")) {
+            server.createContext("/rest/inst/v2/documents/html/doc1/" + lang, handler);
+        }
+        server.start();
+
+        ServiceAccount account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        client = ServiceClient.getInstance(account);
+        client.setRetryPolicy(new RetryPolicy().setMaxRetries(3).setInitialBackoff(1).setMaxBackoff(1));
+        client.setResponseCache(null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop(0);
+        delete(dir);
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            for (Path child : list(path)) {
+                delete(child);
+            }
+        }
+        Files.delete(path);
+    }
+
+    private static List<Path> list(Path dir) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path p : stream) {
+                paths.add(p);
+            }
+        }
+        return paths;
+    }
+
+    @Test
+    public void testWriteDocumentContent() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        client.writeDocumentContent(DocumentType.HTML, "doc1", "en", baos);
+        assertArrayEquals(content, baos.toByteArray());
+        assertEquals(Collections.singletonList("null"), ranges);
+    }
+
+    @Test
+    public void testResumeWithRange() throws Exception {
+        failures = 2;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        client.writeDocumentContent(DocumentType.HTML, "doc1", "en", baos);
+        assertArrayEquals(content, baos.toByteArray());
+
+        assertEquals(3, ranges.size());
+        assertEquals("null", ranges.get(0));
+        int first = CONTENT_SIZE / 3;
+        assertEquals("bytes=" + first + "-", ranges.get(1));
+        assertEquals("bytes=" + (first + (CONTENT_SIZE - first) / 3) + "-", ranges.get(2));
+    }
+
+    @Test
+    public void testRestartWithoutRange() throws Exception {
+        failures = 1;
+        acceptRanges = false;
+        byte[] bytes = client.getDocumentContent(DocumentType.HTML, "doc1", "en");
+        assertArrayEquals(content, bytes);
+        assertEquals(Arrays.asList("null", "null"), ranges);
+    }
+
+    @Test
+    public void testDownloadToFile() throws Exception {
+        failures = 1;
+        Path target = dir.resolve("doc1.html");
+        client.downloadDocumentContent(DocumentType.HTML, "doc1", "en", target);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(2, ranges.size());
+        // No temporary file is left
+        assertEquals(Collections.singletonList(target), list(dir));
+    }
+
+    @Test
+    public void testDownloadFailureKeepsTarget() throws Exception {
+        failures = 10;
+        client.setRetryPolicy(null);
+        Path target = dir.resolve("doc1.html");
+        Files.write(target, new byte[] {1, 2, 3});
+        try {
+            client.downloadDocumentContent(DocumentType.HTML, "doc1", "en", target);
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            // expected
+        }
+        assertArrayEquals(new byte[] {1, 2, 3}, Files.readAllBytes(target));
+        assertFalse(Files.exists(dir.resolve("en")));
+    }
+
+    @Test
+    public void testConcurrentDownloads() throws Exception {
+        AsyncServiceClient async = new AsyncServiceClient(client);
+        Map<String, Path> files = async.downloadDocumentContent(DocumentType.HTML, "doc1",
+                Arrays.asList("en", "de", "fr"), dir).get(10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("en", "de", "fr"), Arrays.asList(files.keySet().toArray()));
+        for (Map.Entry<String, Path> entry : files.entrySet()) {
+            assertEquals(dir.resolve(entry.getKey()).resolve("doc1"), entry.getValue());
+            assertArrayEquals(content, Files.readAllBytes(entry.getValue()));
+        }
+        assertNull(files.get("ja"));
+    }
+}
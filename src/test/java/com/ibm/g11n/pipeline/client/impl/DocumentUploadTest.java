@@ -0,0 +1,119 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.DocumentType;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for uploading document content from a file.
+ */
+public class DocumentUploadTest {
+    private HttpServer server;
+    private String baseUrl;
+    private File file;
+
+    private volatile byte[] receivedBody;
+    private volatile String contentLength;
+    private volatile String transferEncoding;
+    private volatile String authorization;
+    private volatile String expectedAuthorization;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/rest";
+        server.createContext("/rest/inst/v2/documents/html/doc1/en", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                ByteArrayOutputStream buf = new ByteArrayOutputStream();
+                try (InputStream is = exchange.getRequestBody()) {
+                    byte[] b = new byte[8192];
+                    int len;
+                    while ((len = is.read(b)) != -1) {
+                        buf.write(b, 0, len);
+                    }
+                }
+                receivedBody = buf.toByteArray();
+                contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+                authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                expectedAuthorization = RequestSigning.getHmacAuthorization("user", "secret", "PUT",
+                        baseUrl + "/inst/v2/documents/html/doc1/en",
+                        exchange.getRequestHeaders().getFirst("Date"), receivedBody);
+
+                byte[] body = "{\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        file = File.createTempFile("gp-doc", ".html");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        file.delete();
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        // Larger than the signing buffer, and not a multiple of it
+        byte[] content = new byte[3 * 1024 * 1024 + 123];
+        new Random(17).nextBytes(content);
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(content);
+        }
+
+        ServiceClient client = ServiceClient.getInstance(
+                ServiceAccount.getInstance(baseUrl, "inst", "user", "secret"));
+        client.updateDocumentContent(DocumentType.HTML, "doc1", "en", file);
+
+        assertArrayEquals(content, receivedBody);
+        assertEquals(Integer.toString(content.length), contentLength);
+        assertNull(transferEncoding);
+        assertEquals(expectedAuthorization, authorization);
+
+        // The file is closed after the upload
+        assertEquals(true, file.delete());
+    }
+}
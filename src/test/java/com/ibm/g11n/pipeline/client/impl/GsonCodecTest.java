@@ -0,0 +1,144 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.ibm.g11n.pipeline.client.TranslationStatus;
+import com.ibm.g11n.pipeline.client.impl.BundleDataImpl.RestBundle;
+import com.ibm.g11n.pipeline.client.impl.DocumentTranslationRequestDataImpl.RestDocumentTranslationRequest;
+import com.ibm.g11n.pipeline.client.impl.ResourceEntryDataImpl.RestResourceEntry;
+import com.ibm.g11n.pipeline.client.impl.ServiceClientImpl.EnumWithFallbackAdapter;
+import com.ibm.g11n.pipeline.client.impl.TranslationRequestDataImpl.RestTranslationRequest;
+
+/**
+ * Test cases for GsonCodec.
+ */
+public class GsonCodecTest {
+
+    // Reflective Gson configured in the same way as the codec used before
+    private static final Gson REFLECTIVE_GSON = new GsonBuilder()
+            .setDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX")
+            .registerTypeAdapter(TranslationStatus.class,
+                    new EnumWithFallbackAdapter<TranslationStatus>(TranslationStatus.UNKNOWN))
+            .create();
+
+    @Test
+    public void testDates() throws Exception {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSX");
+        String[] inputs = {
+            "2019-03-04T05:06:07.089Z",
+            "1999-12-31T23:59:59.999+09:00",
+            "1960-01-01T12:00:00.500+01",
+        };
+        for (String input : inputs) {
+            long expected = sdf.parse(input).getTime();
+            assertEquals(input, expected, Iso8601DateAdapter.parse(input));
+        }
+
+        // Minutes in the offset are not dropped
+        assertEquals(sdf.parse("2020-02-29T05:30:00.000Z").getTime(),
+                Iso8601DateAdapter.parse("2020-02-29T00:00:00.000-0530"));
+        assertEquals(sdf.parse("2019-03-04T05:06:07.000Z").getTime(),
+                Iso8601DateAdapter.parse("2019-03-04T05:06:07Z"));
+        assertEquals(sdf.parse("2019-03-04T05:06:07.123Z").getTime(),
+                Iso8601DateAdapter.parse("2019-03-04T05:06:07.123456Z"));
+
+        SimpleDateFormat utc = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        utc.setTimeZone(TimeZone.getTimeZone("UTC"));
+        long[] times = {0L, 951782400000L, -315576000000L, 1551675967089L};
+        for (long time : times) {
+            assertEquals(utc.format(new Date(time)), Iso8601DateAdapter.format(time));
+        }
+
+        try {
+            GsonCodec.getGson().fromJson("\"2019-13-01T00:00:00Z\"", Date.class);
+            fail("JsonSyntaxException is expected");
+        } catch (JsonSyntaxException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testResourceEntries() {
+        String json = "{\"e1\":{\"value\":\"v1\",\"sourceValue\":\"s1\",\"reviewed\":true,"
+                + "\"translationStatus\":\"translated\",\"notes\":[\"n1\",\"n2\"],"
+                + "\"metadata\":{\"k\":\"v\"},\"partnerStatus\":\"p\",\"sequenceNumber\":3,"
+                + "\"updatedBy\":\"user\",\"updatedAt\":\"2019-03-04T05:06:07.089Z\",\"unknown\":[1,{}]},"
+                + "\"e2\":{\"value\":\"v2\",\"translationStatus\":\"NEW_STATUS\",\"reviewed\":null},"
+                + "\"e3\":null}";
+        assertSameResult(json, new TypeToken<Map<String, RestResourceEntry>>() {});
+    }
+
+    @Test
+    public void testBundle() {
+        String json = "{\"sourceLanguage\":\"en\",\"targetLanguages\":[\"de\",\"ja\"],"
+                + "\"readOnly\":false,\"notes\":null,\"metadata\":{},\"partner\":\"IBM\","
+                + "\"segmentSeparatorPattern\":\"\\\\.\",\"updatedAt\":\"2019-03-04T14:06:07.089+09:00\"}";
+        assertSameResult(json, TypeToken.get(RestBundle.class));
+    }
+
+    @Test
+    public void testTranslationRequests() {
+        String json = "{\"partner\":\"IBM\",\"name\":\"tr\",\"status\":\"DRAFT\","
+                + "\"targetLanguagesByBundle\":{\"b1\":[\"de\",\"fr\"]},"
+                + "\"domains\":[\"CNSTRCT\"],\"emails\":[\"a@example.com\"],"
+                + "\"wordCountsByBundle\":{\"b1\":{\"sourceLanguage\":\"en\",\"counts\":{\"de\":10}}},"
+                + "\"createdAt\":\"2019-03-04T05:06:07.089Z\",\"estimatedCompletion\":null}";
+        assertSameResult(json, TypeToken.get(RestTranslationRequest.class));
+
+        String docJson = "{\"name\":\"doc\",\"status\":\"SUBMITTED\","
+                + "\"targetLanguagesMap\":{\"md\":{\"d1\":[\"de\"]}},"
+                + "\"wordCountsMap\":{\"md\":{\"d1\":{\"sourceLanguage\":\"en\",\"counts\":{\"de\":5}}}},"
+                + "\"submittedAt\":\"2019-03-04T05:06:07.089Z\"}";
+        assertSameResult(docJson, TypeToken.get(RestDocumentTranslationRequest.class));
+    }
+
+    @Test
+    public void testTranslationStatusMetrics() {
+        Map<String, EnumMap<TranslationStatus, Integer>> metrics = GsonCodec.getGson().fromJson(
+                "{\"de\":{\"TRANSLATED\":3,\"something_new\":1},\"fr\":null}",
+                new TypeToken<Map<String, EnumMap<TranslationStatus, Integer>>>() {}.getType());
+        EnumMap<TranslationStatus, Integer> de = metrics.get("de");
+        assertEquals(Integer.valueOf(3), de.get(TranslationStatus.TRANSLATED));
+        assertEquals(Integer.valueOf(1), de.get(TranslationStatus.UNKNOWN));
+        assertNull(metrics.get("fr"));
+        assertEquals("{\"UNKNOWN\":1,\"TRANSLATED\":3}", GsonCodec.getGson().toJson(de));
+    }
+
+    // Reads the JSON with both the codec and reflection, and compares the results
+    // serialized by the codec.
+    private static <T> void assertSameResult(String json, TypeToken<T> type) {
+        Gson gson = GsonCodec.getGson();
+        T expected = REFLECTIVE_GSON.fromJson(json, type.getType());
+        T actual = gson.fromJson(json, type.getType());
+        assertEquals(gson.toJson(expected, type.getType()), gson.toJson(actual, type.getType()));
+    }
+}
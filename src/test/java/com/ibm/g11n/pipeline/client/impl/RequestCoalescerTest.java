@@ -0,0 +1,252 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ClientMetrics;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for coalescing concurrent identical GET requests.
+ */
+public class RequestCoalescerTest {
+    private HttpServer server;
+    private ExecutorService executor;
+    private String baseUrl;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final CountDownLatch requestReceived = new CountDownLatch(1);
+    private final CountDownLatch releaseResponse = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestCount.incrementAndGet();
+                requestReceived.countDown();
+                try {
+                    releaseResponse.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                byte[] body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key1\":\"Wert1\"}}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/rest";
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        releaseResponse.countDown();
+        executor.shutdownNow();
+        server.stop(0);
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        final int numCallers = 10;
+        final ServiceAccount account = ServiceAccount.getInstance(baseUrl, "inst", "user", "secret");
+        long coalescedBefore = ClientMetrics.getCoalescedRequestCount();
+
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        for (int i = 0; i < numCallers; i++) {
+            futures.add(executor.submit(new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() throws Exception {
+                    // A new client for each call, as CloudResourceBundle does
+                    return ServiceClient.getInstance(account).getResourceStrings("bundle1", "de", false);
+                }
+            }));
+        }
+
+        assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+        // Give other callers time to join the in-flight request
+        Thread.sleep(500);
+        releaseResponse.countDown();
+
+        for (Future<Map<String, String>> f : futures) {
+            assertEquals("Wert1", f.get(10, TimeUnit.SECONDS).get("key1"));
+        }
+        assertEquals("requests sent", 1, requestCount.get());
+        assertEquals("coalesced", numCallers - 1,
+                ClientMetrics.getCoalescedRequestCount() - coalescedBefore);
+    }
+
+    @Test
+    public void testCallersDoNotShareResult() throws Exception {
+        final ServiceAccount account = ServiceAccount.getInstance(baseUrl, "inst", "user", "secret");
+        long coalescedBefore = ClientMetrics.getCoalescedRequestCount();
+
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(executor.submit(new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() throws Exception {
+                    return ServiceClient.getInstance(account).getResourceStrings("bundle1", "de", false);
+                }
+            }));
+        }
+        assertTrue(requestReceived.await(10, TimeUnit.SECONDS));
+        Thread.sleep(500);
+        releaseResponse.countDown();
+
+        List<Map<String, String>> results = new ArrayList<>();
+        for (Future<Map<String, String>> f : futures) {
+            results.add(f.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, requestCount.get());
+        assertEquals(2, ClientMetrics.getCoalescedRequestCount() - coalescedBefore);
+
+        // A change made by a caller is not visible to other callers
+        results.get(0).put("key1", "changed");
+        results.get(0).put("key2", "added");
+        assertEquals("Wert1", results.get(1).get("key1"));
+        assertEquals("Wert1", results.get(2).get("key1"));
+        assertFalse(results.get(1).containsKey("key2"));
+        results.get(1).remove("key1");
+        assertEquals("Wert1", results.get(2).get("key1"));
+    }
+
+    @Test
+    public void testDifferentCredentials() throws Exception {
+        List<Future<Map<String, String>>> futures = new ArrayList<>();
+        for (final String userId : new String[] {"user1", "user2"}) {
+            final ServiceClient client = ServiceClient.getInstance(
+                    ServiceAccount.getInstance(baseUrl, "inst", userId, "secret"));
+            futures.add(executor.submit(new Callable<Map<String, String>>() {
+                @Override
+                public Map<String, String> call() throws Exception {
+                    return client.getResourceStrings("bundle1", "de", false);
+                }
+            }));
+        }
+
+        // Requests with different credentials are not coalesced
+        long limit = System.currentTimeMillis() + 10000;
+        while (requestCount.get() < 2 && System.currentTimeMillis() < limit) {
+            Thread.sleep(10);
+        }
+        releaseResponse.countDown();
+
+        for (Future<Map<String, String>> f : futures) {
+            f.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testCopyOnlyWithWaiters() throws Exception {
+        ServiceAccount account = ServiceAccount.getInstance(baseUrl, "inst", "user", "secret");
+        final RequestCoalescer.Key key = new RequestCoalescer.Key("GET", baseUrl + "/copy",
+                String.class, account, ServiceClient.AuthScheme.HMAC, false);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch joined = new CountDownLatch(1);
+        final AtomicInteger copies = new AtomicInteger();
+
+        // A call without waiters is not copied
+        String result = RequestCoalescer.execute(key, new RequestCoalescer.Call<String>() {
+            @Override
+            public String call(RequestCoalescer.Flight flight) {
+                return flight.stopJoining() ? "kept" : "not kept";
+            }
+
+            @Override
+            public String copy(String result) {
+                copies.incrementAndGet();
+                return result;
+            }
+        });
+        assertEquals("not kept", result);
+
+        final RequestCoalescer.Call<String> call = new RequestCoalescer.Call<String>() {
+            @Override
+            public String call(RequestCoalescer.Flight flight) throws ServiceException {
+                started.countDown();
+                try {
+                    joined.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new ServiceException(e);
+                }
+                return flight.stopJoining() ? "kept" : "not kept";
+            }
+
+            @Override
+            public String copy(String result) {
+                copies.incrementAndGet();
+                return result;
+            }
+        };
+        Future<String> leader = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return RequestCoalescer.execute(key, call);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Future<String> waiter = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return RequestCoalescer.execute(key, call);
+            }
+        });
+        long coalescedBefore = RequestCoalescer.getCoalescedCount();
+        // Give the caller time to join the in-flight call
+        Thread.sleep(500);
+        joined.countDown();
+        assertEquals("kept", leader.get(10, TimeUnit.SECONDS));
+        assertEquals("kept", waiter.get(10, TimeUnit.SECONDS));
+        assertEquals(1, copies.get());
+        assertEquals(1, RequestCoalescer.getCoalescedCount() - coalescedBefore);
+    }
+}
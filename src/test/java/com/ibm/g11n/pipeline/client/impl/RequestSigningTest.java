@@ -0,0 +1,153 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+import com.google.common.io.BaseEncoding;
+
+/**
+ * Test cases for RequestSigning.
+ */
+public class RequestSigningTest {
+
+    @Test
+    public void testDateHeader() {
+        SimpleDateFormat sdf = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.ENGLISH);
+        sdf.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        long[] times = {
+            0L,                 // Thu, 01 Jan 1970
+            951782400000L,      // Tue, 29 Feb 2000
+            1078099199000L,     // Sun, 29 Feb 2004 23:59:59
+            1546300800000L,     // Tue, 01 Jan 2019
+            4107542399999L,     // Tue, 28 Feb 2100 23:59:59.999
+            System.currentTimeMillis()
+        };
+        for (long time : times) {
+            assertEquals(sdf.format(new Date(time)), RequestSigning.formatDate(time / 1000));
+        }
+        for (long time = 0; time < 4102444800000L; time += 86399999L) {
+            assertEquals(sdf.format(new Date(time)), RequestSigning.formatDate(time / 1000));
+        }
+
+        // Formatted once per second
+        String value = RequestSigning.getDateHeader(1546300800000L);
+        assertSame(value, RequestSigning.getDateHeader(1546300800999L));
+        assertEquals("Tue, 01 Jan 2019 00:00:01 GMT", RequestSigning.getDateHeader(1546300801000L));
+    }
+
+    @Test
+    public void testBasicAuthorization() {
+        String expected = "Basic " + BaseEncoding.base64().encode(
+                "user:secret".getBytes(StandardCharsets.ISO_8859_1));
+        assertEquals(expected, RequestSigning.getBasicAuthorization("user", "secret"));
+        assertEquals(expected, RequestSigning.getBasicAuthorization("user", "secret"));
+        // The cached credential is not used for a different secret
+        assertEquals("Basic " + BaseEncoding.base64().encode(
+                "user:secret2".getBytes(StandardCharsets.ISO_8859_1)),
+                RequestSigning.getBasicAuthorization("user", "secret2"));
+    }
+
+    @Test
+    public void testHmacAuthorization() throws Exception {
+        String url = "https://example.com/rest/inst/v2/bundles/b1/en";
+        String date = "Tue, 01 Jan 2019 00:00:00 GMT";
+        byte[] body = "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+
+        // Same thread signs with different secrets, bodies and URLs
+        for (int i = 0; i < 3; i++) {
+            String secret = "secret" + (i % 2);
+            assertEquals(hmac("user", secret, "PUT", url + i, date, body),
+                    RequestSigning.getHmacAuthorization("user", secret, "PUT", url + i, date, body));
+            assertEquals(hmac("user", secret, "GET", url, date, null),
+                    RequestSigning.getHmacAuthorization("user", secret, "GET", url, date, null));
+        }
+
+        // Characters outside ISO-8859-1 are signed as '?'
+        assertEquals(hmac("user", "secret", "GET", url + "/\u3042", date, null),
+                RequestSigning.getHmacAuthorization("user", "secret", "GET", url + "/\u3042", date, null));
+    }
+
+    @Test
+    public void testHmacAuthorizationConcurrent() throws Exception {
+        final String url = "https://example.com/rest/inst/v2/bundles/b1/en";
+        final String date = "Tue, 01 Jan 2019 00:00:00 GMT";
+        int threads = RequestSigning.getMaxPooledSigners() * 2;
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final String secret = "secret" + (t % 3);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        barrier.await();
+                        for (int i = 0; i < 20; i++) {
+                            byte[] body = ("{\"i\":" + i + "}").getBytes(StandardCharsets.UTF_8);
+                            assertEquals(hmac("user", secret, "PUT", url + i, date, body),
+                                    RequestSigning.getHmacAuthorization("user", secret, "PUT",
+                                            url + i, date, body));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Signers are reused by threads, and the pool does not grow with them
+        int pooled = RequestSigning.getPooledSignerCount();
+        assertTrue("pooled: " + pooled, pooled > 0 && pooled <= RequestSigning.getMaxPooledSigners());
+    }
+
+    private static String hmac(String uid, String secret, String method, String url, String date,
+            byte[] body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.ISO_8859_1), "HmacSHA1"));
+        String msg = method + "\n" + url + "\n" + date + "\n";
+        mac.update(msg.getBytes(StandardCharsets.ISO_8859_1));
+        if (body != null) {
+            mac.update(body);
+        }
+        return "GaaS-HMAC " + uid + ":" + BaseEncoding.base64().encode(mac.doFinal());
+    }
+}
@@ -0,0 +1,163 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ClientMetrics;
+import com.ibm.g11n.pipeline.client.RetryBudget;
+import com.ibm.g11n.pipeline.client.RetryPolicy;
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for retrying requests failed by transient errors.
+ */
+public class RetryTest {
+    private HttpServer server;
+    private ServiceAccount account;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile int failures;
+    private volatile String retryAfter;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/bundles/bundle1", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if (requestCount.incrementAndGet() <= failures) {
+                    if (retryAfter != null) {
+                        exchange.getResponseHeaders().set("Retry-After", retryAfter);
+                    }
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                    return;
+                }
+                byte[] body = "{\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private ServiceClient newClient(RetryBudget budget) {
+        ServiceClient client = ServiceClient.getInstance(account);
+        client.setRetryPolicy(new RetryPolicy()
+                .setInitialBackoff(10)
+                .setBudget(budget));
+        return client;
+    }
+
+    @Test
+    public void testRetryIdempotent() throws Exception {
+        failures = 2;
+        retryAfter = "0";
+        long retriesBefore = ClientMetrics.getRetryCount();
+        long retryAfterBefore = ClientMetrics.getRetryAfterCount();
+
+        // DELETE is idempotent
+        newClient(new RetryBudget(100, 0.1)).deleteBundle("bundle1");
+        assertEquals(3, requestCount.get());
+        assertEquals(2, ClientMetrics.getRetryCount() - retriesBefore);
+        assertEquals(2, ClientMetrics.getRetryAfterCount() - retryAfterBefore);
+    }
+
+    @Test
+    public void testMaxRetries() throws Exception {
+        failures = 10;
+        try {
+            newClient(new RetryBudget(100, 0.1)).deleteBundle("bundle1");
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            // expected
+        }
+        assertEquals(RetryPolicy.DEFAULT_MAX_RETRIES + 1, requestCount.get());
+    }
+
+    @Test
+    public void testRetryAfterTooLong() throws Exception {
+        failures = 1;
+        retryAfter = "3600";
+        try {
+            newClient(new RetryBudget(100, 0.1)).deleteBundle("bundle1");
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            // expected
+        }
+        assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    public void testRetryBudget() throws Exception {
+        failures = 100;
+        RetryBudget budget = new RetryBudget(4, 0.1);
+        ServiceClient client = newClient(budget);
+        long exhaustedBefore = ClientMetrics.getRetryBudgetExhaustedCount();
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.deleteBundle("bundle1");
+                fail("ServiceException is expected");
+            } catch (ServiceException e) {
+                // expected
+            }
+        }
+        // The first call is retried once, until the available tokens drop to
+        // the half of the maximum. Later calls are not retried.
+        assertEquals(2 + 1 + 1, requestCount.get());
+        assertTrue(ClientMetrics.getRetryBudgetExhaustedCount() - exhaustedBefore >= 3);
+        assertTrue(!budget.canRetry());
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals(120000L, Retries.parseRetryAfter("120"));
+        assertEquals(0L, Retries.parseRetryAfter("Thu, 01 Jan 1970 00:00:00 GMT"));
+        assertEquals(-1L, Retries.parseRetryAfter("soon"));
+        assertEquals(-1L, Retries.parseRetryAfter(null));
+    }
+}
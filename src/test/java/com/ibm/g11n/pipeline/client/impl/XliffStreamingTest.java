@@ -0,0 +1,181 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.ibm.g11n.pipeline.client.ServiceException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for streaming XLIFF export and import.
+ */
+public class XliffStreamingTest {
+    private HttpServer server;
+    private String baseUrl;
+    private ServiceClient client;
+    private byte[] xliff;
+
+    private volatile byte[] receivedBody;
+    private volatile String contentLength;
+    private volatile String transferEncoding;
+    private volatile String authorization;
+    private volatile String expectedAuthorization;
+    private volatile int importStatus = 200;
+
+    @Before
+    public void setUp() throws IOException {
+        // Larger than the buffers used for copying and signing
+        xliff = new byte[2 * 1024 * 1024 + 45];
+        new Random(3).nextBytes(xliff);
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/rest";
+        server.createContext("/rest/inst/v2/xliff/bundles/en/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Content-Type", "application/xliff+xml");
+                // chunked
+                exchange.sendResponseHeaders(200, 0);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(xliff);
+                }
+            }
+        });
+        HttpHandler importHandler = new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                ByteArrayOutputStream buf = new ByteArrayOutputStream();
+                try (InputStream is = exchange.getRequestBody()) {
+                    byte[] b = new byte[8192];
+                    int len;
+                    while ((len = is.read(b)) != -1) {
+                        buf.write(b, 0, len);
+                    }
+                }
+                receivedBody = buf.toByteArray();
+                contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                transferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+                authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                expectedAuthorization = RequestSigning.getHmacAuthorization("user", "secret", "POST",
+                        baseUrl + exchange.getRequestURI().getPath().substring("/rest".length()),
+                        exchange.getRequestHeaders().getFirst("Date"), receivedBody);
+
+                String status = importStatus == 200 ? "SUCCESS" : "ERROR";
+                byte[] body = ("{\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(importStatus, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        };
+        server.createContext("/rest/inst/v2/xliff/bundles", importHandler);
+        server.createContext("/rest/inst/v2/doc-xliff", importHandler);
+        server.start();
+
+        client = ServiceClient.getInstance(ServiceAccount.getInstance(baseUrl, "inst", "user", "secret"));
+        client.setRetryPolicy(null);
+        client.setResponseCache(null);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        client.getXliffFromBundles("en", "de", null, out);
+        assertArrayEquals(xliff, out.toByteArray());
+    }
+
+    @Test
+    public void testExportOutputError() throws Exception {
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("disk full");
+            }
+        };
+        try {
+            client.getXliffFromBundles("en", "de", null, out);
+            fail("IOException is expected");
+        } catch (IOException e) {
+            // The output error is not reported as a request failure
+            assertEquals("disk full", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testImportBundles() throws Exception {
+        client.updateBundlesWithXliff(new ByteArrayInputStream(xliff));
+        assertImported();
+    }
+
+    @Test
+    public void testImportDocuments() throws Exception {
+        client.updateDocumentsWithXliff(new ByteArrayInputStream(xliff));
+        assertImported();
+    }
+
+    @Test
+    public void testImportError() throws Exception {
+        importStatus = 400;
+        try {
+            client.updateBundlesWithXliff(new ByteArrayInputStream(xliff));
+            fail("ServiceException is expected");
+        } catch (ServiceException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(
+                    "Received HTTP status: 400 from POST inst/v2/xliff/bundles, body: {\"status\":\"ERROR\"}"));
+        }
+    }
+
+    private void assertImported() {
+        assertArrayEquals(xliff, receivedBody);
+        // Sent with a fixed length, and signed over the entire content
+        assertEquals(Integer.toString(xliff.length), contentLength);
+        assertNull(transferEncoding);
+        assertEquals(expectedAuthorization, authorization);
+    }
+}
@@ -0,0 +1,141 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for plugging a JsonCodec into service clients.
+ */
+public class JsonCodecTest {
+    private HttpServer server;
+    private ServiceAccount account;
+    private volatile String requestBody;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/inst/v2/bundles/bundle1/de", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    ByteArrayOutputStream buf = new ByteArrayOutputStream();
+                    try (InputStream is = exchange.getRequestBody()) {
+                        byte[] b = new byte[1024];
+                        int len;
+                        while ((len = is.read(b)) != -1) {
+                            buf.write(b, 0, len);
+                        }
+                    }
+                    requestBody = new String(buf.toByteArray(), StandardCharsets.UTF_8);
+                }
+                byte[] body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key1\":\"Wert1\"}}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+    }
+
+    @After
+    public void tearDown() {
+        JsonCodecs.setDefault(null);
+        server.stop(0);
+    }
+
+    private static ServiceClient newClient(ServiceAccount account) {
+        ServiceClient client = ServiceClient.getInstance(account);
+        client.setRequestCoalescingEnabled(false);
+        client.setResponseCache(null);
+        return client;
+    }
+
+    @Test
+    public void testCustomCodec() throws Exception {
+        CountingCodec codec = new CountingCodec();
+        ServiceClient client = newClient(account);
+        assertSame(JsonCodecs.getGsonCodec(), client.getJsonCodec());
+        client.setJsonCodec(codec);
+
+        assertEquals("Wert1", client.getResourceStrings("bundle1", "de", false).get("key1"));
+        assertEquals(1, codec.decoded.get());
+
+        client.updateResourceStrings("bundle1", "de",
+                Collections.singletonMap("key2", "Wert2"), false);
+        assertEquals(1, codec.encoded.get());
+        assertTrue(requestBody, requestBody.startsWith("{\"key2\":{\"value\":\"Wert2\""));
+    }
+
+    @Test
+    public void testDefaultCodec() throws Exception {
+        CountingCodec codec = new CountingCodec();
+        JsonCodecs.setDefault(codec);
+        ServiceClient client = newClient(account);
+        assertSame(codec, client.getJsonCodec());
+        client.getResourceStrings("bundle1", "de", false);
+        assertEquals(1, codec.decoded.get());
+
+        JsonCodecs.setDefault(null);
+        assertSame(JsonCodecs.getGsonCodec(), JsonCodecs.getDefault());
+    }
+
+    private static class CountingCodec implements JsonCodec {
+        final AtomicInteger decoded = new AtomicInteger();
+        final AtomicInteger encoded = new AtomicInteger();
+
+        @Override
+        public <T> T fromJson(Reader reader, Type type) throws IOException {
+            decoded.incrementAndGet();
+            return JsonCodecs.getGsonCodec().fromJson(reader, type);
+        }
+
+        @Override
+        public void toJson(Object value, Type type, Writer writer) throws IOException {
+            encoded.incrementAndGet();
+            JsonCodecs.getGsonCodec().toJson(value, type, writer);
+        }
+    }
+}
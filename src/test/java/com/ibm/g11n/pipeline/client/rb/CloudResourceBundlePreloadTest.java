@@ -0,0 +1,176 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.ResourceBundle.Control;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.rb.CloudResourceBundleControl.LookupMode;
+import com.ibm.g11n.pipeline.client.rb.CloudResourceBundleControl.PreloadResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for preloading cloud resource bundles.
+ */
+public class CloudResourceBundlePreloadTest {
+    private static final String PREFIX = "/rest/inst/v2/bundles";
+
+    private HttpServer server;
+    private ServiceAccount account;
+    private final ConcurrentMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(PREFIX, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath().substring(PREFIX.length());
+                requests.putIfAbsent(path, new AtomicInteger());
+                requests.get(path).incrementAndGet();
+
+                int status = 200;
+                String body;
+                String[] segments = path.split("/");
+                if (path.isEmpty()) {
+                    body = "{\"status\":\"SUCCESS\",\"bundleIds\":[\"b1\",\"b2\"]}";
+                } else if (!segments[1].startsWith("b")) {
+                    status = 404;
+                    body = "{\"status\":\"ERROR\",\"message\":\"Not found\"}";
+                } else if (segments.length == 2) {
+                    body = "{\"status\":\"SUCCESS\",\"bundle\":{\"sourceLanguage\":\"en\","
+                            + "\"targetLanguages\":[\"de\",\"ja\"]}}";
+                } else {
+                    body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key\":\""
+                            + segments[1] + " " + segments[2] + "\"}}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private int requestCount(String path) {
+        AtomicInteger count = requests.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    private CloudResourceBundleControl newControl() {
+        return CloudResourceBundleControl.getInstance(account, Control.TTL_DONT_CACHE,
+                null, null, null, LookupMode.REMOTE_ONLY);
+    }
+
+    @Test
+    public void testPreload() throws Exception {
+        CloudResourceBundleControl ctrl = newControl();
+        PreloadResult result = ctrl.preload(Arrays.asList("b1", "missing", "java.util.Excluded"),
+                Arrays.asList(Locale.GERMAN, Locale.JAPANESE, Locale.ROOT)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, result.getLoadedCount());
+        assertEquals(Arrays.asList("missing (de)", "missing (ja)"), sorted(result.getFailures()));
+        assertTrue(ctrl.isReady());
+        assertEquals(1, requestCount("/b1/de"));
+
+        // The preloaded bundle is used without another request
+        ResourceBundle bundle = ResourceBundle.getBundle("b1", Locale.GERMAN, ctrl);
+        assertEquals("b1 de", bundle.getString("key"));
+        assertEquals(1, requestCount("/b1/de"));
+    }
+
+    @Test
+    public void testPreloadAll() throws Exception {
+        CloudResourceBundleControl ctrl = newControl();
+        ctrl.preloadAll(2);
+        assertTrue(ctrl.awaitReady(10, TimeUnit.SECONDS));
+        assertTrue(ctrl.isReady());
+
+        assertEquals(1, requestCount(""));
+        for (String bundleId : Arrays.asList("b1", "b2")) {
+            assertEquals(1, requestCount("/" + bundleId));
+            for (String lang : Arrays.asList("en", "de", "ja")) {
+                assertEquals(1, requestCount("/" + bundleId + "/" + lang));
+            }
+        }
+
+        ResourceBundle bundle = ResourceBundle.getBundle("b2", Locale.JAPANESE, ctrl);
+        assertEquals("b2 ja", bundle.getString("key"));
+        assertEquals(1, requestCount("/b2/ja"));
+    }
+
+    @Test
+    public void testPreloadRetention() throws Exception {
+        CloudResourceBundleControl ctrl = newControl().setPreloadRetention(50);
+        PreloadResult result = ctrl.preload(Arrays.asList("b1"),
+                Arrays.asList(Locale.GERMAN, Locale.JAPANESE)).get(10, TimeUnit.SECONDS);
+        assertEquals(2, result.getLoadedCount());
+        assertEquals(2, ctrl.getPreloadedBundleCount());
+
+        // Preloaded bundles not used within the retention time are discarded
+        Thread.sleep(100);
+        ResourceBundle bundle = ResourceBundle.getBundle("b1", Locale.GERMAN, ctrl);
+        assertEquals("b1 de", bundle.getString("key"));
+        assertEquals(2, requestCount("/b1/de"));
+        assertEquals(0, ctrl.getPreloadedBundleCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPreloadRetention() {
+        newControl().setPreloadRetention(0);
+    }
+
+    private static List<String> sorted(List<String> list) {
+        List<String> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+}
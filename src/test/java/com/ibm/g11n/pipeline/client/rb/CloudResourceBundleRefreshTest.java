@@ -0,0 +1,161 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.ResourceBundle.Control;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.rb.CloudResourceBundleControl.LookupMode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for the background refresh mode of CloudResourceBundleControl.
+ */
+public class CloudResourceBundleRefreshTest {
+    private HttpServer server;
+    private CloudResourceBundleControl ctrl;
+
+    private volatile String updatedAt = "2026-01-01T00:00:00.000Z";
+    private volatile String value = "Wert1";
+    private volatile boolean failing;
+    private final AtomicInteger stringsRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/inst/v2/bundles/refresh1", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int status = 200;
+                String body;
+                if (failing) {
+                    status = 400;
+                    body = "{\"status\":\"ERROR\",\"message\":\"Unavailable\"}";
+                } else if (exchange.getRequestURI().getPath().endsWith("/de")) {
+                    stringsRequests.incrementAndGet();
+                    body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key\":\"" + value + "\"}}";
+                } else {
+                    body = "{\"status\":\"SUCCESS\",\"bundle\":{\"sourceLanguage\":\"en\","
+                            + "\"updatedAt\":\"" + updatedAt + "\"}}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            }
+        });
+        server.start();
+        ServiceAccount account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        ctrl = CloudResourceBundleControl.getInstance(account, Control.TTL_DONT_CACHE,
+                null, null, null, LookupMode.REMOTE_ONLY);
+        // Bundles cached by other test cases are not used
+        ResourceBundle.clearCache();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static void waitFor(ResourceBundle bundle, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(bundle.getString("key")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, bundle.getString("key"));
+    }
+
+    @Test
+    public void testRefreshUpdated() throws Exception {
+        ctrl.setBackgroundRefresh(50, 60000);
+        assertEquals(60000, ctrl.getTimeToLive("refresh1", Locale.GERMAN));
+
+        ResourceBundle bundle = ResourceBundle.getBundle("refresh1", Locale.GERMAN, ctrl);
+        assertEquals("Wert1", bundle.getString("key"));
+
+        long updated = RefreshMetrics.getUpdatedCount();
+        value = "Wert2";
+        // Newer than the load time
+        updatedAt = "2100-01-01T00:00:00.000Z";
+        Thread.sleep(60);
+        // The current data is returned while the refresh is running
+        assertEquals("Wert1", bundle.getString("key"));
+        waitFor(bundle, "Wert2");
+        assertTrue(RefreshMetrics.getUpdatedCount() > updated);
+    }
+
+    @Test
+    public void testRefreshUnchanged() throws Exception {
+        ctrl.setBackgroundRefresh(20, 60000);
+        ResourceBundle bundle = ResourceBundle.getBundle("refresh1", Locale.GERMAN, ctrl);
+        long refreshed = RefreshMetrics.getRefreshCount();
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(25);
+            bundle.getString("key");
+        }
+        assertTrue(RefreshMetrics.getRefreshCount() > refreshed);
+        // The resource strings are not fetched again
+        assertEquals(1, stringsRequests.get());
+    }
+
+    @Test
+    public void testRefreshFailed() throws Exception {
+        ctrl.setBackgroundRefresh(20, 200);
+        ResourceBundle bundle = ResourceBundle.getBundle("refresh1", Locale.GERMAN, ctrl);
+        assertFalse(ctrl.needsReload("refresh1", Locale.GERMAN, "gp.cloud.bundle", null, bundle, 0));
+
+        long failed = RefreshMetrics.getFailedCount();
+        failing = true;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (RefreshMetrics.getFailedCount() == failed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            // The current data is kept
+            assertEquals("Wert1", bundle.getString("key"));
+        }
+        assertTrue(RefreshMetrics.getFailedCount() > failed);
+
+        // Exceeded the maximum staleness
+        Thread.sleep(250);
+        long staleReloads = RefreshMetrics.getStaleReloadCount();
+        assertTrue(ctrl.needsReload("refresh1", Locale.GERMAN, "gp.cloud.bundle", null, bundle, 0));
+        assertEquals(staleReloads + 1, RefreshMetrics.getStaleReloadCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxStaleness() {
+        ctrl.setBackgroundRefresh(1000, 1000);
+    }
+}
@@ -0,0 +1,130 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.ResourceBundle.Control;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.rb.CloudResourceBundleControl.LookupMode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for the last update check of cloud resource bundles.
+ */
+public class CloudResourceBundleReloadTest {
+    private HttpServer server;
+    private CloudResourceBundleControl ctrl;
+
+    private volatile String updatedAt = "\"2026-01-01T00:00:00.000Z\"";
+    private final AtomicInteger infoRequests = new AtomicInteger();
+    private final AtomicInteger stringsRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/inst/v2/bundles/reload1", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String body;
+                if (exchange.getRequestURI().getPath().endsWith("/de")) {
+                    stringsRequests.incrementAndGet();
+                    body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key\":\"Wert\"}}";
+                } else {
+                    infoRequests.incrementAndGet();
+                    body = "{\"status\":\"SUCCESS\",\"bundle\":{\"sourceLanguage\":\"en\","
+                            + "\"updatedAt\":" + updatedAt + "}}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            }
+        });
+        server.start();
+        ServiceAccount account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        ctrl = CloudResourceBundleControl.getInstance(account, Control.TTL_DONT_CACHE,
+                null, null, null, LookupMode.REMOTE_ONLY);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private boolean needsReload(ResourceBundle bundle) {
+        return ctrl.needsReload("reload1", Locale.GERMAN, "gp.cloud.bundle", null, bundle, 0);
+    }
+
+    @Test
+    public void testUnchanged() {
+        ResourceBundle bundle = ResourceBundle.getBundle("reload1", Locale.GERMAN, ctrl);
+        assertEquals("Wert", bundle.getString("key"));
+        assertEquals(1, stringsRequests.get());
+
+        // The bundle information is not fetched for loading the bundle
+        assertEquals(0, infoRequests.get());
+
+        assertFalse(needsReload(bundle));
+        assertFalse(needsReload(bundle));
+        // Only the bundle information is fetched
+        assertEquals(1, stringsRequests.get());
+        assertEquals(2, infoRequests.get());
+    }
+
+    @Test
+    public void testUpdated() {
+        ResourceBundle bundle = ResourceBundle.getBundle("reload1", Locale.GERMAN, ctrl);
+        // The last update time is recorded by the first check
+        assertFalse(needsReload(bundle));
+        updatedAt = "\"2026-01-01T00:00:01.000Z\"";
+        assertTrue(needsReload(bundle));
+    }
+
+    @Test
+    public void testUpdatedAfterLoad() {
+        ResourceBundle bundle = ResourceBundle.getBundle("reload1", Locale.GERMAN, ctrl);
+        // Newer than the load time
+        updatedAt = "\"2100-01-01T00:00:00.000Z\"";
+        assertTrue(needsReload(bundle));
+    }
+
+    @Test
+    public void testUpdateTimeNotAvailable() {
+        updatedAt = "null";
+        ResourceBundle bundle = ResourceBundle.getBundle("reload1", Locale.GERMAN, ctrl);
+        assertTrue(needsReload(bundle));
+    }
+}
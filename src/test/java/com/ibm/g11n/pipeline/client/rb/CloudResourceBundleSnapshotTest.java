@@ -0,0 +1,190 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.ResourceBundle.Control;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.rb.CloudResourceBundleControl.LookupMode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for BundleSnapshotStore.
+ */
+public class CloudResourceBundleSnapshotTest {
+    private HttpServer server;
+    private Path dir;
+    private ServiceAccount account;
+    private BundleSnapshotStore store;
+
+    private volatile String updatedAt = "2026-01-01T00:00:00.000Z";
+    private volatile String value = "Wert1";
+    private volatile boolean failing;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rest/inst/v2/bundles/snapshot1", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int status = 200;
+                String body;
+                if (failing) {
+                    status = 400;
+                    body = "{\"status\":\"ERROR\",\"message\":\"Unavailable\"}";
+                } else if (exchange.getRequestURI().getPath().endsWith("/de")) {
+                    body = "{\"status\":\"SUCCESS\",\"resourceStrings\":{\"key\":\"" + value + "\"}}";
+                } else {
+                    body = "{\"status\":\"SUCCESS\",\"bundle\":{\"sourceLanguage\":\"en\","
+                            + "\"updatedAt\":\"" + updatedAt + "\"}}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(bytes);
+                }
+            }
+        });
+        server.start();
+        account = ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret");
+        dir = Files.createTempDirectory("gp-snapshot");
+        store = new BundleSnapshotStore(dir);
+        // Bundles cached by other test cases are not used
+        ResourceBundle.clearCache();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop(0);
+        delete(dir);
+    }
+
+    private static void delete(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            List<Path> children = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path child : stream) {
+                    children.add(child);
+                }
+            }
+            for (Path child : children) {
+                delete(child);
+            }
+        }
+        Files.delete(path);
+    }
+
+    private CloudResourceBundleControl newControl(long ttl) {
+        return CloudResourceBundleControl.getInstance(account, ttl, null, null, null,
+                LookupMode.REMOTE_ONLY).setSnapshotStore(store);
+    }
+
+    @Test
+    public void testStartupFromSnapshot() throws Exception {
+        CloudResourceBundleControl ctrl = newControl(Control.TTL_NO_EXPIRATION_CONTROL);
+        assertEquals("Wert1", ResourceBundle.getBundle("snapshot1", Locale.GERMAN, ctrl).getString("key"));
+        assertTrue(Files.isRegularFile(store.getSnapshotPath(account, "snapshot1", Locale.GERMAN)));
+
+        // The snapshot is used after the cache is cleared, and refreshed in background
+        ResourceBundle.clearCache();
+        value = "Wert2";
+        // Newer than the load time
+        updatedAt = "2100-01-01T00:00:00.000Z";
+        long snapshotLoads = RefreshMetrics.getSnapshotLoadCount();
+        ResourceBundle bundle = ResourceBundle.getBundle("snapshot1", Locale.GERMAN, ctrl);
+        assertEquals(snapshotLoads + 1, RefreshMetrics.getSnapshotLoadCount());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"Wert2".equals(bundle.getString("key")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Wert2", bundle.getString("key"));
+
+        // The refreshed data was written to the snapshot
+        BundleSnapshotStore.Snapshot snapshot = store.read(account, "snapshot1", Locale.GERMAN);
+        assertEquals("Wert2", snapshot.getData().get("key"));
+    }
+
+    @Test
+    public void testServiceUnavailable() throws Exception {
+        assertEquals("Wert1", ResourceBundle.getBundle("snapshot1", Locale.GERMAN,
+                newControl(Control.TTL_NO_EXPIRATION_CONTROL)).getString("key"));
+        ResourceBundle.clearCache();
+        failing = true;
+
+        // At startup
+        assertEquals("Wert1", ResourceBundle.getBundle("snapshot1", Locale.GERMAN,
+                newControl(Control.TTL_NO_EXPIRATION_CONTROL)).getString("key"));
+        // Without cache, the snapshot is used when the service is unavailable
+        assertEquals("Wert1", ResourceBundle.getBundle("snapshot1", Locale.GERMAN,
+                newControl(Control.TTL_DONT_CACHE)).getString("key"));
+    }
+
+    @Test
+    public void testReadWrite() throws Exception {
+        Map<String, String> data = new HashMap<>();
+        data.put("key1", "value1");
+        data.put("key2", "値😀");
+        data.put("key3", null);
+        data.put("", "");
+        Date updated = new Date(1767225600000L);
+        store.write(account, "a.b/c", Locale.forLanguageTag("zh-Hant-TW"), data, updated, 1000L);
+
+        BundleSnapshotStore.Snapshot snapshot = store.read(account, "a.b/c",
+                Locale.forLanguageTag("zh-Hant-TW"));
+        assertEquals(data, snapshot.getData());
+        assertEquals(updated, snapshot.getBundleUpdatedAt());
+        assertEquals(1000L, snapshot.getSavedTime());
+        assertNull(store.read(account, "a.b/c", Locale.JAPANESE));
+
+        // The bundle ID is escaped in the file name
+        Path path = store.getSnapshotPath(account, "a.b/c", Locale.forLanguageTag("zh-Hant-TW"));
+        assertEquals("a%2Eb%2Fc", path.getParent().getFileName().toString());
+
+        // A broken snapshot is ignored
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        assertNull(store.read(account, "a.b/c", Locale.forLanguageTag("zh-Hant-TW")));
+        Files.write(path, "not a snapshot".getBytes(StandardCharsets.UTF_8));
+        assertNull(store.read(account, "a.b/c", Locale.forLanguageTag("zh-Hant-TW")));
+    }
+}
@@ -0,0 +1,85 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.rb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Test cases for StringTable.
+ */
+public class StringTableTest {
+
+    @Test
+    public void testLookup() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, "value" + i);
+        }
+        // "Aa" and "BB" have the same hash code
+        map.put("Aa", "colliding1");
+        map.put("BB", "colliding2");
+        map.put("nullValue", null);
+
+        StringTable table = StringTable.of(map);
+        assertEquals(map.size(), table.size());
+        assertEquals(map, table);
+        assertEquals(table, map);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            assertEquals(entry.getValue(), table.get(new String(entry.getKey())));
+        }
+        assertTrue(table.containsKey("nullValue"));
+        assertNull(table.get("nullValue"));
+        assertFalse(table.containsKey("key1000"));
+        assertNull(table.get("key1000"));
+        assertNull(table.get(Integer.valueOf(1)));
+        assertSame(table, StringTable.of(table));
+    }
+
+    @Test
+    public void testEmpty() {
+        StringTable table = StringTable.of(new HashMap<String, String>());
+        assertEquals(0, table.size());
+        assertTrue(table.isEmpty());
+        assertNull(table.get("key"));
+        assertFalse(table.entrySet().iterator().hasNext());
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        StringTable table = StringTable.of(new String[] {"a", "b", "a"},
+                new String[] {"1", "2", "3"}, 3);
+        assertEquals(2, table.size());
+        assertEquals("3", table.get("a"));
+        assertEquals("2", table.get("b"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("key", "value");
+        StringTable.of(map).put("key", "value2");
+    }
+}
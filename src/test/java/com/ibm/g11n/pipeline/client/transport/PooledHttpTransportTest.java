@@ -0,0 +1,190 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for {@link PooledHttpTransport} using a local HTTP server.
+ */
+public class PooledHttpTransportTest {
+    private HttpServer server;
+    private PooledHttpTransport transport;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/echo", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = readFully(exchange.getRequestBody());
+                byte[] resp = (exchange.getRequestMethod() + ":"
+                        + new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(200, resp.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(resp);
+                }
+            }
+        });
+        server.createContext("/chunked", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                readFully(exchange.getRequestBody());
+                exchange.sendResponseHeaders(404, 0);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    for (int i = 0; i < 1000; i++) {
+                        os.write("0123456789".getBytes(StandardCharsets.US_ASCII));
+                    }
+                }
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        transport = new PooledHttpTransport(new PoolConfig().setMaxConnectionsPerRoute(2));
+    }
+
+    @After
+    public void tearDown() {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testConnectionReuse() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            TransportRequest req = new TransportRequest("POST", new URL(baseUrl + "/echo"));
+            req.setBody(RequestBody.create("text/plain", ("req" + i).getBytes(StandardCharsets.UTF_8)));
+            try (TransportResponse resp = transport.execute(req)) {
+                assertEquals(200, resp.getStatus());
+                assertEquals("text/plain", resp.getContentType());
+                assertEquals("POST:req" + i, readString(resp));
+            }
+        }
+
+        PoolStats stats = transport.getStats(baseUrl);
+        assertNotNull(stats);
+        assertEquals("created", 1, stats.getCreated());
+        assertEquals("reused", 4, stats.getReused());
+        assertEquals("leased", 0, stats.getLeased());
+        assertEquals("available", 1, stats.getAvailable());
+    }
+
+    @Test
+    public void testChunkedBody() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            TransportRequest req = new TransportRequest("PUT", new URL(baseUrl + "/chunked"));
+            req.setBody(new RequestBody() {
+                @Override
+                public String getContentType() {
+                    return "application/octet-stream";
+                }
+
+                @Override
+                public long getContentLength() {
+                    return -1;
+                }
+
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    out.write(new byte[20000]);
+                }
+            });
+            try (TransportResponse resp = transport.execute(req)) {
+                assertEquals(404, resp.getStatus());
+                assertEquals(10000, readString(resp).length());
+            }
+        }
+        assertEquals(1, transport.getTotalStats().getCreated());
+    }
+
+    @Test
+    public void testEvictedConnection() throws IOException {
+        TransportRequest req = new TransportRequest("GET", new URL(baseUrl + "/echo"));
+        try (TransportResponse resp = transport.execute(req)) {
+            assertEquals("GET:", readString(resp));
+        }
+        assertEquals(1, transport.getTotalStats().getAvailable());
+
+        transport.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+        PoolStats stats = transport.getTotalStats();
+        assertEquals(0, stats.getAvailable());
+        assertEquals(1, stats.getClosed());
+
+        try (TransportResponse resp = transport.execute(req)) {
+            assertEquals("GET:", readString(resp));
+        }
+        assertEquals(2, transport.getTotalStats().getCreated());
+    }
+
+    @Test
+    public void testLeaseTimeout() throws IOException {
+        PooledHttpTransport t = new PooledHttpTransport(
+                new PoolConfig().setMaxConnectionsPerRoute(1).setLeaseTimeout(100));
+        try {
+            TransportRequest req = new TransportRequest("GET", new URL(baseUrl + "/echo"));
+            try (TransportResponse resp = t.execute(req)) {
+                // The first connection is still leased
+                try {
+                    t.execute(req);
+                    fail("lease timeout expected");
+                } catch (IOException e) {
+                    // expected
+                }
+                assertEquals("GET:", readString(resp));
+            }
+            try (TransportResponse resp = t.execute(req)) {
+                assertEquals("GET:", readString(resp));
+            }
+        } finally {
+            t.close();
+        }
+    }
+
+    private static String readString(TransportResponse resp) throws IOException {
+        return new String(readFully(resp.getBody()), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int n;
+        while ((n = is.read(buf)) != -1) {
+            baos.write(buf, 0, n);
+        }
+        return baos.toByteArray();
+    }
+}
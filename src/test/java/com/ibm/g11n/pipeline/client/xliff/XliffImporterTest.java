@@ -0,0 +1,216 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.xliff;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.g11n.pipeline.client.ServiceAccount;
+import com.ibm.g11n.pipeline.client.ServiceClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for XliffSplitter and XliffImporter.
+ */
+public class XliffImporterTest {
+    private static final Pattern FILE_ID = Pattern.compile("<file id=\"([^\"]+)\"");
+
+    private HttpServer server;
+    private ServiceClient client;
+    private Path dir;
+
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("gp-xliff-test");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/rest/inst/v2/xliff/bundles", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int current = concurrent.incrementAndGet();
+                while (true) {
+                    int max = maxConcurrent.get();
+                    if (current <= max || maxConcurrent.compareAndSet(max, current)) {
+                        break;
+                    }
+                }
+                String body = readBody(exchange);
+                Matcher m = FILE_ID.matcher(body);
+                assertTrue(m.find());
+                String bundleId = m.group(1);
+                // A part contains a single <file>
+                assertFalse(m.find());
+
+                attempts.putIfAbsent(bundleId, new AtomicInteger());
+                int attempt = attempts.get(bundleId).incrementAndGet();
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                concurrent.decrementAndGet();
+
+                int status = 200;
+                if (bundleId.equals("flaky") && attempt == 1) {
+                    status = 503;
+                } else if (bundleId.equals("broken")) {
+                    status = 400;
+                } else {
+                    received.put(bundleId, body);
+                }
+                byte[] resp = (status == 200 ? "{\"status\":\"SUCCESS\"}" : "{\"status\":\"ERROR\"}")
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(status, resp.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(resp);
+                }
+            }
+        });
+        server.start();
+
+        client = ServiceClient.getInstance(ServiceAccount.getInstance(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest", "inst", "user", "secret"));
+        client.setRetryPolicy(null);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.stop(0);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (InputStream is = exchange.getRequestBody()) {
+            byte[] b = new byte[8192];
+            int len;
+            while ((len = is.read(b)) != -1) {
+                buf.write(b, 0, len);
+            }
+        }
+        return new String(buf.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static InputStream xliff(String... bundleIds) {
+        StringBuilder buf = new StringBuilder();
+        buf.append("<?xml version=\"1.0\"?>\n")
+            .append("<xliff xmlns=\"urn:oasis:names:tc:xliff:document:2.0\" version=\"2.0\"")
+            .append(" srcLang=\"en\" trgLang=\"de\">\n");
+        for (String bundleId : bundleIds) {
+            buf.append("<file id=\"").append(bundleId).append("\">\n")
+                .append("<unit id=\"key1\">\n<segment state=\"reviewed\">\n")
+                .append("<source>Help &amp; Support</source>\n<target>Hilfe</target>\n")
+                .append("</segment>\n</unit>\n</file>\n");
+        }
+        buf.append("</xliff>\n");
+        return new ByteArrayInputStream(buf.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSplit() throws Exception {
+        List<XliffSplitter.Part> parts = XliffSplitter.split(xliff("b1", "b2"), dir);
+        assertEquals(2, parts.size());
+        assertEquals("b1", parts.get(0).getBundleId());
+        assertEquals("b2", parts.get(1).getBundleId());
+
+        String part = new String(Files.readAllBytes(parts.get(1).getPath()), StandardCharsets.UTF_8);
+        assertTrue(part, part.contains("<xliff xmlns=\"urn:oasis:names:tc:xliff:document:2.0\""));
+        assertTrue(part, part.contains("srcLang=\"en\""));
+        assertTrue(part, part.contains("trgLang=\"de\""));
+        assertTrue(part, part.contains("<file id=\"b2\">"));
+        assertTrue(part, part.contains("<source>Help &amp; Support</source>"));
+        assertFalse(part, part.contains("b1"));
+        assertTrue(part, part.trim().endsWith("</file>\n</xliff>"));
+    }
+
+    @Test
+    public void testSplitDuplicateBundle() throws Exception {
+        try {
+            XliffSplitter.split(xliff("b1", "b1"), dir);
+            fail("IOException is expected");
+        } catch (IOException e) {
+            assertEquals("Duplicate <file> element for bundle b1", e.getMessage());
+        }
+        // Parts already written are deleted
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            assertFalse(files.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testImport() throws Exception {
+        XliffImporter importer = new XliffImporter(client).setParallelism(2).setRetryDelay(1);
+        XliffImportReport report = importer.importBundles(xliff("b1", "flaky", "b3", "broken", "b5"));
+
+        assertEquals(Arrays.asList("b1", "flaky", "b3", "broken", "b5"),
+                Arrays.asList(report.getResults().keySet().toArray()));
+        assertFalse(report.isSuccessful());
+        assertEquals(Arrays.asList("broken"), report.getFailedBundleIds());
+
+        XliffImportReport.BundleResult flaky = report.getResults().get("flaky");
+        assertTrue(flaky.isSuccessful());
+        assertEquals(2, flaky.getAttempts());
+        assertNull(flaky.getError());
+
+        XliffImportReport.BundleResult broken = report.getResults().get("broken");
+        assertEquals(XliffImporter.DEFAULT_MAX_ATTEMPTS, broken.getAttempts());
+        assertTrue(broken.getError().getMessage().contains("Received HTTP status: 400"));
+
+        assertEquals(1, report.getResults().get("b1").getAttempts());
+        assertEquals(4, received.size());
+        assertTrue(received.get("b5").contains("<target>Hilfe</target>"));
+        assertTrue("max concurrent uploads: " + maxConcurrent.get(), maxConcurrent.get() <= 2);
+    }
+}
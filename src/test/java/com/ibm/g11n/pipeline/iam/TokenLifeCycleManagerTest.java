@@ -21,17 +21,31 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.ibm.g11n.pipeline.client.Deadline;
+import com.ibm.g11n.pipeline.client.TimeoutConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
 /**
  * @author Siddharth Jain
  *
@@ -218,4 +232,99 @@ public class TokenLifeCycleManagerTest {
         assertTrue("There should only be one token fetch operation from IAM irrespective of the number of calls from n threads for the same pair of iam api key and endpoint",tokens.size()==1);
     }
     
+    /**
+     * Starts a local IAM token API, which responds after the latch is released.
+     */
+    private static HttpServer startSlowIamServer(final CountDownLatch requested,
+            final CountDownLatch release) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/identity/token", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requested.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                byte[] body = "{\"access_token\":\"slow-token\",\"expires_in\":3600}"
+                        .getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    @Test
+    public void testTokenApiDeadline() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = startSlowIamServer(new CountDownLatch(1), release);
+        try {
+            TokenLifeCycleManager manager = TokenLifeCycleManager.getInstance(
+                    "http://127.0.0.1:" + server.getAddress().getPort(), "DEADLINE_KEY");
+            long start = System.nanoTime();
+            try {
+                // The default read timeout is bounded by the deadline
+                manager.getToken(new TimeoutConfig(), Deadline.after(300, TimeUnit.MILLISECONDS));
+                fail("TokenManagerException is expected");
+            } catch (TokenManagerException e) {
+                // expected
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("elapsed: " + elapsed, elapsed < 3000);
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testRefreshWaitDeadline() throws Exception {
+        CountDownLatch requested = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = startSlowIamServer(requested, release);
+        try {
+            final TokenLifeCycleManager manager = TokenLifeCycleManager.getInstance(
+                    "http://127.0.0.1:" + server.getAddress().getPort(), "WAIT_KEY");
+            final AtomicReference<Object> fetched = new AtomicReference<>();
+            Thread fetcher = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        fetched.set(manager.getToken(new TimeoutConfig(), null));
+                    } catch (TokenManagerException e) {
+                        fetched.set(e);
+                    }
+                }
+            });
+            fetcher.start();
+            assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+            // Another thread is fetching the token - give up at the deadline
+            long start = System.nanoTime();
+            try {
+                manager.getToken(new TimeoutConfig(), Deadline.after(300, TimeUnit.MILLISECONDS));
+                fail("TokenManagerException is expected");
+            } catch (TokenManagerException e) {
+                // expected
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("elapsed: " + elapsed, elapsed < 3000);
+
+            release.countDown();
+            fetcher.join(5000);
+            assertEquals("slow-token", fetched.get());
+            assertEquals("slow-token", manager.getToken(new TimeoutConfig(),
+                    Deadline.after(300, TimeUnit.MILLISECONDS)));
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+    }
 }
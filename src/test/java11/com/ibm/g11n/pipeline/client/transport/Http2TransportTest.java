@@ -0,0 +1,207 @@
+/*  
+ * Copyright IBM Corp. 2019
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.g11n.pipeline.client.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Test cases for {@link Http2Transport} using a local HTTP server. The server
+ * supports HTTP/1.1 only, so the requests are sent after the protocol fallback.
+ */
+public class Http2TransportTest {
+    private HttpServer server;
+    private Http2Transport transport;
+    private String baseUrl;
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/echo", exchange -> {
+            byte[] body = readFully(exchange.getRequestBody());
+            String header = exchange.getRequestHeaders().getFirst("X-Test");
+            byte[] resp = (exchange.getRequestMethod() + ":" + header + ":"
+                    + new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, resp.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(resp);
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            readFully(exchange.getRequestBody());
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzos = new GZIPOutputStream(baos)) {
+                gzos.write("compressed".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, baos.size());
+            try (OutputStream os = exchange.getResponseBody()) {
+                baos.writeTo(os);
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            readFully(exchange.getRequestBody());
+            byte[] resp = "{\"status\":\"ERROR\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(404, resp.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(resp);
+            }
+        });
+        server.createContext("/stall", exchange -> {
+            readFully(exchange.getRequestBody());
+            exchange.sendResponseHeaders(200, 100);
+            OutputStream os = exchange.getResponseBody();
+            os.write(new byte[10]);
+            os.flush();
+            // Stops sending the body until the test ends
+            try {
+                shutdown.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // ignore
+            }
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        transport = new Http2Transport();
+    }
+
+    @After
+    public void tearDown() {
+        shutdown.countDown();
+        transport.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGet() throws IOException {
+        TransportRequest req = new TransportRequest("GET", new URL(baseUrl + "/echo"));
+        req.setHeader("X-Test", "get");
+        try (TransportResponse resp = transport.execute(req)) {
+            assertEquals(200, resp.getStatus());
+            assertEquals("text/plain", resp.getContentType());
+            assertEquals("GET:get:".length(), resp.getContentLength());
+            assertEquals("GET:get:", readString(resp.getBody()));
+        }
+    }
+
+    @Test
+    public void testPost() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            TransportRequest req = new TransportRequest("POST", new URL(baseUrl + "/echo"));
+            req.setHeader("X-Test", "post");
+            req.setBody(RequestBody.create("text/plain", ("req" + i).getBytes(StandardCharsets.UTF_8)));
+            try (TransportResponse resp = transport.execute(req)) {
+                assertEquals(200, resp.getStatus());
+                assertEquals("POST:post:req" + i, readString(resp.getBody()));
+            }
+        }
+    }
+
+    @Test
+    public void testGzipBody() throws IOException {
+        TransportRequest req = new TransportRequest("GET", new URL(baseUrl + "/gzip"));
+        req.setHeader("Accept-Encoding", "gzip, deflate");
+        try (TransportResponse resp = transport.execute(req)) {
+            assertEquals(200, resp.getStatus());
+            // The body is returned as is, and decoded by the client
+            assertEquals("gzip", resp.getHeader("Content-Encoding"));
+            assertEquals("compressed", readString(new GZIPInputStream(resp.getBody())));
+        }
+    }
+
+    @Test
+    public void testErrorStatus() throws IOException {
+        TransportRequest req = new TransportRequest("GET", new URL(baseUrl + "/missing"));
+        try (TransportResponse resp = transport.execute(req)) {
+            assertEquals(404, resp.getStatus());
+            assertEquals("application/json", resp.getContentType());
+            assertEquals("{\"status\":\"ERROR\"}", readString(resp.getBody()));
+        }
+    }
+
+    @Test
+    public void testReadTimeoutWhileStreaming() throws IOException {
+        TransportRequest req = new TransportRequest("GET", new URL(baseUrl + "/stall"));
+        req.setConnectTimeout(1000);
+        req.setReadTimeout(300);
+        try (TransportResponse resp = transport.execute(req)) {
+            assertEquals(200, resp.getStatus());
+            InputStream is = resp.getBody();
+            byte[] buf = new byte[100];
+            int total = 0;
+            long start = System.nanoTime();
+            try {
+                int len;
+                while ((len = is.read(buf)) != -1) {
+                    total += len;
+                }
+                fail("SocketTimeoutException is expected");
+            } catch (SocketTimeoutException e) {
+                // expected
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(10, total);
+            assertTrue("elapsed: " + elapsed, elapsed < 3000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeConnectTimeout() {
+        new Http2Transport(-1);
+    }
+
+    private static String readString(InputStream is) throws IOException {
+        return new String(readFully(is), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len;
+        while ((len = is.read(buf)) != -1) {
+            baos.write(buf, 0, len);
+        }
+        return baos.toByteArray();
+    }
+}